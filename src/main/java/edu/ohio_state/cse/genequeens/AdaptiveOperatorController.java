@@ -0,0 +1,309 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An {@code AdaptiveOperatorController} adjusts the mutation and crossover
+ * rates of a genetic algorithm while it runs, based on how diverse the
+ * population currently is. A diverse population is left to exploit what it
+ * has, with a low mutation rate and frequent crossover; as the population
+ * converges, mutation is raised and crossover lowered so that it is pushed
+ * back out of the local optimum it is collapsing onto.
+ * <p>
+ * Diversity is measured as a value between zero (every individual is a clone)
+ * and one, in time linear in the population size, either as the average
+ * normalized entropy of each gene or as the normalized Hamming distance of a
+ * sample of pairs of individuals. Only
+ * {@link edu.ohio_state.cse.genequeens.ChessBoard ChessBoard} individuals are
+ * measured; others are skipped, and a population without two boards to
+ * measure leaves the rates as they were.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class AdaptiveOperatorController {
+
+	/**
+	 * The ways in which the diversity of a population may be measured.
+	 */
+	public enum DiversityMeasure {
+		/**
+		 * The entropy of the values each gene takes across the population,
+		 * normalized by its maximum and averaged over all genes.
+		 */
+		GENE_ENTROPY,
+		/**
+		 * The Hamming distance between randomly sampled pairs of individuals,
+		 * normalized by the length of their genetic sequences.
+		 */
+		SAMPLED_HAMMING
+	}
+
+	/**
+	 * The number of pairs of individuals compared by
+	 * {@link DiversityMeasure#SAMPLED_HAMMING SAMPLED_HAMMING}.
+	 */
+	private static final int HAMMING_SAMPLE_PAIRS = 64;
+
+	/**
+	 * The weight given to a new diversity measurement over the smoothed value
+	 * of the previous ones, to keep the rates from oscillating.
+	 */
+	private static final double SMOOTHING = 0.5d;
+
+	private final DiversityMeasure measure;
+
+	private final double minMutationRate;
+
+	private final double maxMutationRate;
+
+	private final double minCrossoverRate;
+
+	private final double maxCrossoverRate;
+
+	private final double targetDiversity;
+
+	private double diversity = Double.NaN;
+
+	private double mutationRate;
+
+	private double crossoverRate;
+
+	/**
+	 * Constructs an {@code AdaptiveOperatorController} whose rates move
+	 * between the given bounds. At or above {@code targetDiversity} the
+	 * minimum mutation rate and maximum crossover rate are used; as diversity
+	 * falls to zero the rates move linearly to the maximum mutation rate and
+	 * minimum crossover rate.
+	 *
+	 * @param measure
+	 *            How the diversity of a population is measured.
+	 * @param minMutationRate
+	 *            The mutation rate of a fully diverse population.
+	 * @param maxMutationRate
+	 *            The mutation rate of a fully converged population.
+	 * @param minCrossoverRate
+	 *            The crossover rate of a fully converged population.
+	 * @param maxCrossoverRate
+	 *            The crossover rate of a fully diverse population.
+	 * @param targetDiversity
+	 *            The diversity, between zero and one, above which a population
+	 *            is considered fully diverse.
+	 */
+	public AdaptiveOperatorController(DiversityMeasure measure,
+			double minMutationRate, double maxMutationRate,
+			double minCrossoverRate, double maxCrossoverRate,
+			double targetDiversity) {
+		assert minMutationRate <= maxMutationRate : "mutation rate bounds are reversed";
+		assert minCrossoverRate <= maxCrossoverRate : "crossover rate bounds are reversed";
+		assert targetDiversity > 0 : "target diversity must be positive";
+
+		this.measure = measure;
+		this.minMutationRate = minMutationRate;
+		this.maxMutationRate = maxMutationRate;
+		this.minCrossoverRate = minCrossoverRate;
+		this.maxCrossoverRate = maxCrossoverRate;
+		this.targetDiversity = targetDiversity;
+		this.mutationRate = minMutationRate;
+		this.crossoverRate = maxCrossoverRate;
+	}
+
+	/**
+	 * Constructs an {@code AdaptiveOperatorController} measuring
+	 * {@link DiversityMeasure#GENE_ENTROPY gene entropy}, with a mutation rate
+	 * between 0.001 and 0.2 and a crossover rate between 0.5 and 1.0, and
+	 * considering a population fully diverse at a diversity of 0.5.
+	 */
+	public AdaptiveOperatorController() {
+		this(DiversityMeasure.GENE_ENTROPY,
+				GeneticAlgorithms.MUTATION_RATE_DEJONG, 0.2d, 0.5d, 1.0d, 0.5d);
+	}
+
+	/**
+	 * Measures the diversity of {@code population} and adjusts the mutation
+	 * and crossover rates of {@code this} accordingly. If {@code population}
+	 * holds fewer than two {@link ChessBoard}s, nothing is measured and the
+	 * rates are left as they were.
+	 *
+	 * @param population
+	 *            The current population of the genetic algorithm.
+	 * @param rand
+	 *            The source of randomness used to sample pairs of
+	 *            individuals.
+	 * @return The smoothed diversity of {@code population}, between zero and
+	 *         one, or {@code Double.NaN} if no population has yet been
+	 *         measured.
+	 */
+	public double update(Collection<Evolvable> population, Random rand) {
+		double measured;
+		if (this.measure == DiversityMeasure.SAMPLED_HAMMING) {
+			measured = sampledHammingDiversity(population, rand);
+		} else {
+			measured = geneEntropy(population);
+		}
+		if (Double.isNaN(measured)) {
+			return this.diversity;
+		}
+		if (Double.isNaN(this.diversity)) {
+			this.diversity = measured;
+		} else {
+			this.diversity = SMOOTHING * measured + (1 - SMOOTHING)
+					* this.diversity;
+		}
+
+		// How far the population has converged, from zero to one
+		double convergence = 1.0d - Math.min(1.0d, this.diversity
+				/ this.targetDiversity);
+		this.mutationRate = this.minMutationRate + convergence
+				* (this.maxMutationRate - this.minMutationRate);
+		this.crossoverRate = this.maxCrossoverRate - convergence
+				* (this.maxCrossoverRate - this.minCrossoverRate);
+		return this.diversity;
+	}
+
+	/**
+	 * Retrieves the mutation rate chosen by the last {@link #update update}.
+	 *
+	 * @return The current mutation rate.
+	 */
+	public double getMutationRate() {
+		return this.mutationRate;
+	}
+
+	/**
+	 * Retrieves the crossover rate chosen by the last {@link #update update}.
+	 *
+	 * @return The current probability that a mated pair exchanges genes.
+	 */
+	public double getCrossoverRate() {
+		return this.crossoverRate;
+	}
+
+	/**
+	 * Retrieves the probability that a mate is selected at random rather than
+	 * by fitness, chosen by the last {@link #update update}. Selecting random
+	 * mates more often is another way of countering convergence, so this
+	 * probability rises with the mutation rate, from 0.1 up to 0.5.
+	 *
+	 * @return The current probability of stochastic mate selection.
+	 */
+	public double getStochasticSelectionProbability() {
+		double span = this.maxMutationRate - this.minMutationRate;
+		double convergence = span == 0 ? 0 : (this.mutationRate - this.minMutationRate)
+				/ span;
+		return 0.1d + 0.4d * convergence;
+	}
+
+	/**
+	 * Retrieves the smoothed diversity measured by the last
+	 * {@link #update update}.
+	 *
+	 * @return The current diversity, or {@code Double.NaN} if no population
+	 *         has been measured.
+	 */
+	public double getDiversity() {
+		return this.diversity;
+	}
+
+	/**
+	 * Computes the average normalized entropy of the genes of the
+	 * {@link ChessBoard} individuals of {@code population}. For every column,
+	 * a histogram of the rows its queen occupies across the population is
+	 * built; its entropy is divided by the largest entropy possible for that
+	 * population and board size.
+	 *
+	 * @param population
+	 *            The population to measure.
+	 * @return The gene entropy of {@code population}, from zero when every
+	 *         board is identical to one when rows are spread as evenly as
+	 *         possible, or {@code Double.NaN} if it holds fewer than two
+	 *         boards.
+	 */
+	public static double geneEntropy(Collection<Evolvable> population) {
+		List<ChessBoard> boards = boardsOf(population);
+		if (boards.size() < 2) {
+			return Double.NaN;
+		}
+		int boardSize = boards.get(0).getBoardSize();
+		int count = boards.size();
+		double maxEntropy = Math.log(Math.min(boardSize, count));
+		if (maxEntropy == 0) {
+			return 0.0d;
+		}
+
+		int[] histogram = new int[boardSize];
+		double entropySum = 0.0d;
+		for (int column = 0; column < boardSize; column++) {
+			Arrays.fill(histogram, 0);
+			for (ChessBoard board : boards) {
+				histogram[board.geneAt(column)]++;
+			}
+			double entropy = 0.0d;
+			for (int rowCount : histogram) {
+				if (rowCount > 0) {
+					double p = (double) rowCount / count;
+					entropy -= p * Math.log(p);
+				}
+			}
+			entropySum += entropy / maxEntropy;
+		}
+		return entropySum / boardSize;
+	}
+
+	/**
+	 * Estimates the average normalized Hamming distance between the
+	 * {@link ChessBoard} individuals of {@code population} from a fixed number
+	 * of randomly drawn pairs.
+	 *
+	 * @param population
+	 *            The population to measure.
+	 * @param rand
+	 *            The source of randomness used to draw pairs.
+	 * @return The sampled Hamming diversity of {@code population}, from zero
+	 *         when every board is identical to one when no two sampled boards
+	 *         share a gene, or {@code Double.NaN} if it holds fewer than two
+	 *         boards.
+	 */
+	public static double sampledHammingDiversity(
+			Collection<Evolvable> population, Random rand) {
+		List<ChessBoard> boards = boardsOf(population);
+		if (boards.size() < 2) {
+			return Double.NaN;
+		}
+		int boardSize = boards.get(0).getBoardSize();
+		long differences = 0;
+		for (int pair = 0; pair < HAMMING_SAMPLE_PAIRS; pair++) {
+			// Draw two distinct individuals
+			int indexA = rand.nextInt(boards.size());
+			int indexB = (indexA + 1 + rand.nextInt(boards.size() - 1))
+					% boards.size();
+			ChessBoard boardA = boards.get(indexA);
+			ChessBoard boardB = boards.get(indexB);
+			for (int i = 0; i < boardSize; i++) {
+				if (boardA.geneAt(i) != boardB.geneAt(i)) {
+					differences++;
+				}
+			}
+		}
+		return (double) differences / ((long) HAMMING_SAMPLE_PAIRS * boardSize);
+	}
+
+	/**
+	 * Collects the {@link ChessBoard} individuals of {@code population}, whose
+	 * genes are then read in place rather than copied.
+	 */
+	private static List<ChessBoard> boardsOf(Collection<Evolvable> population) {
+		List<ChessBoard> boards = new ArrayList<ChessBoard>(population.size());
+		for (Evolvable individual : population) {
+			if (individual instanceof ChessBoard) {
+				boards.add((ChessBoard) individual);
+			}
+		}
+		return boards;
+	}
+}
@@ -1,6 +1,6 @@
 package edu.ohio_state.cse.genequeens;
 
-import java.util.ArrayList;
+import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
@@ -100,38 +100,24 @@ public class AnnealingUtils {
 	 * @return a list of successor nodes generated from the initial state
 	 */
 	public static List<ChessBoard> successors(int[] state) {
+		return successors(state, null);
+	}
 
-		int[] stateCopy = Arrays.copyOf(state, state.length);
-		int parentScore = HillClimbUtils.boardScore(stateCopy);
-
-		/*
-		 * Add the parent state to the list of successors to remove after all
-		 * successors are generated. This is to ensure that if a possible
-		 * successor matches the parent state, that it is not added to the list
-		 * already.
-		 */
-		List<ChessBoard> successors = new ArrayList<ChessBoard>();
-		ChessBoard parent = new ChessBoard(parentScore, stateCopy);
-		successors.add(parent);
-
-		for (int columnIndex = 0; columnIndex < stateCopy.length; columnIndex++) {
-
-			int[] tempState = Arrays.copyOf(stateCopy, stateCopy.length);
-
-			for (int rowVal = 0; rowVal < tempState.length; rowVal++) {
-
-				tempState[columnIndex] = rowVal;
-
-				int stateScore = boardScore(tempState);
-
-				ChessBoard child = new ChessBoard(stateScore, tempState);
-				if (!successors.contains(child)) {
-					successors.add(child);
-				}
-			}
-		}
-		successors.remove(parent);
-		return successors;
+	/**
+	 * Generates a set of possible successors to a given state, as
+	 * {@link #successors(int[])} does, looking up the score of every successor
+	 * in {@code cache} where possible.
+	 * 
+	 * @param state
+	 *            the initial state to generate successors from
+	 * @param cache
+	 *            the cache of attacking queen pair counts, keyed by board hash,
+	 *            or {@code null} to score every successor directly
+	 * @return a list of successor nodes generated from the initial state
+	 * @see HillClimbUtils#successors(int[], FitnessCache)
+	 */
+	public static List<ChessBoard> successors(int[] state, FitnessCache cache) {
+		return HillClimbUtils.successors(state, cache);
 	}
 
 	/**
@@ -141,15 +127,78 @@ public class AnnealingUtils {
 	 * @return
 	 */
 	public static int[] simulatedAnnealingAgent(int boardSize, int temperature) {
+		return anneal(new BoardConstraints(boardSize), temperature,
+				new Random(), 0, System.out);
+	}
+
+	/**
+	 * Simulated annealing as in {@link #simulatedAnnealingAgent(int, int)},
+	 * but silent, reproducible and bounded: nothing is printed, every random
+	 * choice is drawn from {@code rand}, and the search gives up after
+	 * {@code maxIterations} iterations.
+	 * 
+	 * @param boardSize
+	 *            the size of the n-queens board
+	 * @param temperature
+	 *            the initial temperature of the cooling schedule
+	 * @param rand
+	 *            the source of randomness for the search
+	 * @param maxIterations
+	 *            the number of iterations after which the search gives up, or
+	 *            zero for no limit
+	 * @return a solution state representation of a board with n-queens, or
+	 *         {@code null} if none was found within {@code maxIterations}
+	 */
+	public static int[] simulatedAnnealingAgent(int boardSize,
+			int temperature, Random rand, long maxIterations) {
+		return anneal(new BoardConstraints(boardSize), temperature, rand,
+				maxIterations, null);
+	}
+
+	/**
+	 * Simulated annealing as in
+	 * {@link #simulatedAnnealingAgent(int, int, Random, long)}, completing a
+	 * board on which some queens are fixed in place. Only free queens are
+	 * moved, and only to rows not attacked by a fixed queen.
+	 * 
+	 * @param constraints
+	 *            the queens fixed in place on the board
+	 * @param temperature
+	 *            the initial temperature of the cooling schedule
+	 * @param rand
+	 *            the source of randomness for the search
+	 * @param maxIterations
+	 *            the number of iterations after which the search gives up, or
+	 *            zero for no limit
+	 * @return a solution completing the fixed queens, or {@code null} if none
+	 *         was found within {@code maxIterations}
+	 */
+	public static int[] simulatedAnnealingAgent(BoardConstraints constraints,
+			int temperature, Random rand, long maxIterations) {
+		return anneal(constraints, temperature, rand, maxIterations, null);
+	}
+
+	/**
+	 * The simulated annealing search shared by the agents above, printing its
+	 * progress to {@code log} unless it is {@code null}. Each iteration draws
+	 * one successor of the current board uniformly at random and scores it
+	 * from the current score in constant time, through a
+	 * {@link SuccessorIterator}, rather than building every successor to pick
+	 * one.
+	 */
+	private static int[] anneal(BoardConstraints constraints, int temperature,
+			Random rand, long maxIterations, PrintStream log) {
+
+		int boardSize = constraints.getBoardSize();
 
 		// Create a random initial parent Node
-		int[] initialState = randomBoard(boardSize);
-		int initialScore = boardScore(initialState);
-		ChessBoard current = new ChessBoard(initialScore, initialState);
+		SuccessorIterator current = new SuccessorIterator(
+				constraints.randomBoard(rand), constraints, null);
 
 		double currentTemperature = (double) (temperature);
+		long totalIterations = 0;
 
-		while (boardScore(current.getBoardLayout()) != 0) {
+		while (current.getScore() != 0) {
 			/*
 			 * No definition for what is a good temperature. I use 100 simply
 			 * because that is the boiling point of water (an arbitrary choice).
@@ -161,39 +210,49 @@ public class AnnealingUtils {
 			int iterations = 1;
 
 			while (!done) {
+				if (maxIterations > 0 && totalIterations >= maxIterations) {
+					return null;
+				}
 				// Using Newton's Law of Cooling
 				currentTemperature = currentTemperature
 						* Math.exp(-((double) boardSize * iterations));
 				// Output the current state of affairs
-				System.out.println("Iteration " + iterations
-						+ ": Current State: "
-						+ Arrays.toString(current.getBoardLayout())
-						+ " Current Score: " + current.getScore()
-						+ " Current Temperature: " + currentTemperature);
+				if (log != null) {
+					log.println("Iteration " + iterations
+							+ ": Current State: "
+							+ Arrays.toString(current.getState())
+							+ " Current Score: " + current.getScore()
+							+ " Current Temperature: " + currentTemperature);
+				}
 
 				if (currentTemperature < 0.0000001) {
 					done = true;
 				}
-				List<ChessBoard> successors = successors(current.getBoardLayout());
-				int randomChildPos = new Random().nextInt(successors.size());
-				ChessBoard next = successors.remove(randomChildPos);
+				if (!current.advanceRandomly(rand)) {
+					// Every free queen is pinned to its only open row, and
+					// they still attack one another, so there is no solution
+					return null;
+				}
 
-				int deltaE = next.getScore() - current.getScore();
+				double deltaE = current.getMoveScore() - current.getScore();
 				// We are using less than 0 because a lower score is better
 				if (deltaE <= 0) {
-					current = next;
+					current.apply();
 				} else {
-					double rand = new Random().nextDouble();
-					if (rand < Math
-							.exp(-((double) deltaE / currentTemperature))) {
-						current = next;
+					double probability = rand.nextDouble();
+					if (probability < Math
+							.exp(-(deltaE / currentTemperature))) {
+						current.apply();
 					}
 				}
 				iterations++;
+				totalIterations++;
 			}
 
 		}
-		System.out.println("SOLUTION FOUND");
-		return current.getBoardLayout();
+		if (log != null) {
+			log.println("SOLUTION FOUND");
+		}
+		return current.getState();
 	}
 }
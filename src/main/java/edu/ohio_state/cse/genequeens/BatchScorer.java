@@ -0,0 +1,321 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Scores many n-queens boards at once from a genome matrix: the rows of P
+ * boards of n queens laid end to end in one {@code int[]} of P &times; n
+ * entries, writing one fitness per board into a {@code double[]}. Scoring a
+ * contiguous matrix with a {@link ScoringKernel} avoids a virtual call and a
+ * pointer chase per board, and lets the matrix stream through the cache.
+ * <p>
+ * The matrix is split into tiles of whole boards of about
+ * {@link #TILE_GENES} genes, small enough to stay in the level-one cache,
+ * and contiguous runs of tiles are scored in parallel, one run per thread,
+ * with the calling thread scoring the last run itself. Matrices too small to
+ * repay the hand-off to other threads are scored on the calling thread alone.
+ * Each thread keeps its own kernel.
+ * </p>
+ * <p>
+ * {@link GeneticAlgorithms#evaluatePopulation(Collection)} scores
+ * populations of {@link ChessBoard}s through the {@link #getShared() shared}
+ * scorer, on whose threads {@link Initializer} also lays out large
+ * populations.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class BatchScorer {
+
+	/**
+	 * The approximate number of genes in a tile, 32 KiB of rows.
+	 */
+	public static final int TILE_GENES = 8192;
+
+	/**
+	 * The least number of genes scored in parallel.
+	 */
+	static final int PARALLEL_GENES = 1 << 16;
+
+	private static BatchScorer shared;
+
+	private final int threadCount;
+
+	private final ExecutorService workers;
+
+	private final ThreadLocal<ScoringKernel> kernels = new ThreadLocal<ScoringKernel>() {
+		@Override
+		protected ScoringKernel initialValue() {
+			return ScoringKernels.newKernel();
+		}
+	};
+
+	/**
+	 * The attacking pair counts of a range of boards, per thread, reused from
+	 * one call to the next.
+	 */
+	private final ThreadLocal<int[]> countBuffers = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[0];
+		}
+	};
+
+	/**
+	 * The genome matrix into which populations of boards are gathered, per
+	 * thread, reused from one call to the next.
+	 */
+	private final ThreadLocal<int[]> gatherBuffers = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[0];
+		}
+	};
+
+	/**
+	 * Constructs a {@code BatchScorer} scoring on up to {@code threadCount}
+	 * threads, counting the calling thread.
+	 *
+	 * @param threadCount
+	 *            The number of threads.
+	 */
+	public BatchScorer(int threadCount) {
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException(
+					"thread count must be positive: " + threadCount);
+		}
+		this.threadCount = threadCount;
+		this.workers = threadCount == 1 ? null : Executors.newFixedThreadPool(
+				threadCount - 1, new ThreadFactory() {
+					private int count = 0;
+
+					public synchronized Thread newThread(Runnable task) {
+						Thread thread = new Thread(task, "batch-scorer-"
+								+ this.count++);
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * Retrieves the scorer shared by the genetic algorithms, scoring on one
+	 * thread per available processor. Its threads are daemons, so it need
+	 * never be shut down.
+	 *
+	 * @return The shared {@code BatchScorer}.
+	 */
+	public static synchronized BatchScorer getShared() {
+		if (shared == null) {
+			shared = new BatchScorer(Runtime.getRuntime()
+					.availableProcessors());
+		}
+		return shared;
+	}
+
+	/**
+	 * Scores the first {@code boardCount} boards of a genome matrix, writing
+	 * the fitness of each, its number of non-attacking queen pairs, into
+	 * {@code fitness}.
+	 *
+	 * @param genomes
+	 *            The genome matrix, holding the rows of board {@code i} at
+	 *            indexes {@code i * boardSize} through
+	 *            {@code (i + 1) * boardSize - 1}.
+	 * @param boardSize
+	 *            The number of queens on each board.
+	 * @param boardCount
+	 *            The number of boards to score.
+	 * @param fitness
+	 *            The array receiving the fitness of board {@code i} at index
+	 *            {@code i}.
+	 * @return The total fitness of the boards.
+	 */
+	public double score(final int[] genomes, final int boardSize,
+			int boardCount, final double[] fitness) {
+		assert genomes.length >= (long) boardCount * boardSize : "genome matrix is too short";
+		assert fitness.length >= boardCount : "fitness array is too short";
+		if (boardCount == 0) {
+			return 0.0d;
+		}
+
+		final int tileBoards = Math.max(1, TILE_GENES / Math.max(1, boardSize));
+		int tileCount = (boardCount + tileBoards - 1) / tileBoards;
+		int runCount = (long) boardCount * boardSize < PARALLEL_GENES ? 1
+				: Math.min(this.threadCount, tileCount);
+		if (runCount == 1) {
+			return scoreRange(genomes, boardSize, 0, boardCount, fitness);
+		}
+
+		// Contiguous runs of whole tiles, the last of which is scored here
+		List<Future<Double>> results = new ArrayList<Future<Double>>(
+				runCount - 1);
+		for (int run = 0; run < runCount - 1; run++) {
+			final int from = (int) Math.min(boardCount, (long) tileCount * run
+					/ runCount * tileBoards);
+			final int to = (int) Math.min(boardCount, (long) tileCount
+					* (run + 1) / runCount * tileBoards);
+			results.add(this.workers.submit(new Callable<Double>() {
+				public Double call() {
+					return scoreRange(genomes, boardSize, from, to, fitness);
+				}
+			}));
+		}
+		int lastFrom = (int) Math.min(boardCount, (long) tileCount
+				* (runCount - 1) / runCount * tileBoards);
+		double totalFitness = scoreRange(genomes, boardSize, lastFrom,
+				boardCount, fitness);
+		try {
+			for (Future<Double> result : results) {
+				totalFitness += result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while scoring", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("scoring failed", e.getCause());
+		}
+		return totalFitness;
+	}
+
+	/**
+	 * Scores the boards {@code from} through {@code to - 1} of a genome
+	 * matrix on the calling thread.
+	 */
+	private double scoreRange(int[] genomes, int boardSize, int from, int to,
+			double[] fitness) {
+		int[] counts = this.countBuffers.get();
+		if (counts.length < to - from) {
+			counts = new int[to - from];
+			this.countBuffers.set(counts);
+		}
+		this.kernels.get().countAttackingPairs(genomes, from * boardSize,
+				boardSize, to - from, counts);
+
+		long queenPairCount = ChessBoard.queenPairCount(boardSize);
+		double totalFitness = 0.0d;
+		for (int board = from; board < to; board++) {
+			fitness[board] = queenPairCount - counts[board - from];
+			totalFitness += fitness[board];
+		}
+		return totalFitness;
+	}
+
+	/**
+	 * Scores a population of {@link ChessBoard}s of one size by gathering
+	 * their layouts into a genome matrix, setting the fitness score of each
+	 * board. If {@code cache} is given, boards whose score it holds are not
+	 * gathered, and the scores of the others are added to it.
+	 *
+	 * @param boards
+	 *            The boards to score, all of the same size.
+	 * @param cache
+	 *            The cache of attacking queen pair counts, keyed by genome
+	 *            hash, or {@code null}.
+	 * @return The total fitness score of {@code boards}.
+	 */
+	public double scoreBoards(List<ChessBoard> boards, FitnessCache cache) {
+		if (boards.isEmpty()) {
+			return 0.0d;
+		}
+		int boardSize = boards.get(0).getBoardSize();
+		long queenPairCount = ChessBoard.queenPairCount(boardSize);
+		double totalFitness = 0.0d;
+
+		// Gather the boards still to be scored into the genome matrix
+		List<ChessBoard> pending = boards;
+		if (cache != null) {
+			pending = new ArrayList<ChessBoard>();
+			for (ChessBoard board : boards) {
+				double attackingQueenPairCount = cache.get(board
+						.getGenomeHash());
+				if (Double.isNaN(attackingQueenPairCount)) {
+					pending.add(board);
+				} else {
+					totalFitness += board.setFitnessScore(queenPairCount
+							- attackingQueenPairCount);
+				}
+			}
+		}
+		int[] genomes = this.gatherBuffers.get();
+		if (genomes.length < pending.size() * boardSize) {
+			genomes = new int[pending.size() * boardSize];
+			this.gatherBuffers.set(genomes);
+		}
+		for (int i = 0; i < pending.size(); i++) {
+			pending.get(i).copyGenes(genomes, i * boardSize);
+		}
+
+		double[] fitness = new double[pending.size()];
+		totalFitness += score(genomes, boardSize, pending.size(), fitness);
+		for (int i = 0; i < pending.size(); i++) {
+			ChessBoard board = pending.get(i);
+			board.setFitnessScore(fitness[i]);
+			if (cache != null) {
+				cache.put(board.getGenomeHash(), queenPairCount - fitness[i]);
+			}
+		}
+		return totalFitness;
+	}
+
+	/**
+	 * Retrieves the number of threads on which {@code this} scores, counting
+	 * the calling thread.
+	 *
+	 * @return The thread count of {@code this}.
+	 */
+	public int getThreadCount() {
+		return this.threadCount;
+	}
+
+	/**
+	 * Runs each of {@code runs} on a thread of {@code this}, the last on the
+	 * calling thread, returning once every run is done. Runs beyond one per
+	 * thread wait for a thread to come free.
+	 *
+	 * @param runs
+	 *            The independent tasks to run.
+	 */
+	void runAll(List<Runnable> runs) {
+		if (this.workers == null || runs.size() < 2) {
+			for (Runnable run : runs) {
+				run.run();
+			}
+			return;
+		}
+		List<Future<?>> results = new ArrayList<Future<?>>(runs.size() - 1);
+		for (int run = 0; run < runs.size() - 1; run++) {
+			results.add(this.workers.submit(runs.get(run)));
+		}
+		runs.get(runs.size() - 1).run();
+		try {
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while running", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("run failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Stops the threads of {@code this}. The shared scorer must not be shut
+	 * down.
+	 */
+	public void shutdown() {
+		if (this.workers != null) {
+			this.workers.shutdown();
+		}
+	}
+}
@@ -0,0 +1,309 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@code BatchSolver} solves many n-queens problems in one JVM, so that the
+ * cost of starting the JVM and warming up its compiler is paid once per batch
+ * rather than once per problem.
+ * <p>
+ * Jobs are read from a text file holding one job per line, in the form
+ * </p>
+ *
+ * <pre>
+ * &lt;solver&gt; &lt;boardSize&gt; &lt;seed&gt; [budget [fixedRows]]
+ * </pre>
+ * <p>
+ * where {@code solver} is a {@link Solver#forName(String) solver name},
+ * {@code budget} is the {@linkplain Solver#solve(int, Random, long, FitnessCache)
+ * budget} of the search, zero (no limit) if omitted, and {@code fixedRows}
+ * names the queens fixed in place in the form read by
+ * {@link BoardConstraints#parse(String)}. Blank lines and lines
+ * starting with {@code #} are ignored. Jobs are run on a fixed number of
+ * worker threads, each of which keeps one {@link FitnessCache} for all of the
+ * jobs it runs. Only a few jobs are read ahead of the workers, so a job file
+ * may be arbitrarily long.
+ * </p>
+ * <p>
+ * A result line is written and flushed as soon as each job finishes, in the
+ * form
+ * </p>
+ *
+ * <pre>
+ * &lt;solver&gt; &lt;boardSize&gt; &lt;seed&gt; SOLVED|UNSOLVED|ERROR &lt;milliseconds&gt; &lt;rows&gt;
+ * </pre>
+ * <p>
+ * where {@code rows} is the comma-separated row of the queen in each column,
+ * {@code -} if the job went unsolved, or the exception thrown by the solver if
+ * the job failed. Every job yields exactly one result line, so a batch has as
+ * many results as jobs. Results appear in the order in which jobs finish, not
+ * the order of the job file.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class BatchSolver {
+
+	/**
+	 * The number of attacking pair counts held by the cache of each worker.
+	 */
+	public static final int CACHE_CAPACITY = 1 << 16;
+
+	/**
+	 * The number of jobs that may be read ahead of the workers, per worker.
+	 */
+	private static final int JOBS_PER_WORKER = 4;
+
+	private final int workerCount;
+
+	/**
+	 * The cache and output buffer of each worker thread, reused across jobs.
+	 */
+	private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+		@Override
+		protected Worker initialValue() {
+			return new Worker();
+		}
+	};
+
+	/**
+	 * Constructs a {@code BatchSolver} with one worker thread per available
+	 * processor.
+	 */
+	public BatchSolver() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a {@code BatchSolver} with {@code workerCount} worker
+	 * threads.
+	 *
+	 * @param workerCount
+	 *            The number of jobs run at once.
+	 */
+	public BatchSolver(int workerCount) {
+		if (workerCount <= 0) {
+			throw new IllegalArgumentException(
+					"worker count must be positive: " + workerCount);
+		}
+		this.workerCount = workerCount;
+	}
+
+	/**
+	 * Runs every job of {@code jobFile}, writing a result line to
+	 * {@code resultFile} as each one finishes. If a line of {@code jobFile} is
+	 * malformed, no further jobs are started, and the jobs already started are
+	 * finished before the error is reported.
+	 *
+	 * @param jobFile
+	 *            The file from which jobs are read.
+	 * @param resultFile
+	 *            The file to which results are written. It is replaced if it
+	 *            exists.
+	 * @return The number of jobs run.
+	 * @throws IOException
+	 *             If a file cannot be read or written, a line of
+	 *             {@code jobFile} is malformed, or the calling thread is
+	 *             interrupted while waiting for the jobs to finish.
+	 */
+	public int run(Path jobFile, Path resultFile) throws IOException {
+		final AtomicInteger threadCount = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(this.workerCount,
+				this.workerCount, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(JOBS_PER_WORKER
+						* this.workerCount), new ThreadFactory() {
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "batch-solver-"
+								+ threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+
+		int jobCount = 0;
+		final ResultWriter results = new ResultWriter(Files.newBufferedWriter(
+				resultFile, StandardCharsets.UTF_8));
+		try {
+			BufferedReader reader = Files.newBufferedReader(jobFile,
+					StandardCharsets.UTF_8);
+			try {
+				String line;
+				int lineNumber = 0;
+				while ((line = reader.readLine()) != null) {
+					lineNumber++;
+					line = line.trim();
+					if (line.isEmpty() || line.startsWith("#")) {
+						continue;
+					}
+					final Job job = Job.parse(line, lineNumber);
+					executor.execute(new Runnable() {
+						public void run() {
+							results.write(BatchSolver.this.workers.get().solve(
+									job));
+						}
+					});
+					jobCount++;
+				}
+			} finally {
+				reader.close();
+				executor.shutdown();
+				try {
+					executor.awaitTermination(Long.MAX_VALUE,
+							TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					executor.shutdownNow();
+					throw new IOException("interrupted while solving jobs", e);
+				}
+			}
+		} finally {
+			results.close();
+		}
+		return jobCount;
+	}
+
+	/**
+	 * A single line of a job file.
+	 */
+	static final class Job {
+		final Solver solver;
+		final int boardSize;
+		final long seed;
+		final long budget;
+		final BoardConstraints constraints;
+
+		Job(Solver solver, long seed, long budget, BoardConstraints constraints) {
+			this.solver = solver;
+			this.boardSize = constraints.getBoardSize();
+			this.seed = seed;
+			this.budget = budget;
+			this.constraints = constraints;
+		}
+
+		static Job parse(String line, int lineNumber) throws IOException {
+			String[] fields = line.split("\\s+");
+			if (fields.length < 3 || fields.length > 5) {
+				throw new IOException(String.format(
+						"line %d: expected <solver> <boardSize> <seed> [budget [fixedRows]]",
+						lineNumber));
+			}
+			try {
+				Solver solver = Solver.forName(fields[0]);
+				int boardSize = Integer.parseInt(fields[1]);
+				long seed = Long.parseLong(fields[2]);
+				long budget = fields.length >= 4 ? Long.parseLong(fields[3]) : 0;
+				if (boardSize < 4) {
+					throw new IllegalArgumentException(
+							"board size must be at least 4: " + boardSize);
+				}
+				if (budget < 0) {
+					throw new IllegalArgumentException(
+							"budget must not be negative: " + budget);
+				}
+				BoardConstraints constraints = fields.length == 5 ? BoardConstraints
+						.parse(fields[4]) : new BoardConstraints(boardSize);
+				if (constraints.getBoardSize() != boardSize) {
+					throw new IllegalArgumentException(
+							"fixed rows do not match board size " + boardSize);
+				}
+				return new Job(solver, seed, budget, constraints);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(String.format("line %d: %s", lineNumber,
+						e.getMessage()), e);
+			}
+		}
+	}
+
+	/**
+	 * The state kept by one worker thread from job to job.
+	 */
+	static final class Worker {
+		private final FitnessCache cache = new FitnessCache(CACHE_CAPACITY,
+				FitnessCache.EvictionPolicy.TINY_LFU);
+		private final StringBuilder line = new StringBuilder();
+
+		String solve(Job job) {
+			long start = System.nanoTime();
+			int[] solution;
+			RuntimeException failure = null;
+			try {
+				solution = job.solver.solve(job.constraints, new Random(
+						job.seed), job.budget, this.cache);
+			} catch (RuntimeException e) {
+				solution = null;
+				failure = e;
+			}
+			long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
+					- start);
+
+			this.line.setLength(0);
+			this.line.append(job.solver.getShortName()).append(' ')
+					.append(job.boardSize).append(' ').append(job.seed)
+					.append(' ')
+					.append(failure != null ? "ERROR"
+							: solution == null ? "UNSOLVED" : "SOLVED")
+					.append(' ').append(millis).append(' ');
+			if (failure != null) {
+				// Kept on one line so that results stay one per job
+				this.line.append(failure.toString().replaceAll("\\s+", " "));
+			} else if (solution == null) {
+				this.line.append('-');
+			} else {
+				for (int i = 0; i < solution.length; i++) {
+					if (i > 0) {
+						this.line.append(',');
+					}
+					this.line.append(solution[i]);
+				}
+			}
+			return this.line.toString();
+		}
+	}
+
+	/**
+	 * Serializes result lines from the workers, flushing each one so that
+	 * results can be followed while the batch runs. The first write failure
+	 * is kept and reported when the writer is closed.
+	 */
+	private static final class ResultWriter {
+		private final Writer out;
+		private IOException failure = null;
+
+		ResultWriter(BufferedWriter out) {
+			this.out = out;
+		}
+
+		synchronized void write(String line) {
+			if (this.failure != null) {
+				return;
+			}
+			try {
+				this.out.write(line);
+				this.out.write(System.lineSeparator());
+				this.out.flush();
+			} catch (IOException e) {
+				this.failure = e;
+			}
+		}
+
+		synchronized void close() throws IOException {
+			this.out.close();
+			if (this.failure != null) {
+				throw this.failure;
+			}
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A {@code BitGenome} is a {@link Genome} whose genes are bits packed into
+ * the words of a {@code long} array, such as the items chosen for a
+ * knapsack. Mutation flips bits, and genes are exchanged by single-point
+ * crossover a word at a time.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class BitGenome extends Genome<BitGenome> {
+
+	private final long[] words;
+
+	private final int bitLength;
+
+	/**
+	 * Constructs a {@code BitGenome} of {@code bitLength} bits, each set with
+	 * probability one half.
+	 *
+	 * @param bitLength
+	 *            The number of bits.
+	 * @param fitnessFunction
+	 *            The function that scores the genome.
+	 * @param rand
+	 *            The source of randomness for the bits.
+	 */
+	public BitGenome(int bitLength, FitnessFunction<BitGenome> fitnessFunction,
+			Random rand) {
+		super(fitnessFunction);
+		this.bitLength = bitLength;
+		this.words = new long[wordCount(bitLength)];
+		for (int i = 0; i < this.words.length; i++) {
+			this.words[i] = rand.nextLong();
+		}
+		clearUnusedBits();
+	}
+
+	/**
+	 * Constructs a {@code BitGenome} of {@code bitLength} bits holding a copy
+	 * of {@code words}, whose bits beyond {@code bitLength} are ignored.
+	 *
+	 * @param words
+	 *            The bits, packed from the least significant bit of the first
+	 *            word.
+	 * @param bitLength
+	 *            The number of bits.
+	 * @param fitnessFunction
+	 *            The function that scores the genome.
+	 */
+	public BitGenome(long[] words, int bitLength,
+			FitnessFunction<BitGenome> fitnessFunction) {
+		super(fitnessFunction);
+		this.bitLength = bitLength;
+		this.words = Arrays.copyOf(words, wordCount(bitLength));
+		clearUnusedBits();
+	}
+
+	private static int wordCount(int bitLength) {
+		return (bitLength + 63) >>> 6;
+	}
+
+	private void clearUnusedBits() {
+		if ((this.bitLength & 63) != 0) {
+			this.words[this.words.length - 1] &= (1L << (this.bitLength & 63)) - 1;
+		}
+	}
+
+	@Override
+	public int length() {
+		return this.bitLength;
+	}
+
+	/**
+	 * Retrieves the bit at {@code index}.
+	 *
+	 * @param index
+	 *            The index of the bit.
+	 * @return {@code true} if the bit is set.
+	 */
+	public boolean get(int index) {
+		return (this.words[index >>> 6] & (1L << (index & 63))) != 0;
+	}
+
+	/**
+	 * Sets or clears the bit at {@code index}.
+	 *
+	 * @param index
+	 *            The index of the bit.
+	 * @param value
+	 *            {@code true} to set the bit, {@code false} to clear it.
+	 */
+	public void set(int index, boolean value) {
+		if (value) {
+			this.words[index >>> 6] |= 1L << (index & 63);
+		} else {
+			this.words[index >>> 6] &= ~(1L << (index & 63));
+		}
+	}
+
+	/**
+	 * Counts the set bits of {@code this}.
+	 *
+	 * @return The number of set bits.
+	 */
+	public int cardinality() {
+		int count = 0;
+		for (long word : this.words) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Retrieves the word of 64 bits at {@code index}, for fitness functions
+	 * that score a word at a time.
+	 *
+	 * @param index
+	 *            The index of the word.
+	 * @return The bits {@code 64 * index} to {@code 64 * index + 63}.
+	 */
+	public long wordAt(int index) {
+		return this.words[index];
+	}
+
+	/**
+	 * Retrieves the number of words holding the bits of {@code this}.
+	 *
+	 * @return The number of words.
+	 */
+	public int wordCount() {
+		return this.words.length;
+	}
+
+	@Override
+	public long getGenomeHash() {
+		long hash = this.bitLength;
+		for (long word : this.words) {
+			hash = Hashing.mix(hash, word);
+		}
+		return hash;
+	}
+
+	@Override
+	protected int countDifferences(BitGenome other) {
+		int distance = 0;
+		for (int i = 0; i < this.words.length; i++) {
+			distance += Long.bitCount(this.words[i] ^ other.words[i]);
+		}
+		return distance;
+	}
+
+	@Override
+	public void mutate(double mutationRate, Random rand) {
+		GeneOperators.flipBits(this.words, this.bitLength, mutationRate, rand);
+	}
+
+	@Override
+	public Evolvable exchangeGenes(Evolvable mate, Random rand) {
+		BitGenome sibling = (BitGenome) mateOf(mate).copy();
+		if (this.bitLength > 1) {
+			GeneOperators.swapBitTails(this.words, sibling.words,
+					GeneOperators.crossoverPoint(this.bitLength, rand));
+		}
+		return sibling;
+	}
+
+	@Override
+	public Evolvable copy() {
+		BitGenome copy = new BitGenome(this.words, this.bitLength,
+				this.fitnessFunction);
+		copy.setFitnessScore(this.fitnessScore);
+		return copy;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (!(object instanceof BitGenome)) {
+			return false;
+		}
+		BitGenome other = (BitGenome) object;
+		return this.bitLength == other.bitLength
+				&& Arrays.equals(this.words, other.words);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.bitLength + Arrays.hashCode(this.words);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(this.bitLength);
+		for (int i = 0; i < this.bitLength; i++) {
+			builder.append(get(i) ? '1' : '0');
+		}
+		return builder.toString();
+	}
+}
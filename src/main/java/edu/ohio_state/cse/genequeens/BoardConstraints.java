@@ -0,0 +1,335 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A {@code BoardConstraints} describes an n-queens board on which some queens
+ * are already fixed in place, and which the search agents must complete by
+ * placing queens in the remaining free columns.
+ * <p>
+ * Cells attacked by a fixed queen can never hold a queen of a solution, so
+ * they are pruned once, when the constraints are constructed: each free
+ * column keeps the list of rows left open to it. The agents then place
+ * queens only in free columns and only in open rows, so a heavily
+ * constrained board is searched in a much smaller space than an
+ * unconstrained board of the same size.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public final class BoardConstraints {
+
+	/**
+	 * The row recorded for a column that has no fixed queen.
+	 */
+	public static final int FREE = -1;
+
+	private final int boardSize;
+
+	private final int[] fixedRows;
+
+	private final int[] freeColumns;
+
+	/**
+	 * The open rows of each column, indexed by column. Fixed columns hold only
+	 * their fixed row. Columns of an unconstrained board share one array.
+	 */
+	private final int[][] openRows;
+
+	/**
+	 * Constructs the constraints of a board of {@code boardSize} queens, none
+	 * of which are fixed.
+	 *
+	 * @param boardSize
+	 *            The size of the n-queens board.
+	 */
+	public BoardConstraints(int boardSize) {
+		this(filledWithFree(boardSize));
+	}
+
+	/**
+	 * Constructs the constraints of a board on which the queen of each column
+	 * is fixed in the given row, or free if the row is {@link #FREE}.
+	 *
+	 * @param fixedRows
+	 *            The row of the fixed queen of each column, or {@code FREE}.
+	 * @throws IllegalArgumentException
+	 *             If a fixed row is off the board, two fixed queens attack one
+	 *             another, or the fixed queens attack every row of some free
+	 *             column, so that the board has no solution.
+	 */
+	public BoardConstraints(int[] fixedRows) {
+		this.boardSize = fixedRows.length;
+		this.fixedRows = fixedRows.clone();
+
+		int fixedCount = 0;
+		for (int column = 0; column < this.boardSize; column++) {
+			int row = this.fixedRows[column];
+			if (row != FREE && (row < 0 || row >= this.boardSize)) {
+				throw new IllegalArgumentException(String.format(
+						"fixed row %d of column %d is off the board", row,
+						column));
+			}
+			if (row != FREE) {
+				fixedCount++;
+				for (int other = 0; other < column; other++) {
+					if (this.fixedRows[other] != FREE
+							&& attacks(column, row, other,
+									this.fixedRows[other])) {
+						throw new IllegalArgumentException(String.format(
+								"fixed queens of columns %d and %d attack one another",
+								other, column));
+					}
+				}
+			}
+		}
+
+		this.freeColumns = new int[this.boardSize - fixedCount];
+		this.openRows = new int[this.boardSize][];
+		int[] everyRow = null;
+		if (fixedCount == 0) {
+			everyRow = new int[this.boardSize];
+			for (int row = 0; row < this.boardSize; row++) {
+				everyRow[row] = row;
+			}
+		}
+		boolean[] attacked = new boolean[this.boardSize];
+		int freeIndex = 0;
+		for (int column = 0; column < this.boardSize; column++) {
+			if (this.fixedRows[column] != FREE) {
+				this.openRows[column] = new int[] { this.fixedRows[column] };
+				continue;
+			}
+			this.freeColumns[freeIndex++] = column;
+			if (everyRow != null) {
+				this.openRows[column] = everyRow;
+				continue;
+			}
+
+			// Mark the cells of this column seen by each fixed queen
+			Arrays.fill(attacked, false);
+			for (int other = 0; other < this.boardSize; other++) {
+				int row = this.fixedRows[other];
+				if (row == FREE) {
+					continue;
+				}
+				int distance = Math.abs(column - other);
+				attacked[row] = true;
+				if (row + distance < this.boardSize) {
+					attacked[row + distance] = true;
+				}
+				if (row - distance >= 0) {
+					attacked[row - distance] = true;
+				}
+			}
+			int openCount = 0;
+			for (int row = 0; row < this.boardSize; row++) {
+				if (!attacked[row]) {
+					openCount++;
+				}
+			}
+			if (openCount == 0) {
+				throw new IllegalArgumentException(String.format(
+						"every row of free column %d is attacked", column));
+			}
+			int[] rows = new int[openCount];
+			openCount = 0;
+			for (int row = 0; row < this.boardSize; row++) {
+				if (!attacked[row]) {
+					rows[openCount++] = row;
+				}
+			}
+			this.openRows[column] = rows;
+		}
+	}
+
+	private static int[] filledWithFree(int boardSize) {
+		int[] fixedRows = new int[boardSize];
+		Arrays.fill(fixedRows, FREE);
+		return fixedRows;
+	}
+
+	private static boolean attacks(int columnA, int rowA, int columnB, int rowB) {
+		return rowA == rowB
+				|| Math.abs(rowA - rowB) == Math.abs(columnA - columnB);
+	}
+
+	/**
+	 * Parses constraints written as a comma-separated list of the row of the
+	 * fixed queen of each column, with {@code -} or {@code -1} for a free
+	 * column, such as {@code "-,3,-,-,0,-,-,-"}.
+	 *
+	 * @param text
+	 *            The constraints in text form.
+	 * @return The parsed constraints.
+	 * @throws IllegalArgumentException
+	 *             If {@code text} is malformed or the constraints cannot be
+	 *             satisfied.
+	 */
+	public static BoardConstraints parse(String text) {
+		String[] fields = text.split(",");
+		int[] fixedRows = new int[fields.length];
+		for (int column = 0; column < fields.length; column++) {
+			String field = fields[column].trim();
+			fixedRows[column] = field.equals("-") ? FREE : Integer
+					.parseInt(field);
+		}
+		return new BoardConstraints(fixedRows);
+	}
+
+	/**
+	 * Retrieves the size of the constrained board.
+	 *
+	 * @return The number of queens on the board.
+	 */
+	public int getBoardSize() {
+		return this.boardSize;
+	}
+
+	/**
+	 * Retrieves the row of the fixed queen of each column.
+	 *
+	 * @return A copy of the fixed rows, holding {@link #FREE} for free
+	 *         columns.
+	 */
+	public int[] getFixedRows() {
+		return this.fixedRows.clone();
+	}
+
+	/**
+	 * Determines whether any queen is fixed.
+	 *
+	 * @return {@code true} if at least one column is fixed.
+	 */
+	public boolean isConstrained() {
+		return this.freeColumns.length < this.boardSize;
+	}
+
+	/**
+	 * Determines whether the queen of {@code column} is fixed.
+	 *
+	 * @param column
+	 *            A column of the board.
+	 * @return {@code true} if {@code column} is fixed.
+	 */
+	public boolean isFixed(int column) {
+		return this.fixedRows[column] != FREE;
+	}
+
+	/**
+	 * Retrieves the number of free columns.
+	 *
+	 * @return The number of columns whose queens the agents may move.
+	 */
+	public int getFreeColumnCount() {
+		return this.freeColumns.length;
+	}
+
+	/**
+	 * Retrieves the {@code index}th free column, in increasing order.
+	 *
+	 * @param index
+	 *            An index less than {@link #getFreeColumnCount()}.
+	 * @return The column number.
+	 */
+	public int getFreeColumn(int index) {
+		return this.freeColumns[index];
+	}
+
+	/**
+	 * Retrieves the number of rows of {@code column} not attacked by a fixed
+	 * queen.
+	 *
+	 * @param column
+	 *            A column of the board.
+	 * @return The number of open rows of {@code column}, which is one for a
+	 *         fixed column.
+	 */
+	public int getOpenRowCount(int column) {
+		return this.openRows[column].length;
+	}
+
+	/**
+	 * Retrieves the {@code index}th row of {@code column} not attacked by a
+	 * fixed queen, in increasing order.
+	 *
+	 * @param column
+	 *            A column of the board.
+	 * @param index
+	 *            An index less than {@link #getOpenRowCount(int)}.
+	 * @return The row number.
+	 */
+	public int getOpenRow(int column, int index) {
+		return this.openRows[column][index];
+	}
+
+	/**
+	 * Determines whether {@code row} of {@code column} is open, that is, not
+	 * attacked by a fixed queen, or the fixed row of a fixed column.
+	 *
+	 * @param column
+	 *            A column of the board.
+	 * @param row
+	 *            A row of the board.
+	 * @return {@code true} if a queen of {@code column} may be placed in
+	 *         {@code row}.
+	 */
+	public boolean isOpen(int column, int row) {
+		int[] rows = this.openRows[column];
+		return rows.length == this.boardSize
+				|| Arrays.binarySearch(rows, row) >= 0;
+	}
+
+	/**
+	 * Draws an open row of {@code column} from {@code rand}.
+	 *
+	 * @param column
+	 *            A column of the board.
+	 * @param rand
+	 *            The source of randomness.
+	 * @return A row of {@code column} not attacked by a fixed queen.
+	 */
+	public int randomOpenRow(int column, Random rand) {
+		int[] rows = this.openRows[column];
+		return rows[rand.nextInt(rows.length)];
+	}
+
+	/**
+	 * Creates a random board respecting {@code this}: every fixed queen in its
+	 * row, and every free queen in an open row of its column.
+	 *
+	 * @param rand
+	 *            The source of randomness.
+	 * @return The array representation of the board.
+	 */
+	public int[] randomBoard(Random rand) {
+		int[] board = new int[this.boardSize];
+		for (int column = 0; column < this.boardSize; column++) {
+			board[column] = randomOpenRow(column, rand);
+		}
+		return board;
+	}
+
+	/**
+	 * Determines whether every fixed queen of {@code this} is in place on
+	 * {@code boardRep}.
+	 *
+	 * @param boardRep
+	 *            The array representation of an n-queens board.
+	 * @return {@code true} if {@code boardRep} agrees with every fixed queen.
+	 */
+	public boolean isRespectedBy(int[] boardRep) {
+		if (boardRep.length != this.boardSize) {
+			return false;
+		}
+		for (int column = 0; column < this.boardSize; column++) {
+			if (this.fixedRows[column] != FREE
+					&& this.fixedRows[column] != boardRep[column]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,492 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A {@code Checkpoint} is an immutable snapshot of a running genetic
+ * algorithm: the genetic sequences and fitness scores of its population, the
+ * state of its {@link SeededRandom random number generator}, its generation
+ * counter and the settings of its {@link EvolutionConfig}. A checkpoint is
+ * written to and read from a compact, versioned binary file, so that an
+ * evolution interrupted after hours of work can be resumed with
+ * {@link GeneticAlgorithms#resume(Checkpoint, EvolutionaryGoal, EvolutionConfig)
+ * GeneticAlgorithms.resume}.
+ * <p>
+ * The file holds, in big-endian order: the magic number {@code "GQCK"}, a
+ * two-byte format version, the generation, the random number generator state,
+ * the mutation rate, crossover rate, crossover operator, replacement mode,
+ * elite count, steady-state replacements and maximum generations of the
+ * configuration, its {@link FitnessSharing} as a neighbour sampling
+ * ({@code -1} for none), radius, alpha and sample count, its
+ * {@link MemeticRefinement} as a hill-climbing strategy ({@code -1} for
+ * none), move limit and refinement rate, the population size and genome
+ * length, the fixed row of every column of the boards'
+ * {@link BoardConstraints}, or {@code -1} for a free column, then for
+ * every individual its fitness score followed by its genes, and finally a
+ * CRC-32 of everything before it. Only populations of {@link ChessBoard
+ * ChessBoards} sharing their fixed queens can be checkpointed. The
+ * mate selector, fitness cache and operator controller of the configuration
+ * are not recorded.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public final class Checkpoint {
+
+	/**
+	 * The first four bytes of every checkpoint file, "GQCK".
+	 */
+	private static final int MAGIC = 0x4751434B;
+
+	/**
+	 * The version of the file format written by this class.
+	 */
+	private static final short VERSION = 5;
+
+	private static final int HEADER_BYTES = 4 + 2 + 8 + 8 + 8 + 8 + 1 + 1 + 4
+			+ 4 + 4 + 1 + 8 + 8 + 4 + 1 + 4 + 8 + 4 + 4;
+
+	private static final int TRAILER_BYTES = 4;
+
+	private final long generation;
+
+	private final long randomState;
+
+	private final double mutationRate;
+
+	private final double crossoverRate;
+
+	private final Crossover crossover;
+
+	private final EvolutionConfig.Replacement replacement;
+
+	private final int eliteCount;
+
+	private final int steadyStateReplacements;
+
+	private final int maxGenerations;
+
+	/**
+	 * The fitness sharing of the configuration, or {@code null} if it had
+	 * none.
+	 */
+	private final FitnessSharing fitnessSharing;
+
+	/**
+	 * The memetic refinement of the configuration, or {@code null} if it had
+	 * none.
+	 */
+	private final MemeticRefinement refinement;
+
+	private final int genomeLength;
+
+	/**
+	 * The fixed queens of every board, or {@code null} if every queen is free.
+	 */
+	private final BoardConstraints constraints;
+
+	private final int[][] genomes;
+
+	private final double[] fitnessScores;
+
+	private Checkpoint(long generation, long randomState, double mutationRate,
+			double crossoverRate, Crossover crossover,
+			EvolutionConfig.Replacement replacement, int eliteCount,
+			int steadyStateReplacements, int maxGenerations,
+			FitnessSharing fitnessSharing, MemeticRefinement refinement,
+			int genomeLength, BoardConstraints constraints, int[][] genomes,
+			double[] fitnessScores) {
+		this.generation = generation;
+		this.randomState = randomState;
+		this.mutationRate = mutationRate;
+		this.crossoverRate = crossoverRate;
+		this.crossover = crossover;
+		this.replacement = replacement;
+		this.eliteCount = eliteCount;
+		this.steadyStateReplacements = steadyStateReplacements;
+		this.maxGenerations = maxGenerations;
+		this.fitnessSharing = fitnessSharing;
+		this.refinement = refinement;
+		this.genomeLength = genomeLength;
+		this.constraints = constraints;
+		this.genomes = genomes;
+		this.fitnessScores = fitnessScores;
+	}
+
+	/**
+	 * Takes a snapshot of a running genetic algorithm. The genetic sequences
+	 * of {@code population} are copied, so the algorithm may continue to
+	 * alter its individuals while the snapshot is being written.
+	 *
+	 * @param population
+	 *            The current population, made up of {@link ChessBoard}s of one
+	 *            size with the same fixed queens.
+	 * @param generation
+	 *            The number of generations completed so far.
+	 * @param config
+	 *            The settings of the algorithm.
+	 * @return A checkpoint of the algorithm.
+	 * @throws IllegalArgumentException
+	 *             If an individual of {@code population} is not a
+	 *             {@code ChessBoard}, or the boards differ in size or in their
+	 *             fixed queens.
+	 */
+	public static Checkpoint capture(Collection<Evolvable> population,
+			long generation, EvolutionConfig config) {
+		int[][] genomes = new int[population.size()][];
+		double[] fitnessScores = new double[population.size()];
+		int genomeLength = -1;
+		BoardConstraints constraints = null;
+		int i = 0;
+		for (Evolvable individual : population) {
+			if (!(individual instanceof ChessBoard)) {
+				throw new IllegalArgumentException(String.format(
+						"individual of type %s cannot be checkpointed",
+						individual.getClass().getName()));
+			}
+			ChessBoard board = (ChessBoard) individual;
+			if (genomeLength == -1) {
+				genomeLength = board.getBoardSize();
+				constraints = board.getConstraints();
+			} else if (board.getBoardSize() != genomeLength) {
+				throw new IllegalArgumentException(
+						"individuals differ in genome length");
+			} else if (!Arrays.equals(fixedRowsOf(constraints, genomeLength),
+					fixedRowsOf(board.getConstraints(), genomeLength))) {
+				throw new IllegalArgumentException(
+						"individuals differ in their fixed queens");
+			}
+			genomes[i] = new int[genomeLength];
+			board.copyGenes(genomes[i], 0);
+			fitnessScores[i] = individual.getFitnessScore();
+			i++;
+		}
+		return new Checkpoint(generation, config.getRandom().getState(),
+				config.getMutationRate(), config.getCrossoverRate(),
+				config.getCrossover(), config.getReplacement(), config.getEliteCount(),
+				config.getSteadyStateReplacements(),
+				config.getMaxGenerations(), config.getFitnessSharing(),
+				config.getRefinement(), Math.max(0, genomeLength),
+				constraints, genomes, fitnessScores);
+	}
+
+	/**
+	 * Retrieves the fixed rows of {@code constraints}, every one free if it is
+	 * {@code null}.
+	 */
+	private static int[] fixedRowsOf(BoardConstraints constraints,
+			int boardSize) {
+		if (constraints != null) {
+			return constraints.getFixedRows();
+		}
+		int[] fixedRows = new int[boardSize];
+		Arrays.fill(fixedRows, BoardConstraints.FREE);
+		return fixedRows;
+	}
+
+	/**
+	 * Reads a checkpoint previously {@link #write(Path) written} to
+	 * {@code path}.
+	 *
+	 * @param path
+	 *            The checkpoint file.
+	 * @return The checkpoint held in {@code path}.
+	 * @throws IOException
+	 *             If {@code path} cannot be read, is not a checkpoint file, was
+	 *             written in an unsupported version of the format, or is
+	 *             corrupt.
+	 */
+	public static Checkpoint read(Path path) throws IOException {
+		ByteBuffer buffer;
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+				throw new IOException("not a checkpoint file: " + path);
+			}
+			buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException("unexpected end of file: " + path);
+				}
+			}
+		} finally {
+			channel.close();
+		}
+		((Buffer) buffer).flip();
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.limit() - TRAILER_BYTES);
+		if ((int) crc.getValue() != buffer.getInt(buffer.limit()
+				- TRAILER_BYTES)) {
+			throw new IOException("checkpoint is corrupt: " + path);
+		}
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("not a checkpoint file: " + path);
+		}
+		short version = buffer.getShort();
+		if (version != VERSION) {
+			throw new IOException(String.format(
+					"unsupported checkpoint version %d: %s", version, path));
+		}
+
+		long generation = buffer.getLong();
+		long randomState = buffer.getLong();
+		double mutationRate = buffer.getDouble();
+		double crossoverRate = buffer.getDouble();
+		int crossoverOrdinal = buffer.get();
+		Crossover[] crossovers = Crossover.values();
+		if (crossoverOrdinal < 0 || crossoverOrdinal >= crossovers.length) {
+			throw new IOException("unknown crossover operator "
+					+ crossoverOrdinal + ": " + path);
+		}
+		int replacementOrdinal = buffer.get();
+		EvolutionConfig.Replacement[] replacements = EvolutionConfig.Replacement
+				.values();
+		if (replacementOrdinal < 0 || replacementOrdinal >= replacements.length) {
+			throw new IOException("unknown replacement mode "
+					+ replacementOrdinal + ": " + path);
+		}
+		int eliteCount = buffer.getInt();
+		int steadyStateReplacements = buffer.getInt();
+		int maxGenerations = buffer.getInt();
+		int samplingOrdinal = buffer.get();
+		double radius = buffer.getDouble();
+		double alpha = buffer.getDouble();
+		int samples = buffer.getInt();
+		FitnessSharing fitnessSharing = null;
+		if (samplingOrdinal != -1) {
+			FitnessSharing.NeighbourSampling[] samplings = FitnessSharing.NeighbourSampling
+					.values();
+			if (samplingOrdinal < 0 || samplingOrdinal >= samplings.length) {
+				throw new IOException("unknown neighbour sampling "
+						+ samplingOrdinal + ": " + path);
+			}
+			try {
+				fitnessSharing = new FitnessSharing(samplings[samplingOrdinal],
+						radius, alpha, samples);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(String.format(
+						"invalid fitness sharing (%s): %s", e.getMessage(),
+						path), e);
+			}
+		}
+		int strategyOrdinal = buffer.get();
+		int maxMoves = buffer.getInt();
+		double refinementRate = buffer.getDouble();
+		MemeticRefinement refinement = null;
+		if (strategyOrdinal != -1) {
+			HillClimbUtils.Strategy[] strategies = HillClimbUtils.Strategy
+					.values();
+			if (strategyOrdinal < 0 || strategyOrdinal >= strategies.length) {
+				throw new IOException("unknown hill-climbing strategy "
+						+ strategyOrdinal + ": " + path);
+			}
+			try {
+				refinement = new MemeticRefinement(strategies[strategyOrdinal],
+						maxMoves, refinementRate);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(String.format(
+						"invalid refinement (%s): %s", e.getMessage(), path),
+						e);
+			}
+		}
+		int populationSize = buffer.getInt();
+		int genomeLength = buffer.getInt();
+		if (populationSize < 0
+				|| genomeLength < 0
+				|| 4L * genomeLength + (long) populationSize
+						* (8 + 4L * genomeLength) != buffer.remaining()
+						- TRAILER_BYTES) {
+			throw new IOException("checkpoint is truncated: " + path);
+		}
+
+		int[] fixedRows = new int[genomeLength];
+		buffer.asIntBuffer().get(fixedRows);
+		((Buffer) buffer).position(buffer.position() + 4 * genomeLength);
+		BoardConstraints constraints = null;
+		for (int row : fixedRows) {
+			if (row != BoardConstraints.FREE) {
+				try {
+					constraints = new BoardConstraints(fixedRows);
+				} catch (IllegalArgumentException e) {
+					throw new IOException(String.format(
+							"invalid fixed queens (%s): %s", e.getMessage(),
+							path), e);
+				}
+				break;
+			}
+		}
+
+		int[][] genomes = new int[populationSize][genomeLength];
+		double[] fitnessScores = new double[populationSize];
+		for (int i = 0; i < populationSize; i++) {
+			fitnessScores[i] = buffer.getDouble();
+			buffer.asIntBuffer().get(genomes[i]);
+			((Buffer) buffer).position(buffer.position() + 4 * genomeLength);
+			if (constraints != null && !constraints.isRespectedBy(genomes[i])) {
+				throw new IOException(String.format(
+						"individual %d moves a fixed queen: %s", i, path));
+			}
+		}
+		return new Checkpoint(generation, randomState, mutationRate,
+				crossoverRate, crossovers[crossoverOrdinal],
+				replacements[replacementOrdinal], eliteCount,
+				steadyStateReplacements, maxGenerations, fitnessSharing,
+				refinement, genomeLength,
+				constraints, genomes, fitnessScores);
+	}
+
+	/**
+	 * Writes {@code this} to {@code path}. The checkpoint is first written in
+	 * full to a temporary file beside {@code path} and then moved over it, so
+	 * that a crash while writing never destroys the previous checkpoint.
+	 *
+	 * @param path
+	 *            The checkpoint file.
+	 * @throws IOException
+	 *             If the checkpoint cannot be written.
+	 */
+	public void write(Path path) throws IOException {
+		long size = HEADER_BYTES + 4L * this.genomeLength
+				+ (long) this.genomes.length * (8 + 4L * this.genomeLength)
+				+ TRAILER_BYTES;
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("population is too large to checkpoint");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) size);
+		buffer.putInt(MAGIC);
+		buffer.putShort(VERSION);
+		buffer.putLong(this.generation);
+		buffer.putLong(this.randomState);
+		buffer.putDouble(this.mutationRate);
+		buffer.putDouble(this.crossoverRate);
+		buffer.put((byte) this.crossover.ordinal());
+		buffer.put((byte) this.replacement.ordinal());
+		buffer.putInt(this.eliteCount);
+		buffer.putInt(this.steadyStateReplacements);
+		buffer.putInt(this.maxGenerations);
+		if (this.fitnessSharing == null) {
+			buffer.put((byte) -1);
+			buffer.putDouble(0.0d);
+			buffer.putDouble(0.0d);
+			buffer.putInt(0);
+		} else {
+			buffer.put((byte) this.fitnessSharing.getSampling().ordinal());
+			buffer.putDouble(this.fitnessSharing.getRadius());
+			buffer.putDouble(this.fitnessSharing.getAlpha());
+			buffer.putInt(this.fitnessSharing.getSamples());
+		}
+		if (this.refinement == null) {
+			buffer.put((byte) -1);
+			buffer.putInt(0);
+			buffer.putDouble(0.0d);
+		} else {
+			buffer.put((byte) this.refinement.getStrategy().ordinal());
+			buffer.putInt(this.refinement.getMaxMoves());
+			buffer.putDouble(this.refinement.getRefinementRate());
+		}
+		buffer.putInt(this.genomes.length);
+		buffer.putInt(this.genomeLength);
+		buffer.asIntBuffer().put(
+				fixedRowsOf(this.constraints, this.genomeLength));
+		((Buffer) buffer).position(buffer.position() + 4 * this.genomeLength);
+		for (int i = 0; i < this.genomes.length; i++) {
+			buffer.putDouble(this.fitnessScores[i]);
+			buffer.asIntBuffer().put(this.genomes[i]);
+			((Buffer) buffer).position(buffer.position() + 4 * this.genomeLength);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.position());
+		buffer.putInt((int) crc.getValue());
+		((Buffer) buffer).flip();
+
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		FileChannel channel = FileChannel.open(temporary,
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Restores the settings and random number generator state held by
+	 * {@code this} into {@code config}, including its fitness sharing and
+	 * refinement, each removed if the checkpointed configuration had none. The
+	 * mate selector, fitness cache and operator controller of {@code config}
+	 * are left as they are.
+	 *
+	 * @param config
+	 *            The configuration with which the evolution is resumed.
+	 */
+	public void restore(EvolutionConfig config) {
+		config.setMutationRate(this.mutationRate);
+		config.setCrossoverRate(this.crossoverRate);
+		config.setCrossover(this.crossover);
+		config.setReplacement(this.replacement);
+		config.setEliteCount(this.eliteCount);
+		config.setSteadyStateReplacements(this.steadyStateReplacements);
+		config.setMaxGenerations(this.maxGenerations);
+		config.setFitnessSharing(this.fitnessSharing);
+		config.setRefinement(this.refinement);
+		config.getRandom().setState(this.randomState);
+	}
+
+	/**
+	 * Rebuilds the population held by {@code this}, with the fitness scores
+	 * and fixed queens it had when the checkpoint was taken.
+	 *
+	 * @return A new population of {@link ChessBoard}s.
+	 */
+	public List<Evolvable> toPopulation() {
+		List<Evolvable> population = new ArrayList<Evolvable>(
+				this.genomes.length);
+		for (int i = 0; i < this.genomes.length; i++) {
+			ChessBoard board = new ChessBoard(this.constraints,
+					this.genomes[i]);
+			board.setFitnessScore(this.fitnessScores[i]);
+			population.add(board);
+		}
+		return population;
+	}
+
+	/**
+	 * Retrieves the number of generations completed when {@code this} was
+	 * taken.
+	 *
+	 * @return The generation of {@code this}.
+	 */
+	public long getGeneration() {
+		return this.generation;
+	}
+
+	/**
+	 * Retrieves the number of individuals held by {@code this}.
+	 *
+	 * @return The population size.
+	 */
+	public int getPopulationSize() {
+		return this.genomes.length;
+	}
+}
@@ -0,0 +1,156 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@code Checkpointer} periodically writes {@link Checkpoint}s of a running
+ * genetic algorithm to a file on a background thread, so that the generation
+ * loop never waits on the disk. If a new checkpoint is submitted while an
+ * older one is still waiting to be written, the older one is dropped: only
+ * the latest checkpoint matters, and the backlog can never grow.
+ * <p>
+ * A {@code Checkpointer} is set on an {@link EvolutionConfig} and consulted
+ * by {@link GeneticAlgorithms#evolve(java.util.Collection, EvolutionaryGoal, EvolutionConfig)
+ * GeneticAlgorithms.evolve} after every generation. It should be
+ * {@link #close() closed} once the evolution is over.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class Checkpointer implements Closeable {
+
+	private final Path path;
+
+	private final int interval;
+
+	private final ExecutorService writer;
+
+	private final AtomicReference<Checkpoint> pending = new AtomicReference<Checkpoint>();
+
+	private volatile IOException lastFailure = null;
+
+	private volatile long writeCount = 0;
+
+	/**
+	 * Constructs a {@code Checkpointer} writing a checkpoint to {@code path}
+	 * every {@code interval} generations.
+	 *
+	 * @param path
+	 *            The file to which the latest checkpoint is written.
+	 * @param interval
+	 *            The number of generations between checkpoints.
+	 */
+	public Checkpointer(Path path, int interval) {
+		assert interval > 0 : "interval must be positive";
+
+		this.path = path;
+		this.interval = interval;
+		this.writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "checkpoint-writer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Determines whether a checkpoint should be taken after
+	 * {@code generation}.
+	 *
+	 * @param generation
+	 *            The number of generations completed so far.
+	 * @return {@code true} if a checkpoint is due, and {@code false}
+	 *         otherwise.
+	 */
+	public boolean isDue(long generation) {
+		return generation > 0 && generation % this.interval == 0;
+	}
+
+	/**
+	 * Schedules {@code checkpoint} to be written on the background thread and
+	 * returns immediately.
+	 *
+	 * @param checkpoint
+	 *            The checkpoint to write.
+	 */
+	public void submit(Checkpoint checkpoint) {
+		if (this.pending.getAndSet(checkpoint) == null) {
+			this.writer.execute(new Runnable() {
+				public void run() {
+					writePending();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Retrieves the file to which checkpoints are written.
+	 *
+	 * @return The checkpoint file.
+	 */
+	public Path getPath() {
+		return this.path;
+	}
+
+	/**
+	 * Retrieves the number of checkpoints written so far.
+	 *
+	 * @return The number of successful writes.
+	 */
+	public long getWriteCount() {
+		return this.writeCount;
+	}
+
+	/**
+	 * Retrieves the error raised by the most recent failed write, if any.
+	 * A failed write does not stop later checkpoints from being attempted.
+	 *
+	 * @return The last write failure, or {@code null} if none occurred.
+	 */
+	public IOException getLastFailure() {
+		return this.lastFailure;
+	}
+
+	/**
+	 * Writes any checkpoint still pending and stops the background thread.
+	 *
+	 * @throws IOException
+	 *             If the last attempted write failed, or the thread was
+	 *             interrupted while waiting for it.
+	 */
+	public void close() throws IOException {
+		this.writer.shutdown();
+		try {
+			this.writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while writing checkpoint", e);
+		}
+		if (this.lastFailure != null) {
+			throw this.lastFailure;
+		}
+	}
+
+	private void writePending() {
+		Checkpoint checkpoint = this.pending.getAndSet(null);
+		if (checkpoint == null) {
+			return;
+		}
+		try {
+			checkpoint.write(this.path);
+			this.writeCount++;
+			this.lastFailure = null;
+		} catch (IOException e) {
+			this.lastFailure = e;
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package edu.ohio_state.cse.genequeens;
 
+import java.nio.IntBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is intended to provide a simple structure to represent the chess
@@ -19,15 +21,31 @@ public class ChessBoard extends Evolvable implements Comparable<Evolvable> {
 	private final int[] boardRep;
 
 	/**
-	 * A counter static across all instances, to track how many instances are
-	 * initialized.
+	 * The number of ids a thread reserves at once, so that boards created
+	 * concurrently contend on {@link #nextIdBlock} only once per block.
 	 */
-	private static int instanceCount = 0;
+	private static final int ID_BLOCK_SIZE = 1024;
+
+	/**
+	 * The first id of the next block of ids to be reserved, static across all
+	 * instances. Ids are longs, so that they never wrap around in a long run.
+	 */
+	private static final AtomicLong nextIdBlock = new AtomicLong();
+
+	/**
+	 * The next id and the end of the block of ids reserved by each thread.
+	 */
+	private static final ThreadLocal<long[]> threadIds = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[2];
+		}
+	};
 
 	/**
 	 * The unique identifier for {@code this}.
 	 */
-	private final int id;
+	private final long id;
 
 	/**
 	 * The fixed initial size of {@code this}. Subsequent changes to
@@ -35,6 +53,18 @@ public class ChessBoard extends Evolvable implements Comparable<Evolvable> {
 	 */
 	private final int boardSize;
 
+	/**
+	 * The Zobrist hash of {@code boardRep}, kept up to date as genes change so
+	 * that it never needs to be recomputed from scratch.
+	 */
+	private long genomeHash;
+
+	/**
+	 * The queens fixed in place on {@code this}, which mutation never moves,
+	 * or {@code null} if every queen is free.
+	 */
+	private final BoardConstraints constraints;
+
 	/**
 	 * Instantiates a new {@code ChessBoard} with an internal board
 	 * representation of size {@code boardSize}. The internal representation is
@@ -45,16 +75,64 @@ public class ChessBoard extends Evolvable implements Comparable<Evolvable> {
 	 *            The size of the internal board representation.
 	 */
 	public ChessBoard(int boardSize) {
+		this(boardSize, new Random());
+	}
+
+	/**
+	 * Instantiates a new {@code ChessBoard} with an internal board
+	 * representation of size {@code boardSize}, filled with positions of the
+	 * queens drawn from {@code rand}.
+	 * 
+	 * @param boardSize
+	 *            The size of the internal board representation.
+	 * @param rand
+	 *            The source of randomness for the positions of the queens.
+	 */
+	public ChessBoard(int boardSize, Random rand) {
 
 		this.boardSize = boardSize;
 		this.boardRep = new int[boardSize];
-		this.id = instanceCount;
-		instanceCount++;
-			
-		Random rand = new Random();
+		this.id = nextId();
+		this.constraints = null;
+
 		for (int i = 0; i < boardSize; i++) {
 			this.boardRep[i] = rand.nextInt(boardSize);
 		}
+		this.genomeHash = hashOf(this.boardRep);
+	}
+
+	/**
+	 * Instantiates a new {@code ChessBoard} completing the fixed queens of
+	 * {@code constraints}, with every free queen placed in a random row not
+	 * attacked by a fixed queen. Mutation of the new board, and of every board
+	 * bred from it, only ever moves free queens to such rows.
+	 * 
+	 * @param constraints
+	 *            The queens fixed in place on the board.
+	 * @param rand
+	 *            The source of randomness for the positions of the queens.
+	 */
+	public ChessBoard(BoardConstraints constraints, Random rand) {
+		this(constraints.randomBoard(rand), constraints);
+	}
+
+	/**
+	 * Instantiates a new {@code ChessBoard} completing the fixed queens of
+	 * {@code constraints}, with every free queen placed by
+	 * {@code initializer}. Mutation of the new board, and of every board bred
+	 * from it, only ever moves free queens to rows not attacked by a fixed
+	 * queen.
+	 * 
+	 * @param constraints
+	 *            The queens fixed in place on the board.
+	 * @param initializer
+	 *            The layout of the free queens.
+	 * @param rand
+	 *            The source of randomness for the positions of the queens.
+	 */
+	public ChessBoard(BoardConstraints constraints, Initializer initializer,
+			Random rand) {
+		this(initializer.initialize(constraints, rand), constraints);
 	}
 
 	/**
@@ -66,93 +144,303 @@ public class ChessBoard extends Evolvable implements Comparable<Evolvable> {
 	 *            instance of a {@code ChessBoard}.
 	 */
 	public ChessBoard(int[] boardRep) {
-		this.boardSize = boardRep.length;
-		this.boardRep = Arrays.copyOf(boardRep, boardRep.length);
-		this.id = instanceCount;
-		instanceCount++;
+		this(Arrays.copyOf(boardRep, boardRep.length), null);
 	}
 
 	/**
-	 * Replaces the internal representation of {@code this} to another board
-	 * representation. The new board representation must be the same size of the
-	 * original board representation with which {@code this} was initialized.
+	 * Constructs an instance of {@code ChessBoard} with an internal
+	 * representation of a board layout as that of {@code boardRep}, whose
+	 * fixed queens are those of {@code constraints}.
 	 * 
+	 * @param constraints
+	 *            The queens fixed in place on the board, or {@code null} if
+	 *            every queen is free.
 	 * @param boardRep
-	 *            The array representation of the n-queens board.
-	 * @return The original board representation being replaced.
+	 *            The representation of the chess board to construct a new
+	 *            instance of a {@code ChessBoard}.
+	 * @throws IllegalArgumentException
+	 *             If {@code boardRep} moves a fixed queen of
+	 *             {@code constraints}.
+	 */
+	public ChessBoard(BoardConstraints constraints, int[] boardRep) {
+		this(Arrays.copyOf(boardRep, boardRep.length), constraints);
+		if (constraints != null && !constraints.isRespectedBy(boardRep)) {
+			throw new IllegalArgumentException(
+					"board does not respect its fixed queens");
+		}
+	}
+
+	/**
+	 * Constructs a {@code ChessBoard} that takes ownership of
+	 * {@code boardRep}, which the caller must not alter afterwards. Constraints
+	 * fixing no queen are dropped, so that every unconstrained board holds
+	 * {@code null} constraints and may mate with any other.
 	 */
-	private int[] replaceBoard(int[] boardRep) {
-		assert boardRep.length == this.boardSize : String.format(
-				"boardRep is not the same size as %s was initialized with",
-				this.toString());
+	private ChessBoard(int[] boardRep, BoardConstraints constraints) {
+		this.boardSize = boardRep.length;
+		this.boardRep = boardRep;
+		this.id = nextId();
+		this.genomeHash = hashOf(this.boardRep);
+		this.constraints = constraints != null
+				&& constraints.isConstrained() ? constraints : null;
+	}
 
-		// Since the boardRep is final, we will manually copy in values
-		for (int i = 0; i < boardRep.length; i++) {
-			this.boardRep[i] = boardRep[i];
+	/**
+	 * Draws an id unique to the new instance from the block reserved by the
+	 * calling thread, reserving a new block once it is used up. Ids are unique
+	 * across threads, though not assigned in order of construction.
+	 * 
+	 * @return A unique long id.
+	 */
+	private static long nextId() {
+		long[] block = threadIds.get();
+		if (block[0] == block[1]) {
+			block[0] = nextIdBlock.getAndAdd(ID_BLOCK_SIZE);
+			block[1] = block[0] + ID_BLOCK_SIZE;
 		}
-		int[] oldRep = Arrays.copyOf(this.boardRep, this.boardSize);
-		return oldRep;
+		return block[0]++;
 	}
 
 	/**
-	 * Simple utility method that calculates a factorial.
+	 * Retrieves the Zobrist key of a queen occupying {@code row} in
+	 * {@code column}. Rather than drawing the keys from a table of random
+	 * numbers sized to the board, each key is derived by scrambling the
+	 * coordinates, so boards of any size share one key space.
 	 * 
-	 * @param n
-	 *            The number to which factorial will be applied.
-	 * @return The result factorial (@code n!)
-	 */
-	private static int factorial(int n) {
-		int result = 1;
-		for (int i = 1; i <= n; i++) {
-			result = result * i;
+	 * @param column
+	 *            The column occupied by the queen.
+	 * @param row
+	 *            The row occupied by the queen.
+	 * @return The 64-bit key of the queen placement.
+	 */
+	static long zobristKey(int column, int row) {
+		return Hashing.mix(((long) column) << 32 | (row & 0xFFFFFFFFL), 0);
+	}
+
+	/**
+	 * Computes the Zobrist hash of an n-queens board layout, which is the
+	 * exclusive-or of the {@link #zobristKey(int, int) keys} of every queen.
+	 * Moving a single queen changes the hash by two exclusive-ors, so a board
+	 * can maintain its hash incrementally.
+	 * 
+	 * @param boardRep
+	 *            The array representation of an n-queens board.
+	 * @return The 64-bit hash of {@code boardRep}.
+	 */
+	public static long hashOf(int[] boardRep) {
+		long hash = 0L;
+		for (int column = 0; column < boardRep.length; column++) {
+			hash ^= zobristKey(column, boardRep[column]);
 		}
-		return result;
+		return hash;
 	}
 
 	/**
-	 * Returns an array representation of an n-queens board.
+	 * Counts the pairs of queens attacking one another on an n-queens board
+	 * layout.
+	 * 
+	 * @param boardRep
+	 *            The array representation of an n-queens board.
+	 * @return The number of attacking queen pairs on {@code boardRep}.
+	 */
+	static int countAttackingPairs(int[] boardRep) {
+		/*
+		 * Because the code below is not entirely intuitive, here is a
+		 * (hopefully) helpful pre-amble to what is going on.
+		 * 
+		 * A queen may be attacked by another queen occupying the same diagonal,
+		 * vertical or horizontal positions on the board, however, because the
+		 * board is represented as an integer array, no two queens will occupy
+		 * the same column, therefore we no longer need to consider a queen
+		 * being attacked vertically. To consider the other cases where a queen
+		 * may be attacked, we examine two queens on a board (iteratively, we
+		 * are examining every queen against every other queen) by calculating
+		 * the "slope" between the two queens.
+		 * 
+		 * Treating the positions of the queens on the board as coordinates in
+		 * an xy plane (ex. queen1 exists in (0,1) or the first column, second
+		 * row), we can deduce that two queens having a slope of 1, -1, or 0 are
+		 * attacking one another. We then simply count how many attacking queen
+		 * pairs we observe.
+		 */
+		int attackingQueenPairCount = 0;
+		for (int columnA = 0; columnA < boardRep.length - 1; columnA++) {
+			for (int columnB = columnA + 1; columnB < boardRep.length; columnB++) {
+
+				int rowA = boardRep[columnA];
+				int rowB = boardRep[columnB];
+				float slope = ((float) (rowA - rowB))
+						/ ((float) (columnA - columnB));
+
+				if ((Math.abs(slope) == 1.0F) || slope == 0.0F) {
+					attackingQueenPairCount++;
+				}
+			}
+		}
+		return attackingQueenPairCount;
+	}
+
+	/**
+	 * Retrieves the number of distinct queen pairs on a board of
+	 * {@code boardSize} queens, which is n choose 2. This is also the best
+	 * possible fitness of such a board.
+	 * 
+	 * @param boardSize
+	 *            The number of queens on the board.
+	 * @return The number of distinct queen pairs, as a {@code long}, since it
+	 *         exceeds the range of an {@code int} beyond 46341 queens.
+	 */
+	public static long queenPairCount(int boardSize) {
+		return (long) boardSize * (boardSize - 1) / 2;
+	}
+
+	/**
+	 * Returns an array representation of an n-queens board. The array is a
+	 * copy, which hot paths can avoid through {@link #geneAt(int)},
+	 * {@link #copyGenes(int[], int)} or {@link #asIntBuffer()}.
 	 * 
 	 * @return The state representation of a board of n-queens
 	 */
 	public int[] getBoardLayout() {
 		return Arrays.copyOf(this.boardRep, this.boardRep.length);
 	}
+
+	/**
+	 * Retrieves the number of queens on {@code this}.
+	 * 
+	 * @return The length of the genetic sequence of {@code this}.
+	 */
+	public int getBoardSize() {
+		return this.boardSize;
+	}
+
+	/**
+	 * Retrieves the row of the queen of {@code column}, without copying the
+	 * board layout.
+	 * 
+	 * @param column
+	 *            A column of the board.
+	 * @return The row of the queen of {@code column}.
+	 */
+	public int geneAt(int column) {
+		return this.boardRep[column];
+	}
+
+	/**
+	 * Moves queens of {@code this} by at most {@code maxMoves} improving moves
+	 * chosen by {@code strategy}, as
+	 * {@link HillClimbUtils#refine(int[], BoardConstraints, HillClimbUtils.Strategy, int, Random)
+	 * HillClimbUtils.refine} does. The fitness score of {@code this} is left
+	 * as it was, to be evaluated anew.
+	 * 
+	 * @param strategy
+	 *            The rule by which each move is chosen.
+	 * @param maxMoves
+	 *            The greatest number of moves to make.
+	 * @param rand
+	 *            The source of randomness for the moves.
+	 * @return The number of attacking queen pairs of the refined board.
+	 */
+	public int refine(HillClimbUtils.Strategy strategy, int maxMoves,
+			Random rand) {
+		int attackingQueenPairCount = HillClimbUtils.refine(this.boardRep,
+				this.constraints, strategy, maxMoves, rand);
+		this.genomeHash = hashOf(this.boardRep);
+		return attackingQueenPairCount;
+	}
+
+	/**
+	 * Counts the columns in which the queens of {@code this} and
+	 * {@code other} stand on different rows, without copying either layout.
+	 * 
+	 * @param other
+	 *            A board of the same size as {@code this}.
+	 * @return The Hamming distance between the layouts of the two boards.
+	 */
+	public int distanceTo(ChessBoard other) {
+		assert this.boardSize == other.boardSize : "boards differ in size";
+
+		int distance = 0;
+		for (int i = 0; i < this.boardSize; i++) {
+			if (this.boardRep[i] != other.boardRep[i]) {
+				distance++;
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * Copies the board layout of {@code this} into {@code destination},
+	 * starting at {@code offset}, so that a caller can reuse one buffer for
+	 * many boards.
+	 * 
+	 * @param destination
+	 *            The array receiving the row of each queen.
+	 * @param offset
+	 *            The index of {@code destination} receiving the first row.
+	 */
+	public void copyGenes(int[] destination, int offset) {
+		System.arraycopy(this.boardRep, 0, destination, offset, this.boardSize);
+	}
+
+	/**
+	 * Retrieves a read-only view of the board layout of {@code this}. The view
+	 * is not a copy, so it reflects later mutation of {@code this}, and must
+	 * not be read while {@code this} is being mutated by another thread.
+	 * 
+	 * @return A read-only {@code IntBuffer} over the row of each queen.
+	 */
+	public IntBuffer asIntBuffer() {
+		return IntBuffer.wrap(this.boardRep).asReadOnlyBuffer();
+	}
 	
 	/**
 	 * Retrieves the id unique to {@code this} instance.
 	 * 
-	 * @return A unique integer id.
+	 * @return A unique long id.
 	 */
-	public int getId(){
+	public long getId(){
 		return this.id;
 	}
 
+	/**
+	 * Retrieves the Zobrist hash of the current board layout of {@code this}.
+	 * Two boards with the same layout have the same hash, regardless of their
+	 * ids.
+	 * 
+	 * @return The 64-bit hash of the genetic sequence of {@code this}.
+	 * @see #hashOf(int[])
+	 */
+	public long getGenomeHash() {
+		return this.genomeHash;
+	}
+
+	/**
+	 * Retrieves the queens fixed in place on {@code this}.
+	 * 
+	 * @return The {@code BoardConstraints} of {@code this}, or {@code null} if
+	 *         every queen is free.
+	 */
+	public BoardConstraints getConstraints() {
+		return this.constraints;
+	}
+
+	/**
+	 * Determines whether {@code object} is {@code this} board. Every board has
+	 * a unique id, which is never shared with a copy, so two boards are equal
+	 * only when they are one instance; comparing ids rather than layouts keeps
+	 * this cheap, and keeps it stable while the layout of a board held in a
+	 * hash set or cache is mutated.
+	 */
 	@Override
 	public boolean equals(Object object) {
-		boolean areEqual = true;
-		if (object == null) {
-			areEqual = false;
+		if (this == object) {
+			return true;
 		}
 		if (!(object instanceof ChessBoard)) {
-			areEqual = false;
-		}
-		if (this != object) {
-			areEqual = false;
-		}
-		ChessBoard boardObject = (ChessBoard) object;
-		if (this.getFitnessScore() != boardObject.getFitnessScore()) {
-			areEqual = false;
-		}
-		if (!Arrays.equals(this.boardRep, boardObject.getBoardLayout())) {
-			areEqual = false;
-		}
-		if (this.boardSize != boardObject.getBoardLayout().length) {
-			areEqual = false;
-		}
-		if (this.id != boardObject.getId()){
-			areEqual = false;
+			return false;
 		}
-		return areEqual;
+		return this.id == ((ChessBoard) object).id;
 	}
 
 	public int compareTo(Evolvable object) {
@@ -173,45 +461,35 @@ public class ChessBoard extends Evolvable implements Comparable<Evolvable> {
 	@Override
 	public double evaluateFitness() {
 		/*
-		 * Because the code below is not entirely intuitive, here is a
-		 * (hopefully) helpful pre-amble to what is going on.
-		 * 
-		 * A queen may be attacked by another queen occupying the same diagonal,
-		 * vertical or horizontal positions on the board, however, because the
-		 * board is represented as an integer array, no two queens will occupy
-		 * the same column, therefore we no longer need to consider a queen
-		 * being attacked vertically. To consider the other cases where a queen
-		 * may be attacked, we examine two queens on a board (iteratively, we
-		 * are examining every queen against every other queen) by calculating
-		 * the "slope" between the two queens.
-		 * 
-		 * Treating the positions of the queens on the board as coordinates in
-		 * an xy plane (ex. queen1 exists in (0,1) or the first column, second
-		 * row), we can deduce that two queens having a slope of 1, -1, or 0 are
-		 * attacking one another. We then simply count how many attacking queen
-		 * pairs we observe.
+		 * We need to subtract the number of attacking pairs from the total
+		 * number of queen pairs, which is n choose 2.
 		 */
-		int attackingQueenPairCount = 0;
-		for (int columnA = 0; columnA < this.boardSize - 1; columnA++) {
-			for (int columnB = columnA + 1; columnB < this.boardSize; columnB++) {
-
-				int rowA = this.boardRep[columnA];
-				int rowB = this.boardRep[columnB];
-				float slope = ((float) (rowA - rowB))
-						/ ((float) (columnA - columnB));
+		int attackingQueenPairCount = countAttackingPairs(this.boardRep);
+		this.fitnessScore = (queenPairCount(this.boardSize) - attackingQueenPairCount);
+		return this.fitnessScore;
+	}
 
-				if ((Math.abs(slope) == 1.0F) || slope == 0.0F) {
-					attackingQueenPairCount++;
-				}
-			}
+	/**
+	 * Calculates and returns the fitness of {@code this} as
+	 * {@link #evaluateFitness()} does, but first consults {@code cache} for
+	 * the number of attacking queen pairs on a board with the same
+	 * {@link #getGenomeHash() hash}. On a miss the count is computed and
+	 * memoized in {@code cache}.
+	 * 
+	 * @param cache
+	 *            The cache of attacking queen pair counts, keyed by genome
+	 *            hash.
+	 * @return The fitness score of {@code this}.
+	 */
+	@Override
+	public double evaluateFitness(FitnessCache cache) {
+		double attackingQueenPairCount = cache.get(this.genomeHash);
+		if (Double.isNaN(attackingQueenPairCount)) {
+			attackingQueenPairCount = countAttackingPairs(this.boardRep);
+			cache.put(this.genomeHash, attackingQueenPairCount);
 		}
-		/*
-		 * We need to now subtract this number of attacking pairs from the total
-		 * number of queen pairs, which is n choose 2. Or n!/(2!*(n-2)!)
-		 */
-		int nChooseTwo = factorial(this.boardSize)
-				/ (factorial(2) * factorial(this.boardSize - 2));
-		this.fitnessScore = (nChooseTwo - attackingQueenPairCount);
+		this.fitnessScore = queenPairCount(this.boardSize)
+				- attackingQueenPairCount;
 		return this.fitnessScore;
 	}
 
@@ -226,10 +504,38 @@ public class ChessBoard extends Evolvable implements Comparable<Evolvable> {
 	 */
 	@Override
 	public void mutate(double mutationRate) {
+		mutate(mutationRate, new Random());
+	}
+
+	@Override
+	public void mutate(double mutationRate, Random rand) {
+		if (this.constraints != null) {
+			mutateFreeColumns(mutationRate, rand);
+			return;
+		}
 		for (int i = 0; i < this.boardSize; i++) {
-			double probability = new Random().nextDouble();
+			double probability = rand.nextDouble();
 			if (probability <= mutationRate) {
-				int mutatedGene = new Random().nextInt(this.boardSize);
+				int mutatedGene = rand.nextInt(this.boardSize);
+				this.genomeHash ^= zobristKey(i, this.boardRep[i])
+						^ zobristKey(i, mutatedGene);
+				this.boardRep[i] = mutatedGene;
+			}
+		}
+	}
+
+	/**
+	 * Mutates only the free columns of a constrained board, each to a row not
+	 * attacked by a fixed queen.
+	 */
+	private void mutateFreeColumns(double mutationRate, Random rand) {
+		for (int index = 0; index < this.constraints.getFreeColumnCount(); index++) {
+			double probability = rand.nextDouble();
+			if (probability <= mutationRate) {
+				int i = this.constraints.getFreeColumn(index);
+				int mutatedGene = this.constraints.randomOpenRow(i, rand);
+				this.genomeHash ^= zobristKey(i, this.boardRep[i])
+						^ zobristKey(i, mutatedGene);
 				this.boardRep[i] = mutatedGene;
 			}
 		}
@@ -237,52 +543,76 @@ public class ChessBoard extends Evolvable implements Comparable<Evolvable> {
 
 	@Override
 	public Evolvable exchangeGenes(Evolvable mate) {
+		return exchangeGenes(mate, new Random());
+	}
+
+	@Override
+	public Evolvable exchangeGenes(Evolvable mate, Random rand) {
+		return exchangeGenes(mate, Crossover.SINGLE_POINT, rand);
+	}
+
+	@Override
+	public Evolvable exchangeGenes(Evolvable mate, Crossover crossover,
+			Random rand) {
 		assert mate instanceof ChessBoard : String.format(
 				"mate %s is of type %s, not of type %s", mate.toString(), mate
 						.getClass().getName(), this.getClass().getName());
 
 		ChessBoard mateBoard = (ChessBoard) mate;
-		assert this.boardSize == mateBoard.getBoardLayout().length : String
+		/*
+		 * Boards with the same constraints hold the same fixed genes, so
+		 * crossover between them never moves a fixed queen.
+		 */
+		assert this.constraints == mateBoard.constraints : "individual and mate have different constraints";
+		assert this.boardSize == mateBoard.boardSize : String
 				.format("individual %s and selected mate %s do not match "
 						+ "length of genetic sequences.\n"
 						+ "individual length: %d\n" + "mate length: %d",
-						this.toString(), mateBoard.toString());
+						this.toString(), mateBoard.toString(), this.boardSize,
+						mateBoard.boardSize);
 		/*
-		 * We are going to deterministically say that the left side of the
-		 * crossover point will come from {@code this} and the right side of the
-		 * crossover point will come from {@code mate}.
-		 * 
-		 * Max is the length of a parent-1, however nextInt is also exclusive of
-		 * top bound, so closer to parent-2. This guarantees that at least one
-		 * "gene" will be transferred from a parent to the child.
+		 * The second child starts as a copy of the layout of the mate; genes
+		 * are then exchanged in place, so the only layout copied is that of
+		 * the child.
 		 */
-		int crossOverIndex = new Random().nextInt(this.boardRep.length - 1);
-		int[] childA = new int[this.boardRep.length];
-		int[] childB = new int[mateBoard.getBoardLayout().length];
-
-		// Fill the children arrays with the right side of crossover point
-		for (int i = 0; i < crossOverIndex; i++) {
-			int geneA = this.boardRep[i];
-			childA[i] = geneA;
-			int geneB = mateBoard.getBoardLayout()[i];
-			childB[i] = geneB;
-		}
-		// Now fill with left side of crossover point
-		for (int i = crossOverIndex; i < mateBoard.getBoardLayout().length; i++) {
-			int gene = mateBoard.getBoardLayout()[i];
-			childA[i] = gene;
-			int geneB = this.boardRep[i];
-			childB[i] = geneB;
+		int[] childB = mateBoard.getBoardLayout();
+		if (crossover == Crossover.SINGLE_POINT) {
+			/*
+			 * We are going to deterministically say that the left side of the
+			 * crossover point will come from {@code this} and the right side of
+			 * the crossover point will come from {@code mate}. The point is
+			 * drawn as it always has been, so seeded runs are unchanged.
+			 */
+			int crossOverIndex = rand.nextInt(this.boardRep.length - 1);
+			GeneOperators.swapTails(this.boardRep, childB, crossOverIndex);
+		} else {
+			crossover.cross(this.boardRep, childB, rand);
 		}
-		this.replaceBoard(childA);
-		Evolvable replacedMate = new ChessBoard(childB);
+		ChessBoard replacedMate = new ChessBoard(childB, this.constraints);
+		/*
+		 * The genes this board gained and lost are those the child lost and
+		 * gained, so its hash changed by as much as the child's differs from
+		 * the mate's.
+		 */
+		this.genomeHash ^= replacedMate.genomeHash ^ mateBoard.genomeHash;
 		return replacedMate;
 	}
 
+	@Override
+	public Evolvable copy() {
+		ChessBoard copy = new ChessBoard(getBoardLayout(), this.constraints);
+		copy.setFitnessScore(this.fitnessScore);
+		return copy;
+	}
+
+	/**
+	 * Retrieves a hash of the id of {@code this}, which like
+	 * {@link #equals(Object)} does not change as the layout is mutated.
+	 */
 	@Override
 	public int hashCode() {
-		int result = 37 * this.id;
-		return result + Arrays.hashCode(this.boardRep);
+		long mixed = this.id * 0x9E3779B97F4A7C15L;
+		return (int) (mixed ^ (mixed >>> 32));
 	}
 
 	@Override
@@ -298,8 +628,9 @@ public class ChessBoard extends Evolvable implements Comparable<Evolvable> {
 
 	/**
 	 * A genetic algorithm attempting to solve the n-queens problem should be
-	 * minimizing an individual's fitness. That is, the number of attacking
-	 * queens should approach zero.
+	 * maximizing an individual's fitness. That is, the number of
+	 * non-attacking queen pairs should approach n choose 2, at which point no
+	 * queens attack one another.
 	 * 
 	 * @author Ethan Hill
 	 *
@@ -308,11 +639,11 @@ public class ChessBoard extends Evolvable implements Comparable<Evolvable> {
 		public boolean isSatisfied(Collection<Evolvable> population) {
 			for (Evolvable individual : population) {
 				ChessBoard board = (ChessBoard) individual;
-				if (board.getFitnessScore() == 0) {
+				if (board.getFitnessScore() == queenPairCount(board.boardSize)) {
 					return true;
 				}
 			}
 			return false;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Random;
+
+/**
+ * The crossover operators with which two integer genetic sequences of equal
+ * length exchange genes, chosen for a genetic algorithm through
+ * {@link EvolutionConfig#setCrossover(Crossover)}. Every operator exchanges
+ * genes between the two sequences in place, position for position, so a gene
+ * fixed in both parents, such as a queen of {@link BoardConstraints}, stays
+ * fixed in both children, and no operator allocates.
+ *
+ * @author Ethan Hill
+ *
+ */
+public enum Crossover {
+
+	/**
+	 * Exchanges the genes after one random point.
+	 */
+	SINGLE_POINT {
+		@Override
+		public void cross(int[] a, int[] b, Random rand) {
+			if (a.length > 1) {
+				GeneOperators.swapTails(a, b,
+						GeneOperators.crossoverPoint(a.length, rand));
+			}
+		}
+	},
+
+	/**
+	 * Exchanges the genes between two distinct random points, so that both
+	 * ends of each child come from the same parent.
+	 */
+	TWO_POINT {
+		@Override
+		public void cross(int[] a, int[] b, Random rand) {
+			if (a.length < 3) {
+				SINGLE_POINT.cross(a, b, rand);
+				return;
+			}
+			int first = GeneOperators.crossoverPoint(a.length, rand);
+			int second = 1 + rand.nextInt(a.length - 2);
+			if (second >= first) {
+				second++;
+			}
+			GeneOperators.swapRange(a, b, Math.min(first, second),
+					Math.max(first, second));
+		}
+	},
+
+	/**
+	 * Exchanges each gene with probability one half, drawing the genes to
+	 * exchange as the bits of a random mask.
+	 */
+	UNIFORM {
+		@Override
+		public void cross(int[] a, int[] b, Random rand) {
+			GeneOperators.swapUniform(a, b, rand);
+		}
+	},
+
+	/**
+	 * Exchanges a segment of random length at a random position, wrapping
+	 * around the end of the sequence. Unlike {@link #TWO_POINT}, the first
+	 * and last genes are as likely to be exchanged together as any two
+	 * neighbours.
+	 */
+	SEGMENT_SWAP {
+		@Override
+		public void cross(int[] a, int[] b, Random rand) {
+			if (a.length < 2) {
+				return;
+			}
+			int from = rand.nextInt(a.length);
+			int to = from + GeneOperators.crossoverPoint(a.length, rand);
+			if (to <= a.length) {
+				GeneOperators.swapRange(a, b, from, to);
+			} else {
+				GeneOperators.swapRange(a, b, from, a.length);
+				GeneOperators.swapRange(a, b, 0, to - a.length);
+			}
+		}
+	};
+
+	/**
+	 * Exchanges genes between {@code a} and {@code b}, replacing the parents
+	 * with their children.
+	 *
+	 * @param a
+	 *            The genes of one parent, replaced by those of one child.
+	 * @param b
+	 *            The genes of the other parent, of the same length as
+	 *            {@code a}, replaced by those of the other child.
+	 * @param rand
+	 *            The source of randomness.
+	 */
+	public abstract void cross(int[] a, int[] b, Random rand);
+}
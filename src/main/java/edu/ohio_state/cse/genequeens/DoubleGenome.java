@@ -0,0 +1,180 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A {@code DoubleGenome} is a {@link Genome} whose genes are real numbers in
+ * {@code [lower, upper]}, such as the weights of a controller. Mutation adds
+ * Gaussian noise with a standard deviation of a tenth of the range of a gene,
+ * and genes are exchanged by single-point crossover.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class DoubleGenome extends Genome<DoubleGenome> {
+
+	/**
+	 * The standard deviation of mutation noise, as a fraction of the range of
+	 * a gene.
+	 */
+	private static final double SIGMA_FRACTION = 0.1d;
+
+	private final double[] genes;
+
+	private final double lower;
+
+	private final double upper;
+
+	/**
+	 * Constructs a {@code DoubleGenome} of {@code length} genes drawn
+	 * uniformly from {@code [lower, upper)}.
+	 *
+	 * @param length
+	 *            The number of genes.
+	 * @param lower
+	 *            The least value of a gene.
+	 * @param upper
+	 *            The greatest value of a gene.
+	 * @param fitnessFunction
+	 *            The function that scores the genome.
+	 * @param rand
+	 *            The source of randomness for the genes.
+	 */
+	public DoubleGenome(int length, double lower, double upper,
+			FitnessFunction<DoubleGenome> fitnessFunction, Random rand) {
+		super(fitnessFunction);
+		if (!(lower <= upper)) {
+			throw new IllegalArgumentException(String.format(
+					"lower bound %f exceeds upper bound %f", lower, upper));
+		}
+		this.genes = new double[length];
+		this.lower = lower;
+		this.upper = upper;
+		for (int i = 0; i < length; i++) {
+			this.genes[i] = lower + (upper - lower) * rand.nextDouble();
+		}
+	}
+
+	/**
+	 * Constructs a {@code DoubleGenome} holding a copy of {@code genes}.
+	 *
+	 * @param genes
+	 *            The genes, each in {@code [lower, upper]}.
+	 * @param lower
+	 *            The least value of a gene.
+	 * @param upper
+	 *            The greatest value of a gene.
+	 * @param fitnessFunction
+	 *            The function that scores the genome.
+	 */
+	public DoubleGenome(double[] genes, double lower, double upper,
+			FitnessFunction<DoubleGenome> fitnessFunction) {
+		super(fitnessFunction);
+		this.genes = genes.clone();
+		this.lower = lower;
+		this.upper = upper;
+	}
+
+	@Override
+	public int length() {
+		return this.genes.length;
+	}
+
+	/**
+	 * Retrieves the gene at {@code index}.
+	 *
+	 * @param index
+	 *            The index of the gene.
+	 * @return The gene.
+	 */
+	public double geneAt(int index) {
+		return this.genes[index];
+	}
+
+	/**
+	 * Replaces the gene at {@code index}, clamped to {@code [lower, upper]}.
+	 *
+	 * @param index
+	 *            The index of the gene.
+	 * @param gene
+	 *            The new gene.
+	 */
+	public void setGene(int index, double gene) {
+		this.genes[index] = Math.max(this.lower, Math.min(this.upper, gene));
+	}
+
+	/**
+	 * Copies the genes of {@code this} into {@code destination}, starting at
+	 * {@code offset}.
+	 *
+	 * @param destination
+	 *            The array receiving the genes.
+	 * @param offset
+	 *            The index of {@code destination} receiving the first gene.
+	 */
+	public void copyGenes(double[] destination, int offset) {
+		System.arraycopy(this.genes, 0, destination, offset, this.genes.length);
+	}
+
+	@Override
+	public long getGenomeHash() {
+		long hash = this.genes.length;
+		for (double gene : this.genes) {
+			hash = Hashing.mix(hash, Double.doubleToLongBits(gene));
+		}
+		return hash;
+	}
+
+	@Override
+	protected int countDifferences(DoubleGenome other) {
+		int distance = 0;
+		for (int i = 0; i < this.genes.length; i++) {
+			if (Double.doubleToLongBits(this.genes[i]) != Double
+					.doubleToLongBits(other.genes[i])) {
+				distance++;
+			}
+		}
+		return distance;
+	}
+
+	@Override
+	public void mutate(double mutationRate, Random rand) {
+		GeneOperators.mutateGaussian(this.genes, this.lower, this.upper,
+				SIGMA_FRACTION * (this.upper - this.lower), mutationRate, rand);
+	}
+
+	@Override
+	public Evolvable exchangeGenes(Evolvable mate, Random rand) {
+		DoubleGenome sibling = (DoubleGenome) mateOf(mate).copy();
+		if (this.genes.length > 1) {
+			GeneOperators.swapTails(this.genes, sibling.genes,
+					GeneOperators.crossoverPoint(this.genes.length, rand));
+		}
+		return sibling;
+	}
+
+	@Override
+	public Evolvable copy() {
+		DoubleGenome copy = new DoubleGenome(this.genes, this.lower,
+				this.upper, this.fitnessFunction);
+		copy.setFitnessScore(this.fitnessScore);
+		return copy;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		return object instanceof DoubleGenome
+				&& Arrays.equals(this.genes, ((DoubleGenome) object).genes);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.genes);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(this.genes);
+	}
+}
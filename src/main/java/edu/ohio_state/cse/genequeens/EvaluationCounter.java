@@ -0,0 +1,63 @@
+package edu.ohio_state.cse.genequeens;
+
+/**
+ * Counts, per thread, the candidate solutions scored by the search agents: the
+ * boards scored by {@link HillClimbUtils#boardScore(int[])}, the successors
+ * walked by a {@link SuccessorIterator}, and the individuals scored by
+ * {@link GeneticAlgorithms}. A board served from a {@link FitnessCache} counts
+ * as scored, so for a given seed the count is the same however the cache is
+ * sized, and measures the work of a search independently of the speed of the
+ * machine.
+ * <p>
+ * Each thread has its own count, which is never reset; a caller measures a
+ * search by reading {@link #get()} before and after it. Work a search hands
+ * to other threads, such as the batches of a {@link BatchScorer}, is counted
+ * on the thread that handed it over.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public final class EvaluationCounter {
+
+	private static final ThreadLocal<long[]> COUNTS = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[1];
+		}
+	};
+
+	private EvaluationCounter() {
+	}
+
+	/**
+	 * Retrieves the number of candidate solutions scored so far by the
+	 * calling thread.
+	 *
+	 * @return The evaluation count of the calling thread.
+	 */
+	public static long get() {
+		return COUNTS.get()[0];
+	}
+
+	/**
+	 * Adds {@code count} evaluations to the count of the calling thread.
+	 *
+	 * @param count
+	 *            The number of candidate solutions scored.
+	 */
+	public static void add(long count) {
+		COUNTS.get()[0] += count;
+	}
+
+	/**
+	 * Retrieves the cell holding the count of the calling thread, for loops
+	 * that count too often to look it up each time. The cell must only be
+	 * updated by the thread that retrieved it.
+	 *
+	 * @return A one-element array holding the evaluation count.
+	 */
+	static long[] cell() {
+		return COUNTS.get();
+	}
+}
@@ -0,0 +1,376 @@
+package edu.ohio_state.cse.genequeens;
+
+/**
+ * An {@code EvolutionConfig} gathers the settings used by
+ * {@link GeneticAlgorithms#evolve(java.util.Collection, EvolutionaryGoal, EvolutionConfig)
+ * GeneticAlgorithms.evolve} to run a genetic algorithm: how mates are
+ * selected, how genes are exchanged and how often they mutate, and how each
+ * generation replaces the one before it. A newly constructed
+ * {@code EvolutionConfig} holds defaults that match the behavior of the other
+ * {@code evolve} methods.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class EvolutionConfig {
+
+	/**
+	 * The ways in which offspring may replace the individuals of a population.
+	 */
+	public enum Replacement {
+		/**
+		 * Every individual of a generation is replaced by offspring.
+		 */
+		GENERATIONAL,
+		/**
+		 * Every individual of a generation is replaced by offspring, except
+		 * for the {@link EvolutionConfig#getEliteCount() elite} most fit
+		 * individuals, which are carried over unchanged and are not
+		 * re-evaluated.
+		 */
+		ELITIST,
+		/**
+		 * A few offspring are bred and evaluated at a time, each replacing the
+		 * least fit individual of the population if it is more fit.
+		 */
+		STEADY_STATE,
+		/**
+		 * The population is paired at random, and each pair breeds two
+		 * offspring, each of which replaces the parent it is closer to if it
+		 * is more fit. Offspring compete only with their own kind, so distinct
+		 * niches survive side by side, and the most fit individual is never
+		 * lost. The mate selector is not consulted.
+		 */
+		DETERMINISTIC_CROWDING
+	}
+
+	private MateSelector<Evolvable> mateSelector = new GeneticAlgorithms.SemiStochasticMostFitSelector();
+
+	private double mutationRate = GeneticAlgorithms.MUTATION_RATE_DEJONG;
+
+	private double crossoverRate = 1.0d;
+
+	private Crossover crossover = Crossover.SINGLE_POINT;
+
+	private AdaptiveOperatorController operatorController = null;
+
+	private FitnessSharing fitnessSharing = null;
+
+	private MemeticRefinement refinement = null;
+
+	private Replacement replacement = Replacement.GENERATIONAL;
+
+	private int eliteCount = 1;
+
+	private int steadyStateReplacements = 2;
+
+	private int maxGenerations = 0;
+
+	private FitnessCache fitnessCache = null;
+
+	private SeededRandom random = new SeededRandom();
+
+	private Checkpointer checkpointer = null;
+
+	/**
+	 * Retrieves the selector used to choose a mate for each individual.
+	 *
+	 * @return The {@code MateSelector} of {@code this}.
+	 */
+	public MateSelector<Evolvable> getMateSelector() {
+		return this.mateSelector;
+	}
+
+	/**
+	 * Sets the selector used to choose a mate for each individual.
+	 *
+	 * @param mateSelector
+	 *            The {@code MateSelector} to use.
+	 */
+	public void setMateSelector(MateSelector<Evolvable> mateSelector) {
+		this.mateSelector = mateSelector;
+	}
+
+	/**
+	 * Retrieves the probability that a gene of an offspring is mutated.
+	 *
+	 * @return The mutation rate of {@code this}.
+	 */
+	public double getMutationRate() {
+		return this.mutationRate;
+	}
+
+	/**
+	 * Sets the probability that a gene of an offspring is mutated.
+	 *
+	 * @param mutationRate
+	 *            The mutation rate to use.
+	 */
+	public void setMutationRate(double mutationRate) {
+		this.mutationRate = mutationRate;
+	}
+
+	/**
+	 * Retrieves the probability that a mated pair exchanges genes. A pair that
+	 * does not exchange genes is only mutated.
+	 *
+	 * @return The crossover rate of {@code this}.
+	 */
+	public double getCrossoverRate() {
+		return this.crossoverRate;
+	}
+
+	/**
+	 * Sets the probability that a mated pair exchanges genes.
+	 *
+	 * @param crossoverRate
+	 *            The crossover rate to use.
+	 */
+	public void setCrossoverRate(double crossoverRate) {
+		this.crossoverRate = crossoverRate;
+	}
+
+	/**
+	 * Retrieves the operator with which a mated pair exchanges genes.
+	 *
+	 * @return The {@code Crossover} of {@code this}.
+	 */
+	public Crossover getCrossover() {
+		return this.crossover;
+	}
+
+	/**
+	 * Sets the operator with which a mated pair exchanges genes. Individuals
+	 * whose genetic sequences are not integers keep their own operator.
+	 *
+	 * @param crossover
+	 *            The {@code Crossover} to use.
+	 */
+	public void setCrossover(Crossover crossover) {
+		this.crossover = crossover;
+	}
+
+	/**
+	 * Retrieves the controller that adapts the mutation and crossover rates
+	 * to the diversity of the population as the algorithm runs.
+	 *
+	 * @return The {@code AdaptiveOperatorController} of {@code this}, or
+	 *         {@code null} if the configured rates are fixed.
+	 */
+	public AdaptiveOperatorController getOperatorController() {
+		return this.operatorController;
+	}
+
+	/**
+	 * Sets the controller that adapts the mutation and crossover rates to the
+	 * diversity of the population as the algorithm runs. While a controller is
+	 * set, the configured mutation and crossover rates are ignored, and the
+	 * random-mate probability of a
+	 * {@link GeneticAlgorithms.SemiStochasticMostFitSelector
+	 * SemiStochasticMostFitSelector} is adapted too.
+	 *
+	 * @param operatorController
+	 *            The {@code AdaptiveOperatorController} to use, or
+	 *            {@code null} for fixed rates.
+	 */
+	public void setOperatorController(
+			AdaptiveOperatorController operatorController) {
+		this.operatorController = operatorController;
+	}
+
+	/**
+	 * Retrieves the scheme by which the fitness scores of similar individuals
+	 * are shared before mates are selected.
+	 *
+	 * @return The {@code FitnessSharing} of {@code this}, or {@code null} if
+	 *         mates are selected on unshared scores.
+	 */
+	public FitnessSharing getFitnessSharing() {
+		return this.fitnessSharing;
+	}
+
+	/**
+	 * Sets the scheme by which the fitness scores of similar individuals are
+	 * shared before mates are selected. Sharing applies under
+	 * {@link Replacement#GENERATIONAL GENERATIONAL} and
+	 * {@link Replacement#ELITIST ELITIST} replacement, where every parent is
+	 * replaced and shared scores never outlive the selection they serve.
+	 *
+	 * @param fitnessSharing
+	 *            The {@code FitnessSharing} to use, or {@code null} to select
+	 *            mates on unshared scores.
+	 */
+	public void setFitnessSharing(FitnessSharing fitnessSharing) {
+		this.fitnessSharing = fitnessSharing;
+	}
+
+	/**
+	 * Retrieves the local search with which offspring are refined before
+	 * they are evaluated.
+	 *
+	 * @return The {@code MemeticRefinement} of {@code this}, or {@code null}
+	 *         if offspring are evaluated as they are bred.
+	 */
+	public MemeticRefinement getRefinement() {
+		return this.refinement;
+	}
+
+	/**
+	 * Sets the local search with which offspring are refined before they are
+	 * evaluated, under every {@link Replacement} mode.
+	 *
+	 * @param refinement
+	 *            The {@code MemeticRefinement} to use, or {@code null} to
+	 *            evaluate offspring as they are bred.
+	 */
+	public void setRefinement(MemeticRefinement refinement) {
+		this.refinement = refinement;
+	}
+
+	/**
+	 * Retrieves the way in which offspring replace the population.
+	 *
+	 * @return The {@code Replacement} mode of {@code this}.
+	 */
+	public Replacement getReplacement() {
+		return this.replacement;
+	}
+
+	/**
+	 * Sets the way in which offspring replace the population.
+	 *
+	 * @param replacement
+	 *            The {@code Replacement} mode to use.
+	 */
+	public void setReplacement(Replacement replacement) {
+		this.replacement = replacement;
+	}
+
+	/**
+	 * Retrieves the number of most fit individuals carried over unchanged
+	 * under {@link Replacement#ELITIST ELITIST} replacement.
+	 *
+	 * @return The number of elite individuals per generation.
+	 */
+	public int getEliteCount() {
+		return this.eliteCount;
+	}
+
+	/**
+	 * Sets the number of most fit individuals carried over unchanged under
+	 * {@link Replacement#ELITIST ELITIST} replacement.
+	 *
+	 * @param eliteCount
+	 *            The number of elite individuals per generation.
+	 */
+	public void setEliteCount(int eliteCount) {
+		this.eliteCount = eliteCount;
+	}
+
+	/**
+	 * Retrieves the number of offspring bred and evaluated per step under
+	 * {@link Replacement#STEADY_STATE STEADY_STATE} replacement.
+	 *
+	 * @return The number of offspring per steady-state step.
+	 */
+	public int getSteadyStateReplacements() {
+		return this.steadyStateReplacements;
+	}
+
+	/**
+	 * Sets the number of offspring bred and evaluated per step under
+	 * {@link Replacement#STEADY_STATE STEADY_STATE} replacement.
+	 *
+	 * @param steadyStateReplacements
+	 *            The number of offspring per steady-state step.
+	 */
+	public void setSteadyStateReplacements(int steadyStateReplacements) {
+		this.steadyStateReplacements = steadyStateReplacements;
+	}
+
+	/**
+	 * Retrieves the number of generations after which the algorithm "gives
+	 * up". Under {@link Replacement#STEADY_STATE STEADY_STATE} replacement, a
+	 * generation is counted for every population-size evaluations.
+	 *
+	 * @return The maximum number of generations, or zero if there is no
+	 *         maximum.
+	 */
+	public int getMaxGenerations() {
+		return this.maxGenerations;
+	}
+
+	/**
+	 * Sets the number of generations after which the algorithm "gives up".
+	 *
+	 * @param maxGenerations
+	 *            The maximum number of generations, or zero for no maximum.
+	 */
+	public void setMaxGenerations(int maxGenerations) {
+		this.maxGenerations = maxGenerations;
+	}
+
+	/**
+	 * Retrieves the cache through which individuals are scored.
+	 *
+	 * @return The {@code FitnessCache} of {@code this}, or {@code null} if
+	 *         individuals are scored directly.
+	 */
+	public FitnessCache getFitnessCache() {
+		return this.fitnessCache;
+	}
+
+	/**
+	 * Sets the cache through which individuals are scored.
+	 *
+	 * @param fitnessCache
+	 *            The {@code FitnessCache} to use, or {@code null} to score
+	 *            individuals directly.
+	 */
+	public void setFitnessCache(FitnessCache fitnessCache) {
+		this.fitnessCache = fitnessCache;
+	}
+
+	/**
+	 * Retrieves the source of randomness used by the algorithm to breed
+	 * offspring. Its state is recorded in every {@link Checkpoint}.
+	 *
+	 * @return The {@code SeededRandom} of {@code this}.
+	 */
+	public SeededRandom getRandom() {
+		return this.random;
+	}
+
+	/**
+	 * Sets the source of randomness used by the algorithm to breed offspring.
+	 * For a run to be fully reproducible, the mate selector should draw from
+	 * the same source.
+	 *
+	 * @param random
+	 *            The {@code SeededRandom} to use.
+	 */
+	public void setRandom(SeededRandom random) {
+		this.random = random;
+	}
+
+	/**
+	 * Retrieves the writer of periodic checkpoints of the algorithm.
+	 *
+	 * @return The {@code Checkpointer} of {@code this}, or {@code null} if no
+	 *         checkpoints are taken.
+	 */
+	public Checkpointer getCheckpointer() {
+		return this.checkpointer;
+	}
+
+	/**
+	 * Sets the writer of periodic checkpoints of the algorithm.
+	 *
+	 * @param checkpointer
+	 *            The {@code Checkpointer} to use, or {@code null} to take no
+	 *            checkpoints.
+	 */
+	public void setCheckpointer(Checkpointer checkpointer) {
+		this.checkpointer = checkpointer;
+	}
+}
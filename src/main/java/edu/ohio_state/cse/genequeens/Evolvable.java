@@ -1,5 +1,7 @@
 package edu.ohio_state.cse.genequeens;
 
+import java.util.Random;
+
 /**
  * {@code Evolvable}s are classes that represent an individual with a genetic
  * sequence, the ability to exchange genes with other {@code Evolvable}s of the
@@ -30,6 +32,22 @@ public abstract class Evolvable implements Comparable<Evolvable> {
 	 */
 	public abstract double evaluateFitness();
 
+	/**
+	 * Calculates and returns the fitness of {@code this} as
+	 * {@link #evaluateFitness()} does, consulting {@code cache} for a
+	 * previously computed score of an identical genetic sequence. By default
+	 * {@code cache} is ignored; sub-classes able to hash their genetic
+	 * sequence should override this method.
+	 * 
+	 * @param cache
+	 *            A memo of previously computed scores, keyed by genome hash.
+	 * @return The score corresponding to the fitness of an individual in a
+	 *         population.
+	 */
+	public double evaluateFitness(FitnessCache cache) {
+		return evaluateFitness();
+	}
+
 	/**
 	 * Sets the score corresponding to the fitness of an individual in a
 	 * population and returns the previous value. How Fitness is defined will
@@ -69,6 +87,22 @@ public abstract class Evolvable implements Comparable<Evolvable> {
 	 */
 	public abstract void mutate(double mutationRate);
 
+	/**
+	 * Applies a mutation to the genetic sequence of {@code this} as
+	 * {@link #mutate(double)} does, drawing random numbers from {@code rand}
+	 * so that the result is reproducible. By default {@code rand} is ignored;
+	 * sub-classes should override this method.
+	 * 
+	 * @param mutationRate
+	 *            The probability that a mutation occurs in the genetic sequence
+	 *            of {@code this}.
+	 * @param rand
+	 *            The source of randomness for the mutation.
+	 */
+	public void mutate(double mutationRate, Random rand) {
+		mutate(mutationRate);
+	}
+
 	/**
 	 * An instance of {@code this} selects a point (or points depending on the
 	 * choice of implementation) at which its genetic sequence is split and
@@ -87,6 +121,54 @@ public abstract class Evolvable implements Comparable<Evolvable> {
 	 */
 	public abstract Evolvable exchangeGenes(Evolvable mate);
 
+	/**
+	 * Exchanges genes with {@code mate} as {@link #exchangeGenes(Evolvable)}
+	 * does, drawing random numbers from {@code rand} so that the result is
+	 * reproducible. By default {@code rand} is ignored; sub-classes should
+	 * override this method.
+	 * 
+	 * @param mate
+	 *            The {@code Evolvable} mate for {@code this} with which
+	 *            {@code this} will exchange genes.
+	 * @param rand
+	 *            The source of randomness for the exchange.
+	 * @return The new individual representing {@code mate}'s new genetic
+	 *         sequence.
+	 */
+	public Evolvable exchangeGenes(Evolvable mate, Random rand) {
+		return exchangeGenes(mate);
+	}
+
+	/**
+	 * Exchanges genes with {@code mate} as
+	 * {@link #exchangeGenes(Evolvable, Random)} does, using the operator
+	 * {@code crossover}. By default {@code crossover} is ignored; sub-classes
+	 * whose genetic sequences are integers should override this method.
+	 * 
+	 * @param mate
+	 *            The {@code Evolvable} mate for {@code this} with which
+	 *            {@code this} will exchange genes.
+	 * @param crossover
+	 *            The crossover operator.
+	 * @param rand
+	 *            The source of randomness for the exchange.
+	 * @return The new individual representing {@code mate}'s new genetic
+	 *         sequence.
+	 */
+	public Evolvable exchangeGenes(Evolvable mate, Crossover crossover,
+			Random rand) {
+		return exchangeGenes(mate, rand);
+	}
+
+	/**
+	 * Creates a new individual with the same genetic sequence and fitness
+	 * score as {@code this}. Later changes to either individual do not affect
+	 * the other.
+	 * 
+	 * @return A copy of {@code this}.
+	 */
+	public abstract Evolvable copy();
+
 	public abstract boolean equals(Object other);
 
 	public abstract int hashCode();
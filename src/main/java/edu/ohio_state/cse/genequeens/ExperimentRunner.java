@@ -0,0 +1,774 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs reproducible experiments comparing the search agents of
+ * {@link Solver} over a sweep of their parameters, for tuning the settings
+ * they are run with. Every configuration of the sweep is run once per seed of
+ * a common list of seeds, so configurations are compared on the same random
+ * starting points, and every trial records its time to solution, the number
+ * of candidate solutions it scored, as counted by {@link EvaluationCounter},
+ * and the bytes allocated by the thread that ran it.
+ * <p>
+ * An experiment is described by a properties file with the keys
+ * </p>
+ * <ul>
+ * <li>{@code solvers}: the comma-separated {@link Solver#forName(String)
+ * names} of the agents to compare (default {@code hill,anneal,genetic});</li>
+ * <li>{@code boardSizes}: the board sizes (default {@code 8});</li>
+ * <li>{@code populationSizes}, {@code mutationRates}, {@code crossovers} and
+ * {@code initializers}: the population sizes, mutation rates,
+ * {@link Crossover} operators and {@link Initializer}s, named in any case, of
+ * {@link Solver#GENETIC} (default {@link Solver#POPULATION_SIZE}, one over
+ * the board size, {@code single_point} and {@code random});</li>
+ * <li>{@code temperatures}: the initial temperatures of
+ * {@link Solver#SIMULATED_ANNEALING} (default
+ * {@link Solver#ANNEALING_TEMPERATURE});</li>
+ * <li>{@code budget}, or {@code budget.<solver>} for one agent: the
+ * {@linkplain Solver#solve(int, Random, long, FitnessCache) budget} of every
+ * trial (default zero, no limit);</li>
+ * <li>{@code trials}: the number of seeds (default 30), and {@code seed}, from
+ * which they are derived (default 1);</li>
+ * <li>{@code warmup}: the number of unrecorded runs of each configuration made
+ * first, so that trials are timed on compiled code (default 1); and</li>
+ * <li>{@code threads}: the number of trials run at once (default one per
+ * available processor).</li>
+ * </ul>
+ * <p>
+ * {@link Solver#GENETIC} scores large populations on the threads of the
+ * {@linkplain BatchScorer#getShared() shared} {@link BatchScorer}, whose
+ * allocations the caller-thread measure misses and for which trials run at
+ * once compete, slowing one another. Set
+ * {@code threads} to 1 when comparing its times against other agents'.
+ * </p>
+ * <p>
+ * The summary of each configuration gives the proportion of trials solved,
+ * with its 95% Wilson score interval, and for each measure over the solved
+ * trials, the mean, with a 95% normal-approximation interval, and the median,
+ * 95th and 99th percentiles, each with a 95% distribution-free interval
+ * bounded by order statistics. Summaries are written as CSV, or as JSON if
+ * the name of the summary file ends in {@code .json}; every trial may also be
+ * written as a line of CSV.
+ * </p>
+ * <p>
+ * Usage: {@code ExperimentRunner <specFile> <summaryFile> [trialFile]}
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class ExperimentRunner {
+
+	/**
+	 * The quantile of the standard normal distribution bounding a two-sided
+	 * 95% interval.
+	 */
+	private static final double Z_95 = 1.959963984540054d;
+
+	/**
+	 * The quantiles reported for each measure.
+	 */
+	private static final double[] QUANTILES = { 0.5d, 0.95d, 0.99d };
+
+	private static final String[] QUANTILE_NAMES = { "median", "p95", "p99" };
+
+	private static final String[] MEASURE_NAMES = { "millis", "evaluations",
+			"callerThreadBytes" };
+
+	private final List<Configuration> configurations = new ArrayList<Configuration>();
+
+	private final int trialCount;
+
+	private final long seed;
+
+	private final int warmup;
+
+	private final int threadCount;
+
+	/**
+	 * Constructs an {@code ExperimentRunner} for the experiment described by
+	 * {@code spec}.
+	 *
+	 * @param spec
+	 *            The description of the experiment, in the keys listed above.
+	 * @throws IllegalArgumentException
+	 *             If a key has a malformed or out-of-range value.
+	 */
+	public ExperimentRunner(Properties spec) {
+		this.trialCount = Integer.parseInt(spec.getProperty("trials", "30")
+				.trim());
+		this.seed = Long.parseLong(spec.getProperty("seed", "1").trim());
+		this.warmup = Integer.parseInt(spec.getProperty("warmup", "1").trim());
+		this.threadCount = Integer.parseInt(spec.getProperty(
+				"threads",
+				Integer.toString(Runtime.getRuntime().availableProcessors()))
+				.trim());
+		if (this.trialCount <= 0 || this.warmup < 0 || this.threadCount <= 0) {
+			throw new IllegalArgumentException(String.format(
+					"cannot run %d trials after %d warm-up runs on %d threads",
+					this.trialCount, this.warmup, this.threadCount));
+		}
+
+		String[] temperatures = list(spec, "temperatures",
+				Integer.toString(Solver.ANNEALING_TEMPERATURE));
+		String[] populationSizes = list(spec, "populationSizes",
+				Integer.toString(Solver.POPULATION_SIZE));
+		String[] mutationRates = list(spec, "mutationRates", "");
+		String[] crossovers = list(spec, "crossovers",
+				Crossover.SINGLE_POINT.name());
+		String[] initializers = list(spec, "initializers",
+				Initializer.RANDOM.name());
+		for (String solverName : list(spec, "solvers", "hill,anneal,genetic")) {
+			Solver solver = Solver.forName(solverName);
+			long budget = Long.parseLong(spec.getProperty(
+					"budget." + solver.getShortName(),
+					spec.getProperty("budget", "0")).trim());
+			for (String boardSize : list(spec, "boardSizes", "8")) {
+				int size = Integer.parseInt(boardSize);
+				if (size < 4 || budget < 0) {
+					throw new IllegalArgumentException(String.format(
+							"cannot solve %d queens within %d", size, budget));
+				}
+				if (solver == Solver.GENETIC) {
+					double[] rates = new double[Math.max(1,
+							mutationRates.length)];
+					rates[0] = 1.0d / size;
+					for (int i = 0; i < mutationRates.length; i++) {
+						rates[i] = Double.parseDouble(mutationRates[i]);
+					}
+					for (String populationSize : populationSizes) {
+						for (double mutationRate : rates) {
+							for (String crossover : crossovers) {
+								for (String initializer : initializers) {
+									this.configurations.add(new Configuration(
+											solver, size, budget, Integer
+													.parseInt(populationSize),
+											mutationRate, Crossover
+													.valueOf(crossover
+															.toUpperCase(Locale.ROOT)),
+											Initializer.valueOf(initializer
+													.toUpperCase(Locale.ROOT)),
+											0));
+								}
+							}
+						}
+					}
+				} else if (solver == Solver.SIMULATED_ANNEALING) {
+					for (String temperature : temperatures) {
+						this.configurations.add(new Configuration(solver, size,
+								budget, 0, 0.0d, null, null, Integer
+										.parseInt(temperature)));
+					}
+				} else {
+					this.configurations.add(new Configuration(solver, size,
+							budget, 0, 0.0d, null, null, 0));
+				}
+			}
+		}
+	}
+
+	private static String[] list(Properties spec, String key,
+			String defaultValue) {
+		String value = spec.getProperty(key, defaultValue).trim();
+		return value.isEmpty() ? new String[0] : value.split("\\s*,\\s*");
+	}
+
+	/**
+	 * Retrieves the seed of the {@code index}th trial of every configuration.
+	 *
+	 * @param index
+	 *            The number of the trial.
+	 * @return The seed of the trial.
+	 */
+	public long trialSeed(int index) {
+		return Hashing.mix(this.seed, index);
+	}
+
+	/**
+	 * Runs every trial of the experiment.
+	 *
+	 * @return Every trial, grouped by configuration in the order of the sweep
+	 *         and in the order of their seeds within a configuration.
+	 * @throws InterruptedException
+	 *             If the calling thread is interrupted.
+	 */
+	public List<Trial> run() throws InterruptedException {
+		ExecutorService workers = Executors.newFixedThreadPool(
+				this.threadCount, new ThreadFactory() {
+					private int count = 0;
+
+					public synchronized Thread newThread(Runnable task) {
+						Thread thread = new Thread(task, "experiment-runner-"
+								+ this.count++);
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		try {
+			List<Callable<Trial>> warmups = new ArrayList<Callable<Trial>>();
+			for (Configuration configuration : this.configurations) {
+				for (int run = 1; run <= this.warmup; run++) {
+					// Seeds of their own, so warm-up never primes a trial
+					warmups.add(configuration.trial(Hashing.mix(~this.seed, run)));
+				}
+			}
+			collect(workers.invokeAll(warmups));
+
+			List<Callable<Trial>> trials = new ArrayList<Callable<Trial>>(
+					this.configurations.size() * this.trialCount);
+			for (Configuration configuration : this.configurations) {
+				for (int index = 0; index < this.trialCount; index++) {
+					trials.add(configuration.trial(trialSeed(index)));
+				}
+			}
+			return collect(workers.invokeAll(trials));
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
+	private static List<Trial> collect(List<Future<Trial>> results)
+			throws InterruptedException {
+		List<Trial> trials = new ArrayList<Trial>(results.size());
+		try {
+			for (Future<Trial> result : results) {
+				trials.add(result.get());
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("trial failed", e.getCause());
+		}
+		return trials;
+	}
+
+	/**
+	 * Writes one line of CSV per trial, after a header line.
+	 *
+	 * @param trials
+	 *            The trials, as returned by {@link #run()}.
+	 * @param out
+	 *            The destination of the lines.
+	 * @throws IOException
+	 *             If {@code out} cannot be written.
+	 */
+	public static void writeTrials(List<Trial> trials, Writer out)
+			throws IOException {
+		out.write(Configuration.CSV_HEADER
+				+ ",seed,solved,nanos,evaluations,callerThreadBytes\n");
+		for (Trial trial : trials) {
+			out.write(String.format(Locale.ROOT, "%s,%d,%b,%d,%d,%d%n",
+					trial.configuration.toCsv(), trial.seed, trial.solved,
+					trial.nanos, trial.evaluations, trial.callerThreadBytes));
+		}
+	}
+
+	/**
+	 * Writes the summary of each configuration as a line of CSV, after a
+	 * header line.
+	 *
+	 * @param trials
+	 *            The trials, as returned by {@link #run()}.
+	 * @param out
+	 *            The destination of the lines.
+	 * @throws IOException
+	 *             If {@code out} cannot be written.
+	 */
+	public static void writeSummaryCsv(List<Trial> trials, Writer out)
+			throws IOException {
+		StringBuilder header = new StringBuilder(Configuration.CSV_HEADER)
+				.append(",trials,solved,solvedRate,solvedRateLow,solvedRateHigh");
+		for (String measure : MEASURE_NAMES) {
+			header.append(',').append(measure).append("Mean,").append(measure)
+					.append("MeanLow,").append(measure).append("MeanHigh");
+			for (String quantile : QUANTILE_NAMES) {
+				header.append(',').append(measure).append('_').append(quantile)
+						.append(',').append(measure).append('_')
+						.append(quantile).append("Low,").append(measure)
+						.append('_').append(quantile).append("High");
+			}
+		}
+		out.write(header.append('\n').toString());
+
+		for (Summary summary : summarize(trials)) {
+			StringBuilder line = new StringBuilder(
+					summary.configuration.toCsv());
+			line.append(',').append(summary.trialCount).append(',')
+					.append(summary.solvedCount);
+			for (double value : summary.solvedRate) {
+				line.append(',').append(format(value));
+			}
+			for (double[] measure : summary.measures) {
+				for (double value : measure) {
+					line.append(',').append(format(value));
+				}
+			}
+			out.write(line.append('\n').toString());
+		}
+	}
+
+	/**
+	 * Writes the summaries of every configuration as a JSON array.
+	 *
+	 * @param trials
+	 *            The trials, as returned by {@link #run()}.
+	 * @param out
+	 *            The destination of the array.
+	 * @throws IOException
+	 *             If {@code out} cannot be written.
+	 */
+	public static void writeSummaryJson(List<Trial> trials, Writer out)
+			throws IOException {
+		StringBuilder json = new StringBuilder("[");
+		List<Summary> summaries = summarize(trials);
+		for (int i = 0; i < summaries.size(); i++) {
+			Summary summary = summaries.get(i);
+			json.append(i == 0 ? "\n" : ",\n").append("  {")
+					.append(summary.configuration.toJson())
+					.append(", \"trials\": ").append(summary.trialCount)
+					.append(", \"solved\": ").append(summary.solvedCount)
+					.append(", \"solvedRate\": ");
+			jsonInterval(json, summary.solvedRate, 0);
+			for (int measure = 0; measure < MEASURE_NAMES.length; measure++) {
+				double[] values = summary.measures[measure];
+				json.append(",\n    \"").append(MEASURE_NAMES[measure])
+						.append("\": {\"mean\": ");
+				jsonInterval(json, values, 0);
+				for (int q = 0; q < QUANTILES.length; q++) {
+					json.append(", \"").append(QUANTILE_NAMES[q])
+							.append("\": ");
+					jsonInterval(json, values, 3 * (q + 1));
+				}
+				json.append('}');
+			}
+			json.append('}');
+		}
+		out.write(json.append("\n]\n").toString());
+	}
+
+	private static void jsonInterval(StringBuilder json, double[] values,
+			int offset) {
+		json.append("{\"value\": ").append(jsonNumber(values[offset]))
+				.append(", \"low\": ").append(jsonNumber(values[offset + 1]))
+				.append(", \"high\": ").append(jsonNumber(values[offset + 2]))
+				.append('}');
+	}
+
+	private static String jsonNumber(double value) {
+		return Double.isNaN(value) ? "null" : format(value);
+	}
+
+	private static String format(double value) {
+		if (Double.isNaN(value)) {
+			return "";
+		}
+		if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			return Long.toString((long) value);
+		}
+		// Six significant digits, without trailing zeros
+		String text = String.format(Locale.ROOT, "%.6g", value);
+		int exponent = text.indexOf('e');
+		String mantissa = exponent < 0 ? text : text.substring(0, exponent);
+		if (mantissa.indexOf('.') >= 0) {
+			mantissa = mantissa.replaceAll("\\.?0+$", "");
+		}
+		return exponent < 0 ? mantissa : mantissa + text.substring(exponent);
+	}
+
+	/**
+	 * Summarizes the trials of each configuration, in the order in which the
+	 * configurations first appear.
+	 */
+	private static List<Summary> summarize(List<Trial> trials) {
+		List<Summary> summaries = new ArrayList<Summary>();
+		int from = 0;
+		while (from < trials.size()) {
+			int to = from + 1;
+			while (to < trials.size()
+					&& trials.get(to).configuration == trials.get(from).configuration) {
+				to++;
+			}
+			summaries.add(new Summary(trials.subList(from, to)));
+			from = to;
+		}
+		return summaries;
+	}
+
+	/**
+	 * Computes the {@code q}-quantile of sorted {@code values} by linear
+	 * interpolation between order statistics.
+	 */
+	private static double quantile(double[] values, double q) {
+		double rank = q * (values.length - 1);
+		int below = (int) Math.floor(rank);
+		int above = Math.min(below + 1, values.length - 1);
+		return values[below] + (rank - below) * (values[above] - values[below]);
+	}
+
+	/**
+	 * Bounds a 95% interval for the {@code q}-quantile of the distribution
+	 * from which sorted {@code values} were drawn. The number of values below
+	 * the quantile is binomial, so the interval lies between the order
+	 * statistics whose ranks are the bounds of a normal interval for that
+	 * number; it holds for any distribution.
+	 */
+	private static double[] quantileInterval(double[] values, double q) {
+		int n = values.length;
+		double spread = Z_95 * Math.sqrt(n * q * (1 - q));
+		int low = (int) Math.max(0, Math.floor(n * q - spread) - 1);
+		int high = (int) Math.min(n - 1, Math.ceil(n * q + spread));
+		return new double[] { quantile(values, q), values[low], values[high] };
+	}
+
+	/**
+	 * Bounds a 95% Wilson score interval for the proportion of
+	 * {@code successes} in {@code n} trials.
+	 */
+	private static double[] wilsonInterval(int successes, int n) {
+		double p = (double) successes / n;
+		double z2 = Z_95 * Z_95;
+		double centre = (p + z2 / (2 * n)) / (1 + z2 / n);
+		double spread = Z_95 / (1 + z2 / n)
+				* Math.sqrt(p * (1 - p) / n + z2 / (4.0d * n * n));
+		return new double[] { p, Math.max(0, centre - spread),
+				Math.min(1, centre + spread) };
+	}
+
+	/**
+	 * One point of the parameter sweep.
+	 */
+	static final class Configuration {
+
+		static final String CSV_HEADER = "solver,boardSize,budget,populationSize,mutationRate,crossover,initializer,temperature";
+
+		final Solver solver;
+		final int boardSize;
+		final long budget;
+		final int populationSize;
+		final double mutationRate;
+		final Crossover crossover;
+		final Initializer initializer;
+		final int temperature;
+
+		Configuration(Solver solver, int boardSize, long budget,
+				int populationSize, double mutationRate, Crossover crossover,
+				Initializer initializer, int temperature) {
+			if (solver == Solver.GENETIC
+					&& (populationSize < 2 || mutationRate < 0 || mutationRate > 1)) {
+				throw new IllegalArgumentException(String.format(
+						"cannot evolve %d boards at mutation rate %s",
+						populationSize, mutationRate));
+			}
+			this.solver = solver;
+			this.boardSize = boardSize;
+			this.budget = budget;
+			this.populationSize = populationSize;
+			this.mutationRate = mutationRate;
+			this.crossover = crossover;
+			this.initializer = initializer;
+			this.temperature = temperature;
+		}
+
+		int[] solve(Random rand) {
+			BoardConstraints constraints = new BoardConstraints(this.boardSize);
+			if (this.solver == Solver.GENETIC) {
+				return Solver.evolve(constraints, rand, this.budget, null,
+						this.populationSize, this.mutationRate, this.crossover,
+						null, this.initializer);
+			}
+			if (this.solver == Solver.SIMULATED_ANNEALING) {
+				return AnnealingUtils.simulatedAnnealingAgent(constraints,
+						this.temperature, rand, this.budget);
+			}
+			return this.solver.solve(constraints, rand, this.budget, null);
+		}
+
+		Callable<Trial> trial(final long seed) {
+			return new Callable<Trial>() {
+				public Trial call() {
+					return new Trial(Configuration.this, seed);
+				}
+			};
+		}
+
+		String toCsv() {
+			return String.format(Locale.ROOT, "%s,%d,%d,%s,%s,%s,%s,%s",
+					this.solver.getShortName(), this.boardSize, this.budget,
+					this.solver == Solver.GENETIC ? Integer
+							.toString(this.populationSize) : "",
+					this.solver == Solver.GENETIC ? format(this.mutationRate)
+							: "",
+					this.solver == Solver.GENETIC ? this.crossover.name()
+							.toLowerCase(Locale.ROOT) : "",
+					this.solver == Solver.GENETIC ? this.initializer.name()
+							.toLowerCase(Locale.ROOT) : "",
+					this.solver == Solver.SIMULATED_ANNEALING ? Integer
+							.toString(this.temperature) : "");
+		}
+
+		String toJson() {
+			StringBuilder json = new StringBuilder();
+			json.append("\"solver\": \"").append(this.solver.getShortName())
+					.append("\", \"boardSize\": ").append(this.boardSize)
+					.append(", \"budget\": ").append(this.budget);
+			if (this.solver == Solver.GENETIC) {
+				json.append(", \"populationSize\": ")
+						.append(this.populationSize)
+						.append(", \"mutationRate\": ")
+						.append(format(this.mutationRate))
+						.append(", \"crossover\": \"")
+						.append(this.crossover.name().toLowerCase(Locale.ROOT))
+						.append("\", \"initializer\": \"")
+						.append(this.initializer.name().toLowerCase(Locale.ROOT))
+						.append('"');
+			} else if (this.solver == Solver.SIMULATED_ANNEALING) {
+				json.append(", \"temperature\": ").append(this.temperature);
+			}
+			return json.toString();
+		}
+	}
+
+	/**
+	 * One run of a configuration with one seed.
+	 */
+	public static final class Trial {
+
+		final Configuration configuration;
+		final long seed;
+		final boolean solved;
+		final long nanos;
+		final long evaluations;
+
+		/**
+		 * The bytes allocated by the thread that ran the trial, or -1 if the
+		 * JVM cannot tell. Scoring done on the threads of the
+		 * shared {@link BatchScorer} is not counted.
+		 */
+		final long callerThreadBytes;
+
+		/**
+		 * Runs {@code configuration} with {@code seed} on the calling thread.
+		 */
+		Trial(Configuration configuration, long seed) {
+			this.configuration = configuration;
+			this.seed = seed;
+			long allocatedBefore = allocatedBytes();
+			long evaluationsBefore = EvaluationCounter.get();
+			long start = System.nanoTime();
+			int[] solution = configuration.solve(new Random(seed));
+			this.nanos = System.nanoTime() - start;
+			this.evaluations = EvaluationCounter.get() - evaluationsBefore;
+			long allocatedAfter = allocatedBytes();
+			this.callerThreadBytes = allocatedBefore < 0 ? -1 : allocatedAfter
+					- allocatedBefore;
+			this.solved = solution != null;
+		}
+
+		/**
+		 * Retrieves the seed of {@code this}.
+		 *
+		 * @return The seed from which the search drew its random numbers.
+		 */
+		public long getSeed() {
+			return this.seed;
+		}
+
+		/**
+		 * Determines whether the search of {@code this} found a solution.
+		 *
+		 * @return {@code true} if the trial was solved within its budget.
+		 */
+		public boolean isSolved() {
+			return this.solved;
+		}
+
+		/**
+		 * Retrieves the time taken by the search of {@code this}.
+		 *
+		 * @return The elapsed time of the trial, in nanoseconds.
+		 */
+		public long getNanos() {
+			return this.nanos;
+		}
+
+		/**
+		 * Retrieves the number of candidate solutions scored by the search.
+		 *
+		 * @return The evaluation count of the trial.
+		 */
+		public long getEvaluations() {
+			return this.evaluations;
+		}
+
+		/**
+		 * Retrieves the number of bytes allocated by the search on the thread
+		 * that ran it, excluding any scoring handed to the threads of
+		 * the shared {@link BatchScorer}.
+		 *
+		 * @return The bytes allocated by the thread of the trial, or -1 if
+		 *         the JVM cannot tell.
+		 */
+		public long getCallerThreadBytes() {
+			return this.callerThreadBytes;
+		}
+
+		/**
+		 * Measures the bytes allocated so far by the calling thread, where the
+		 * JVM supports it.
+		 */
+		private static long allocatedBytes() {
+			ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+			if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+				return -1;
+			}
+			com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+			if (!hotspot.isThreadAllocatedMemorySupported()
+					|| !hotspot.isThreadAllocatedMemoryEnabled()) {
+				return -1;
+			}
+			return hotspot.getThreadAllocatedBytes(Thread.currentThread()
+					.getId());
+		}
+	}
+
+	/**
+	 * The statistics of the trials of one configuration.
+	 */
+	static final class Summary {
+
+		final Configuration configuration;
+		final int trialCount;
+		final int solvedCount;
+
+		/**
+		 * The proportion of trials solved and the bounds of its interval.
+		 */
+		final double[] solvedRate;
+
+		/**
+		 * For each measure, over the solved trials: the mean, the median, and
+		 * the 95th and 99th percentiles, each followed by the bounds of its
+		 * interval; or NaN if no trial was solved.
+		 */
+		final double[][] measures = new double[MEASURE_NAMES.length][];
+
+		Summary(List<Trial> trials) {
+			this.configuration = trials.get(0).configuration;
+			this.trialCount = trials.size();
+			int solved = 0;
+			for (Trial trial : trials) {
+				if (trial.solved) {
+					solved++;
+				}
+			}
+			this.solvedCount = solved;
+			this.solvedRate = wilsonInterval(solved, trials.size());
+
+			for (int measure = 0; measure < MEASURE_NAMES.length; measure++) {
+				double[] values = new double[solved];
+				int i = 0;
+				for (Trial trial : trials) {
+					if (trial.solved) {
+						values[i++] = measure == 0 ? trial.nanos / 1e6
+								: measure == 1 ? trial.evaluations
+										: trial.callerThreadBytes;
+					}
+				}
+				this.measures[measure] = describe(values);
+			}
+		}
+
+		private static double[] describe(double[] values) {
+			double[] description = new double[3 * (QUANTILES.length + 1)];
+			if (values.length == 0) {
+				Arrays.fill(description, Double.NaN);
+				return description;
+			}
+			Arrays.sort(values);
+			double sum = 0.0d;
+			for (double value : values) {
+				sum += value;
+			}
+			double mean = sum / values.length;
+			double squares = 0.0d;
+			for (double value : values) {
+				squares += (value - mean) * (value - mean);
+			}
+			double spread = values.length < 2 ? Double.NaN : Z_95
+					* Math.sqrt(squares / (values.length - 1) / values.length);
+			description[0] = mean;
+			description[1] = mean - spread;
+			description[2] = mean + spread;
+			for (int q = 0; q < QUANTILES.length; q++) {
+				System.arraycopy(quantileInterval(values, QUANTILES[q]), 0,
+						description, 3 * (q + 1), 3);
+			}
+			return description;
+		}
+	}
+
+	public static void main(String[] args) throws IOException,
+			InterruptedException {
+		if (args.length < 2 || args.length > 3) {
+			System.out
+					.println("Usage: ExperimentRunner <specFile> <summaryFile> [trialFile]");
+			return;
+		}
+		Properties spec = new Properties();
+		Reader specReader = Files.newBufferedReader(Paths.get(args[0]),
+				StandardCharsets.UTF_8);
+		try {
+			spec.load(specReader);
+		} finally {
+			specReader.close();
+		}
+
+		ExperimentRunner runner = new ExperimentRunner(spec);
+		long start = System.nanoTime();
+		List<Trial> trials = runner.run();
+		System.out.println(String.format("%d trials of %d configurations in %.1f s",
+				trials.size(), runner.configurations.size(),
+				(System.nanoTime() - start) / 1e9));
+
+		Path summaryFile = Paths.get(args[1]);
+		Writer summary = Files.newBufferedWriter(summaryFile,
+				StandardCharsets.UTF_8);
+		try {
+			if (summaryFile.getFileName().toString().endsWith(".json")) {
+				writeSummaryJson(trials, summary);
+			} else {
+				writeSummaryCsv(trials, summary);
+			}
+		} finally {
+			summary.close();
+		}
+		if (args.length == 3) {
+			Writer trialWriter = Files.newBufferedWriter(Paths.get(args[2]),
+					StandardCharsets.UTF_8);
+			try {
+				writeTrials(trials, trialWriter);
+			} finally {
+				trialWriter.close();
+			}
+		}
+	}
+}
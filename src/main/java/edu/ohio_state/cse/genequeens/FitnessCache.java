@@ -0,0 +1,362 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Arrays;
+
+/**
+ * A bounded memo of fitness values keyed by a 64-bit genome hash (for a
+ * {@link edu.ohio_state.cse.genequeens.ChessBoard ChessBoard}, its Zobrist
+ * hash). After crossover and low-rate mutation many genomes reappear from one
+ * generation to the next, and local search revisits states, so looking a score
+ * up here is much cheaper than rescoring the genome.
+ * <p>
+ * Entries live in primitive arrays indexed by a {@link HashIndex}, so
+ * neither lookups nor insertions allocate. When the cache is full an entry is
+ * evicted according to the {@link EvictionPolicy EvictionPolicy} chosen at
+ * construction. All public methods are synchronized, so a single instance may
+ * be shared between threads.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class FitnessCache {
+
+	/**
+	 * The strategies by which a full {@code FitnessCache} makes room for a new
+	 * entry.
+	 */
+	public enum EvictionPolicy {
+		/**
+		 * Always admit the new entry and evict the least recently used one.
+		 */
+		LRU,
+		/**
+		 * Admit the new entry only if it has been requested more often than
+		 * the least recently used entry it would replace. Frequencies are
+		 * approximated with a small count-min sketch that is periodically
+		 * halved, so stale popularity fades over time.
+		 */
+		TINY_LFU
+	}
+
+	/**
+	 * Marks the absence of an entry, in the recency list and in the index.
+	 */
+	private static final int NIL = HashIndex.NIL;
+
+	/**
+	 * The number of independent rows in the frequency sketch.
+	 */
+	private static final int SKETCH_DEPTH = 4;
+
+	/**
+	 * The largest value a sketch counter may hold.
+	 */
+	private static final int SKETCH_MAX_COUNT = 15;
+
+	/**
+	 * The number of recorded accesses, per entry of capacity, after which
+	 * every sketch counter is halved.
+	 */
+	private static final int SKETCH_SAMPLE_FACTOR = 10;
+
+	private final int capacity;
+
+	private final EvictionPolicy policy;
+
+	/*
+	 * Entry storage. An entry is identified by its index into these arrays;
+	 * prev/next link the entries from most (head) to least (tail) recently
+	 * used.
+	 */
+	private final long[] keys;
+	private final double[] values;
+	private final int[] prev;
+	private final int[] next;
+	private int head = NIL;
+	private int tail = NIL;
+	private int size = 0;
+
+	/*
+	 * Index from a key to its entry.
+	 */
+	private final HashIndex index;
+
+	/*
+	 * Count-min sketch used by the TINY_LFU admission policy.
+	 */
+	private final byte[] sketch;
+	private final int sketchMask;
+	private final int sampleLimit;
+	private int samples = 0;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+	private long rejections = 0;
+
+	/**
+	 * Constructs an empty {@code FitnessCache} holding at most
+	 * {@code capacity} entries, evicting entries according to
+	 * {@code policy} once full.
+	 *
+	 * @param capacity
+	 *            The maximum number of fitness values held by {@code this}.
+	 * @param policy
+	 *            The strategy by which room is made for new entries.
+	 */
+	public FitnessCache(int capacity, EvictionPolicy policy) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: "
+					+ capacity);
+		}
+		this.capacity = capacity;
+		this.policy = policy;
+
+		this.keys = new long[capacity];
+		this.values = new double[capacity];
+		this.prev = new int[capacity];
+		this.next = new int[capacity];
+
+		this.index = new HashIndex(this.keys);
+
+		if (policy == EvictionPolicy.TINY_LFU) {
+			int sketchWidth = Integer.highestOneBit(capacity) << 1;
+			this.sketch = new byte[sketchWidth * SKETCH_DEPTH];
+			this.sketchMask = sketchWidth - 1;
+		} else {
+			this.sketch = new byte[0];
+			this.sketchMask = 0;
+		}
+		this.sampleLimit = SKETCH_SAMPLE_FACTOR * capacity;
+	}
+
+	/**
+	 * Retrieves the fitness value memoized for {@code key}, recording a hit or
+	 * a miss.
+	 *
+	 * @param key
+	 *            The hash of the genome whose fitness is requested.
+	 * @return The memoized fitness value, or {@code Double.NaN} if no value is
+	 *         held for {@code key}.
+	 */
+	public synchronized double get(long key) {
+		recordAccess(key);
+		int entry = this.index.find(key);
+		if (entry == NIL) {
+			this.misses++;
+			return Double.NaN;
+		}
+		this.hits++;
+		moveToHead(entry);
+		return this.values[entry];
+	}
+
+	/**
+	 * Memoizes {@code value} as the fitness of the genome hashed to
+	 * {@code key}. If {@code this} is full, an entry is evicted first, or
+	 * under {@link EvictionPolicy#TINY_LFU TINY_LFU} the new entry may be
+	 * rejected instead.
+	 *
+	 * @param key
+	 *            The hash of the genome whose fitness is being memoized.
+	 * @param value
+	 *            The fitness value of the genome.
+	 */
+	public synchronized void put(long key, double value) {
+		int entry = this.index.find(key);
+		if (entry != NIL) {
+			this.values[entry] = value;
+			moveToHead(entry);
+			return;
+		}
+		if (this.size < this.capacity) {
+			entry = this.size;
+			this.size++;
+		} else {
+			int victim = this.tail;
+			if (this.policy == EvictionPolicy.TINY_LFU
+					&& frequency(key) <= frequency(this.keys[victim])) {
+				this.rejections++;
+				return;
+			}
+			unlink(victim);
+			this.index.remove(this.keys[victim]);
+			this.evictions++;
+			entry = victim;
+		}
+		this.keys[entry] = key;
+		this.values[entry] = value;
+		this.index.insert(entry);
+		linkAtHead(entry);
+	}
+
+	/**
+	 * Removes every entry from {@code this}, along with its statistics.
+	 */
+	public synchronized void clear() {
+		this.index.clear();
+		Arrays.fill(this.sketch, (byte) 0);
+		this.head = NIL;
+		this.tail = NIL;
+		this.size = 0;
+		this.samples = 0;
+		this.hits = 0;
+		this.misses = 0;
+		this.evictions = 0;
+		this.rejections = 0;
+	}
+
+	/**
+	 * Retrieves the number of entries currently held by {@code this}.
+	 *
+	 * @return The number of memoized fitness values.
+	 */
+	public synchronized int size() {
+		return this.size;
+	}
+
+	/**
+	 * Retrieves the maximum number of entries {@code this} may hold.
+	 *
+	 * @return The capacity of {@code this}.
+	 */
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Retrieves the eviction policy {@code this} was constructed with.
+	 *
+	 * @return The eviction policy of {@code this}.
+	 */
+	public EvictionPolicy getEvictionPolicy() {
+		return this.policy;
+	}
+
+	/**
+	 * Retrieves the number of lookups that found a memoized value.
+	 *
+	 * @return The number of cache hits.
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Retrieves the number of lookups that found no memoized value.
+	 *
+	 * @return The number of cache misses.
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Retrieves the number of entries evicted to make room for new ones.
+	 *
+	 * @return The number of evictions.
+	 */
+	public synchronized long getEvictions() {
+		return this.evictions;
+	}
+
+	/**
+	 * Retrieves the number of new entries refused by the admission policy.
+	 *
+	 * @return The number of rejected insertions.
+	 */
+	public synchronized long getRejections() {
+		return this.rejections;
+	}
+
+	/**
+	 * Retrieves the fraction of lookups that found a memoized value.
+	 *
+	 * @return The hit rate of {@code this}, or zero if no lookups were made.
+	 */
+	public synchronized double hitRate() {
+		long lookups = this.hits + this.misses;
+		return lookups == 0 ? 0.0d : (double) this.hits / lookups;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format(
+				"FitnessCache[%s, size=%d/%d, hits=%d, misses=%d, "
+						+ "evictions=%d, rejections=%d]", this.policy,
+				this.size, this.capacity, this.hits, this.misses,
+				this.evictions, this.rejections);
+	}
+
+	private void linkAtHead(int entry) {
+		this.prev[entry] = NIL;
+		this.next[entry] = this.head;
+		if (this.head != NIL) {
+			this.prev[this.head] = entry;
+		}
+		this.head = entry;
+		if (this.tail == NIL) {
+			this.tail = entry;
+		}
+	}
+
+	private void unlink(int entry) {
+		int before = this.prev[entry];
+		int after = this.next[entry];
+		if (before == NIL) {
+			this.head = after;
+		} else {
+			this.next[before] = after;
+		}
+		if (after == NIL) {
+			this.tail = before;
+		} else {
+			this.prev[after] = before;
+		}
+	}
+
+	private void moveToHead(int entry) {
+		if (this.head != entry) {
+			unlink(entry);
+			linkAtHead(entry);
+		}
+	}
+
+	private void recordAccess(long key) {
+		if (this.policy != EvictionPolicy.TINY_LFU) {
+			return;
+		}
+		long hash = Hashing.scramble(key);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		int width = this.sketchMask + 1;
+		for (int row = 0; row < SKETCH_DEPTH; row++) {
+			int index = row * width + ((h1 + row * h2) & this.sketchMask);
+			if (this.sketch[index] < SKETCH_MAX_COUNT) {
+				this.sketch[index]++;
+			}
+		}
+		this.samples++;
+		if (this.samples >= this.sampleLimit) {
+			// Age every counter so that old popularity fades
+			for (int i = 0; i < this.sketch.length; i++) {
+				this.sketch[i] = (byte) (this.sketch[i] >>> 1);
+			}
+			this.samples /= 2;
+		}
+	}
+
+	private int frequency(long key) {
+		long hash = Hashing.scramble(key);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		int width = this.sketchMask + 1;
+		int frequency = SKETCH_MAX_COUNT;
+		for (int row = 0; row < SKETCH_DEPTH; row++) {
+			int index = row * width + ((h1 + row * h2) & this.sketchMask);
+			frequency = Math.min(frequency, this.sketch[index]);
+		}
+		return frequency;
+	}
+}
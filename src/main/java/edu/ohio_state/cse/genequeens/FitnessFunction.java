@@ -0,0 +1,33 @@
+package edu.ohio_state.cse.genequeens;
+
+/**
+ * A {@code FitnessFunction} scores the genetic sequence of a {@link Genome},
+ * so that a problem can be solved by
+ * {@link edu.ohio_state.cse.genequeens.GeneticAlgorithms GeneticAlgorithms}
+ * without sub-classing {@link Evolvable}. The problem is described by
+ * choosing a genome type whose genes fit it, such as a
+ * {@link PermutationGenome} for an ordering of jobs or a {@link BitGenome}
+ * for a choice of knapsack items, and implementing {@code this} to score it.
+ * <p>
+ * As with every {@code Evolvable}, a higher score is a fitter individual.
+ * Implementations should read genes through the accessors of the genome
+ * rather than copying them out, and must be safe for concurrent use if the
+ * population is evaluated by several threads.
+ * </p>
+ * 
+ * @author Ethan Hill
+ *
+ * @param <G>
+ *            The type of genome scored by {@code this}.
+ */
+public interface FitnessFunction<G extends Genome<G>> {
+
+	/**
+	 * Scores the genetic sequence of {@code genome}.
+	 * 
+	 * @param genome
+	 *            The genome to score. It must not be altered.
+	 * @return The fitness of {@code genome}; higher is fitter.
+	 */
+	double evaluate(G genome);
+}
@@ -0,0 +1,309 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@code FitnessSharing} keeps a population from converging onto clones of
+ * one individual by dividing the fitness score of every individual by its
+ * niche count, the number of individuals near it. Individuals in crowded
+ * niches then look less fit to mate selection than equally fit individuals
+ * alone in theirs.
+ * <p>
+ * The niche count of an individual is the sum, over the population, of the
+ * sharing function {@code 1 - (d / r)^alpha} of its Hamming distance
+ * {@code d} to each other individual within the sharing radius {@code r}.
+ * Computing it exactly takes time quadratic in the population size, so it is
+ * instead estimated, either from a fixed number of randomly sampled
+ * neighbours per individual in linear time, or from the buckets that
+ * locality-sensitive hashes of the genomes collide in, found by sorting the
+ * hashes. Populations of {@link ChessBoard}s may be shared either way, and
+ * populations of {@link Genome}s of one class by sampling.
+ * </p>
+ * <p>
+ * Shared scores stand in for the real ones only while mates are selected:
+ * {@link GeneticAlgorithms} shares a population after checking its goal and
+ * choosing its elites, and every individual bred from it is scored anew.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class FitnessSharing {
+
+	/**
+	 * The ways in which the neighbours of an individual may be found.
+	 */
+	public enum NeighbourSampling {
+		/**
+		 * Each individual is compared with a fixed number of individuals drawn
+		 * at random, and its niche count is extrapolated from them to the
+		 * whole population.
+		 */
+		SAMPLED_PAIRS,
+		/**
+		 * Each genome is hashed a fixed number of times, each time on the
+		 * genes of a few random columns, so that near genomes are likely to
+		 * share a hash and far ones are not. The niche count of an individual
+		 * is the average number of individuals sharing its hashes.
+		 */
+		LOCALITY_SENSITIVE_HASHING
+	}
+
+	private final NeighbourSampling sampling;
+
+	private final double radius;
+
+	private final double alpha;
+
+	private final int samples;
+
+	/**
+	 * Constructs a {@code FitnessSharing} with the triangular sharing function
+	 * ({@code alpha} of one).
+	 *
+	 * @param sampling
+	 *            How the neighbours of an individual are found.
+	 * @param radius
+	 *            The sharing radius, as a fraction of the genes of an
+	 *            individual, between zero and one.
+	 * @param samples
+	 *            The number of neighbours sampled per individual, or the number
+	 *            of hashes of each genome.
+	 * @throws IllegalArgumentException
+	 *             If {@code radius} is not between zero and one or
+	 *             {@code samples} is not positive.
+	 */
+	public FitnessSharing(NeighbourSampling sampling, double radius,
+			int samples) {
+		this(sampling, radius, 1.0d, samples);
+	}
+
+	/**
+	 * Constructs a {@code FitnessSharing}.
+	 *
+	 * @param sampling
+	 *            How the neighbours of an individual are found.
+	 * @param radius
+	 *            The sharing radius, as a fraction of the genes of an
+	 *            individual, between zero and one.
+	 * @param alpha
+	 *            The exponent of the sharing function.
+	 * @param samples
+	 *            The number of neighbours sampled per individual, or the number
+	 *            of hashes of each genome.
+	 * @throws IllegalArgumentException
+	 *             If {@code radius} is not between zero and one, or
+	 *             {@code alpha} or {@code samples} is not positive.
+	 */
+	public FitnessSharing(NeighbourSampling sampling, double radius,
+			double alpha, int samples) {
+		if (!(radius > 0 && radius <= 1) || !(alpha > 0) || samples <= 0) {
+			throw new IllegalArgumentException(String.format(
+					"cannot share within radius %s, alpha %s, over %d samples",
+					radius, alpha, samples));
+		}
+		this.sampling = sampling;
+		this.radius = radius;
+		this.alpha = alpha;
+		this.samples = samples;
+	}
+
+	/**
+	 * Constructs a {@code FitnessSharing} comparing each individual with eight
+	 * sampled neighbours, within a radius of a quarter of its genes.
+	 */
+	public FitnessSharing() {
+		this(NeighbourSampling.SAMPLED_PAIRS, 0.25d, 8);
+	}
+
+	/**
+	 * Retrieves how the neighbours of an individual are found.
+	 *
+	 * @return The neighbour sampling of {@code this}.
+	 */
+	public NeighbourSampling getSampling() {
+		return this.sampling;
+	}
+
+	/**
+	 * Retrieves the sharing radius, as a fraction of the genes of an
+	 * individual.
+	 *
+	 * @return The sharing radius of {@code this}.
+	 */
+	public double getRadius() {
+		return this.radius;
+	}
+
+	/**
+	 * Retrieves the exponent of the sharing function.
+	 *
+	 * @return The alpha of {@code this}.
+	 */
+	public double getAlpha() {
+		return this.alpha;
+	}
+
+	/**
+	 * Retrieves the number of neighbours sampled per individual, or the
+	 * number of hashes of each genome.
+	 *
+	 * @return The samples of {@code this}.
+	 */
+	public int getSamples() {
+		return this.samples;
+	}
+
+	/**
+	 * Divides the fitness score of every individual of {@code population} by
+	 * its estimated niche count, which is at least one. The individuals must
+	 * have been scored, and be either {@link ChessBoard}s of one size or
+	 * {@link Genome}s of one class and length.
+	 *
+	 * @param population
+	 *            The population to share.
+	 * @param rand
+	 *            The source of randomness for sampling neighbours or choosing
+	 *            the hashed columns.
+	 * @throws IllegalArgumentException
+	 *             If the individuals of {@code population} are not of one
+	 *             class, are neither {@code ChessBoard}s nor {@code Genome}s,
+	 *             or are {@code Genome}s to be shared by
+	 *             {@link NeighbourSampling#LOCALITY_SENSITIVE_HASHING}.
+	 */
+	public void share(Collection<Evolvable> population, Random rand) {
+		List<Evolvable> individuals = new ArrayList<Evolvable>(population);
+		if (individuals.size() < 2) {
+			return;
+		}
+		Class<?> type = individuals.get(0).getClass();
+		for (Evolvable individual : individuals) {
+			if (individual.getClass() != type) {
+				throw new IllegalArgumentException(String.format(
+						"cannot share fitness between %s and %s",
+						type.getName(), individual.getClass().getName()));
+			}
+		}
+		if (!ChessBoard.class.isAssignableFrom(type)
+				&& !Genome.class.isAssignableFrom(type)) {
+			throw new IllegalArgumentException(String.format(
+					"cannot measure distances between individuals of type %s",
+					type.getName()));
+		}
+		double[] nicheCounts;
+		if (this.sampling == NeighbourSampling.LOCALITY_SENSITIVE_HASHING) {
+			if (!ChessBoard.class.isAssignableFrom(type)) {
+				throw new IllegalArgumentException(String.format(
+						"cannot hash the genes of individuals of type %s",
+						type.getName()));
+			}
+			List<ChessBoard> boards = new ArrayList<ChessBoard>(
+					individuals.size());
+			for (Evolvable individual : individuals) {
+				boards.add((ChessBoard) individual);
+			}
+			nicheCounts = hashedNicheCounts(boards, rand);
+		} else {
+			nicheCounts = sampledNicheCounts(individuals, rand);
+		}
+		for (int i = 0; i < individuals.size(); i++) {
+			Evolvable individual = individuals.get(i);
+			individual.setFitnessScore(individual.getFitnessScore()
+					/ nicheCounts[i]);
+		}
+	}
+
+	/**
+	 * Retrieves the number of genes of {@code individual}, a
+	 * {@link ChessBoard} or {@link Genome}.
+	 */
+	private static int lengthOf(Evolvable individual) {
+		if (individual instanceof ChessBoard) {
+			return ((ChessBoard) individual).getBoardSize();
+		}
+		return ((Genome<?>) individual).length();
+	}
+
+	/**
+	 * Estimates the niche count of each individual from {@code samples}
+	 * others drawn at random, scaled up to the size of the population.
+	 */
+	private double[] sampledNicheCounts(List<Evolvable> individuals,
+			Random rand) {
+		int count = individuals.size();
+		double limit = this.radius * lengthOf(individuals.get(0));
+		double scale = (double) (count - 1) / this.samples;
+		double[] nicheCounts = new double[count];
+		for (int i = 0; i < count; i++) {
+			Evolvable individual = individuals.get(i);
+			double sum = 0.0d;
+			for (int sample = 0; sample < this.samples; sample++) {
+				// Draw another individual
+				int j = (i + 1 + rand.nextInt(count - 1)) % count;
+				int distance = GeneticAlgorithms.distance(individual,
+						individuals.get(j));
+				if (distance < limit) {
+					sum += this.alpha == 1.0d ? 1.0d - distance / limit
+							: 1.0d - Math.pow(distance / limit, this.alpha);
+				}
+			}
+			nicheCounts[i] = 1.0d + scale * sum;
+		}
+		return nicheCounts;
+	}
+
+	/**
+	 * Estimates the niche count of each board as the number of boards whose
+	 * hashes equal its own, averaged over {@code samples} hashes. Each hash
+	 * covers enough random columns that two boards the sharing radius apart
+	 * share it with a probability of about one half. Boards sharing a hash
+	 * are found by sorting the hashes, each with the index of its board in
+	 * its low bits, so that equal hashes form runs of one flat array.
+	 */
+	private double[] hashedNicheCounts(List<ChessBoard> boards, Random rand) {
+		int count = boards.size();
+		int boardSize = boards.get(0).getBoardSize();
+		// (1 - radius)^columns = 1/2
+		int columns = (int) Math.max(1, Math.min(boardSize,
+				Math.round(Math.log(0.5d) / Math.log(1.0d - this.radius))));
+		int indexBits = 32 - Integer.numberOfLeadingZeros(count - 1);
+		long indexMask = (1L << indexBits) - 1;
+
+		int[] hashedColumns = new int[columns];
+		long[] keys = new long[count];
+		double[] nicheCounts = new double[count];
+		for (int sample = 0; sample < this.samples; sample++) {
+			for (int c = 0; c < columns; c++) {
+				hashedColumns[c] = rand.nextInt(boardSize);
+			}
+			for (int i = 0; i < count; i++) {
+				ChessBoard board = boards.get(i);
+				long hash = sample;
+				for (int column : hashedColumns) {
+					hash = Hashing.mix(hash, board.geneAt(column));
+				}
+				keys[i] = hash << indexBits | i;
+			}
+			Arrays.sort(keys);
+			for (int run = 0; run < count;) {
+				long hash = keys[run] >>> indexBits;
+				int end = run + 1;
+				while (end < count && keys[end] >>> indexBits == hash) {
+					end++;
+				}
+				for (int k = run; k < end; k++) {
+					nicheCounts[(int) (keys[k] & indexMask)] += end - run;
+				}
+				run = end;
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			nicheCounts[i] /= this.samples;
+		}
+		return nicheCounts;
+	}
+}
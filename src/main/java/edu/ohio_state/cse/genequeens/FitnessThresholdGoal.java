@@ -0,0 +1,48 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Collection;
+
+/**
+ * A {@code FitnessThresholdGoal} is satisfied once any individual of a
+ * population reaches a target fitness. Unlike
+ * {@link ChessBoard.QueensGoal QueensGoal}, it makes no assumption about the
+ * class of the individuals, so it serves any problem whose best possible
+ * score is known, such as a {@link Genome} scored by a
+ * {@link FitnessFunction}.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class FitnessThresholdGoal implements EvolutionaryGoal {
+
+	private final double targetFitness;
+
+	/**
+	 * Constructs a {@code FitnessThresholdGoal} satisfied by a fitness of at
+	 * least {@code targetFitness}.
+	 *
+	 * @param targetFitness
+	 *            The fitness an individual must reach.
+	 */
+	public FitnessThresholdGoal(double targetFitness) {
+		this.targetFitness = targetFitness;
+	}
+
+	/**
+	 * Retrieves the fitness an individual must reach.
+	 *
+	 * @return The target fitness of {@code this}.
+	 */
+	public double getTargetFitness() {
+		return this.targetFitness;
+	}
+
+	public boolean isSatisfied(Collection<Evolvable> population) {
+		for (Evolvable individual : population) {
+			if (individual.getFitnessScore() >= this.targetFitness) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
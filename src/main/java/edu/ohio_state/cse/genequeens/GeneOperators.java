@@ -0,0 +1,338 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Random;
+
+/**
+ * Crossover and mutation operators over primitive gene arrays, used by the
+ * {@link Genome} types. Every operator works in place on the arrays it is
+ * given and allocates nothing, so breeding a large population creates no
+ * garbage beyond the offspring themselves.
+ * <p>
+ * Mutation operators visit only the genes that mutate: the gap to the next
+ * mutated gene is drawn from a geometric distribution, so a low mutation rate
+ * over a long genome costs a handful of random numbers rather than one per
+ * gene.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public final class GeneOperators {
+
+	private GeneOperators() {
+	}
+
+	/**
+	 * Draws the number of genes skipped before the next one to mutate, when
+	 * each gene mutates independently with probability {@code mutationRate}.
+	 *
+	 * @param mutationRate
+	 *            The probability that a gene is mutated.
+	 * @param rand
+	 *            The source of randomness.
+	 * @return The number of genes to skip, or {@code Integer.MAX_VALUE} if no
+	 *         gene is ever mutated.
+	 */
+	public static int nextMutationGap(double mutationRate, Random rand) {
+		if (mutationRate >= 1.0d) {
+			return 0;
+		}
+		if (mutationRate <= 0.0d) {
+			return Integer.MAX_VALUE;
+		}
+		double gap = Math.floor(Math.log(1.0d - rand.nextDouble())
+				/ Math.log(1.0d - mutationRate));
+		return gap >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) gap;
+	}
+
+	/**
+	 * Draws a crossover point splitting a genetic sequence of {@code length}
+	 * genes into two non-empty parts.
+	 *
+	 * @param length
+	 *            The number of genes, at least two.
+	 * @param rand
+	 *            The source of randomness.
+	 * @return A point between 1 and {@code length - 1} inclusive.
+	 */
+	public static int crossoverPoint(int length, Random rand) {
+		return 1 + rand.nextInt(length - 1);
+	}
+
+	/**
+	 * Exchanges the genes of {@code a} and {@code b} from index {@code from}
+	 * onward, performing single-point crossover.
+	 *
+	 * @param a
+	 *            The genes of one parent, replaced by those of one child.
+	 * @param b
+	 *            The genes of the other parent, replaced by those of the other
+	 *            child.
+	 * @param from
+	 *            The crossover point.
+	 */
+	public static void swapTails(int[] a, int[] b, int from) {
+		swapRange(a, b, from, a.length);
+	}
+
+	/**
+	 * Exchanges the genes of {@code a} and {@code b} at the indices
+	 * {@code [from, to)}. The exchange runs as a plain loop, which the
+	 * compiler vectorizes; copying the range out and back with
+	 * {@link System#arraycopy} through a buffer is no faster for genomes of a
+	 * few hundred genes, and slower for shorter ones.
+	 *
+	 * @param a
+	 *            The genes of one parent, replaced by those of one child.
+	 * @param b
+	 *            The genes of the other parent, replaced by those of the other
+	 *            child.
+	 * @param from
+	 *            The first index exchanged.
+	 * @param to
+	 *            The index after the last exchanged.
+	 */
+	public static void swapRange(int[] a, int[] b, int from, int to) {
+		for (int i = from; i < to; i++) {
+			int gene = a[i];
+			a[i] = b[i];
+			b[i] = gene;
+		}
+	}
+
+	/**
+	 * Exchanges each gene of {@code a} with that of {@code b} with probability
+	 * one half, performing uniform crossover. The genes exchanged are chosen
+	 * by the bits of one random {@code long} per 64 genes rather than by one
+	 * random number per gene, and only the genes exchanged are visited.
+	 *
+	 * @param a
+	 *            The genes of one parent, replaced by those of one child.
+	 * @param b
+	 *            The genes of the other parent, replaced by those of the other
+	 *            child.
+	 * @param rand
+	 *            The source of randomness.
+	 */
+	public static void swapUniform(int[] a, int[] b, Random rand) {
+		for (int base = 0; base < a.length; base += 64) {
+			long mask = rand.nextLong();
+			if (a.length - base < 64) {
+				mask &= (1L << (a.length - base)) - 1;
+			}
+			while (mask != 0) {
+				int i = base + Long.numberOfTrailingZeros(mask);
+				int gene = a[i];
+				a[i] = b[i];
+				b[i] = gene;
+				mask &= mask - 1;
+			}
+		}
+	}
+
+	/**
+	 * Exchanges the genes of {@code a} and {@code b} from index {@code from}
+	 * onward, performing single-point crossover.
+	 *
+	 * @param a
+	 *            The genes of one parent, replaced by those of one child.
+	 * @param b
+	 *            The genes of the other parent, replaced by those of the other
+	 *            child.
+	 * @param from
+	 *            The crossover point.
+	 */
+	public static void swapTails(double[] a, double[] b, int from) {
+		for (int i = from; i < a.length; i++) {
+			double gene = a[i];
+			a[i] = b[i];
+			b[i] = gene;
+		}
+	}
+
+	/**
+	 * Exchanges the bits of the bitsets {@code a} and {@code b} from bit
+	 * {@code fromBit} onward, performing single-point crossover a word at a
+	 * time.
+	 *
+	 * @param a
+	 *            The words of one parent, replaced by those of one child.
+	 * @param b
+	 *            The words of the other parent, replaced by those of the other
+	 *            child.
+	 * @param fromBit
+	 *            The crossover point.
+	 */
+	public static void swapBitTails(long[] a, long[] b, int fromBit) {
+		int word = fromBit >>> 6;
+		if (word >= a.length) {
+			return;
+		}
+		long mask = -1L << (fromBit & 63);
+		long difference = (a[word] ^ b[word]) & mask;
+		a[word] ^= difference;
+		b[word] ^= difference;
+		for (int i = word + 1; i < a.length; i++) {
+			long bits = a[i];
+			a[i] = b[i];
+			b[i] = bits;
+		}
+	}
+
+	/**
+	 * Performs partially mapped crossover between the permutations {@code a}
+	 * and {@code b} over the segment {@code [from, to)}: each child receives
+	 * the segment of the other parent, and keeps the rest of its own
+	 * ordering with the displaced values swapped into place. The inverse
+	 * permutations {@code positionsA} and {@code positionsB}, mapping each
+	 * value to its index, are kept up to date, which is what lets the
+	 * crossover run in place.
+	 *
+	 * @param a
+	 *            The first permutation.
+	 * @param positionsA
+	 *            The inverse of {@code a}.
+	 * @param b
+	 *            The second permutation.
+	 * @param positionsB
+	 *            The inverse of {@code b}.
+	 * @param from
+	 *            The first index of the exchanged segment.
+	 * @param to
+	 *            The index after the last of the exchanged segment.
+	 */
+	public static void partiallyMappedCrossover(int[] a, int[] positionsA,
+			int[] b, int[] positionsB, int from, int to) {
+		for (int i = from; i < to; i++) {
+			int valueA = a[i];
+			int valueB = b[i];
+			if (valueA == valueB) {
+				continue;
+			}
+			// Bring valueB to index i of a, and valueA to index i of b
+			swapPositions(a, positionsA, i, positionsA[valueB]);
+			swapPositions(b, positionsB, i, positionsB[valueA]);
+		}
+	}
+
+	/**
+	 * Swaps two entries of a permutation and updates its inverse.
+	 *
+	 * @param permutation
+	 *            The permutation.
+	 * @param positions
+	 *            The inverse of {@code permutation}.
+	 * @param i
+	 *            The first index.
+	 * @param j
+	 *            The second index.
+	 */
+	public static void swapPositions(int[] permutation, int[] positions,
+			int i, int j) {
+		int valueI = permutation[i];
+		int valueJ = permutation[j];
+		permutation[i] = valueJ;
+		permutation[j] = valueI;
+		positions[valueJ] = i;
+		positions[valueI] = j;
+	}
+
+	/**
+	 * Replaces each gene of {@code genes}, with probability
+	 * {@code mutationRate}, by a value drawn uniformly from
+	 * {@code [0, bound)}.
+	 *
+	 * @param genes
+	 *            The genes to mutate.
+	 * @param bound
+	 *            The exclusive upper bound of a gene.
+	 * @param mutationRate
+	 *            The probability that a gene is mutated.
+	 * @param rand
+	 *            The source of randomness.
+	 */
+	public static void mutateUniform(int[] genes, int bound,
+			double mutationRate, Random rand) {
+		for (int i = nextMutationGap(mutationRate, rand); i < genes.length; i = skip(
+				i, mutationRate, rand)) {
+			genes[i] = rand.nextInt(bound);
+		}
+	}
+
+	/**
+	 * Flips each of the first {@code bitLength} bits of {@code words} with
+	 * probability {@code mutationRate}.
+	 *
+	 * @param words
+	 *            The bitset to mutate.
+	 * @param bitLength
+	 *            The number of bits in use.
+	 * @param mutationRate
+	 *            The probability that a bit is flipped.
+	 * @param rand
+	 *            The source of randomness.
+	 */
+	public static void flipBits(long[] words, int bitLength,
+			double mutationRate, Random rand) {
+		for (int i = nextMutationGap(mutationRate, rand); i < bitLength; i = skip(
+				i, mutationRate, rand)) {
+			words[i >>> 6] ^= 1L << (i & 63);
+		}
+	}
+
+	/**
+	 * Adds Gaussian noise of standard deviation {@code sigma} to each gene of
+	 * {@code genes} with probability {@code mutationRate}, clamping the result
+	 * to {@code [lower, upper]}.
+	 *
+	 * @param genes
+	 *            The genes to mutate.
+	 * @param lower
+	 *            The least value of a gene.
+	 * @param upper
+	 *            The greatest value of a gene.
+	 * @param sigma
+	 *            The standard deviation of the noise.
+	 * @param mutationRate
+	 *            The probability that a gene is mutated.
+	 * @param rand
+	 *            The source of randomness.
+	 */
+	public static void mutateGaussian(double[] genes, double lower,
+			double upper, double sigma, double mutationRate, Random rand) {
+		for (int i = nextMutationGap(mutationRate, rand); i < genes.length; i = skip(
+				i, mutationRate, rand)) {
+			double gene = genes[i] + sigma * rand.nextGaussian();
+			genes[i] = Math.max(lower, Math.min(upper, gene));
+		}
+	}
+
+	/**
+	 * Swaps each entry of a permutation, with probability
+	 * {@code mutationRate}, with an entry drawn uniformly from the whole
+	 * permutation, keeping its inverse up to date.
+	 *
+	 * @param permutation
+	 *            The permutation to mutate.
+	 * @param positions
+	 *            The inverse of {@code permutation}.
+	 * @param mutationRate
+	 *            The probability that an entry is swapped.
+	 * @param rand
+	 *            The source of randomness.
+	 */
+	public static void swapMutate(int[] permutation, int[] positions,
+			double mutationRate, Random rand) {
+		for (int i = nextMutationGap(mutationRate, rand); i < permutation.length; i = skip(
+				i, mutationRate, rand)) {
+			swapPositions(permutation, positions, i,
+					rand.nextInt(permutation.length));
+		}
+	}
+
+	private static int skip(int index, double mutationRate, Random rand) {
+		int gap = nextMutationGap(mutationRate, rand);
+		return gap >= Integer.MAX_VALUE - index ? Integer.MAX_VALUE : index
+				+ 1 + gap;
+	}
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Random;
 
 /**
@@ -21,13 +22,22 @@ public class GeneticAlgorithms {
 	 * found by De Jong and Spears in "An Analysis of the Interacting Roles of
 	 * Population Size and Crossover in Genetic Algorithms".
 	 */
-	private static final double MUTATION_RATE_DEJONG = 0.001d;
+	static final double MUTATION_RATE_DEJONG = 0.001d;
 
 	private static final int CONVERGENCE_THRESHOLD = 10;
 
+	/**
+	 * The least number of boards scored through the {@link BatchScorer}
+	 * rather than one at a time.
+	 */
+	private static final int BATCH_SCORING_THRESHOLD = 32;
+
 	/**
 	 * Totals the fitnessScores of all individuals that appear in
-	 * {@code population}.
+	 * {@code population}. A population of {@link ChessBoard}s of one size,
+	 * whose genes are primitive arrays, is gathered into a genome matrix and
+	 * scored in batch by the {@link BatchScorer#getShared() shared}
+	 * {@code BatchScorer}.
 	 * 
 	 * @param population
 	 *            The population whose total fitness score is to be calculated.
@@ -35,7 +45,12 @@ public class GeneticAlgorithms {
 	 */
 	public static double evaluatePopulation(Collection<Evolvable> population) {
 		assert !population.isEmpty() : "population is empty";
+		EvaluationCounter.add(population.size());
 
+		List<ChessBoard> boards = batchableBoardsOf(population);
+		if (boards != null) {
+			return BatchScorer.getShared().scoreBoards(boards, null);
+		}
 		double populationFitness = 0.0d;
 		for (Evolvable member : population) {
 			populationFitness += member.evaluateFitness();
@@ -43,6 +58,66 @@ public class GeneticAlgorithms {
 		return populationFitness;
 	}
 
+	/**
+	 * Totals the fitnessScores of all individuals that appear in
+	 * {@code population}, consulting {@code cache} so that individuals whose
+	 * genetic sequence was already scored are not rescored.
+	 *
+	 * @param population
+	 *            The population whose total fitness score is to be calculated.
+	 * @param cache
+	 *            A memo of previously computed scores, keyed by genome hash.
+	 * @return The total fitness score of {@code population}.
+	 * @see Evolvable#evaluateFitness(FitnessCache)
+	 */
+	public static double evaluatePopulation(Collection<Evolvable> population,
+			FitnessCache cache) {
+		assert !population.isEmpty() : "population is empty";
+		EvaluationCounter.add(population.size());
+
+		List<ChessBoard> boards = batchableBoardsOf(population);
+		if (boards != null) {
+			return BatchScorer.getShared().scoreBoards(boards, cache);
+		}
+
+		double populationFitness = 0.0d;
+		for (Evolvable member : population) {
+			populationFitness += member.evaluateFitness(cache);
+		}
+		return populationFitness;
+	}
+
+	/**
+	 * Retrieves the individuals of {@code population} as {@link ChessBoard}s
+	 * to be scored in batch, if there are enough of them and every one is a
+	 * plain {@code ChessBoard} of the same size.
+	 * 
+	 * @return The boards of {@code population}, or {@code null} if it is not
+	 *         to be scored in batch.
+	 */
+	private static List<ChessBoard> batchableBoardsOf(
+			Collection<Evolvable> population) {
+		if (population.size() < BATCH_SCORING_THRESHOLD) {
+			return null;
+		}
+		List<ChessBoard> boards = new ArrayList<ChessBoard>(population.size());
+		int boardSize = -1;
+		for (Evolvable member : population) {
+			// A sub-class may score itself differently
+			if (member.getClass() != ChessBoard.class) {
+				return null;
+			}
+			ChessBoard board = (ChessBoard) member;
+			if (boardSize == -1) {
+				boardSize = board.getBoardSize();
+			} else if (board.getBoardSize() != boardSize) {
+				return null;
+			}
+			boards.add(board);
+		}
+		return boards;
+	}
+
 	/**
 	 * Retrieves the most fit individual found in a population of
 	 * {@link edu.ohio_state.cse.genequeens.Evolvable Evolvable} individuals.
@@ -57,13 +132,44 @@ public class GeneticAlgorithms {
 			Collection<Evolvable> population) {
 		assert !population.isEmpty() : "population is empty";
 
-		List<Evolvable> list = new ArrayList<Evolvable>(population);
-		Collections.sort(list);
-		// Get the topmost individual
-		Evolvable mostFitIndividual = list.get(0);
+		// The topmost individual is the greatest in the natural ordering
+		Evolvable mostFitIndividual = Collections.max(population);
 		return mostFitIndividual;
 	}
 
+	/**
+	 * Retrieves the {@code count} most fit individuals found in a population
+	 * of {@link edu.ohio_state.cse.genequeens.Evolvable Evolvable}
+	 * individuals, most fit first. Rather than sorting the whole population,
+	 * the best individuals seen so far are kept in a heap of size
+	 * {@code count}.
+	 * 
+	 * @param population
+	 *            The population from which the most fit individuals are
+	 *            selected.
+	 * @param count
+	 *            The number of individuals to select.
+	 * @return A list of the {@code count} most fit individuals of
+	 *         {@code population}, or of the whole population if it is smaller.
+	 */
+	public static List<Evolvable> findMostFitIndividuals(
+			Collection<Evolvable> population, int count) {
+		// Least fit of the best individuals seen so far is at the head
+		PriorityQueue<Evolvable> best = new PriorityQueue<Evolvable>(
+				Math.max(1, count + 1));
+		for (Evolvable member : population) {
+			if (best.size() < count) {
+				best.offer(member);
+			} else if (count > 0 && member.compareTo(best.peek()) > 0) {
+				best.poll();
+				best.offer(member);
+			}
+		}
+		List<Evolvable> mostFitIndividuals = new ArrayList<Evolvable>(best);
+		Collections.sort(mostFitIndividuals, Collections.reverseOrder());
+		return mostFitIndividuals;
+	}
+
 	/**
 	 * Creates the next generation of individuals by selecting mates for,
 	 * exchanging genes between, and mutating the result of
@@ -92,29 +198,187 @@ public class GeneticAlgorithms {
 			MateSelector<Evolvable> mateSelector, double mutationRate) {
 		assert !population.isEmpty() : "population is empty";
 
-		Collection<Evolvable> nextGeneration = new ArrayList<Evolvable>();
+		return breed(population, mateSelector, mutationRate, 1.0d,
+				Crossover.SINGLE_POINT, population.size(), new Random());
+	}
+
+	/**
+	 * Creates the next generation of individuals as
+	 * {@link #createNextGeneration(Collection, MateSelector, double)} does,
+	 * except that copies of the {@code eliteCount} most fit individuals of
+	 * {@code population} are carried over into the next generation unchanged,
+	 * so that the best individual is never destroyed by genetic exchange. The
+	 * elite copies keep their fitness scores; only the remaining individuals
+	 * of the next generation are offspring.
+	 * 
+	 * @param population
+	 *            The population from which a new generation is formed.
+	 * @param mateSelector
+	 *            An implementation of {@code MateSelector} that chooses a mate
+	 *            for an individual from {@code population}.
+	 * @param mutationRate
+	 *            The probability at which a mutation is applied to the genes of
+	 *            individuals in {@code population} after genetic exchange.
+	 * @param eliteCount
+	 *            The number of most fit individuals carried over unchanged.
+	 * @return A collection of {@code Evovlable}s generated from
+	 *         {@code population}, the elite individuals first.
+	 */
+	public static Collection<Evolvable> createNextGeneration(
+			Collection<Evolvable> population,
+			MateSelector<Evolvable> mateSelector, double mutationRate,
+			int eliteCount) {
+		assert !population.isEmpty() : "population is empty";
+
+		List<Evolvable> elites = findMostFitIndividuals(population, eliteCount);
+		Collection<Evolvable> nextGeneration = new ArrayList<Evolvable>(
+				population.size());
+		for (Evolvable elite : elites) {
+			nextGeneration.add(elite.copy());
+		}
+		nextGeneration.addAll(breed(population, mateSelector, mutationRate,
+				1.0d, Crossover.SINGLE_POINT, population.size() - elites.size(),
+				new Random()));
+		return nextGeneration;
+	}
+
+	/**
+	 * Creates the next generation of individuals as
+	 * {@link #createNextGeneration(Collection, MateSelector, double)} does,
+	 * except that mates are selected on the fitness scores of
+	 * {@code population} as shared by {@code sharing}, so that individuals in
+	 * crowded niches are less likely to breed. Every individual of the next
+	 * generation is an offspring, to be scored anew.
+	 * 
+	 * @param population
+	 *            The scored population from which a new generation is formed.
+	 * @param mateSelector
+	 *            An implementation of {@code MateSelector} that chooses a mate
+	 *            for an individual from {@code population}.
+	 * @param mutationRate
+	 *            The probability at which a mutation is applied to the genes of
+	 *            individuals in {@code population} after genetic exchange.
+	 * @param sharing
+	 *            The scheme by which fitness scores are shared.
+	 * @return A collection of {@code Evovlable}s generated from
+	 *         {@code population}.
+	 */
+	public static Collection<Evolvable> createNextGeneration(
+			Collection<Evolvable> population,
+			MateSelector<Evolvable> mateSelector, double mutationRate,
+			FitnessSharing sharing) {
+		assert !population.isEmpty() : "population is empty";
+
+		Random rand = new Random();
+		sharing.share(population, rand);
+		return breed(population, mateSelector, mutationRate, 1.0d,
+				Crossover.SINGLE_POINT, population.size(), rand);
+	}
+
+	/**
+	 * Creates the next generation of individuals as
+	 * {@link #createNextGeneration(Collection, MateSelector, double)} does,
+	 * then refines the offspring with a few moves of local search through
+	 * {@code refinement}, making the genetic algorithm a memetic one.
+	 * 
+	 * @param population
+	 *            The population from which a new generation is formed.
+	 * @param mateSelector
+	 *            An implementation of {@code MateSelector} that chooses a mate
+	 *            for an individual from {@code population}.
+	 * @param mutationRate
+	 *            The probability at which a mutation is applied to the genes of
+	 *            individuals in {@code population} after genetic exchange.
+	 * @param refinement
+	 *            The local search with which offspring are refined.
+	 * @return A collection of {@code Evovlable}s generated from
+	 *         {@code population}.
+	 */
+	public static Collection<Evolvable> createNextGeneration(
+			Collection<Evolvable> population,
+			MateSelector<Evolvable> mateSelector, double mutationRate,
+			MemeticRefinement refinement) {
+		assert !population.isEmpty() : "population is empty";
+
+		Random rand = new Random();
+		List<Evolvable> nextGeneration = breed(population, mateSelector,
+				mutationRate, 1.0d, Crossover.SINGLE_POINT, population.size(),
+				rand);
+		refinement.refine(nextGeneration, rand);
+		return nextGeneration;
+	}
+
+	/**
+	 * Creates the next generation of individuals by deterministic crowding:
+	 * individuals of {@code population} are paired at random, each pair
+	 * breeds two offspring, and each offspring replaces the parent it most
+	 * resembles if it is more fit. Offspring are scored as they are bred, so
+	 * unlike the other {@code createNextGeneration} methods, the next
+	 * generation is returned scored. {@code population} itself is not
+	 * altered.
+	 * 
+	 * @param population
+	 *            The scored population from which a new generation is formed.
+	 * @param mutationRate
+	 *            The probability at which a mutation is applied to the genes of
+	 *            offspring after genetic exchange.
+	 * @return The scored next generation, holding each individual of
+	 *         {@code population} or the offspring that replaced it.
+	 */
+	public static Collection<Evolvable> createNextGenerationByCrowding(
+			Collection<Evolvable> population, double mutationRate) {
+		assert !population.isEmpty() : "population is empty";
+
+		List<Evolvable> nextGeneration = new ArrayList<Evolvable>(population);
+		crowd(nextGeneration, mutationRate, 1.0d, Crossover.SINGLE_POINT,
+				null, null, new Random());
+		return nextGeneration;
+	}
+
+	/**
+	 * Breeds {@code offspringCount} individuals from {@code population} by
+	 * selecting mates for, exchanging genes between, and mutating the result
+	 * of its individuals. A mated pair exchanges genes through
+	 * {@code crossover} with a probability of {@code crossoverRate}, and is
+	 * otherwise only mutated. Individuals of {@code population} are altered in
+	 * place. A mate is chosen from the whole of {@code population}, so it may
+	 * already have been bred; it is copied unless crossover replaces it, and
+	 * an individual mated with itself is copied too, so that every offspring
+	 * is a distinct object.
+	 */
+	static List<Evolvable> breed(Collection<Evolvable> population,
+			MateSelector<Evolvable> mateSelector, double mutationRate,
+			double crossoverRate, Crossover crossover, int offspringCount,
+			Random rand) {
+		List<Evolvable> nextGeneration = new ArrayList<Evolvable>(
+				offspringCount);
 		List<Evolvable> listCopy = new ArrayList<Evolvable>(population);
-		// System.out.println(listCopy.size());
-		while (!listCopy.isEmpty()) {
+		while (!listCopy.isEmpty() && nextGeneration.size() < offspringCount) {
 			// Just pick the top individual from the list
 			Evolvable individual = listCopy.remove(0);
 			Evolvable mate = mateSelector.selectMate(individual, population);
 
 			if (individual == mate) {
-				nextGeneration.add(individual);
+				nextGeneration.add(individual.copy());
 			} else {
 				// Remove the mate from the list
 				listCopy.remove(mate);
 
 				// Perform gene crossover on the two individuals
-				mate = individual.exchangeGenes(mate);
+				if (crossoverRate >= 1.0d || rand.nextDouble() < crossoverRate) {
+					mate = individual.exchangeGenes(mate, crossover, rand);
+				} else {
+					mate = mate.copy();
+				}
 				// Mutate the two resulting individuals
-				individual.mutate(mutationRate);
-				mate.mutate(mutationRate);
+				individual.mutate(mutationRate, rand);
+				mate.mutate(mutationRate, rand);
 
 				// Add the new individuals to the new population
 				nextGeneration.add(individual);
-				nextGeneration.add(mate);
+				if (nextGeneration.size() < offspringCount) {
+					nextGeneration.add(mate);
+				}
 			}
 		}
 		return nextGeneration;
@@ -134,6 +398,73 @@ public class GeneticAlgorithms {
 			MateSelector<Evolvable> {
 		private static final double STOCHASTIC_SELECTION_PROBABILITY = 0.10d;
 
+		private volatile double stochasticSelectionProbability;
+
+		private final Random rand;
+
+		/**
+		 * Constructs a {@code SemiStochasticMostFitSelector} that selects a
+		 * random mate with a probability of 0.10.
+		 */
+		public SemiStochasticMostFitSelector() {
+			this(STOCHASTIC_SELECTION_PROBABILITY);
+		}
+
+		/**
+		 * Constructs a {@code SemiStochasticMostFitSelector} that selects a
+		 * random mate with a probability of
+		 * {@code stochasticSelectionProbability}.
+		 * 
+		 * @param stochasticSelectionProbability
+		 *            The probability that a random mate is selected instead of
+		 *            the one closest in fitness.
+		 */
+		public SemiStochasticMostFitSelector(
+				double stochasticSelectionProbability) {
+			this(stochasticSelectionProbability, new Random());
+		}
+
+		/**
+		 * Constructs a {@code SemiStochasticMostFitSelector} that selects a
+		 * random mate with a probability of
+		 * {@code stochasticSelectionProbability}, drawing random numbers from
+		 * {@code rand}.
+		 * 
+		 * @param stochasticSelectionProbability
+		 *            The probability that a random mate is selected instead of
+		 *            the one closest in fitness.
+		 * @param rand
+		 *            The source of randomness for selection. It must be safe
+		 *            for concurrent use if {@code this} is shared by threads.
+		 */
+		public SemiStochasticMostFitSelector(
+				double stochasticSelectionProbability, Random rand) {
+			this.stochasticSelectionProbability = stochasticSelectionProbability;
+			this.rand = rand;
+		}
+
+		/**
+		 * Retrieves the probability that a random mate is selected instead of
+		 * the one closest in fitness.
+		 * 
+		 * @return The probability of stochastic selection.
+		 */
+		public double getStochasticSelectionProbability() {
+			return this.stochasticSelectionProbability;
+		}
+
+		/**
+		 * Sets the probability that a random mate is selected instead of the
+		 * one closest in fitness.
+		 * 
+		 * @param stochasticSelectionProbability
+		 *            The probability of stochastic selection.
+		 */
+		public void setStochasticSelectionProbability(
+				double stochasticSelectionProbability) {
+			this.stochasticSelectionProbability = stochasticSelectionProbability;
+		}
+
 		public Evolvable selectMate(Evolvable individual,
 				Collection<Evolvable> population) {
 			assert population.contains(individual) : String.format(
@@ -152,10 +483,10 @@ public class GeneticAlgorithms {
 				 */
 				List<Evolvable> list = new ArrayList<Evolvable>(population);
 				Collections.sort(list);
-				Random rand = new Random();
+				Random rand = this.rand;
 				int mateIndex;
 				int individualIndex = list.indexOf(individual);
-				if (rand.nextDouble() <= STOCHASTIC_SELECTION_PROBABILITY) {
+				if (rand.nextDouble() <= this.stochasticSelectionProbability) {
 					mateIndex = rand.nextInt(population.size());
 					while (mateIndex == individualIndex) {
 						mateIndex = rand.nextInt(population.size());
@@ -164,9 +495,9 @@ public class GeneticAlgorithms {
 					// If individual is last element in list of size > 1,
 					// select mate just before individual
 					if (individualIndex == list.size() - 1) {
-						mateIndex = individualIndex--;
+						mateIndex = individualIndex - 1;
 					} else {
-						mateIndex = individualIndex++;
+						mateIndex = individualIndex + 1;
 					}
 				}
 				return list.get(mateIndex);
@@ -174,6 +505,72 @@ public class GeneticAlgorithms {
 		}
 	}
 
+	/**
+	 * TournamentSelector is intended to provide a MateSelector implementation
+	 * in which a mate is the most fit of a few individuals drawn at random
+	 * from the population. Unlike {@link SemiStochasticMostFitSelector}, it
+	 * never sorts the population, so selecting a mate costs time proportional
+	 * to the tournament size rather than to the population size when the
+	 * population is a {@link List}.
+	 * 
+	 * @author EthanHill
+	 *
+	 */
+	public static class TournamentSelector implements MateSelector<Evolvable> {
+		private final int tournamentSize;
+
+		private final Random rand;
+
+		/**
+		 * Constructs a {@code TournamentSelector} holding tournaments of
+		 * {@code tournamentSize} individuals.
+		 * 
+		 * @param tournamentSize
+		 *            The number of individuals drawn for each tournament.
+		 */
+		public TournamentSelector(int tournamentSize) {
+			this(tournamentSize, new Random());
+		}
+
+		/**
+		 * Constructs a {@code TournamentSelector} holding tournaments of
+		 * {@code tournamentSize} individuals, drawing random numbers from
+		 * {@code rand}.
+		 * 
+		 * @param tournamentSize
+		 *            The number of individuals drawn for each tournament.
+		 * @param rand
+		 *            The source of randomness for selection. It must be safe
+		 *            for concurrent use if {@code this} is shared by threads.
+		 */
+		public TournamentSelector(int tournamentSize, Random rand) {
+			this.tournamentSize = Math.max(1, tournamentSize);
+			this.rand = rand;
+		}
+
+		public Evolvable selectMate(Evolvable individual,
+				Collection<Evolvable> population) {
+			assert !population.isEmpty() : "population is empty";
+
+			if (population.size() == 1) {
+				// No mate exists for the individual
+				return individual;
+			}
+			List<Evolvable> list = population instanceof List ? (List<Evolvable>) population
+					: new ArrayList<Evolvable>(population);
+			Random rand = this.rand;
+			Evolvable mate = null;
+			for (int i = 0; i < this.tournamentSize; i++) {
+				Evolvable contender = list.get(rand.nextInt(list.size()));
+				if (contender != individual
+						&& (mate == null || contender.compareTo(mate) > 0)) {
+					mate = contender;
+				}
+			}
+			return mate == null ? individual : mate;
+		}
+	}
+
 	/**
 	 * Applies the genetic algorithm to a population of
 	 * {@link edu.ohio_state.cse.genequeens.Evolvable Evolvable} individuals,
@@ -418,6 +815,39 @@ public class GeneticAlgorithms {
 		return population;
 	}
 
+	/**
+	 * Applies the genetic algorithm to a population of
+	 * {@link edu.ohio_state.cse.genequeens.Evolvable Evolvable} individuals,
+	 * producing a solution to the problem at hand (dependent on the
+	 * implementation of the
+	 * {@link edu.ohio_state.cse.genequeens.EvolutionaryGoal goal}). Every
+	 * generation is scored through {@code cache}, so that individuals
+	 * reappearing across generations are not rescored.
+	 *
+	 * @param population
+	 *            The population from which a solution is drawn by this method.
+	 * @param goal
+	 *            The problem-specific implementation of an
+	 *            {@code EvolutionaryGoal} which verifies whether the population
+	 *            satisfies some requirements to be considered a solution to a
+	 *            problem.
+	 * @param cache
+	 *            A memo of previously computed scores, keyed by genome hash.
+	 * @return A collection of of n-best individuals that result from this
+	 *         implementation of a genetic algorithm.
+	 */
+	public static Collection<Evolvable> evolve(
+			Collection<Evolvable> population, EvolutionaryGoal goal,
+			FitnessCache cache) {
+		evaluatePopulation(population, cache);
+		while (!goal.isSatisfied(population)) {
+			population = createNextGeneration(population,
+					new SemiStochasticMostFitSelector(), MUTATION_RATE_DEJONG);
+			evaluatePopulation(population, cache);
+		}
+		return population;
+	}
+
 	/**
 	 * Applies the genetic algorithm to a population of
 	 * {@link edu.ohio_state.cse.genequeens.Evolvable Evolvable} individuals,
@@ -452,4 +882,410 @@ public class GeneticAlgorithms {
 		}
 		return population;
 	}
+
+	/**
+	 * Applies the genetic algorithm to a population of
+	 * {@link edu.ohio_state.cse.genequeens.Evolvable Evolvable} individuals,
+	 * producing a solution to the problem at hand (dependent on the
+	 * implementation of the
+	 * {@link edu.ohio_state.cse.genequeens.EvolutionaryGoal goal}), using the
+	 * selector, mutation rate and {@link EvolutionConfig.Replacement
+	 * replacement mode} of {@code config}. The algorithm stops when
+	 * {@code goal} is satisfied or after {@code config}'s maximum number of
+	 * generations, if it has one.
+	 * <p>
+	 * Under {@link EvolutionConfig.Replacement#STEADY_STATE STEADY_STATE}
+	 * replacement, {@code goal} is checked against the accepted offspring of
+	 * every step, and against the whole population once per population-size
+	 * evaluations.
+	 * </p>
+	 * <p>
+	 * To keep the population from converging onto clones of one individual,
+	 * {@code config} may either replace it by
+	 * {@link EvolutionConfig.Replacement#DETERMINISTIC_CROWDING deterministic
+	 * crowding}, or share its fitness scores through a {@link FitnessSharing}
+	 * before mates are selected.
+	 * </p>
+	 * 
+	 * @param population
+	 *            The population from which a solution is drawn by this method.
+	 * @param goal
+	 *            The problem-specific implementation of an
+	 *            {@code EvolutionaryGoal} which verifies whether the population
+	 *            satisfies some requirements to be considered a solution to a
+	 *            problem.
+	 * @param config
+	 *            The settings of the genetic algorithm.
+	 * @return The final population of the genetic algorithm.
+	 */
+	public static Collection<Evolvable> evolve(
+			Collection<Evolvable> population, EvolutionaryGoal goal,
+			EvolutionConfig config) {
+		return evolve(population, goal, config, 0);
+	}
+
+	/**
+	 * Resumes a genetic algorithm from a {@link Checkpoint} taken by the
+	 * {@link Checkpointer} of a previous run. The settings and random number
+	 * generator state recorded in {@code checkpoint} are restored into
+	 * {@code config}, and the algorithm continues with the recorded population
+	 * and generation counter as
+	 * {@link #evolve(Collection, EvolutionaryGoal, EvolutionConfig)} would
+	 * have.
+	 * 
+	 * @param checkpoint
+	 *            The checkpoint from which to resume.
+	 * @param goal
+	 *            The problem-specific implementation of an
+	 *            {@code EvolutionaryGoal} which verifies whether the population
+	 *            satisfies some requirements to be considered a solution to a
+	 *            problem.
+	 * @param config
+	 *            The settings of the genetic algorithm, into which those of
+	 *            {@code checkpoint} are restored.
+	 * @return The final population of the genetic algorithm.
+	 */
+	public static Collection<Evolvable> resume(Checkpoint checkpoint,
+			EvolutionaryGoal goal, EvolutionConfig config) {
+		checkpoint.restore(config);
+		return evolve(checkpoint.toPopulation(), goal, config,
+				(int) checkpoint.getGeneration());
+	}
+
+	private static Collection<Evolvable> evolve(
+			Collection<Evolvable> population, EvolutionaryGoal goal,
+			EvolutionConfig config, int firstGeneration) {
+		assert !population.isEmpty() : "population is empty";
+
+		if (config.getReplacement() == EvolutionConfig.Replacement.STEADY_STATE) {
+			return evolveSteadyState(population, goal, config, firstGeneration);
+		}
+
+		FitnessCache cache = config.getFitnessCache();
+		Random rand = config.getRandom();
+		evaluate(population, cache);
+		int generationCount = firstGeneration;
+		double[] rates = new double[2];
+		while (!goal.isSatisfied(population)
+				&& (config.getMaxGenerations() == 0 || generationCount < config
+						.getMaxGenerations())) {
+			adaptRates(population, config, rates);
+			if (config.getReplacement() == EvolutionConfig.Replacement.DETERMINISTIC_CROWDING) {
+				List<Evolvable> members = new ArrayList<Evolvable>(population);
+				crowd(members, rates[0], rates[1], config.getCrossover(),
+						config.getRefinement(), cache, rand);
+				population = members;
+			} else if (config.getReplacement() == EvolutionConfig.Replacement.ELITIST) {
+				/*
+				 * Elites keep their scores, so only offspring are evaluated.
+				 * Breeding alters individuals in place, so the elites are
+				 * copied before it, and before their scores are shared.
+				 */
+				List<Evolvable> nextGeneration = new ArrayList<Evolvable>(
+						population.size());
+				for (Evolvable elite : findMostFitIndividuals(population,
+						config.getEliteCount())) {
+					nextGeneration.add(elite.copy());
+				}
+				share(population, config);
+				List<Evolvable> offspring = breed(population,
+						config.getMateSelector(), rates[0], rates[1],
+						config.getCrossover(), population.size()
+								- nextGeneration.size(), rand);
+				refine(offspring, config);
+				evaluate(offspring, cache);
+				nextGeneration.addAll(offspring);
+				population = nextGeneration;
+			} else {
+				share(population, config);
+				population = breed(population, config.getMateSelector(),
+						rates[0], rates[1], config.getCrossover(),
+						population.size(), rand);
+				refine(population, config);
+				evaluate(population, cache);
+			}
+			generationCount++;
+			checkpoint(population, generationCount, config);
+		}
+		return population;
+	}
+
+	/**
+	 * A position in a steady-state population, ordered by the fitness of the
+	 * individual occupying it so that the least fit position is at the head
+	 * of a {@link PriorityQueue}.
+	 */
+	static final class Slot implements Comparable<Slot> {
+		final int index;
+		Evolvable individual;
+
+		Slot(int index, Evolvable individual) {
+			this.index = index;
+			this.individual = individual;
+		}
+
+		public int compareTo(Slot other) {
+			return this.individual.compareTo(other.individual);
+		}
+	}
+
+	/**
+	 * Steady-state genetic algorithm: breeds a few offspring at a time from
+	 * copies of their parents, evaluates only those offspring, and lets each
+	 * replace the least fit individual of the population if it is more fit.
+	 * The least fit individual is tracked in a heap of population positions.
+	 */
+	private static Collection<Evolvable> evolveSteadyState(
+			Collection<Evolvable> population, EvolutionaryGoal goal,
+			EvolutionConfig config, int firstGeneration) {
+		FitnessCache cache = config.getFitnessCache();
+		MateSelector<Evolvable> mateSelector = config.getMateSelector();
+		int replacements = Math.max(1, config.getSteadyStateReplacements());
+
+		List<Evolvable> members = new ArrayList<Evolvable>(population);
+		evaluate(members, cache);
+		if (goal.isSatisfied(members)) {
+			return members;
+		}
+
+		PriorityQueue<Slot> leastFitFirst = new PriorityQueue<Slot>(
+				members.size());
+		for (int i = 0; i < members.size(); i++) {
+			leastFitFirst.offer(new Slot(i, members.get(i)));
+		}
+
+		Random rand = config.getRandom();
+		double[] rates = new double[2];
+		adaptRates(members, config, rates);
+		int evaluationCount = 0;
+		int generationCount = firstGeneration;
+		List<Evolvable> offspring = new ArrayList<Evolvable>(replacements + 1);
+		List<Evolvable> accepted = new ArrayList<Evolvable>(replacements + 1);
+		while (config.getMaxGenerations() == 0
+				|| generationCount < config.getMaxGenerations()) {
+			offspring.clear();
+			accepted.clear();
+			while (offspring.size() < replacements) {
+				// Parents are left untouched; their copies are bred instead
+				Evolvable parent = members.get(rand.nextInt(members.size()));
+				Evolvable mate = mateSelector.selectMate(parent, members);
+				Evolvable child = parent.copy();
+				if (mate != parent && rand.nextDouble() < rates[1]) {
+					Evolvable sibling = child.exchangeGenes(mate,
+							config.getCrossover(), rand);
+					sibling.mutate(rates[0], rand);
+					offspring.add(sibling);
+				}
+				child.mutate(rates[0], rand);
+				offspring.add(child);
+			}
+			refine(offspring, config);
+
+			for (Evolvable child : offspring) {
+				evaluate(child, cache);
+				evaluationCount++;
+				Slot leastFit = leastFitFirst.peek();
+				if (child.compareTo(leastFit.individual) > 0) {
+					leastFitFirst.poll();
+					members.set(leastFit.index, child);
+					leastFit.individual = child;
+					leastFitFirst.offer(leastFit);
+					accepted.add(child);
+				}
+			}
+
+			if (!accepted.isEmpty() && goal.isSatisfied(accepted)) {
+				break;
+			}
+			if (evaluationCount >= members.size()) {
+				evaluationCount -= members.size();
+				generationCount++;
+				checkpoint(members, generationCount, config);
+				if (goal.isSatisfied(members)) {
+					break;
+				}
+				adaptRates(members, config, rates);
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * Shares the fitness scores of {@code population} through the
+	 * {@link FitnessSharing} of {@code config}, if it has one. Every
+	 * individual shared must be bred and scored anew before its score is
+	 * relied upon again.
+	 */
+	private static void share(Collection<Evolvable> population,
+			EvolutionConfig config) {
+		if (config.getFitnessSharing() != null) {
+			config.getFitnessSharing().share(population, config.getRandom());
+		}
+	}
+
+	/**
+	 * Refines {@code offspring} through the {@link MemeticRefinement} of
+	 * {@code config}, if it has one.
+	 */
+	private static void refine(Collection<Evolvable> offspring,
+			EvolutionConfig config) {
+		if (config.getRefinement() != null) {
+			config.getRefinement().refine(offspring, config.getRandom());
+		}
+	}
+
+	/**
+	 * Replaces the individuals of {@code population} by deterministic
+	 * crowding. The population is paired at random; each pair breeds two
+	 * offspring, which are scored together, and each offspring is matched
+	 * with the parent it is closer to, over the pairing of the two that
+	 * minimizes the total distance, and replaces that parent if it is more
+	 * fit. Individuals other than {@link ChessBoard}s and {@link Genome}s are
+	 * matched with the parent whose genes they started as. A lone individual left over breeds
+	 * by mutation only. Offspring are refined by {@code refinement}, unless it
+	 * is {@code null}, and every offspring is scored, in time linear in the
+	 * size of {@code population}.
+	 */
+	static void crowd(List<Evolvable> population, double mutationRate,
+			double crossoverRate, Crossover crossover,
+			MemeticRefinement refinement, FitnessCache cache, Random rand) {
+		int size = population.size();
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			int j = rand.nextInt(i + 1);
+			order[i] = order[j];
+			order[j] = i;
+		}
+
+		// Parents are left untouched; their copies are bred instead
+		List<Evolvable> offspring = new ArrayList<Evolvable>(size);
+		for (int k = 0; k < size; k += 2) {
+			Evolvable childA = population.get(order[k]).copy();
+			if (k + 1 < size) {
+				Evolvable parentB = population.get(order[k + 1]);
+				Evolvable childB;
+				if (rand.nextDouble() < crossoverRate) {
+					childB = childA.exchangeGenes(parentB, crossover, rand);
+				} else {
+					childB = parentB.copy();
+				}
+				childB.mutate(mutationRate, rand);
+				offspring.add(childA);
+				offspring.add(childB);
+			} else {
+				offspring.add(childA);
+			}
+			childA.mutate(mutationRate, rand);
+		}
+		if (refinement != null) {
+			refinement.refine(offspring, rand);
+		}
+		evaluate(offspring, cache);
+
+		for (int k = 0; k < size; k += 2) {
+			Evolvable parentA = population.get(order[k]);
+			Evolvable childA = offspring.get(k);
+			if (k + 1 == size) {
+				replaceIfFitter(population, order[k], childA);
+				continue;
+			}
+			Evolvable parentB = population.get(order[k + 1]);
+			Evolvable childB = offspring.get(k + 1);
+			if (distance(parentA, childA) + distance(parentB, childB) <= distance(
+					parentA, childB) + distance(parentB, childA)) {
+				replaceIfFitter(population, order[k], childA);
+				replaceIfFitter(population, order[k + 1], childB);
+			} else {
+				replaceIfFitter(population, order[k], childB);
+				replaceIfFitter(population, order[k + 1], childA);
+			}
+		}
+	}
+
+	private static void replaceIfFitter(List<Evolvable> population,
+			int index, Evolvable child) {
+		if (child.compareTo(population.get(index)) > 0) {
+			population.set(index, child);
+		}
+	}
+
+	/**
+	 * Measures how far apart the genes of {@code a} and {@code b} are: their
+	 * Hamming distance if both are {@link ChessBoard}s or {@link Genome}s of
+	 * one class, and otherwise zero.
+	 */
+	static int distance(Evolvable a, Evolvable b) {
+		if (a instanceof ChessBoard && b instanceof ChessBoard) {
+			return ((ChessBoard) a).distanceTo((ChessBoard) b);
+		}
+		if (a instanceof Genome && a.getClass() == b.getClass()) {
+			return ((Genome<?>) a).distanceTo(b);
+		}
+		return 0;
+	}
+
+	/**
+	 * Fills {@code rates} with the mutation rate and crossover rate to use for
+	 * the next generation: those of {@code config}, or if it has an
+	 * {@link AdaptiveOperatorController} those it chooses for
+	 * {@code population}, once it has measured a population.
+	 */
+	static void adaptRates(Collection<Evolvable> population,
+			EvolutionConfig config, double[] rates) {
+		AdaptiveOperatorController controller = config.getOperatorController();
+		if (controller == null
+				|| Double.isNaN(controller.update(population,
+						config.getRandom()))) {
+			rates[0] = config.getMutationRate();
+			rates[1] = config.getCrossoverRate();
+			return;
+		}
+		rates[0] = controller.getMutationRate();
+		rates[1] = controller.getCrossoverRate();
+		if (config.getMateSelector() instanceof SemiStochasticMostFitSelector) {
+			((SemiStochasticMostFitSelector) config.getMateSelector())
+					.setStochasticSelectionProbability(controller
+							.getStochasticSelectionProbability());
+		}
+	}
+
+	/**
+	 * Hands a snapshot of {@code population} to the {@link Checkpointer} of
+	 * {@code config}, if it has one and a checkpoint is due.
+	 */
+	private static void checkpoint(Collection<Evolvable> population,
+			int generation, EvolutionConfig config) {
+		Checkpointer checkpointer = config.getCheckpointer();
+		if (checkpointer != null && checkpointer.isDue(generation)) {
+			checkpointer.submit(Checkpoint.capture(population, generation,
+					config));
+		}
+	}
+
+	/**
+	 * Scores every individual of {@code population}, through {@code cache}
+	 * if there is one.
+	 */
+	private static void evaluate(Collection<Evolvable> population,
+			FitnessCache cache) {
+		if (population.isEmpty()) {
+			return;
+		}
+		if (cache == null) {
+			evaluatePopulation(population);
+		} else {
+			evaluatePopulation(population, cache);
+		}
+	}
+
+	/**
+	 * Scores {@code individual}, through {@code cache} if there is one.
+	 */
+	private static double evaluate(Evolvable individual, FitnessCache cache) {
+		EvaluationCounter.add(1);
+		if (cache == null) {
+			return individual.evaluateFitness();
+		}
+		return individual.evaluateFitness(cache);
+	}
 }
@@ -38,36 +38,41 @@ public class GeneticUtils {
 		assert (childA.length == childB.length) : "Violated assertion: Parents match in length";
 
 		/*
-		 * Here we are treating the children parameters as the parents, but they
-		 * will get replaced by the child genes later.
+		 * nextInt is exclusive of its bound, which guarantees that at least one
+		 * "gene" is transferred from each parent to each child.
 		 */
-		int[] parentA = Arrays.copyOf(childA, childA.length);
-		int[] parentB = Arrays.copyOf(childB, childB.length);
-
-		// Fill the child array with the right side of crossover point from
-		// parentA
-		for (int i = 0; i < crossOverIndex; i++) {
-			int gene = parentA[i];
-			childA[i] = gene;
-		}
-		// Now fill with left side of crossover point
-		for (int i = crossOverIndex; i < parentB.length; i++) {
-			int gene = parentB[i];
-			childA[i] = gene;
-		}
+		int crossOverIndex = new Random().nextInt(childA.length - 1) + 1;
 
-		// Fill the other child array with the right side of crossover point
-		// from parentB
-		for (int i = 0; i < crossOverIndex; i++) {
-			int gene = parentB[i];
-			childB[i] = gene;
-		}
-		// Now fill with left side of crossover point
-		for (int i = crossOverIndex; i < parentB.length; i++) {
-			int gene = parentA[i];
-			childB[i] = gene;
-		}
+		/*
+		 * Each child keeps the left side of the crossover point of its own
+		 * parent, so only the right sides are exchanged, in place and without
+		 * copying either parent.
+		 */
+		GeneOperators.swapTails(childA, childB, crossOverIndex);
+	}
+
+	/**
+	 * Reproduces children from two parent states as
+	 * {@link #reproduce(int[], int[])} does, exchanging their genes with the
+	 * operator {@code crossover}.
+	 * 
+	 * @param childA
+	 *            the parent array that will be replaced with the genetic code
+	 *            of its child
+	 * @param childB
+	 *            the parent array that will be replaced with the genetic code
+	 *            of its child
+	 * @param crossover
+	 *            the crossover operator
+	 * @param rand
+	 *            the source of randomness for the crossover
+	 */
+	public static void reproduce(int[] childA, int[] childB,
+			Crossover crossover, Random rand) {
+
+		assert (childA.length == childB.length) : "Violated assertion: Parents match in length";
 
+		crossover.cross(childA, childB, rand);
 	}
 
 	/**
@@ -152,7 +157,7 @@ public class GeneticUtils {
 			double mutationRate, int populationSize) {
 
 		// Calculate the max fitness
-		int maxFitness = (int) ((factorial(boardSize)) / ((factorial(2) * factorial(boardSize - 2))));
+		long maxFitness = ChessBoard.queenPairCount(boardSize);
 		List<ChessBoard> population = new ArrayList<ChessBoard>();
 
 		int noImprovementCounter = 0;
@@ -182,9 +187,11 @@ public class GeneticUtils {
 
 			for (int i = 0; i < populationSize; i++) {
 				int[] randBoard = GeneticUtils.randomBoard(boardSize);
-				int individualScore = GeneticUtils.boardScore(randBoard);
+				long individualScore = maxFitness
+						- HillClimbUtils.boardScore(randBoard);
 
-				ChessBoard individual = new ChessBoard(individualScore, randBoard);
+				ChessBoard individual = new ChessBoard(randBoard);
+				individual.setFitnessScore(individualScore);
 				population.add(individual);
 				populationFitness += individualScore;
 				restartFlag = false;
@@ -198,7 +205,7 @@ public class GeneticUtils {
 				// Examine the population's most fit individual, the last in the
 				// list
 				ChessBoard mostFit = population.get(populationSize - 1);
-				int mostFitRank = (mostFit.getScore() / populationFitness) * 100;
+				int mostFitRank = ((int) mostFit.getFitnessScore() / populationFitness) * 100;
 				// Now we examine this rank to see if the population is
 				// improving over time
 				if (mostFitRank <= prevMostFitRank) {
@@ -219,7 +226,7 @@ public class GeneticUtils {
 				System.out.println("Iteration " + iterations
 						+ ": Most Fit Individual: "
 						+ Arrays.toString(mostFit.getBoardLayout()) + " Score: "
-						+ mostFit.getScore());
+						+ mostFit.getFitnessScore());
 
 				int parentIndexA = new Random().nextInt(population.size());
 				int parentIndexB = new Random().nextInt(population.size() - 1);
@@ -228,12 +235,11 @@ public class GeneticUtils {
 				ChessBoard parentB = population.remove(parentIndexB);
 
 				// Update the population fitness
-				populationFitness -= (parentA.getScore() - parentB.getScore());
+				populationFitness -= (int) (parentA.getFitnessScore() - parentB
+						.getFitnessScore());
 
-				int[] parentStateA = Arrays.copyOf(parentA.getBoardLayout(),
-						parentA.getBoardLayout().length);
-				int[] parentStateB = Arrays.copyOf(parentB.getBoardLayout(),
-						parentB.getBoardLayout().length);
+				int[] parentStateA = parentA.getBoardLayout();
+				int[] parentStateB = parentB.getBoardLayout();
 
 				reproduce(parentStateA, parentStateB);
 				/*
@@ -242,10 +248,12 @@ public class GeneticUtils {
 				 * not the parents.
 				 */
 				int[] mutatedChildA = mutate(parentStateA, mutationRate);
-				int childScoreA = boardScore(mutatedChildA);
+				long childScoreA = maxFitness
+						- HillClimbUtils.boardScore(mutatedChildA);
 
 				int[] mutatedChildB = mutate(parentStateB, mutationRate);
-				int childScoreB = boardScore(mutatedChildB);
+				long childScoreB = maxFitness
+						- HillClimbUtils.boardScore(mutatedChildB);
 
 				if (childScoreA == maxFitness) {
 					done = true;
@@ -259,13 +267,16 @@ public class GeneticUtils {
 					System.out.println("SOLUTION FOUND");
 				}
 
-				ChessBoard childA = new ChessBoard(childScoreA, mutatedChildA);
-				ChessBoard childB = new ChessBoard(childScoreB, mutatedChildB);
+				ChessBoard childA = new ChessBoard(mutatedChildA);
+				childA.setFitnessScore(childScoreA);
+				ChessBoard childB = new ChessBoard(mutatedChildB);
+				childB.setFitnessScore(childScoreB);
 				population.add(childA);
 				population.add(childB);
 				// Update the population fitness
 
-				populationFitness += (childA.getScore() + childB.getScore());
+				populationFitness += (int) (childA.getFitnessScore() + childB
+						.getFitnessScore());
 
 				iterations++;
 			}
@@ -0,0 +1,162 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@code Genome} is an {@link Evolvable} whose genetic sequence is a
+ * primitive array and whose fitness is computed by a {@link FitnessFunction},
+ * so that problems other than n-queens can be solved by
+ * {@link GeneticAlgorithms} without writing a new {@code Evolvable}.
+ * <p>
+ * Sub-classes mutate and exchange genes in place through the primitive
+ * operators of {@link GeneOperators}, so breeding allocates nothing beyond
+ * the one new individual returned by {@link #exchangeGenes(Evolvable, Random)}.
+ * The overloads that take no {@link Random} draw from the calling thread's
+ * {@link ThreadLocalRandom}. Two genomes are equal when they are of the same
+ * class and hold the same genes.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ * @param <G>
+ *            The type of the sub-class itself.
+ */
+public abstract class Genome<G extends Genome<G>> extends Evolvable {
+
+	/**
+	 * The function that scores {@code this}, shared by every genome bred from
+	 * it.
+	 */
+	protected final FitnessFunction<G> fitnessFunction;
+
+	/**
+	 * Constructs a {@code Genome} scored by {@code fitnessFunction}.
+	 *
+	 * @param fitnessFunction
+	 *            The function that scores the genome.
+	 */
+	protected Genome(FitnessFunction<G> fitnessFunction) {
+		this.fitnessFunction = fitnessFunction;
+	}
+
+	/**
+	 * Retrieves the number of genes of {@code this}.
+	 *
+	 * @return The length of the genetic sequence.
+	 */
+	public abstract int length();
+
+	/**
+	 * Computes a 64-bit hash of the genes of {@code this}, by which its
+	 * fitness is memoized in a {@link FitnessCache}.
+	 *
+	 * @return The hash of the genetic sequence.
+	 */
+	public abstract long getGenomeHash();
+
+	/**
+	 * Counts the genes at which {@code this} and {@code other} differ, their
+	 * Hamming distance.
+	 *
+	 * @param other
+	 *            The genome to compare with.
+	 * @return The number of positions holding different genes.
+	 * @throws IllegalArgumentException
+	 *             If {@code other} is not of the class of {@code this}, or its
+	 *             genetic sequence is of a different length.
+	 */
+	public int distanceTo(Evolvable other) {
+		return countDifferences(mateOf(other));
+	}
+
+	/**
+	 * Counts the genes at which {@code this} and {@code other}, of the same
+	 * length, differ.
+	 */
+	protected abstract int countDifferences(G other);
+
+	/**
+	 * Retrieves the function that scores {@code this}.
+	 *
+	 * @return The {@code FitnessFunction} of {@code this}.
+	 */
+	public FitnessFunction<G> getFitnessFunction() {
+		return this.fitnessFunction;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public double evaluateFitness() {
+		this.fitnessScore = this.fitnessFunction.evaluate((G) this);
+		return this.fitnessScore;
+	}
+
+	/**
+	 * Calculates and returns the fitness of {@code this} as
+	 * {@link #evaluateFitness()} does, but first consults {@code cache} for
+	 * the fitness of a genome with the same {@link #getGenomeHash() hash}. A
+	 * cache must only be shared by genomes scored by the same function.
+	 *
+	 * @param cache
+	 *            The cache of fitness scores, keyed by genome hash.
+	 * @return The fitness score of {@code this}.
+	 */
+	@Override
+	public double evaluateFitness(FitnessCache cache) {
+		long hash = getGenomeHash();
+		double score = cache.get(hash);
+		if (Double.isNaN(score)) {
+			score = evaluateFitness();
+			cache.put(hash, score);
+		}
+		this.fitnessScore = score;
+		return score;
+	}
+
+	@Override
+	public void mutate(double mutationRate) {
+		mutate(mutationRate, ThreadLocalRandom.current());
+	}
+
+	@Override
+	public abstract void mutate(double mutationRate, Random rand);
+
+	@Override
+	public Evolvable exchangeGenes(Evolvable mate) {
+		return exchangeGenes(mate, ThreadLocalRandom.current());
+	}
+
+	@Override
+	public abstract Evolvable exchangeGenes(Evolvable mate, Random rand);
+
+	public int compareTo(Evolvable other) {
+		return Double.compare(this.fitnessScore, other.getFitnessScore());
+	}
+
+	/**
+	 * Casts {@code mate} to the class of {@code this}, as required of the mate
+	 * of an exchange of genes.
+	 *
+	 * @param mate
+	 *            The mate with which genes are exchanged.
+	 * @return {@code mate}, cast.
+	 * @throws IllegalArgumentException
+	 *             If {@code mate} is not of the class of {@code this}, or its
+	 *             genetic sequence is of a different length.
+	 */
+	@SuppressWarnings("unchecked")
+	protected G mateOf(Evolvable mate) {
+		if (mate.getClass() != getClass()) {
+			throw new IllegalArgumentException(String.format(
+					"mate of type %s cannot exchange genes with %s", mate
+							.getClass().getName(), getClass().getName()));
+		}
+		G mateGenome = (G) mate;
+		if (mateGenome.length() != length()) {
+			throw new IllegalArgumentException(String.format(
+					"mate has %d genes, not %d", mateGenome.length(), length()));
+		}
+		return mateGenome;
+	}
+}
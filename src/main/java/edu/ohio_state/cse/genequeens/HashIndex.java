@@ -0,0 +1,121 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing index from 64-bit keys to their places in an array of
+ * keys owned by another object, as kept by {@link FitnessCache} and
+ * {@link VisitedStates}. Collisions are resolved by linear probing and
+ * removals by backward-shift deletion, so neither lookups, insertions nor
+ * removals allocate.
+ *
+ * @author Ethan Hill
+ *
+ */
+final class HashIndex {
+
+	/**
+	 * The place returned by {@link #find(long)} for a key not indexed.
+	 */
+	static final int NIL = -1;
+
+	private final long[] keys;
+
+	/*
+	 * A slot holds the place of its key plus one, so that zero can mean an
+	 * empty slot.
+	 */
+	private final int[] table;
+	private final int tableMask;
+
+	/**
+	 * Constructs an empty index over {@code keys}, which the owner fills and
+	 * the index only reads.
+	 *
+	 * @param keys
+	 *            The array of keys indexed.
+	 */
+	HashIndex(long[] keys) {
+		this.keys = keys;
+		// Keep the table at most half full so probe runs stay short
+		int tableSize = Integer.highestOneBit(keys.length) << 2;
+		this.table = new int[tableSize];
+		this.tableMask = tableSize - 1;
+	}
+
+	/**
+	 * Finds the place of {@code key}.
+	 *
+	 * @param key
+	 *            The key sought.
+	 * @return The index of {@code key} in the array of keys, or {@link #NIL}
+	 *         if it is not indexed.
+	 */
+	int find(long key) {
+		int slot = slotOf(key);
+		while (this.table[slot] != 0) {
+			int place = this.table[slot] - 1;
+			if (this.keys[place] == key) {
+				return place;
+			}
+			slot = (slot + 1) & this.tableMask;
+		}
+		return NIL;
+	}
+
+	/**
+	 * Indexes the key held at {@code place}, which must not already be
+	 * indexed.
+	 *
+	 * @param place
+	 *            The index of the key in the array of keys.
+	 */
+	void insert(int place) {
+		int slot = slotOf(this.keys[place]);
+		while (this.table[slot] != 0) {
+			slot = (slot + 1) & this.tableMask;
+		}
+		this.table[slot] = place + 1;
+	}
+
+	/**
+	 * Stops indexing {@code key}, which must be indexed and still held at its
+	 * place.
+	 *
+	 * @param key
+	 *            The key to remove.
+	 */
+	void remove(long key) {
+		int hole = slotOf(key);
+		while (this.keys[this.table[hole] - 1] != key) {
+			hole = (hole + 1) & this.tableMask;
+		}
+		this.table[hole] = 0;
+
+		/*
+		 * Backward-shift deletion: slide later members of the probe run into
+		 * the hole so that no lookup stops early at an empty slot.
+		 */
+		int slot = (hole + 1) & this.tableMask;
+		while (this.table[slot] != 0) {
+			int home = slotOf(this.keys[this.table[slot] - 1]);
+			if (((slot - home) & this.tableMask) >= ((slot - hole) & this.tableMask)) {
+				this.table[hole] = this.table[slot];
+				this.table[slot] = 0;
+				hole = slot;
+			}
+			slot = (slot + 1) & this.tableMask;
+		}
+	}
+
+	/**
+	 * Stops indexing every key.
+	 */
+	void clear() {
+		Arrays.fill(this.table, 0);
+	}
+
+	private int slotOf(long key) {
+		return (int) Hashing.scramble(key) & this.tableMask;
+	}
+}
@@ -0,0 +1,45 @@
+package edu.ohio_state.cse.genequeens;
+
+/**
+ * The 64-bit hash functions shared by genome hashes, Zobrist keys, hash
+ * tables and seed derivation. Both are built on the finalizer of SplitMix64,
+ * which makes every bit of its result depend on every bit of its argument.
+ *
+ * @author Ethan Hill
+ *
+ */
+final class Hashing {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private Hashing() {
+	}
+
+	/**
+	 * Scrambles the bits of {@code key}, so that table indices taken from its
+	 * low bits depend on all 64 bits.
+	 *
+	 * @param key
+	 *            The value to scramble.
+	 * @return The scrambled value.
+	 */
+	static long scramble(long key) {
+		long z = key;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Mixes {@code value} into the running hash {@code hash}.
+	 *
+	 * @param hash
+	 *            The hash of the values mixed so far.
+	 * @param value
+	 *            The next value.
+	 * @return The hash of the values mixed so far followed by {@code value}.
+	 */
+	static long mix(long hash, long value) {
+		return scramble(hash + value + GOLDEN_GAMMA);
+	}
+}
@@ -1,8 +1,8 @@
 package edu.ohio_state.cse.genequeens;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -14,6 +14,21 @@ import java.util.Random;
  */
 public class HillClimbUtils {
 
+	/**
+	 * The number of consecutive sideways moves allowed to a hill climbing
+	 * agent by default. With a budget of one hundred, steepest ascent solves
+	 * about 73% of random 8-queens boards without a restart, against 15% with
+	 * none.
+	 */
+	public static final int DEFAULT_SIDEWAYS_MOVES = 100;
+
+	/**
+	 * The greatest number of states remembered by a hill climbing agent while
+	 * crossing a plateau; with a larger sideways budget, only the most recent
+	 * states are guarded against revisiting.
+	 */
+	private static final int MAX_VISITED_STATES = 1 << 16;
+
 	/*
 	 * private to prevent instantiation
 	 */
@@ -33,6 +48,15 @@ public class HillClimbUtils {
 	 *         are unsafe)
 	 */
 	public static int boardScore(int[] board) {
+		EvaluationCounter.add(1);
+		return attackingPairs(board);
+	}
+
+	/**
+	 * Counts the attacking queen pairs of {@code board} for
+	 * {@link #boardScore(int[])} without counting an evaluation.
+	 */
+	private static int attackingPairs(int[] board) {
 
 		/*
 		 * Because the code below is not entirely intuitive, here is a
@@ -74,6 +98,35 @@ public class HillClimbUtils {
 		return attackingQueenPairCount;
 	}
 
+	/**
+	 * Returns a count of queen pairs that are able to be attacked, as
+	 * {@link #boardScore(int[])} does, but first consults {@code cache} for
+	 * the count of a board with the same Zobrist hash. On a miss the count is
+	 * computed and memoized in {@code cache}.
+	 * 
+	 * @param board
+	 *            an integer array of size n representing an n x n size board of
+	 *            queens, with one queen per column
+	 * @param cache
+	 *            the cache of attacking queen pair counts, keyed by board hash,
+	 *            or {@code null} to score {@code board} directly
+	 * @return the number of attacking queen pairs on the board
+	 */
+	public static int boardScore(int[] board, FitnessCache cache) {
+		EvaluationCounter.add(1);
+		if (cache == null) {
+			return attackingPairs(board);
+		}
+		long hash = ChessBoard.hashOf(board);
+		double cachedScore = cache.get(hash);
+		if (!Double.isNaN(cachedScore)) {
+			return (int) cachedScore;
+		}
+		int score = attackingPairs(board);
+		cache.put(hash, score);
+		return score;
+	}
+
 	/**
 	 * Generates a set of possible successors to a given state. Successors are
 	 * integer arrays that arise from moving a single queen on the board to any
@@ -90,37 +143,79 @@ public class HillClimbUtils {
 	 * @return a list of successor nodes generated from the initial state
 	 */
 	public static List<ChessBoard> successors(int[] state) {
+		return successors(state, null);
+	}
 
-		int[] stateCopy = Arrays.copyOf(state, state.length);
-		int parentScore = HillClimbUtils.boardScore(stateCopy);
+	/**
+	 * Generates a set of possible successors to a given state, as
+	 * {@link #successors(int[])} does. The fitness score of every successor is
+	 * set to its number of attacking queen pairs, looked up in {@code cache}
+	 * where possible.
+	 * 
+	 * @param state
+	 *            the initial state to generate successors from
+	 * @param cache
+	 *            the cache of attacking queen pair counts, keyed by board hash,
+	 *            or {@code null} to score every successor directly
+	 * @return a list of successor nodes generated from the initial state
+	 */
+	public static List<ChessBoard> successors(int[] state, FitnessCache cache) {
+		return successors(state, null, cache);
+	}
+
+	/**
+	 * Generates a set of possible successors to a given state, as
+	 * {@link #successors(int[], FitnessCache)} does, but moving only the free
+	 * queens of {@code constraints}, and only to rows not attacked by a fixed
+	 * queen.
+	 * 
+	 * @param state
+	 *            the initial state to generate successors from
+	 * @param constraints
+	 *            the queens fixed in place, or {@code null} if every queen is
+	 *            free
+	 * @param cache
+	 *            the cache of attacking queen pair counts, keyed by board hash,
+	 *            or {@code null} to score every successor directly
+	 * @return a list of successor nodes generated from the initial state
+	 */
+	public static List<ChessBoard> successors(int[] state,
+			BoardConstraints constraints, FitnessCache cache) {
+
+		int[] tempState = Arrays.copyOf(state, state.length);
+		int columnCount = constraints == null ? state.length : constraints
+				.getFreeColumnCount();
 
 		/*
-		 * Add the parent state to the list of successors to remove after all
-		 * successors are generated. This is to ensure that if a possible
-		 * successor matches the parent state, that it is not added to the list
-		 * already.
+		 * Moving a queen to the row it already occupies would reproduce the
+		 * parent state, so that row is skipped; every other move yields a
+		 * distinct successor.
 		 */
 		List<ChessBoard> successors = new ArrayList<ChessBoard>();
-		ChessBoard parent = new ChessBoard(stateCopy);
-		successors.add(parent);
+		for (int index = 0; index < columnCount; index++) {
 
-		for (int columnIndex = 0; columnIndex < stateCopy.length; columnIndex++) {
+			int columnIndex = constraints == null ? index : constraints
+					.getFreeColumn(index);
+			int rowCount = constraints == null ? state.length : constraints
+					.getOpenRowCount(columnIndex);
 
-			int[] tempState = Arrays.copyOf(stateCopy, stateCopy.length);
-
-			for (int rowVal = 0; rowVal < tempState.length; rowVal++) {
+			for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
 
+				int rowVal = constraints == null ? rowIndex : constraints
+						.getOpenRow(columnIndex, rowIndex);
+				if (rowVal == state[columnIndex]) {
+					continue;
+				}
 				tempState[columnIndex] = rowVal;
 
-				int stateScore = boardScore(tempState);
+				int stateScore = boardScore(tempState, cache);
 
 				ChessBoard child = new ChessBoard(tempState);
-				if (!successors.contains(child)) {
-					successors.add(child);
-				}
+				child.setFitnessScore(stateScore);
+				successors.add(child);
 			}
+			tempState[columnIndex] = state[columnIndex];
 		}
-		successors.remove(parent);
 		return successors;
 	}
 
@@ -132,13 +227,25 @@ public class HillClimbUtils {
 	 * @return a randomBoard filled with queens at random positions
 	 */
 	public static int[] randomBoard(int boardSize) {
+		return randomBoard(boardSize, new Random());
+	}
+
+	/**
+	 * Creates a full board with queens positioned randomly across the board,
+	 * drawing the positions from {@code rand}.
+	 * 
+	 * @param boardSize
+	 *            the size of the board representation of the n-queens problem
+	 * @param rand
+	 *            the source of randomness for the positions of the queens
+	 * @return a randomBoard filled with queens at random positions
+	 */
+	public static int[] randomBoard(int boardSize, Random rand) {
 
 		int[] temp = new int[boardSize];
 
 		for (int columnIndex = 0; columnIndex < boardSize; columnIndex++) {
 
-			Random rand = new Random();
-
 			// Translates to....
 			// rand.nextInt((MAX(=boardSize-1)-MIN(=0))+1) + MIN(=0);
 			int randomVal = rand.nextInt(boardSize);
@@ -161,78 +268,389 @@ public class HillClimbUtils {
 	 * @return a solution state representation of a board with n-queens
 	 */
 	public static int[] hillClimbingAgent(int boardSize) {
+		return climb(new BoardConstraints(boardSize), Strategy.STEEPEST_ASCENT,
+				Initializer.RANDOM, new Random(), 0, DEFAULT_SIDEWAYS_MOVES,
+				System.out);
+	}
+
+	/**
+	 * Based on a random restart Hill-Climbing Search Agent, as
+	 * {@link #hillClimbingAgent(int)} is, but silent, reproducible and bounded:
+	 * nothing is printed, every random choice is drawn from {@code rand}, and
+	 * the search gives up after {@code maxIterations} iterations.
+	 * 
+	 * @param boardSize
+	 *            the size of the representation of a board
+	 * @param rand
+	 *            the source of randomness for the initial and restart states
+	 * @param maxIterations
+	 *            the number of iterations after which the search gives up, or
+	 *            zero for no limit
+	 * @return a solution state representation of a board with n-queens, or
+	 *         {@code null} if none was found within {@code maxIterations}
+	 */
+	public static int[] hillClimbingAgent(int boardSize, Random rand,
+			long maxIterations) {
+		return hillClimbingAgent(new BoardConstraints(boardSize), rand,
+				maxIterations);
+	}
+
+	/**
+	 * Hill climbing as in {@link #hillClimbingAgent(int, Random, long)},
+	 * completing a board on which some queens are fixed in place. Only free
+	 * queens are moved, and only to rows not attacked by a fixed queen.
+	 * 
+	 * @param constraints
+	 *            the queens fixed in place on the board
+	 * @param rand
+	 *            the source of randomness for the search
+	 * @param maxIterations
+	 *            the number of iterations after which the search gives up, or
+	 *            zero for no limit
+	 * @return a solution completing the fixed queens, or {@code null} if none
+	 *         was found within {@code maxIterations}
+	 */
+	public static int[] hillClimbingAgent(BoardConstraints constraints,
+			Random rand, long maxIterations) {
+		return hillClimbingAgent(constraints, Strategy.STEEPEST_ASCENT, rand,
+				maxIterations);
+	}
+
+	/**
+	 * Hill climbing as in
+	 * {@link #hillClimbingAgent(BoardConstraints, Random, long)}, choosing each move by {@code strategy}, with a budget of
+	 * {@link #DEFAULT_SIDEWAYS_MOVES} sideways moves. An iteration is one move,
+	 * so budgets of different strategies are comparable in moves, though not
+	 * in time: a first-improvement move usually looks at far fewer successors.
+	 * 
+	 * @param constraints
+	 *            the queens fixed in place on the board
+	 * @param strategy
+	 *            the rule by which each move is chosen
+	 * @param rand
+	 *            the source of randomness for the search
+	 * @param maxIterations
+	 *            the number of iterations after which the search gives up, or
+	 *            zero for no limit
+	 * @return a solution completing the fixed queens, or {@code null} if none
+	 *         was found within {@code maxIterations}
+	 */
+	public static int[] hillClimbingAgent(BoardConstraints constraints,
+			Strategy strategy, Random rand, long maxIterations) {
+		return hillClimbingAgent(constraints, strategy, rand, maxIterations,
+				DEFAULT_SIDEWAYS_MOVES);
+	}
 
-		final int PLATEAU_THRESHOLD = boardSize;
-		int plateauCount = 0;
-		int iterationCount = 0;
+	/**
+	 * Hill climbing as in
+	 * {@link #hillClimbingAgent(BoardConstraints, Strategy, Random, long)},
+	 * allowing up to {@code maxSidewaysMoves} consecutive moves to successors
+	 * no worse than the current state. Sideways moves carry the search across
+	 * plateaus, but never back to a state visited since the last improvement,
+	 * so a search cannot cycle on a plateau; it restarts from a random board
+	 * only when no successor is better or unvisited and equal, or when the
+	 * sideways budget is spent.
+	 * 
+	 * @param constraints
+	 *            the queens fixed in place on the board
+	 * @param strategy
+	 *            the rule by which each move is chosen
+	 * @param rand
+	 *            the source of randomness for the search
+	 * @param maxIterations
+	 *            the number of iterations after which the search gives up, or
+	 *            zero for no limit
+	 * @param maxSidewaysMoves
+	 *            the greatest number of consecutive sideways moves, or zero to
+	 *            restart at the first plateau
+	 * @return a solution completing the fixed queens, or {@code null} if none
+	 *         was found within {@code maxIterations}
+	 */
+	public static int[] hillClimbingAgent(BoardConstraints constraints,
+			Strategy strategy, Random rand, long maxIterations,
+			int maxSidewaysMoves) {
+		return hillClimbingAgent(constraints, strategy, Initializer.RANDOM,
+				rand, maxIterations, maxSidewaysMoves);
+	}
 
-		boolean done = false;
-		boolean stuckFlag = false;
+	/**
+	 * Hill climbing as in
+	 * {@link #hillClimbingAgent(BoardConstraints, Strategy, Random, long, int)}
+	 * , starting and restarting from boards laid out by {@code initializer}
+	 * rather than at random.
+	 * 
+	 * @param constraints
+	 *            the queens fixed in place on the board
+	 * @param strategy
+	 *            the rule by which each move is chosen
+	 * @param initializer
+	 *            the layout of the first board and of every restart
+	 * @param rand
+	 *            the source of randomness for the search
+	 * @param maxIterations
+	 *            the number of iterations after which the search gives up, or
+	 *            zero for no limit
+	 * @param maxSidewaysMoves
+	 *            the greatest number of consecutive sideways moves, or zero to
+	 *            restart at the first plateau
+	 * @return a solution completing the fixed queens, or {@code null} if none
+	 *         was found within {@code maxIterations}
+	 */
+	public static int[] hillClimbingAgent(BoardConstraints constraints,
+			Strategy strategy, Initializer initializer, Random rand,
+			long maxIterations, int maxSidewaysMoves) {
+		if (maxSidewaysMoves < 0) {
+			throw new IllegalArgumentException(
+					"sideways move budget must not be negative: "
+							+ maxSidewaysMoves);
+		}
+		return climb(constraints, strategy, initializer, rand, maxIterations,
+				maxSidewaysMoves, null);
+	}
 
-		// Create random initial board to begin with
-		int[] initialState = HillClimbUtils.randomBoard(boardSize);
-		int initialScore = HillClimbUtils.boardScore(initialState);
-		ChessBoard currentNode = new ChessBoard(initialState);
+	/**
+	 * Improves {@code board} in place by at most {@code maxMoves} moves
+	 * chosen by {@code strategy}, stopping early at a solution or where no
+	 * move improves the board. Only improving moves are made, and the board
+	 * is never restarted, so a board is refined towards the nearest local
+	 * minimum without losing what it was.
+	 * 
+	 * @param board
+	 *            the board to refine, replaced by the refined board
+	 * @param constraints
+	 *            the queens fixed in place on the board, or {@code null} if
+	 *            every queen is free
+	 * @param strategy
+	 *            the rule by which each move is chosen
+	 * @param maxMoves
+	 *            the greatest number of moves to make
+	 * @param rand
+	 *            the source of randomness for the strategies that walk
+	 *            successors in random order
+	 * @return the number of attacking queen pairs of the refined board
+	 */
+	public static int refine(int[] board, BoardConstraints constraints,
+			Strategy strategy, int maxMoves, Random rand) {
+		SuccessorIterator current = strategy.walk(board, constraints, rand);
+		int[] move = new int[2];
+		int moves = 0;
+		while (moves < maxMoves && current.getScore() > 0
+				&& strategy.choose(current, null, move) != Integer.MAX_VALUE) {
+			current.move(move[0], move[1]);
+			moves++;
+		}
+		if (moves > 0) {
+			System.arraycopy(current.getState(), 0, board, 0, board.length);
+		}
+		return current.getScore();
+	}
 
-		while (!done) {
+	/**
+	 * The rules by which a hill climbing agent chooses its next move among the
+	 * successors of its current state. Successors are walked lazily by a
+	 * {@link SuccessorIterator} and scored incrementally, so no strategy
+	 * builds or sorts the whole neighbourhood.
+	 */
+	public enum Strategy {
 
-			if (stuckFlag || (plateauCount > PLATEAU_THRESHOLD)) {
-				int[] restartState = HillClimbUtils.randomBoard(boardSize);
-				int restartScore = HillClimbUtils.boardScore(restartState);
-				currentNode = new ChessBoard(restartState);
-				plateauCount = 0;
-				stuckFlag = false;
+		/**
+		 * Looks at every successor and moves to the best, the first found in
+		 * column and row order among equals.
+		 */
+		STEEPEST_ASCENT(false, false),
 
-				// Alert that a random restart was needed
-				System.out.println("!!-RANDOM RESTART NEEDED-!!");
+		/**
+		 * Walks the successors in column and row order and moves to the first
+		 * that is better than the current state, falling back on the first
+		 * unvisited sideways move if none is.
+		 */
+		FIRST_IMPROVEMENT(true, false),
 
+		/**
+		 * Moves as {@link #FIRST_IMPROVEMENT} does, but walks the successors
+		 * in a fresh random order at every move, so the search is not biased
+		 * towards the first columns of the board.
+		 */
+		RANDOM_FIRST_IMPROVEMENT(true, true),
+
+		/**
+		 * Takes a queen attacked by another, the first in a fresh random order
+		 * of columns whose queen has a better row, and moves it to its best
+		 * row, falling back on the first unvisited sideways move if no
+		 * attacked queen has a better row. Queens that are not attacked are
+		 * never looked at, so near a solution a move costs the rows of one or
+		 * two columns rather than of the whole board.
+		 */
+		MIN_CONFLICTS(false, true) {
+			@Override
+			int choose(SuccessorIterator successors, VisitedStates visited,
+					int[] move) {
+				successors.restartConflicted();
+				int score = successors.getScore();
+				int bestScore = Integer.MAX_VALUE;
+				while (successors.advance()) {
+					int moveScore = successors.getMoveScore();
+					if (bestScore < score
+							&& successors.getMoveColumn() != move[0]) {
+						// The best row of an improvable queen has been found
+						break;
+					}
+					if (moveScore < score ? moveScore < bestScore
+							: moveScore == score
+									&& bestScore == Integer.MAX_VALUE
+									&& visited != null
+									&& !visited.contains(successors
+											.getMoveHash())) {
+						bestScore = moveScore;
+						move[0] = successors.getMoveColumn();
+						move[1] = successors.getMoveRow();
+					}
+				}
+				return bestScore;
 			}
+		};
 
-			List<ChessBoard> nodes = HillClimbUtils
-					.successors(currentNode.getBoardLayout());
+		private final boolean firstImprovement;
 
-			/*
-			 * Sort the list according to score, and choose the best (lowest
-			 * scoring) child node
-			 */
-			Collections.sort(nodes);
-			ChessBoard nextNode = nodes.remove(0);
+		private final boolean randomOrder;
 
-			// Output the current state of affairs
-			System.out.println("Iteration " + iterationCount
-					+ ": Current State: "
-					+ Arrays.toString(currentNode.getBoardLayout())
-					+ " Current Score: " + currentNode.getFitnessScore()
-					+ " Best Child Score: " + nextNode.getFitnessScore());
-
-			// Case where we possibly have a solution, or we are stuck
-			if (nextNode.getFitnessScore() > currentNode.getFitnessScore()) {
-				if (currentNode.getFitnessScore() == 0) {
-					System.out.println("SOLUTION FOUND");
-					done = true;
-				} else {
-					// We have reached a local minima
-					stuckFlag = true;
+		private Strategy(boolean firstImprovement, boolean randomOrder) {
+			this.firstImprovement = firstImprovement;
+			this.randomOrder = randomOrder;
+		}
+
+		/**
+		 * Walks the successors of the state of {@code successors}, leaving the
+		 * chosen move in {@code move} as its column and row. An improving move
+		 * is preferred; failing that, the first sideways move to a state not
+		 * in {@code visited} is chosen, unless {@code visited} is {@code null}.
+		 * 
+		 * @return the score of the chosen successor, or
+		 *         {@link Integer#MAX_VALUE} if there is no move to make
+		 */
+		int choose(SuccessorIterator successors, VisitedStates visited,
+				int[] move) {
+			int score = successors.getScore();
+			int bestScore = Integer.MAX_VALUE;
+			while (successors.advance()) {
+				int moveScore = successors.getMoveScore();
+				if (moveScore < score ? moveScore < bestScore
+						: moveScore == score && bestScore == Integer.MAX_VALUE
+								&& visited != null
+								&& !visited.contains(successors.getMoveHash())) {
+					bestScore = moveScore;
+					move[0] = successors.getMoveColumn();
+					move[1] = successors.getMoveRow();
+					if (this.firstImprovement && moveScore < score) {
+						break;
+					}
 				}
-			} else if (nextNode.getFitnessScore() < currentNode.getFitnessScore()) {
-				// Assign currentNode to nextNode
-				currentNode = new ChessBoard(nextNode.getBoardLayout());
-				// Plateau trend has been broken (if there was one)
-				plateauCount = 0;
-			} else {
+			}
+			return bestScore;
+		}
+
+		private SuccessorIterator walk(int[] state,
+				BoardConstraints constraints, Random rand) {
+			return new SuccessorIterator(state, constraints,
+					this.randomOrder ? rand : null);
+		}
+	}
+
+	/**
+	 * The random restart hill climbing search shared by the agents above,
+	 * printing its progress to {@code log} unless it is {@code null}.
+	 */
+	private static int[] climb(BoardConstraints constraints, Strategy strategy,
+			Initializer initializer, Random rand, long maxIterations,
+			int maxSidewaysMoves, PrintStream log) {
+
+		// Without a successor, a board whose free queens are all pinned to
+		// their only open rows can never be improved
+		boolean movable = false;
+		for (int index = 0; index < constraints.getFreeColumnCount(); index++) {
+			movable |= constraints.getOpenRowCount(constraints
+					.getFreeColumn(index)) > 1;
+		}
+
+		/*
+		 * Every move is to a successor no worse than the current state, so
+		 * once the score falls no earlier state can be reached again; only the
+		 * states of the current plateau need to be remembered.
+		 */
+		VisitedStates visited = new VisitedStates(Math.min(
+				maxSidewaysMoves, MAX_VISITED_STATES - 1) + 1);
+		int sidewaysMoves = 0;
+		long iterationCount = 0;
+		int[] move = new int[2];
+
+		// Create the initial board to begin with
+		SuccessorIterator current = strategy.walk(
+				initializer.initialize(constraints, rand), constraints, rand);
+		visited.add(current.getHash());
+
+		while (true) {
+
+			if (maxIterations > 0 && iterationCount >= maxIterations) {
+				return null;
+			}
+
+			int currentScore = current.getScore();
+
+			// No attacking queen pairs remain, so the current state is a
+			// solution
+			if (currentScore == 0) {
+				if (log != null) {
+					log.println("SOLUTION FOUND");
+				}
+				return current.getState();
+			}
+			if (!movable) {
+				return null;
+			}
+
+			int nextScore = strategy.choose(current,
+					sidewaysMoves < maxSidewaysMoves ? visited : null, move);
+
+			// Output the current state of affairs
+			if (log != null) {
+				log.println("Iteration " + iterationCount
+						+ ": Current State: "
+						+ Arrays.toString(current.getState())
+						+ " Current Score: " + currentScore
+						+ " Next Child Score: "
+						+ (nextScore == Integer.MAX_VALUE ? "none" : nextScore));
+			}
+
+			if (nextScore == Integer.MAX_VALUE) {
 				/*
-				 * Here is where we could run into a plateau, currScore ==
-				 * Nextscore. We will allow a plateau to continue on for a few
-				 * iterations before forcing a random restart.
+				 * A local minimum, a plateau whose every exit has been visited,
+				 * or a plateau wider than the sideways budget: the search is
+				 * stuck, so restart from a new board.
 				 */
+				current = strategy.walk(
+						initializer.initialize(constraints, rand), constraints,
+						rand);
+				sidewaysMoves = 0;
+				visited.clear();
+				visited.add(current.getHash());
 
-				// Assign currentNode to nextNode
-				currentNode = new ChessBoard(nextNode.getBoardLayout());
-				plateauCount++;
+				// Alert that a random restart was needed
+				if (log != null) {
+					log.println("!!-RANDOM RESTART NEEDED-!!");
+				}
+			} else if (nextScore < currentScore) {
+				current.move(move[0], move[1]);
+				// Plateau trend has been broken (if there was one)
+				sidewaysMoves = 0;
+				visited.clear();
+				visited.add(current.getHash());
+			} else {
+				current.move(move[0], move[1]);
+				sidewaysMoves++;
+				visited.add(current.getHash());
 			}
 
 			iterationCount++;
 		}
-		return currentNode.getBoardLayout();
 	}
 }
@@ -0,0 +1,60 @@
+package edu.ohio_state.cse.genequeens;
+
+/**
+ * A scalar {@link ScoringKernel} counting attacking queen pairs in time O(n)
+ * from histograms of the rows and both diagonals of a board, rather than by
+ * comparing every pair of queens in time O(n<sup>2</sup>).
+ * <p>
+ * Two queens attack one another exactly when they share a row, a diagonal
+ * (equal {@code row + column}) or an anti-diagonal (equal
+ * {@code row - column}), and no pair shares more than one of these. Queens are
+ * therefore counted into one bin of each histogram in turn, and each queen
+ * adds to the total the number of queens already in its three bins. Only the
+ * bins touched are cleared afterwards, so scoring a board costs a few
+ * operations per queen however large the histograms are.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class HistogramScoringKernel implements ScoringKernel {
+
+	private int[] rows = new int[0];
+
+	private int[] diagonals = new int[0];
+
+	private int[] antiDiagonals = new int[0];
+
+	public int countAttackingPairs(int[] boards, int offset, int boardSize) {
+		if (this.rows.length < boardSize) {
+			this.rows = new int[boardSize];
+			this.diagonals = new int[2 * boardSize];
+			this.antiDiagonals = new int[2 * boardSize];
+		}
+		int[] rows = this.rows;
+		int[] diagonals = this.diagonals;
+		int[] antiDiagonals = this.antiDiagonals;
+
+		int attackingQueenPairCount = 0;
+		for (int column = 0; column < boardSize; column++) {
+			int row = boards[offset + column];
+			attackingQueenPairCount += rows[row]++;
+			attackingQueenPairCount += diagonals[row + column]++;
+			attackingQueenPairCount += antiDiagonals[row - column + boardSize]++;
+		}
+		for (int column = 0; column < boardSize; column++) {
+			int row = boards[offset + column];
+			rows[row] = 0;
+			diagonals[row + column] = 0;
+			antiDiagonals[row - column + boardSize] = 0;
+		}
+		return attackingQueenPairCount;
+	}
+
+	public void countAttackingPairs(int[] boards, int offset, int boardSize,
+			int boardCount, int[] counts) {
+		for (int board = 0; board < boardCount; board++, offset += boardSize) {
+			counts[board] = countAttackingPairs(boards, offset, boardSize);
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The ways in which the first boards of a search are laid out. A board with
+ * its queens in uniformly random rows starts with about n/2 attacking pairs
+ * or more; laying the queens out as a permutation removes every pair sharing
+ * a row, and placing them greedily removes most pairs sharing a diagonal as
+ * well, which saves a search at large n most of its generations or moves.
+ * <p>
+ * Every initializer respects {@link BoardConstraints}: fixed queens stay in
+ * their rows and free queens are placed only in open rows. A population is
+ * {@linkplain #populate(BoardConstraints, int, Random) built} in parallel
+ * from one seed per board, so it is the same whatever the number of threads.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public enum Initializer {
+
+	/**
+	 * Places each free queen in a uniformly random open row, as
+	 * {@link BoardConstraints#randomBoard(Random)} does.
+	 */
+	RANDOM {
+		@Override
+		public int[] initialize(BoardConstraints constraints, Random rand) {
+			return constraints.randomBoard(rand);
+		}
+	},
+
+	/**
+	 * Places the free queens in a random permutation of the rows left by the
+	 * fixed queens, so that no two queens share a row. A queen whose drawn
+	 * row is attacked by a fixed queen is placed in a random open row
+	 * instead.
+	 */
+	RANDOM_PERMUTATION {
+		@Override
+		public int[] initialize(BoardConstraints constraints, Random rand) {
+			return place(constraints, rand, 1);
+		}
+	},
+
+	/**
+	 * Places the free queens column by column, each in the least attacked of
+	 * {@link #GREEDY_CANDIDATES} random unused rows, stopping at the first row
+	 * not attacked at all. Attacks are counted per row and diagonal and
+	 * updated as each queen is placed, so a board is laid out in time linear
+	 * in its size.
+	 */
+	GREEDY {
+		@Override
+		public int[] initialize(BoardConstraints constraints, Random rand) {
+			return place(constraints, rand, GREEDY_CANDIDATES);
+		}
+	},
+
+	/**
+	 * Places the free queens as {@link #GREEDY} does, but among a random
+	 * number of candidate rows per board, from one to
+	 * {@link #GREEDY_CANDIDATES}. The boards of a population then range from
+	 * permutations to nearly solved, rather than all sharing the few flaws
+	 * that greedy placement leaves, so the population starts more diverse at
+	 * the cost of more attacking pairs on average.
+	 */
+	DIVERSIFIED_GREEDY {
+		@Override
+		public int[] initialize(BoardConstraints constraints, Random rand) {
+			return place(constraints, rand,
+					1 + rand.nextInt(GREEDY_CANDIDATES));
+		}
+	};
+
+	/**
+	 * The number of unused rows among which a greedily placed queen is put in
+	 * the least attacked.
+	 */
+	public static final int GREEDY_CANDIDATES = 32;
+
+	/**
+	 * The least number of queens of a population laid out in parallel.
+	 */
+	private static final int PARALLEL_QUEENS = 1 << 14;
+
+	/**
+	 * Lays out a board respecting {@code constraints}.
+	 *
+	 * @param constraints
+	 *            The queens fixed in place on the board.
+	 * @param rand
+	 *            The source of randomness.
+	 * @return The array representation of the board.
+	 */
+	public abstract int[] initialize(BoardConstraints constraints,
+			Random rand);
+
+	/**
+	 * Builds a population of {@code size} {@link ChessBoard}s respecting
+	 * {@code constraints}, each laid out by {@code this} from a seed drawn
+	 * from {@code rand}. Large populations are laid out on the threads of the
+	 * {@linkplain BatchScorer#getShared() shared} {@code BatchScorer}.
+	 *
+	 * @param constraints
+	 *            The queens fixed in place on every board.
+	 * @param size
+	 *            The number of boards.
+	 * @param rand
+	 *            The source of the seeds of the boards.
+	 * @return The boards, in the order of their seeds.
+	 */
+	public List<Evolvable> populate(final BoardConstraints constraints,
+			final int size, Random rand) {
+		final long[] seeds = new long[size];
+		for (int i = 0; i < size; i++) {
+			seeds[i] = rand.nextLong();
+		}
+		final Evolvable[] boards = new Evolvable[size];
+
+		BatchScorer scorer = BatchScorer.getShared();
+		int runCount = (int) Math.max(1, Math.min(scorer.getThreadCount(),
+				(long) size * constraints.getBoardSize() / PARALLEL_QUEENS));
+		List<Runnable> runs = new ArrayList<Runnable>(runCount);
+		for (int run = 0; run < runCount; run++) {
+			final int from = (int) ((long) size * run / runCount);
+			final int to = (int) ((long) size * (run + 1) / runCount);
+			runs.add(new Runnable() {
+				public void run() {
+					for (int i = from; i < to; i++) {
+						boards[i] = new ChessBoard(constraints,
+								Initializer.this, new SeededRandom(seeds[i]));
+					}
+				}
+			});
+		}
+		scorer.runAll(runs);
+		return new ArrayList<Evolvable>(Arrays.asList(boards));
+	}
+
+	/**
+	 * Places the free queens of a board column by column, each in the least
+	 * attacked of {@code candidates} random unused rows.
+	 */
+	private static int[] place(BoardConstraints constraints, Random rand,
+			int candidates) {
+		int boardSize = constraints.getBoardSize();
+		int[] board = new int[boardSize];
+		// Queens per row, per diagonal and per anti-diagonal
+		int[] rows = new int[boardSize];
+		int[] diagonals = new int[2 * boardSize - 1];
+		int[] antiDiagonals = new int[2 * boardSize - 1];
+
+		int[] fixedRows = constraints.getFixedRows();
+		for (int column = 0; column < boardSize; column++) {
+			int row = fixedRows[column];
+			if (row != BoardConstraints.FREE) {
+				board[column] = row;
+				rows[row]++;
+				diagonals[row + column]++;
+				antiDiagonals[row - column + boardSize - 1]++;
+			}
+		}
+
+		// The rows not yet taken, drawn without replacement
+		int[] unused = new int[boardSize];
+		int unusedCount = 0;
+		for (int row = 0; row < boardSize; row++) {
+			if (rows[row] == 0) {
+				unused[unusedCount++] = row;
+			}
+		}
+
+		for (int index = 0; index < constraints.getFreeColumnCount(); index++) {
+			int column = constraints.getFreeColumn(index);
+			int bestIndex = -1;
+			int bestAttacks = Integer.MAX_VALUE;
+			for (int candidate = 0; candidate < candidates && unusedCount > 0
+					&& bestAttacks > 0; candidate++) {
+				int drawn = rand.nextInt(unusedCount);
+				int row = unused[drawn];
+				if (!constraints.isOpen(column, row)) {
+					continue;
+				}
+				int attacks = rows[row] + diagonals[row + column]
+						+ antiDiagonals[row - column + boardSize - 1];
+				if (attacks < bestAttacks) {
+					bestIndex = drawn;
+					bestAttacks = attacks;
+				}
+			}
+
+			int row;
+			if (bestIndex >= 0) {
+				row = unused[bestIndex];
+				unused[bestIndex] = unused[--unusedCount];
+			} else {
+				row = constraints.randomOpenRow(column, rand);
+			}
+			board[column] = row;
+			rows[row]++;
+			diagonals[row + column]++;
+			antiDiagonals[row - column + boardSize - 1]++;
+		}
+		return board;
+	}
+}
@@ -0,0 +1,176 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An {@code IntGenome} is a {@link Genome} whose genes are integers in
+ * {@code [0, bound)}, such as the machine assigned to each job of a
+ * schedule. Mutation replaces a gene by a uniformly drawn value, and genes
+ * are exchanged by single-point crossover.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class IntGenome extends Genome<IntGenome> {
+
+	private final int[] genes;
+
+	private final int bound;
+
+	/**
+	 * Constructs an {@code IntGenome} of {@code length} genes drawn uniformly
+	 * from {@code [0, bound)}.
+	 *
+	 * @param length
+	 *            The number of genes.
+	 * @param bound
+	 *            The exclusive upper bound of a gene.
+	 * @param fitnessFunction
+	 *            The function that scores the genome.
+	 * @param rand
+	 *            The source of randomness for the genes.
+	 */
+	public IntGenome(int length, int bound,
+			FitnessFunction<IntGenome> fitnessFunction, Random rand) {
+		super(fitnessFunction);
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive: "
+					+ bound);
+		}
+		this.genes = new int[length];
+		this.bound = bound;
+		for (int i = 0; i < length; i++) {
+			this.genes[i] = rand.nextInt(bound);
+		}
+	}
+
+	/**
+	 * Constructs an {@code IntGenome} holding a copy of {@code genes}.
+	 *
+	 * @param genes
+	 *            The genes, each in {@code [0, bound)}.
+	 * @param bound
+	 *            The exclusive upper bound of a gene.
+	 * @param fitnessFunction
+	 *            The function that scores the genome.
+	 */
+	public IntGenome(int[] genes, int bound,
+			FitnessFunction<IntGenome> fitnessFunction) {
+		super(fitnessFunction);
+		this.genes = genes.clone();
+		this.bound = bound;
+	}
+
+	@Override
+	public int length() {
+		return this.genes.length;
+	}
+
+	/**
+	 * Retrieves the exclusive upper bound of a gene.
+	 *
+	 * @return The number of values a gene may take.
+	 */
+	public int getBound() {
+		return this.bound;
+	}
+
+	/**
+	 * Retrieves the gene at {@code index}.
+	 *
+	 * @param index
+	 *            The index of the gene.
+	 * @return The gene.
+	 */
+	public int geneAt(int index) {
+		return this.genes[index];
+	}
+
+	/**
+	 * Replaces the gene at {@code index}.
+	 *
+	 * @param index
+	 *            The index of the gene.
+	 * @param gene
+	 *            The new gene, in {@code [0, bound)}.
+	 */
+	public void setGene(int index, int gene) {
+		this.genes[index] = gene;
+	}
+
+	/**
+	 * Copies the genes of {@code this} into {@code destination}, starting at
+	 * {@code offset}.
+	 *
+	 * @param destination
+	 *            The array receiving the genes.
+	 * @param offset
+	 *            The index of {@code destination} receiving the first gene.
+	 */
+	public void copyGenes(int[] destination, int offset) {
+		System.arraycopy(this.genes, 0, destination, offset, this.genes.length);
+	}
+
+	@Override
+	public long getGenomeHash() {
+		long hash = this.genes.length;
+		for (int gene : this.genes) {
+			hash = Hashing.mix(hash, gene);
+		}
+		return hash;
+	}
+
+	@Override
+	protected int countDifferences(IntGenome other) {
+		int distance = 0;
+		for (int i = 0; i < this.genes.length; i++) {
+			if (this.genes[i] != other.genes[i]) {
+				distance++;
+			}
+		}
+		return distance;
+	}
+
+	@Override
+	public void mutate(double mutationRate, Random rand) {
+		GeneOperators.mutateUniform(this.genes, this.bound, mutationRate, rand);
+	}
+
+	@Override
+	public Evolvable exchangeGenes(Evolvable mate, Random rand) {
+		return exchangeGenes(mate, Crossover.SINGLE_POINT, rand);
+	}
+
+	@Override
+	public Evolvable exchangeGenes(Evolvable mate, Crossover crossover,
+			Random rand) {
+		IntGenome sibling = (IntGenome) mateOf(mate).copy();
+		crossover.cross(this.genes, sibling.genes, rand);
+		return sibling;
+	}
+
+	@Override
+	public Evolvable copy() {
+		IntGenome copy = new IntGenome(this.genes, this.bound,
+				this.fitnessFunction);
+		copy.setFitnessScore(this.fitnessScore);
+		return copy;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		return object instanceof IntGenome
+				&& Arrays.equals(this.genes, ((IntGenome) object).genes);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.genes);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(this.genes);
+	}
+}
@@ -0,0 +1,271 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One island of an island-model genetic algorithm, in which several
+ * populations evolve apart, on threads of one JVM or in separate JVMs, and
+ * periodically exchange their best individuals over a
+ * {@link MigrationTransport}. Isolation keeps the islands exploring different
+ * regions of the search space; migration spreads good building blocks between
+ * them.
+ * <p>
+ * The island evolves in epochs of a fixed number of generations, each run by
+ * {@link GeneticAlgorithms#evolve(Collection, EvolutionaryGoal, EvolutionConfig)}.
+ * After each epoch, copies of its best individuals are sent as one batch,
+ * encoded by {@link MigrantCodec}, to the next island of a ring; then every
+ * batch that has arrived is decoded, its migrants are scored, and each
+ * replaces the least fit individual of the population if it is fitter. The
+ * island stops when the goal is satisfied or the last epoch ends; it does not
+ * wait for the others. Only populations of unconstrained {@link ChessBoard}s
+ * can migrate.
+ * </p>
+ * <p>
+ * Usage:
+ * {@code IslandEvolution <island> <islandCount> <basePort> <boardSize> <epochs> [populationSize]}
+ * runs one island of a group listening on consecutive loopback ports from
+ * {@code basePort}, one process per island.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class IslandEvolution {
+
+	private static final int DEFAULT_POPULATION_SIZE = 100;
+
+	private static final int DEFAULT_MIGRATION_INTERVAL = 20;
+
+	private static final int DEFAULT_MIGRANT_COUNT = 5;
+
+	private final MigrationTransport transport;
+
+	private final EvolutionConfig config;
+
+	private final int migrationInterval;
+
+	private final int migrantCount;
+
+	private long migrantsSent;
+
+	private long migrantsReceived;
+
+	private long batchesLost;
+
+	/**
+	 * Constructs an island migrating over {@code transport}.
+	 *
+	 * @param transport
+	 *            The transport to the other islands.
+	 * @param config
+	 *            The settings of the genetic algorithm of the island. Its
+	 *            maximum number of generations is overwritten with
+	 *            {@code migrationInterval}.
+	 * @param migrationInterval
+	 *            The number of generations of an epoch.
+	 * @param migrantCount
+	 *            The number of individuals sent after each epoch.
+	 */
+	public IslandEvolution(MigrationTransport transport,
+			EvolutionConfig config, int migrationInterval, int migrantCount) {
+		if (migrationInterval <= 0 || migrantCount < 0) {
+			throw new IllegalArgumentException(String.format(
+					"cannot migrate %d individuals every %d generations",
+					migrantCount, migrationInterval));
+		}
+		this.transport = transport;
+		this.config = config;
+		this.migrationInterval = migrationInterval;
+		this.migrantCount = migrantCount;
+	}
+
+	/**
+	 * Evolves {@code population} for up to {@code epochs} epochs, exchanging
+	 * migrants with the other islands after each.
+	 *
+	 * @param population
+	 *            The initial population of the island, made up of
+	 *            {@link ChessBoard}s.
+	 * @param goal
+	 *            The goal at which the island stops.
+	 * @param epochs
+	 *            The greatest number of epochs.
+	 * @return The final population of the island.
+	 */
+	public Collection<Evolvable> evolve(Collection<Evolvable> population,
+			EvolutionaryGoal goal, int epochs) {
+		this.config.setMaxGenerations(this.migrationInterval);
+		for (int epoch = 0; epoch < epochs; epoch++) {
+			population = GeneticAlgorithms.evolve(population, goal,
+					this.config);
+			if (goal.isSatisfied(population)) {
+				// Share the solution before stopping
+				emigrate(population);
+				break;
+			}
+			emigrate(population);
+			population = immigrate(population);
+			if (goal.isSatisfied(population)) {
+				break;
+			}
+		}
+		return population;
+	}
+
+	/**
+	 * Sends copies of the best individuals of {@code population} to the next
+	 * island of the ring.
+	 */
+	private void emigrate(Collection<Evolvable> population) {
+		if (this.transport.getIslandCount() < 2 || this.migrantCount == 0) {
+			return;
+		}
+		List<ChessBoard> migrants = new ArrayList<ChessBoard>(
+				this.migrantCount);
+		for (Evolvable individual : GeneticAlgorithms.findMostFitIndividuals(
+				population, this.migrantCount)) {
+			migrants.add((ChessBoard) individual);
+		}
+		int destination = (this.transport.getIslandId() + 1)
+				% this.transport.getIslandCount();
+		try {
+			this.transport.send(destination, MigrantCodec.encode(
+					this.transport.getIslandId(), migrants));
+			this.migrantsSent += migrants.size();
+		} catch (IOException e) {
+			// Migration is best-effort; the island carries on alone
+			this.batchesLost++;
+		}
+	}
+
+	/**
+	 * Merges every batch of migrants that has arrived into
+	 * {@code population}, each migrant replacing the least fit individual if
+	 * it is fitter. Batches of boards of another size than those of
+	 * {@code population} are dropped.
+	 */
+	private Collection<Evolvable> immigrate(Collection<Evolvable> population) {
+		int boardSize = population.isEmpty() ? -1 : ((ChessBoard) population
+				.iterator().next()).getBoardSize();
+		List<ChessBoard> arrivals = new ArrayList<ChessBoard>();
+		try {
+			byte[] batch;
+			while ((batch = this.transport.poll()) != null) {
+				try {
+					List<ChessBoard> migrants = MigrantCodec.decode(batch);
+					// Every migrant of a batch is of the same size
+					if (!migrants.isEmpty()
+							&& migrants.get(0).getBoardSize() != boardSize) {
+						this.batchesLost++;
+					} else {
+						arrivals.addAll(migrants);
+					}
+				} catch (IOException e) {
+					this.batchesLost++;
+				}
+			}
+		} catch (IOException e) {
+			this.batchesLost++;
+		}
+		if (arrivals.isEmpty()) {
+			return population;
+		}
+		this.migrantsReceived += arrivals.size();
+
+		List<Evolvable> members = new ArrayList<Evolvable>(population);
+		// Least fit first
+		Collections.sort(members);
+		FitnessCache cache = this.config.getFitnessCache();
+		int replaced = 0;
+		for (ChessBoard migrant : arrivals) {
+			double fitness = cache == null ? migrant.evaluateFitness()
+					: migrant.evaluateFitness(cache);
+			if (replaced < members.size()
+					&& fitness > members.get(replaced).getFitnessScore()) {
+				members.set(replaced++, migrant);
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * Retrieves the number of individuals sent by {@code this}.
+	 *
+	 * @return The number of emigrants.
+	 */
+	public long getMigrantsSent() {
+		return this.migrantsSent;
+	}
+
+	/**
+	 * Retrieves the number of individuals received by {@code this}.
+	 *
+	 * @return The number of immigrants, whether or not they were admitted.
+	 */
+	public long getMigrantsReceived() {
+		return this.migrantsReceived;
+	}
+
+	/**
+	 * Retrieves the number of batches that could not be sent or decoded, or
+	 * whose boards did not match the size of those of the island.
+	 *
+	 * @return The number of lost batches.
+	 */
+	public long getBatchesLost() {
+		return this.batchesLost;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 5 || args.length > 6) {
+			System.out
+					.println("Usage: IslandEvolution <island> <islandCount> <basePort> <boardSize> <epochs> [populationSize]");
+			return;
+		}
+		int island = Integer.parseInt(args[0]);
+		int islandCount = Integer.parseInt(args[1]);
+		int basePort = Integer.parseInt(args[2]);
+		int boardSize = Integer.parseInt(args[3]);
+		int epochs = Integer.parseInt(args[4]);
+		int populationSize = args.length == 6 ? Integer.parseInt(args[5])
+				: DEFAULT_POPULATION_SIZE;
+
+		EvolutionConfig config = new EvolutionConfig();
+		config.setRandom(new SeededRandom());
+		config.setMateSelector(new GeneticAlgorithms.TournamentSelector(3,
+				config.getRandom()));
+		config.setMutationRate(1.0d / boardSize);
+		config.setReplacement(EvolutionConfig.Replacement.ELITIST);
+
+		List<Evolvable> population = new ArrayList<Evolvable>(populationSize);
+		for (int i = 0; i < populationSize; i++) {
+			population.add(new ChessBoard(boardSize, config.getRandom()));
+		}
+
+		SocketTransport transport = new SocketTransport(island,
+				SocketTransport.localIslands(basePort, islandCount));
+		try {
+			IslandEvolution evolution = new IslandEvolution(transport, config,
+					DEFAULT_MIGRATION_INTERVAL, DEFAULT_MIGRANT_COUNT);
+			long start = System.nanoTime();
+			ChessBoard best = (ChessBoard) GeneticAlgorithms
+					.findMostFitIndividual(evolution.evolve(population,
+							new ChessBoard.QueensGoal(), epochs));
+			System.out.println(String.format(
+					"island %d: best fitness %.0f of %d in %.2f s; "
+							+ "%d migrants sent, %d received, %d batches lost",
+					island, best.getFitnessScore(),
+					ChessBoard.queenPairCount(boardSize),
+					(System.nanoTime() - start) / 1e9,
+					evolution.getMigrantsSent(),
+					evolution.getMigrantsReceived(),
+					evolution.getBatchesLost()));
+		} finally {
+			transport.close();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A {@link MigrationTransport} between islands running as threads of one
+ * JVM, which hands each batch to the queue of its destination without
+ * copying it. It lets an {@link IslandEvolution} be run and tested on one
+ * machine exactly as it would be run across processes.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class LoopbackTransport implements MigrationTransport {
+
+	private final int islandId;
+
+	/**
+	 * The inbound queue of every island, shared by the transports of one
+	 * group.
+	 */
+	private final List<Queue<byte[]>> inboxes;
+
+	private LoopbackTransport(int islandId, List<Queue<byte[]>> inboxes) {
+		this.islandId = islandId;
+		this.inboxes = inboxes;
+	}
+
+	/**
+	 * Creates the transports of a group of {@code islandCount} islands
+	 * connected to one another.
+	 *
+	 * @param islandCount
+	 *            The number of islands.
+	 * @return The transport of each island, indexed by island number.
+	 */
+	public static LoopbackTransport[] connect(int islandCount) {
+		List<Queue<byte[]>> inboxes = new ArrayList<Queue<byte[]>>(
+				islandCount);
+		LoopbackTransport[] transports = new LoopbackTransport[islandCount];
+		for (int island = 0; island < islandCount; island++) {
+			inboxes.add(new ConcurrentLinkedQueue<byte[]>());
+		}
+		for (int island = 0; island < islandCount; island++) {
+			transports[island] = new LoopbackTransport(island, inboxes);
+		}
+		return transports;
+	}
+
+	public int getIslandId() {
+		return this.islandId;
+	}
+
+	public int getIslandCount() {
+		return this.inboxes.size();
+	}
+
+	public void send(int destination, byte[] batch) {
+		this.inboxes.get(destination).offer(batch);
+	}
+
+	public byte[] poll() {
+		return this.inboxes.get(this.islandId).poll();
+	}
+
+	public void close() {
+		this.inboxes.get(this.islandId).clear();
+	}
+}
@@ -0,0 +1,114 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * A {@code MemeticRefinement} turns a genetic algorithm into a memetic one by
+ * refining a share of its offspring with a few moves of local search before
+ * they are evaluated. Crossover and mutation move a population quickly
+ * towards good boards but are slow to remove their last few conflicts, which
+ * a handful of delta-scored {@link HillClimbUtils.Strategy hill climbing}
+ * moves does cheaply; the population in turn spares the local search its
+ * random restarts.
+ * <p>
+ * Each move costs the successors its strategy scores, counted by
+ * {@link EvaluationCounter}, each in constant time. Only {@link ChessBoard}
+ * offspring are refined; others are left as they are.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class MemeticRefinement {
+
+	private final HillClimbUtils.Strategy strategy;
+
+	private final int maxMoves;
+
+	private final double refinementRate;
+
+	/**
+	 * Constructs a {@code MemeticRefinement}.
+	 *
+	 * @param strategy
+	 *            The rule by which each move is chosen.
+	 * @param maxMoves
+	 *            The greatest number of moves made on one offspring.
+	 * @param refinementRate
+	 *            The probability that an offspring is refined, between zero
+	 *            and one.
+	 * @throws IllegalArgumentException
+	 *             If {@code maxMoves} is negative or {@code refinementRate} is
+	 *             not between zero and one.
+	 */
+	public MemeticRefinement(HillClimbUtils.Strategy strategy, int maxMoves,
+			double refinementRate) {
+		if (maxMoves < 0 || !(refinementRate >= 0 && refinementRate <= 1)) {
+			throw new IllegalArgumentException(String.format(
+					"cannot refine with %d moves at rate %s", maxMoves,
+					refinementRate));
+		}
+		this.strategy = strategy;
+		this.maxMoves = maxMoves;
+		this.refinementRate = refinementRate;
+	}
+
+	/**
+	 * Constructs a {@code MemeticRefinement} making up to four
+	 * {@link HillClimbUtils.Strategy#MIN_CONFLICTS MIN_CONFLICTS} moves on a
+	 * quarter of the offspring.
+	 */
+	public MemeticRefinement() {
+		this(HillClimbUtils.Strategy.MIN_CONFLICTS, 4, 0.25d);
+	}
+
+	/**
+	 * Retrieves the rule by which each move is chosen.
+	 *
+	 * @return The {@code Strategy} of {@code this}.
+	 */
+	public HillClimbUtils.Strategy getStrategy() {
+		return this.strategy;
+	}
+
+	/**
+	 * Retrieves the greatest number of moves made on one offspring.
+	 *
+	 * @return The refinement budget of {@code this}.
+	 */
+	public int getMaxMoves() {
+		return this.maxMoves;
+	}
+
+	/**
+	 * Retrieves the probability that an offspring is refined.
+	 *
+	 * @return The refinement rate of {@code this}.
+	 */
+	public double getRefinementRate() {
+		return this.refinementRate;
+	}
+
+	/**
+	 * Refines each {@link ChessBoard} of {@code offspring} with probability
+	 * {@link #getRefinementRate()}. Refined boards keep their previous fitness
+	 * scores until they are evaluated.
+	 *
+	 * @param offspring
+	 *            The offspring to refine.
+	 * @param rand
+	 *            The source of randomness for choosing and refining offspring.
+	 */
+	public void refine(Collection<Evolvable> offspring, Random rand) {
+		if (this.maxMoves == 0) {
+			return;
+		}
+		for (Evolvable child : offspring) {
+			if (child instanceof ChessBoard
+					&& rand.nextDouble() < this.refinementRate) {
+				((ChessBoard) child).refine(this.strategy, this.maxMoves, rand);
+			}
+		}
+	}
+}
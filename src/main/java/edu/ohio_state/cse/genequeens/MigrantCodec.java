@@ -0,0 +1,240 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes batches of migrating {@link ChessBoard}s for a
+ * {@link MigrationTransport}. All the migrants an island sends to one
+ * neighbour in an epoch travel as one batch, so a transport carries one
+ * message per neighbour per epoch however many migrants there are.
+ * <p>
+ * A batch holds, in big-endian order: the magic number {@code "GQMG"}, a
+ * two-byte format version, the number of the sending island, the number of
+ * migrants, the board size and the length of the compressed genes, followed
+ * by the genes of every migrant compressed with {@link Deflater}. Each row
+ * is stored in the narrowest of one, two or four bytes that holds every row
+ * of the board before compression. Fitness scores are not sent: the receiving
+ * island scores migrants itself.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public final class MigrantCodec {
+
+	/**
+	 * The first four bytes of every batch, "GQMG".
+	 */
+	private static final int MAGIC = 0x47514D47;
+
+	/**
+	 * The version of the batch format written by this class.
+	 */
+	private static final short VERSION = 1;
+
+	private static final int HEADER_BYTES = 4 + 2 + 4 + 4 + 4 + 4;
+
+	/**
+	 * The most by which {@link Inflater} can expand its input, 1032 to 1, so
+	 * that a header claiming more genes than its compressed genes can hold is
+	 * known to be corrupt before any space is allocated for them.
+	 */
+	private static final int MAX_INFLATION = 1032;
+
+	/**
+	 * The most genes, in bytes, that a batch may hold, 64 MiB.
+	 */
+	private static final int MAX_GENE_BYTES = 1 << 26;
+
+	private MigrantCodec() {
+	}
+
+	/**
+	 * Encodes a batch of migrants.
+	 *
+	 * @param sourceIsland
+	 *            The number of the sending island.
+	 * @param migrants
+	 *            The migrating boards, all of the same size and without
+	 *            constraints.
+	 * @return The encoded batch.
+	 * @throws IllegalArgumentException
+	 *             If the boards differ in size or any has constraints.
+	 */
+	public static byte[] encode(int sourceIsland, List<ChessBoard> migrants) {
+		int boardSize = migrants.isEmpty() ? 0 : migrants.get(0)
+				.getBoardSize();
+		int geneWidth = geneWidth(boardSize);
+		ByteBuffer genes = ByteBuffer.allocate(migrants.size() * boardSize
+				* geneWidth);
+		for (ChessBoard migrant : migrants) {
+			if (migrant.getBoardSize() != boardSize) {
+				throw new IllegalArgumentException(
+						"migrants differ in board size");
+			}
+			if (migrant.getConstraints() != null) {
+				throw new IllegalArgumentException(
+						"constrained boards cannot migrate");
+			}
+			for (int column = 0; column < boardSize; column++) {
+				putGene(genes, geneWidth, migrant.geneAt(column));
+			}
+		}
+
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(genes.array());
+			deflater.finish();
+			ByteBuffer batch = ByteBuffer.allocate(HEADER_BYTES
+					+ genes.capacity() + 64);
+			batch.putInt(MAGIC).putShort(VERSION).putInt(sourceIsland)
+					.putInt(migrants.size()).putInt(boardSize).putInt(0);
+			byte[] buffer = new byte[4096];
+			while (!deflater.finished()) {
+				int length = deflater.deflate(buffer);
+				if (batch.remaining() < length) {
+					ByteBuffer larger = ByteBuffer.allocate(2
+							* batch.capacity() + length);
+					((Buffer) batch).flip();
+					larger.put(batch);
+					batch = larger;
+				}
+				batch.put(buffer, 0, length);
+			}
+			batch.putInt(HEADER_BYTES - 4, batch.position() - HEADER_BYTES);
+			byte[] encoded = new byte[batch.position()];
+			((Buffer) batch).flip();
+			batch.get(encoded);
+			return encoded;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Retrieves the number of the island that sent a batch.
+	 *
+	 * @param batch
+	 *            An encoded batch.
+	 * @return The number of the sending island.
+	 * @throws IOException
+	 *             If {@code batch} is not a batch of migrants.
+	 */
+	public static int sourceOf(byte[] batch) throws IOException {
+		return checkHeader(ByteBuffer.wrap(batch)).getInt(6);
+	}
+
+	/**
+	 * Decodes a batch of migrants into new boards, without scores.
+	 *
+	 * @param batch
+	 *            An encoded batch.
+	 * @return The migrating boards.
+	 * @throws IOException
+	 *             If {@code batch} is not a batch of migrants, is of an
+	 *             unsupported version, is corrupt, or holds more genes than
+	 *             its compressed length allows or more than 64 MiB of them.
+	 */
+	public static List<ChessBoard> decode(byte[] batch) throws IOException {
+		ByteBuffer buffer = checkHeader(ByteBuffer.wrap(batch));
+		((Buffer) buffer).position(10);
+		int count = buffer.getInt();
+		int boardSize = buffer.getInt();
+		int compressedLength = buffer.getInt();
+		if (count < 0 || boardSize < 0
+				|| compressedLength != batch.length - HEADER_BYTES) {
+			throw new IOException("batch of migrants is corrupt");
+		}
+		int geneWidth = geneWidth(boardSize);
+		long geneBytes = (long) count * boardSize * geneWidth;
+		// The header is not trusted with the size of the allocation
+		if (geneBytes > MAX_GENE_BYTES
+				|| geneBytes > (long) compressedLength * MAX_INFLATION) {
+			throw new IOException("batch of migrants is corrupt");
+		}
+
+		byte[] genes = new byte[(int) geneBytes];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(batch, HEADER_BYTES, compressedLength);
+			int inflated = 0;
+			while (inflated < genes.length && !inflater.finished()) {
+				int length = inflater.inflate(genes, inflated, genes.length
+						- inflated);
+				if (length == 0 && (inflater.needsInput() || inflater
+						.needsDictionary())) {
+					break;
+				}
+				inflated += length;
+			}
+			if (inflated != genes.length) {
+				throw new IOException("batch of migrants is truncated");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("batch of migrants is corrupt", e);
+		} finally {
+			inflater.end();
+		}
+
+		ByteBuffer geneBuffer = ByteBuffer.wrap(genes);
+		List<ChessBoard> migrants = new ArrayList<ChessBoard>(count);
+		for (int i = 0; i < count; i++) {
+			int[] layout = new int[boardSize];
+			for (int column = 0; column < boardSize; column++) {
+				layout[column] = getGene(geneBuffer, geneWidth);
+				if (layout[column] < 0 || layout[column] >= boardSize) {
+					throw new IOException("migrant has a queen off the board");
+				}
+			}
+			migrants.add(new ChessBoard(layout));
+		}
+		return migrants;
+	}
+
+	private static ByteBuffer checkHeader(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+			throw new IOException("not a batch of migrants");
+		}
+		short version = buffer.getShort(4);
+		if (version != VERSION) {
+			throw new IOException("unsupported migrant batch version "
+					+ version);
+		}
+		return buffer;
+	}
+
+	private static int geneWidth(int boardSize) {
+		return boardSize <= 1 << 8 ? 1 : boardSize <= 1 << 16 ? 2 : 4;
+	}
+
+	private static void putGene(ByteBuffer genes, int geneWidth, int row) {
+		switch (geneWidth) {
+		case 1:
+			genes.put((byte) row);
+			break;
+		case 2:
+			genes.putShort((short) row);
+			break;
+		default:
+			genes.putInt(row);
+		}
+	}
+
+	private static int getGene(ByteBuffer genes, int geneWidth) {
+		switch (geneWidth) {
+		case 1:
+			return genes.get() & 0xFF;
+		case 2:
+			return genes.getShort() & 0xFFFF;
+		default:
+			return genes.getInt();
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A {@code MigrationTransport} carries batches of migrants between the
+ * islands of an {@link IslandEvolution}, which may run in one JVM or in
+ * several. Islands are numbered from zero, and a batch is an opaque array of
+ * bytes, encoded and compressed by {@link MigrantCodec}, so a transport only
+ * has to move bytes.
+ * <p>
+ * Migration is best-effort: a batch may be lost if its destination is not
+ * running, and an island carries on evolving whether or not migrants
+ * arrive. Implementations must allow {@link #send(int, byte[])} and
+ * {@link #poll()} to be called by the thread of the island while batches
+ * arrive on other threads.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ * @see LoopbackTransport
+ * @see SocketTransport
+ */
+public interface MigrationTransport extends Closeable {
+
+	/**
+	 * Retrieves the number of the island using {@code this}.
+	 *
+	 * @return The island's number.
+	 */
+	int getIslandId();
+
+	/**
+	 * Retrieves the number of islands reachable through {@code this},
+	 * including the island using it.
+	 *
+	 * @return The number of islands.
+	 */
+	int getIslandCount();
+
+	/**
+	 * Sends a batch of migrants to an island.
+	 *
+	 * @param destination
+	 *            The number of the receiving island.
+	 * @param batch
+	 *            The encoded batch, which must not be altered afterwards.
+	 * @throws IOException
+	 *             If the batch could not be delivered.
+	 */
+	void send(int destination, byte[] batch) throws IOException;
+
+	/**
+	 * Takes the next batch of migrants to have arrived, without waiting.
+	 *
+	 * @return The encoded batch, or {@code null} if none has arrived.
+	 * @throws IOException
+	 *             If the transport has failed.
+	 */
+	byte[] poll() throws IOException;
+}
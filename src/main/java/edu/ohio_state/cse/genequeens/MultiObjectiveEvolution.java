@@ -0,0 +1,535 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A multi-objective genetic algorithm following NSGA-II. Every generation,
+ * offspring are bred from the population and evaluated on every objective of
+ * an {@link ObjectiveFunction}; parents and offspring are then sorted into
+ * fronts of mutually non-dominated individuals, and the next population is
+ * filled front by front, the last front admitted by crowding distance so
+ * that the population stays spread along the trade-off between objectives.
+ * <p>
+ * Non-dominated sorting takes time O(M N<sup>2</sup>) for M objectives and N
+ * individuals, except for two objectives, where a sweep over the individuals
+ * sorted by the first objective assigns each to its front by binary search,
+ * in time O(N log N). Crowding distances take time O(M N log N). Offspring
+ * are evaluated in parallel.
+ * </p>
+ * <p>
+ * Breeding reuses the generation loop of {@link GeneticAlgorithms}, with the
+ * mate selector, rates and random number generator of an
+ * {@link EvolutionConfig}. So that selectors need not know about fronts,
+ * the fitness score of each individual is set to a scalar that orders
+ * individuals by NSGA-II's crowded comparison: a lower front first, then a
+ * larger crowding distance. The score of an individual of front {@code r} is
+ * {@code -r} plus a fraction below one half that grows with its crowding
+ * distance. A {@link GeneticAlgorithms.TournamentSelector
+ * TournamentSelector} of size two gives NSGA-II's binary tournament.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class MultiObjectiveEvolution {
+
+	private final ObjectiveFunction objectiveFunction;
+
+	private final EvolutionConfig config;
+
+	private final int threadCount;
+
+	/*
+	 * The result of the last run, aligned with the returned population.
+	 */
+	private double[][] lastObjectives = new double[0][];
+
+	private int[] lastRanks = new int[0];
+
+	/**
+	 * Constructs a {@code MultiObjectiveEvolution} evaluating offspring on one
+	 * thread per available processor.
+	 *
+	 * @param objectiveFunction
+	 *            The objectives of the problem.
+	 * @param config
+	 *            The selector, rates, random number generator and maximum
+	 *            number of generations of the algorithm. Its replacement mode
+	 *            and fitness cache are ignored.
+	 */
+	public MultiObjectiveEvolution(ObjectiveFunction objectiveFunction,
+			EvolutionConfig config) {
+		this(objectiveFunction, config, Runtime.getRuntime()
+				.availableProcessors());
+	}
+
+	/**
+	 * Constructs a {@code MultiObjectiveEvolution} evaluating offspring on
+	 * {@code threadCount} threads.
+	 *
+	 * @param objectiveFunction
+	 *            The objectives of the problem.
+	 * @param config
+	 *            The selector, rates, random number generator and maximum
+	 *            number of generations of the algorithm. Its replacement mode
+	 *            and fitness cache are ignored.
+	 * @param threadCount
+	 *            The number of threads evaluating offspring.
+	 */
+	public MultiObjectiveEvolution(ObjectiveFunction objectiveFunction,
+			EvolutionConfig config, int threadCount) {
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException(
+					"thread count must be positive: " + threadCount);
+		}
+		this.objectiveFunction = objectiveFunction;
+		this.config = config;
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Applies NSGA-II to {@code population} for the maximum number of
+	 * generations of the configuration, which must be set. Individuals of
+	 * {@code population} are not altered.
+	 *
+	 * @param population
+	 *            The initial population.
+	 * @return The final population, ordered by front and then by decreasing
+	 *         crowding distance, so that it starts with the first front.
+	 * @throws InterruptedException
+	 *             If the calling thread is interrupted while offspring are
+	 *             evaluated.
+	 */
+	public List<Evolvable> evolve(Collection<Evolvable> population)
+			throws InterruptedException {
+		assert !population.isEmpty() : "population is empty";
+		if (this.config.getMaxGenerations() <= 0) {
+			throw new IllegalStateException(
+					"a maximum number of generations must be configured");
+		}
+
+		int size = population.size();
+		ExecutorService evaluators = Executors
+				.newFixedThreadPool(this.threadCount);
+		try {
+			List<Evolvable> members = new ArrayList<Evolvable>(size);
+			for (Evolvable individual : population) {
+				members.add(individual.copy());
+			}
+			double[][] objectives = evaluate(members, evaluators);
+			int[] ranks = nonDominatedSort(objectives);
+			assignCrowdedScores(members, objectives, ranks);
+
+			double[] rates = new double[2];
+			for (int generation = 0; generation < this.config
+					.getMaxGenerations(); generation++) {
+				GeneticAlgorithms.adaptRates(members, this.config, rates);
+
+				// Breeding alters individuals in place, so parents are copied
+				List<Evolvable> parents = new ArrayList<Evolvable>(size);
+				for (Evolvable member : members) {
+					parents.add(member.copy());
+				}
+				List<Evolvable> offspring = GeneticAlgorithms.breed(parents,
+						this.config.getMateSelector(), rates[0], rates[1],
+						this.config.getCrossover(), size,
+						this.config.getRandom());
+				double[][] offspringObjectives = evaluate(offspring, evaluators);
+
+				// Merge parents and offspring and keep the best size of them
+				List<Evolvable> merged = new ArrayList<Evolvable>(members);
+				merged.addAll(offspring);
+				double[][] mergedObjectives = new double[merged.size()][];
+				System.arraycopy(objectives, 0, mergedObjectives, 0,
+						members.size());
+				System.arraycopy(offspringObjectives, 0, mergedObjectives,
+						members.size(), offspring.size());
+
+				int[] survivors = selectSurvivors(mergedObjectives, size);
+				members = new ArrayList<Evolvable>(size);
+				objectives = new double[survivors.length][];
+				for (int i = 0; i < survivors.length; i++) {
+					members.add(merged.get(survivors[i]));
+					objectives[i] = mergedObjectives[survivors[i]];
+				}
+				ranks = nonDominatedSort(objectives);
+				assignCrowdedScores(members, objectives, ranks);
+			}
+
+			// Order the result by the crowded comparison, best first
+			Integer[] order = new Integer[members.size()];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			final List<Evolvable> finalMembers = members;
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer a, Integer b) {
+					return Double.compare(finalMembers.get(b)
+							.getFitnessScore(), finalMembers.get(a)
+							.getFitnessScore());
+				}
+			});
+			List<Evolvable> result = new ArrayList<Evolvable>(order.length);
+			this.lastObjectives = new double[order.length][];
+			this.lastRanks = new int[order.length];
+			for (int i = 0; i < order.length; i++) {
+				result.add(members.get(order[i]));
+				this.lastObjectives[i] = objectives[order[i]];
+				this.lastRanks[i] = ranks[order[i]];
+			}
+			return result;
+		} finally {
+			evaluators.shutdownNow();
+		}
+	}
+
+	/**
+	 * Retrieves the objective vector of the individual at {@code index} of the
+	 * population returned by the last run.
+	 *
+	 * @param index
+	 *            The index of the individual.
+	 * @return A copy of its objective vector.
+	 */
+	public double[] getObjectives(int index) {
+		return this.lastObjectives[index].clone();
+	}
+
+	/**
+	 * Retrieves the front of the individual at {@code index} of the
+	 * population returned by the last run, zero being the non-dominated
+	 * front.
+	 *
+	 * @param index
+	 *            The index of the individual.
+	 * @return Its front.
+	 */
+	public int getRank(int index) {
+		return this.lastRanks[index];
+	}
+
+	/**
+	 * Retrieves the number of individuals of the non-dominated front of the
+	 * population returned by the last run. They are its first individuals.
+	 *
+	 * @return The size of the first front.
+	 */
+	public int getParetoFrontSize() {
+		int count = 0;
+		while (count < this.lastRanks.length && this.lastRanks[count] == 0) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Evaluates every individual on every objective, splitting the work into
+	 * one contiguous block per thread.
+	 */
+	private double[][] evaluate(final List<Evolvable> individuals,
+			ExecutorService evaluators) throws InterruptedException {
+		final int objectiveCount = this.objectiveFunction.getObjectiveCount();
+		final double[][] objectives = new double[individuals.size()][objectiveCount];
+		int blockCount = Math.min(this.threadCount, individuals.size());
+		List<Callable<Void>> blocks = new ArrayList<Callable<Void>>(blockCount);
+		for (int block = 0; block < blockCount; block++) {
+			final int from = (int) ((long) individuals.size() * block / blockCount);
+			final int to = (int) ((long) individuals.size() * (block + 1) / blockCount);
+			blocks.add(new Callable<Void>() {
+				public Void call() {
+					for (int i = from; i < to; i++) {
+						MultiObjectiveEvolution.this.objectiveFunction.evaluate(
+								individuals.get(i), objectives[i]);
+					}
+					return null;
+				}
+			});
+		}
+		for (Future<Void> result : evaluators.invokeAll(blocks)) {
+			try {
+				result.get();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("objective evaluation failed",
+						e.getCause());
+			}
+		}
+		return objectives;
+	}
+
+	/**
+	 * Sets the fitness score of every member to the scalar form of the
+	 * crowded comparison.
+	 */
+	private static void assignCrowdedScores(List<Evolvable> members,
+			double[][] objectives, int[] ranks) {
+		double[] crowding = crowdingDistances(objectives, ranks);
+		for (int i = 0; i < members.size(); i++) {
+			double distance = crowding[i];
+			double fraction = Double.isInfinite(distance) ? 0.5d : 0.5d
+					* distance / (1.0d + distance);
+			members.get(i).setFitnessScore(-ranks[i] + fraction);
+		}
+	}
+
+	/**
+	 * Chooses the {@code count} best of the given objective vectors by front
+	 * and, within the last front admitted, by crowding distance.
+	 */
+	private static int[] selectSurvivors(double[][] objectives, int count) {
+		final int[] ranks = nonDominatedSort(objectives);
+		final double[] crowding = crowdingDistances(objectives, ranks);
+		Integer[] order = new Integer[objectives.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				if (ranks[a] != ranks[b]) {
+					return ranks[a] < ranks[b] ? -1 : 1;
+				}
+				return Double.compare(crowding[b], crowding[a]);
+			}
+		});
+		int[] survivors = new int[Math.min(count, order.length)];
+		for (int i = 0; i < survivors.length; i++) {
+			survivors[i] = order[i];
+		}
+		return survivors;
+	}
+
+	/**
+	 * Determines whether objective vector {@code a} dominates {@code b}: it is
+	 * at least as good on every objective and better on at least one.
+	 *
+	 * @param a
+	 *            An objective vector.
+	 * @param b
+	 *            Another objective vector of the same length.
+	 * @return {@code true} if {@code a} dominates {@code b}.
+	 */
+	public static boolean dominates(double[] a, double[] b) {
+		boolean better = false;
+		for (int m = 0; m < a.length; m++) {
+			if (a[m] < b[m]) {
+				return false;
+			}
+			if (a[m] > b[m]) {
+				better = true;
+			}
+		}
+		return better;
+	}
+
+	/**
+	 * Sorts objective vectors into fronts of mutually non-dominated vectors.
+	 * Front zero holds the vectors dominated by no other; front {@code r + 1}
+	 * holds those dominated only by vectors of fronts {@code r} and before.
+	 *
+	 * @param objectives
+	 *            The objective vectors, all of the same length.
+	 * @return The front of each vector.
+	 */
+	public static int[] nonDominatedSort(double[][] objectives) {
+		if (objectives.length == 0) {
+			return new int[0];
+		}
+		if (objectives[0].length == 2) {
+			return nonDominatedSortTwoObjectives(objectives);
+		}
+		return fastNonDominatedSort(objectives);
+	}
+
+	/**
+	 * Deb's fast non-dominated sort for any number of objectives, comparing
+	 * every pair of vectors once.
+	 */
+	private static int[] fastNonDominatedSort(double[][] objectives) {
+		int n = objectives.length;
+		int[] ranks = new int[n];
+		int[] dominatedCount = new int[n];
+		// The vectors each vector dominates, as one flat adjacency list
+		int[][] dominated = new int[n][];
+		int[] dominatedSize = new int[n];
+		for (int p = 0; p < n; p++) {
+			for (int q = p + 1; q < n; q++) {
+				if (dominates(objectives[p], objectives[q])) {
+					dominated[p] = append(dominated[p], dominatedSize[p]++, q);
+					dominatedCount[q]++;
+				} else if (dominates(objectives[q], objectives[p])) {
+					dominated[q] = append(dominated[q], dominatedSize[q]++, p);
+					dominatedCount[p]++;
+				}
+			}
+		}
+
+		int[] front = new int[n];
+		int frontSize = 0;
+		for (int p = 0; p < n; p++) {
+			if (dominatedCount[p] == 0) {
+				front[frontSize++] = p;
+			}
+		}
+		int[] nextFront = new int[n];
+		int rank = 0;
+		while (frontSize > 0) {
+			int nextSize = 0;
+			for (int i = 0; i < frontSize; i++) {
+				int p = front[i];
+				ranks[p] = rank;
+				for (int j = 0; j < dominatedSize[p]; j++) {
+					int q = dominated[p][j];
+					if (--dominatedCount[q] == 0) {
+						nextFront[nextSize++] = q;
+					}
+				}
+			}
+			int[] swap = front;
+			front = nextFront;
+			nextFront = swap;
+			frontSize = nextSize;
+			rank++;
+		}
+		return ranks;
+	}
+
+	private static int[] append(int[] list, int size, int value) {
+		if (list == null) {
+			list = new int[4];
+		} else if (size == list.length) {
+			list = Arrays.copyOf(list, 2 * size);
+		}
+		list[size] = value;
+		return list;
+	}
+
+	/**
+	 * Non-dominated sort for two objectives in time O(N log N). Vectors are
+	 * visited by decreasing first objective, so every vector that could
+	 * dominate the current one has already been placed. Within a front the
+	 * second objective increases in visiting order, so a front dominates the
+	 * current vector exactly when the last vector placed in it does; and
+	 * since a vector dominated by front {@code r} is dominated by every front
+	 * before it, the first front not dominating it is found by binary search.
+	 */
+	private static int[] nonDominatedSortTwoObjectives(
+			final double[][] objectives) {
+		int n = objectives.length;
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				int byFirst = Double.compare(objectives[b][0], objectives[a][0]);
+				return byFirst != 0 ? byFirst : Double.compare(
+						objectives[b][1], objectives[a][1]);
+			}
+		});
+
+		int[] ranks = new int[n];
+		// The last vector placed in each front
+		int[] frontTails = new int[n];
+		int frontCount = 0;
+		for (int i = 0; i < n; i++) {
+			int p = order[i];
+			int low = 0;
+			int high = frontCount;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (dominates(objectives[frontTails[middle]], objectives[p])) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			ranks[p] = low;
+			frontTails[low] = p;
+			if (low == frontCount) {
+				frontCount++;
+			}
+		}
+		return ranks;
+	}
+
+	/**
+	 * Computes the crowding distance of every vector within its front: the
+	 * sum, over the objectives, of the normalized distance between its two
+	 * neighbours along that objective. The vectors at either end of a front
+	 * along any objective are given an infinite distance.
+	 *
+	 * @param objectives
+	 *            The objective vectors, all of the same length.
+	 * @param ranks
+	 *            The front of each vector, as computed by
+	 *            {@link #nonDominatedSort(double[][])}.
+	 * @return The crowding distance of each vector.
+	 */
+	public static double[] crowdingDistances(final double[][] objectives,
+			int[] ranks) {
+		int n = objectives.length;
+		double[] distances = new double[n];
+		if (n == 0) {
+			return distances;
+		}
+
+		// Group the vectors by front
+		int frontCount = 0;
+		for (int rank : ranks) {
+			frontCount = Math.max(frontCount, rank + 1);
+		}
+		int[] frontStart = new int[frontCount + 1];
+		for (int rank : ranks) {
+			frontStart[rank + 1]++;
+		}
+		for (int r = 0; r < frontCount; r++) {
+			frontStart[r + 1] += frontStart[r];
+		}
+		Integer[] byFront = new Integer[n];
+		int[] fill = Arrays.copyOf(frontStart, frontCount);
+		for (int i = 0; i < n; i++) {
+			byFront[fill[ranks[i]]++] = i;
+		}
+
+		int objectiveCount = objectives[0].length;
+		for (int r = 0; r < frontCount; r++) {
+			int from = frontStart[r];
+			int to = frontStart[r + 1];
+			if (to - from <= 2) {
+				for (int i = from; i < to; i++) {
+					distances[byFront[i]] = Double.POSITIVE_INFINITY;
+				}
+				continue;
+			}
+			for (int m = 0; m < objectiveCount; m++) {
+				final int objective = m;
+				Arrays.sort(byFront, from, to, new Comparator<Integer>() {
+					public int compare(Integer a, Integer b) {
+						return Double.compare(objectives[a][objective],
+								objectives[b][objective]);
+					}
+				});
+				double least = objectives[byFront[from]][m];
+				double greatest = objectives[byFront[to - 1]][m];
+				distances[byFront[from]] = Double.POSITIVE_INFINITY;
+				distances[byFront[to - 1]] = Double.POSITIVE_INFINITY;
+				if (greatest == least) {
+					continue;
+				}
+				for (int i = from + 1; i < to - 1; i++) {
+					distances[byFront[i]] += (objectives[byFront[i + 1]][m] - objectives[byFront[i - 1]][m])
+							/ (greatest - least);
+				}
+			}
+		}
+		return distances;
+	}
+}
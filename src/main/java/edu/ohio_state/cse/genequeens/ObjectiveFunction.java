@@ -0,0 +1,38 @@
+package edu.ohio_state.cse.genequeens;
+
+/**
+ * An {@code ObjectiveFunction} scores an individual on several objectives at
+ * once, for problems whose goals trade off against one another, such as the
+ * number of attacking queen pairs against the cost of their placement. It is
+ * used by {@link MultiObjectiveEvolution} in place of the single fitness
+ * score of {@link Evolvable#evaluateFitness()}.
+ * <p>
+ * As with every fitness in this package, a higher value of each objective is
+ * better; an objective to be minimized should be negated. Implementations
+ * must be safe for concurrent use, since individuals are evaluated by several
+ * threads at once.
+ * </p>
+ * 
+ * @author Ethan Hill
+ *
+ */
+public interface ObjectiveFunction {
+
+	/**
+	 * Retrieves the number of objectives scored by {@code this}.
+	 * 
+	 * @return The length of every objective vector.
+	 */
+	int getObjectiveCount();
+
+	/**
+	 * Scores {@code individual} on every objective.
+	 * 
+	 * @param individual
+	 *            The individual to score. It must not be altered.
+	 * @param objectives
+	 *            The array receiving the score of each objective, of length
+	 *            {@link #getObjectiveCount()}.
+	 */
+	void evaluate(Evolvable individual, double[] objectives);
+}
@@ -0,0 +1,311 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A generational genetic algorithm for the n-queens problem over a
+ * population held in {@link OffHeapGenomeStore}s, for populations too large
+ * to keep on the heap as {@link ChessBoard}s. The population and the
+ * generation being bred occupy two stores that swap roles each generation,
+ * so after start-up a run allocates nothing in proportion to the population,
+ * and the heap, and so the work of the garbage collector, stays small however
+ * many genomes there are.
+ * <p>
+ * Each generation is bred by binary tournament selection, single-point
+ * crossover and mutation, as {@link GeneticAlgorithms} breeds
+ * {@code Evolvable}s, with the best genome of each generation carried into
+ * the next. The population is split into one block of genomes per thread;
+ * each block is bred and scored by one thread, with a random number generator
+ * seeded from the run's seed, the generation and the block, so a run is
+ * reproducible for a given seed and thread count.
+ * </p>
+ * <p>
+ * Usage:
+ * {@code OffHeapEvolution <populationSize> <boardSize> <generations> [threads]}
+ * , which prints the progress of a run along with the heap in use and the
+ * time spent collecting garbage. A run of ten million boards of 128 queens
+ * needs about 2.6 GB of direct memory, allowed by
+ * {@code -XX:MaxDirectMemorySize}, and only a few megabytes of heap.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class OffHeapEvolution {
+
+	private static final double CROSSOVER_RATE = 0.9d;
+
+	private final int populationSize;
+
+	private final int boardSize;
+
+	private final int threadCount;
+
+	private final long seed;
+
+	private final double mutationRate;
+
+	private final ThreadLocal<ScoringKernel> kernels = new ThreadLocal<ScoringKernel>() {
+		@Override
+		protected ScoringKernel initialValue() {
+			return ScoringKernels.newKernel();
+		}
+	};
+
+	private final ThreadLocal<int[]> scratch = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[OffHeapEvolution.this.boardSize];
+		}
+	};
+
+	private int generationCount;
+
+	/**
+	 * Constructs an {@code OffHeapEvolution} of {@code populationSize} boards
+	 * of {@code boardSize} queens, mutating each queen of a child with
+	 * probability {@code 1 / boardSize}.
+	 *
+	 * @param populationSize
+	 *            The number of boards in the population, at least two.
+	 * @param boardSize
+	 *            The number of queens on each board, at least two.
+	 * @param threadCount
+	 *            The number of threads breeding and scoring the population.
+	 * @param seed
+	 *            The seed of the run.
+	 */
+	public OffHeapEvolution(int populationSize, int boardSize,
+			int threadCount, long seed) {
+		if (populationSize < 2 || boardSize < 2 || threadCount <= 0) {
+			throw new IllegalArgumentException(String.format(
+					"cannot evolve %d boards of %d queens on %d threads",
+					populationSize, boardSize, threadCount));
+		}
+		this.populationSize = populationSize;
+		this.boardSize = boardSize;
+		this.threadCount = threadCount;
+		this.seed = seed;
+		this.mutationRate = 1.0d / boardSize;
+	}
+
+	/**
+	 * Evolves a random population until a board has no attacking queen pairs
+	 * or {@code maxGenerations} generations have passed.
+	 *
+	 * @param maxGenerations
+	 *            The greatest number of generations to breed.
+	 * @param log
+	 *            Whether to print the best score, heap use and garbage
+	 *            collection time after each generation.
+	 * @return The best board of the final population.
+	 * @throws InterruptedException
+	 *             If the calling thread is interrupted.
+	 */
+	public ChessBoard evolve(int maxGenerations, boolean log)
+			throws InterruptedException {
+		ExecutorService workers = Executors.newFixedThreadPool(
+				this.threadCount, new ThreadFactory() {
+					private int count = 0;
+
+					public synchronized Thread newThread(Runnable task) {
+						Thread thread = new Thread(task, "off-heap-evolution-"
+								+ this.count++);
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		OffHeapGenomeStore population = new OffHeapGenomeStore(
+				this.populationSize, this.boardSize);
+		OffHeapGenomeStore offspring = new OffHeapGenomeStore(
+				this.populationSize, this.boardSize);
+		try {
+			long start = System.nanoTime();
+			int best = runBlocks(workers, population, null, 0);
+			this.generationCount = 0;
+			if (log) {
+				report(population, best, start);
+			}
+			while (this.generationCount < maxGenerations
+					&& population.getConflicts(best) > 0) {
+				this.generationCount++;
+				runBlocks(workers, offspring, population, this.generationCount);
+
+				// Carry the best parent over the first child
+				offspring.copyGenome(population, best, 0);
+				OffHeapGenomeStore swap = population;
+				population = offspring;
+				offspring = swap;
+				best = bestOf(population);
+				if (log) {
+					report(population, best, start);
+				}
+			}
+			return population.toChessBoard(best);
+		} finally {
+			workers.shutdownNow();
+			population.close();
+			offspring.close();
+		}
+	}
+
+	/**
+	 * Retrieves the number of generations bred by the last run.
+	 *
+	 * @return The generation count of the last run.
+	 */
+	public int getGenerationCount() {
+		return this.generationCount;
+	}
+
+	/**
+	 * Fills {@code target} block by block in parallel: with random boards if
+	 * {@code parents} is {@code null}, and otherwise with children bred from
+	 * {@code parents}, scoring every genome.
+	 *
+	 * @return The index of the best genome of {@code target}.
+	 */
+	private int runBlocks(ExecutorService workers,
+			final OffHeapGenomeStore target, final OffHeapGenomeStore parents,
+			final int generation) throws InterruptedException {
+		List<Callable<Integer>> blocks = new ArrayList<Callable<Integer>>(
+				this.threadCount);
+		for (int block = 0; block < this.threadCount; block++) {
+			// Blocks start on even indexes, so each holds whole pairs
+			final int from = (int) ((long) this.populationSize * block
+					/ this.threadCount) & ~1;
+			final int to = block == this.threadCount - 1 ? this.populationSize
+					: (int) ((long) this.populationSize * (block + 1) / this.threadCount)
+							& ~1;
+			final Random rand = new SeededRandom(Hashing.mix(
+					Hashing.mix(this.seed, generation), block));
+			blocks.add(new Callable<Integer>() {
+				public Integer call() {
+					if (parents == null) {
+						return randomizeBlock(target, from, to, rand);
+					}
+					return breedBlock(target, parents, from, to, rand);
+				}
+			});
+		}
+		int best = -1;
+		try {
+			for (Future<Integer> result : workers.invokeAll(blocks)) {
+				int blockBest = result.get();
+				if (blockBest >= 0
+						&& (best < 0 || target.getConflicts(blockBest) < target
+								.getConflicts(best))) {
+					best = blockBest;
+				}
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("breeding failed", e.getCause());
+		}
+		return best;
+	}
+
+	private int randomizeBlock(OffHeapGenomeStore target, int from, int to,
+			Random rand) {
+		ScoringKernel kernel = this.kernels.get();
+		int[] rows = this.scratch.get();
+		int best = -1;
+		for (int genome = from; genome < to; genome++) {
+			target.randomize(genome, rand);
+			target.score(genome, kernel, rows);
+			best = better(target, best, genome);
+		}
+		return best;
+	}
+
+	private int breedBlock(OffHeapGenomeStore target,
+			OffHeapGenomeStore parents, int from, int to, Random rand) {
+		ScoringKernel kernel = this.kernels.get();
+		int[] rows = this.scratch.get();
+		int best = -1;
+		for (int child = from; child < to; child += 2) {
+			target.copyGenome(parents, tournament(parents, rand), child);
+			boolean paired = child + 1 < to;
+			if (paired) {
+				target.copyGenome(parents, tournament(parents, rand), child + 1);
+				if (rand.nextDouble() < CROSSOVER_RATE) {
+					target.swapTails(child, child + 1,
+							GeneOperators.crossoverPoint(this.boardSize, rand));
+				}
+			}
+			for (int genome = child; genome < child + (paired ? 2 : 1); genome++) {
+				target.mutate(genome, this.mutationRate, rand);
+				target.score(genome, kernel, rows);
+				best = better(target, best, genome);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Selects the better of two genomes of {@code parents} drawn at random.
+	 */
+	private int tournament(OffHeapGenomeStore parents, Random rand) {
+		int a = rand.nextInt(this.populationSize);
+		int b = rand.nextInt(this.populationSize);
+		return parents.getConflicts(a) <= parents.getConflicts(b) ? a : b;
+	}
+
+	private static int better(OffHeapGenomeStore store, int best, int genome) {
+		return best < 0 || store.getConflicts(genome) < store.getConflicts(best) ? genome
+				: best;
+	}
+
+	private int bestOf(OffHeapGenomeStore store) {
+		int best = 0;
+		for (int genome = 1; genome < this.populationSize; genome++) {
+			if (store.getConflicts(genome) < store.getConflicts(best)) {
+				best = genome;
+			}
+		}
+		return best;
+	}
+
+	private void report(OffHeapGenomeStore population, int best, long start) {
+		Runtime runtime = Runtime.getRuntime();
+		long gcMillis = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			gcMillis += Math.max(0, collector.getCollectionTime());
+		}
+		System.out.println(String.format(
+				"generation %d: best %d attacking pairs, %.1f s, heap %d KiB, gc %d ms",
+				this.generationCount, population.getConflicts(best),
+				(System.nanoTime() - start) / 1e9,
+				(runtime.totalMemory() - runtime.freeMemory()) >> 10, gcMillis));
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		if (args.length < 3 || args.length > 4) {
+			System.out
+					.println("Usage: OffHeapEvolution <populationSize> <boardSize> <generations> [threads]");
+			return;
+		}
+		int populationSize = Integer.parseInt(args[0]);
+		int boardSize = Integer.parseInt(args[1]);
+		int generations = Integer.parseInt(args[2]);
+		int threads = args.length == 4 ? Integer.parseInt(args[3]) : Runtime
+				.getRuntime().availableProcessors();
+
+		OffHeapEvolution evolution = new OffHeapEvolution(populationSize,
+				boardSize, threads, System.nanoTime());
+		ChessBoard best = evolution.evolve(generations, true);
+		System.out.println(String.format("best after %d generations: %s",
+				evolution.getGenerationCount(), Arrays.toString(best.getBoardLayout())));
+	}
+}
@@ -0,0 +1,382 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.Closeable;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * A fixed number of n-queens genomes of one size held outside the Java heap,
+ * so that a population of tens of millions of boards costs the garbage
+ * collector nothing to trace. Genomes are stored end to end in direct
+ * {@link ByteBuffer}s, each queen's row in the narrowest of one, two or four
+ * bytes that holds every row of the board, so a board of 128 queens takes 128
+ * bytes. A single buffer holds under 2 GiB, so the store is split into chunks
+ * of whole genomes.
+ * <p>
+ * Crossover, mutation and scoring work directly on the stored rows, and the
+ * fitness of each genome, its number of attacking queen pairs, is stored
+ * alongside it off the heap too. Genomes are addressed by index; a genome
+ * becomes an {@link Evolvable} only when copied out by
+ * {@link #toChessBoard(int)}. Distinct genomes may be written by different
+ * threads at once, but one genome must not be written by two.
+ * </p>
+ * <p>
+ * Direct buffers are released when they are garbage collected, as no
+ * portable means of freeing them exists on Java 8; {@link #close()} drops the
+ * store's references to them.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class OffHeapGenomeStore implements Closeable {
+
+	/**
+	 * The greatest number of bytes in one chunk.
+	 */
+	static final int MAX_CHUNK_BYTES = 1 << 30;
+
+	private final int genomeCount;
+
+	private final int boardSize;
+
+	/**
+	 * The number of bytes holding one row.
+	 */
+	private final int geneWidth;
+
+	private final int genomeBytes;
+
+	private final int genomesPerChunk;
+
+	private ByteBuffer[] chunks;
+
+	/**
+	 * The attacking queen pair count of each genome, as four-byte integers.
+	 */
+	private ByteBuffer[] conflictChunks;
+
+	/**
+	 * Allocates a store of {@code genomeCount} genomes of {@code boardSize}
+	 * queens, all of them with every queen in row zero.
+	 *
+	 * @param genomeCount
+	 *            The number of genomes.
+	 * @param boardSize
+	 *            The number of queens on each board.
+	 * @throws IllegalArgumentException
+	 *             If either argument is not positive.
+	 * @throws OutOfMemoryError
+	 *             If the direct memory limit of the JVM, set by
+	 *             {@code -XX:MaxDirectMemorySize}, is exceeded.
+	 */
+	public OffHeapGenomeStore(int genomeCount, int boardSize) {
+		if (genomeCount <= 0 || boardSize <= 0) {
+			throw new IllegalArgumentException(String.format(
+					"cannot store %d genomes of %d queens", genomeCount,
+					boardSize));
+		}
+		this.genomeCount = genomeCount;
+		this.boardSize = boardSize;
+		this.geneWidth = boardSize <= 1 << 8 ? 1 : boardSize <= 1 << 16 ? 2
+				: 4;
+		if ((long) boardSize * this.geneWidth > MAX_CHUNK_BYTES) {
+			throw new IllegalArgumentException("board of " + boardSize
+					+ " queens is too large");
+		}
+		this.genomeBytes = boardSize * this.geneWidth;
+		this.genomesPerChunk = MAX_CHUNK_BYTES / this.genomeBytes;
+
+		int chunkCount = (genomeCount + this.genomesPerChunk - 1)
+				/ this.genomesPerChunk;
+		this.chunks = new ByteBuffer[chunkCount];
+		this.conflictChunks = new ByteBuffer[chunkCount];
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			int genomes = Math.min(this.genomesPerChunk, genomeCount - chunk
+					* this.genomesPerChunk);
+			this.chunks[chunk] = ByteBuffer.allocateDirect(
+					genomes * this.genomeBytes).order(ByteOrder.nativeOrder());
+			this.conflictChunks[chunk] = ByteBuffer.allocateDirect(4 * genomes)
+					.order(ByteOrder.nativeOrder());
+		}
+	}
+
+	/**
+	 * Retrieves the number of genomes held.
+	 *
+	 * @return The capacity of {@code this}.
+	 */
+	public int getGenomeCount() {
+		return this.genomeCount;
+	}
+
+	/**
+	 * Retrieves the number of queens on each board.
+	 *
+	 * @return The length of each genome.
+	 */
+	public int getBoardSize() {
+		return this.boardSize;
+	}
+
+	/**
+	 * Retrieves the number of bytes of direct memory holding the genomes and
+	 * their scores.
+	 *
+	 * @return The off-heap size of {@code this}.
+	 */
+	public long getByteSize() {
+		return (long) this.genomeCount * (this.genomeBytes + 4);
+	}
+
+	private ByteBuffer chunkOf(int genome) {
+		return this.chunks[genome / this.genomesPerChunk];
+	}
+
+	private int offsetOf(int genome, int column) {
+		return (genome % this.genomesPerChunk) * this.genomeBytes + column
+				* this.geneWidth;
+	}
+
+	/**
+	 * Retrieves the row of the queen of {@code column} of a genome.
+	 *
+	 * @param genome
+	 *            The index of the genome.
+	 * @param column
+	 *            A column of the board.
+	 * @return The row of the queen.
+	 */
+	public int geneAt(int genome, int column) {
+		return readGene(chunkOf(genome), offsetOf(genome, column));
+	}
+
+	/**
+	 * Moves the queen of {@code column} of a genome to {@code row}.
+	 *
+	 * @param genome
+	 *            The index of the genome.
+	 * @param column
+	 *            A column of the board.
+	 * @param row
+	 *            The new row of the queen.
+	 */
+	public void setGene(int genome, int column, int row) {
+		writeGene(chunkOf(genome), offsetOf(genome, column), row);
+	}
+
+	private int readGene(ByteBuffer chunk, int offset) {
+		switch (this.geneWidth) {
+		case 1:
+			return chunk.get(offset) & 0xFF;
+		case 2:
+			return chunk.getShort(offset) & 0xFFFF;
+		default:
+			return chunk.getInt(offset);
+		}
+	}
+
+	private void writeGene(ByteBuffer chunk, int offset, int row) {
+		switch (this.geneWidth) {
+		case 1:
+			chunk.put(offset, (byte) row);
+			break;
+		case 2:
+			chunk.putShort(offset, (short) row);
+			break;
+		default:
+			chunk.putInt(offset, row);
+		}
+	}
+
+	/**
+	 * Copies the rows of a genome into {@code destination}, starting at
+	 * {@code offset}.
+	 *
+	 * @param genome
+	 *            The index of the genome.
+	 * @param destination
+	 *            The array receiving the rows.
+	 * @param offset
+	 *            The index of {@code destination} receiving the first row.
+	 */
+	public void copyGenes(int genome, int[] destination, int offset) {
+		ByteBuffer chunk = chunkOf(genome);
+		int source = offsetOf(genome, 0);
+		for (int column = 0; column < this.boardSize; column++, source += this.geneWidth) {
+			destination[offset + column] = readGene(chunk, source);
+		}
+	}
+
+	/**
+	 * Replaces the rows of a genome by those of {@code source}, starting at
+	 * {@code offset}.
+	 *
+	 * @param genome
+	 *            The index of the genome.
+	 * @param source
+	 *            The array holding the rows.
+	 * @param offset
+	 *            The index of {@code source} holding the first row.
+	 */
+	public void setGenes(int genome, int[] source, int offset) {
+		ByteBuffer chunk = chunkOf(genome);
+		int destination = offsetOf(genome, 0);
+		for (int column = 0; column < this.boardSize; column++, destination += this.geneWidth) {
+			writeGene(chunk, destination, source[offset + column]);
+		}
+	}
+
+	/**
+	 * Copies genome {@code from} of {@code source}, with its score, over
+	 * genome {@code to} of {@code this}. The stores must hold boards of the
+	 * same size.
+	 *
+	 * @param source
+	 *            The store holding the genome to copy, which may be
+	 *            {@code this}.
+	 * @param from
+	 *            The index of the genome in {@code source}.
+	 * @param to
+	 *            The index of the genome in {@code this}.
+	 */
+	public void copyGenome(OffHeapGenomeStore source, int from, int to) {
+		assert source.boardSize == this.boardSize : "stores hold boards of different sizes";
+		ByteBuffer sourceChunk = source.chunkOf(from).duplicate();
+		int sourceOffset = source.offsetOf(from, 0);
+		// Positioned through Buffer, whose methods also exist on Java 8
+		((Buffer) sourceChunk).limit(sourceOffset + this.genomeBytes);
+		((Buffer) sourceChunk).position(sourceOffset);
+		ByteBuffer destinationChunk = chunkOf(to).duplicate();
+		((Buffer) destinationChunk).position(offsetOf(to, 0));
+		destinationChunk.put(sourceChunk);
+		setConflicts(to, source.getConflicts(from));
+	}
+
+	/**
+	 * Fills a genome with random rows.
+	 *
+	 * @param genome
+	 *            The index of the genome.
+	 * @param rand
+	 *            The source of randomness.
+	 */
+	public void randomize(int genome, Random rand) {
+		ByteBuffer chunk = chunkOf(genome);
+		int offset = offsetOf(genome, 0);
+		for (int column = 0; column < this.boardSize; column++, offset += this.geneWidth) {
+			writeGene(chunk, offset, rand.nextInt(this.boardSize));
+		}
+	}
+
+	/**
+	 * Exchanges the rows of two genomes from {@code from} onward, performing
+	 * single-point crossover in place.
+	 *
+	 * @param genomeA
+	 *            The index of one genome.
+	 * @param genomeB
+	 *            The index of the other genome.
+	 * @param from
+	 *            The crossover point.
+	 */
+	public void swapTails(int genomeA, int genomeB, int from) {
+		ByteBuffer chunkA = chunkOf(genomeA);
+		ByteBuffer chunkB = chunkOf(genomeB);
+		int offsetA = offsetOf(genomeA, from);
+		int offsetB = offsetOf(genomeB, from);
+		for (int column = from; column < this.boardSize; column++, offsetA += this.geneWidth, offsetB += this.geneWidth) {
+			int rowA = readGene(chunkA, offsetA);
+			writeGene(chunkA, offsetA, readGene(chunkB, offsetB));
+			writeGene(chunkB, offsetB, rowA);
+		}
+	}
+
+	/**
+	 * Moves each queen of a genome, with probability {@code mutationRate}, to
+	 * a random row, visiting only the queens that move.
+	 *
+	 * @param genome
+	 *            The index of the genome.
+	 * @param mutationRate
+	 *            The probability that a queen is moved.
+	 * @param rand
+	 *            The source of randomness.
+	 * @see GeneOperators#nextMutationGap(double, Random)
+	 */
+	public void mutate(int genome, double mutationRate, Random rand) {
+		ByteBuffer chunk = chunkOf(genome);
+		int offset = offsetOf(genome, 0);
+		long column = GeneOperators.nextMutationGap(mutationRate, rand);
+		while (column < this.boardSize) {
+			writeGene(chunk, offset + (int) column * this.geneWidth,
+					rand.nextInt(this.boardSize));
+			column += 1L + GeneOperators.nextMutationGap(mutationRate, rand);
+		}
+	}
+
+	/**
+	 * Counts the attacking queen pairs of a genome with {@code kernel}, and
+	 * stores the count as its score.
+	 *
+	 * @param genome
+	 *            The index of the genome.
+	 * @param kernel
+	 *            The kernel of the calling thread.
+	 * @param scratch
+	 *            An array of at least {@link #getBoardSize()} entries into
+	 *            which the rows are copied to be scored.
+	 * @return The number of attacking queen pairs.
+	 */
+	public int score(int genome, ScoringKernel kernel, int[] scratch) {
+		copyGenes(genome, scratch, 0);
+		int conflicts = kernel.countAttackingPairs(scratch, 0, this.boardSize);
+		setConflicts(genome, conflicts);
+		return conflicts;
+	}
+
+	/**
+	 * Retrieves the stored number of attacking queen pairs of a genome.
+	 *
+	 * @param genome
+	 *            The index of the genome.
+	 * @return The count stored by the last {@link #score} of the genome.
+	 */
+	public int getConflicts(int genome) {
+		return this.conflictChunks[genome / this.genomesPerChunk]
+				.getInt(4 * (genome % this.genomesPerChunk));
+	}
+
+	private void setConflicts(int genome, int conflicts) {
+		this.conflictChunks[genome / this.genomesPerChunk].putInt(
+				4 * (genome % this.genomesPerChunk), conflicts);
+	}
+
+	/**
+	 * Copies a genome onto the heap as a {@link ChessBoard}, with its stored
+	 * score as its fitness.
+	 *
+	 * @param genome
+	 *            The index of the genome.
+	 * @return A new board with the layout of the genome.
+	 */
+	public ChessBoard toChessBoard(int genome) {
+		int[] layout = new int[this.boardSize];
+		copyGenes(genome, layout, 0);
+		ChessBoard board = new ChessBoard(layout);
+		board.setFitnessScore(ChessBoard.queenPairCount(this.boardSize)
+				- getConflicts(genome));
+		return board;
+	}
+
+	/**
+	 * Drops the references of {@code this} to its buffers, so that their
+	 * memory is released once they are collected.
+	 */
+	public void close() {
+		this.chunks = new ByteBuffer[0];
+		this.conflictChunks = new ByteBuffer[0];
+	}
+}
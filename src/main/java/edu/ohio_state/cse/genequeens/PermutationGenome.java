@@ -0,0 +1,199 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A {@code PermutationGenome} is a {@link Genome} whose genes are an ordering
+ * of the integers {@code 0} to {@code length - 1}, such as the order in
+ * which jobs are scheduled. Every operator keeps the genes a permutation:
+ * mutation swaps pairs of genes, and genes are exchanged by partially mapped
+ * crossover. The inverse permutation is kept alongside the genes, so both
+ * operators run in place and {@link #positionOf(int)} takes constant time.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class PermutationGenome extends Genome<PermutationGenome> {
+
+	private final int[] genes;
+
+	private final int[] positions;
+
+	/**
+	 * Constructs a {@code PermutationGenome} holding a uniformly random
+	 * ordering of {@code length} values.
+	 *
+	 * @param length
+	 *            The number of genes.
+	 * @param fitnessFunction
+	 *            The function that scores the genome.
+	 * @param rand
+	 *            The source of randomness for the ordering.
+	 */
+	public PermutationGenome(int length,
+			FitnessFunction<PermutationGenome> fitnessFunction, Random rand) {
+		super(fitnessFunction);
+		this.genes = new int[length];
+		this.positions = new int[length];
+		for (int i = 0; i < length; i++) {
+			this.genes[i] = i;
+		}
+		// Fisher-Yates shuffle
+		for (int i = length - 1; i > 0; i--) {
+			int j = rand.nextInt(i + 1);
+			int gene = this.genes[i];
+			this.genes[i] = this.genes[j];
+			this.genes[j] = gene;
+		}
+		for (int i = 0; i < length; i++) {
+			this.positions[this.genes[i]] = i;
+		}
+	}
+
+	/**
+	 * Constructs a {@code PermutationGenome} holding a copy of {@code genes}.
+	 *
+	 * @param genes
+	 *            A permutation of the integers {@code 0} to
+	 *            {@code genes.length - 1}.
+	 * @param fitnessFunction
+	 *            The function that scores the genome.
+	 * @throws IllegalArgumentException
+	 *             If {@code genes} is not such a permutation.
+	 */
+	public PermutationGenome(int[] genes,
+			FitnessFunction<PermutationGenome> fitnessFunction) {
+		super(fitnessFunction);
+		this.genes = genes.clone();
+		this.positions = new int[genes.length];
+		Arrays.fill(this.positions, -1);
+		for (int i = 0; i < genes.length; i++) {
+			int gene = genes[i];
+			if (gene < 0 || gene >= genes.length || this.positions[gene] != -1) {
+				throw new IllegalArgumentException(
+						"genes are not a permutation: " + Arrays.toString(genes));
+			}
+			this.positions[gene] = i;
+		}
+	}
+
+	private PermutationGenome(PermutationGenome original) {
+		super(original.fitnessFunction);
+		this.genes = original.genes.clone();
+		this.positions = original.positions.clone();
+	}
+
+	@Override
+	public int length() {
+		return this.genes.length;
+	}
+
+	/**
+	 * Retrieves the gene at {@code index}.
+	 *
+	 * @param index
+	 *            The index of the gene.
+	 * @return The value at {@code index} of the permutation.
+	 */
+	public int geneAt(int index) {
+		return this.genes[index];
+	}
+
+	/**
+	 * Retrieves the index at which {@code value} appears.
+	 *
+	 * @param value
+	 *            A value of the permutation.
+	 * @return The index of {@code value}.
+	 */
+	public int positionOf(int value) {
+		return this.positions[value];
+	}
+
+	/**
+	 * Swaps the genes at indices {@code i} and {@code j}.
+	 *
+	 * @param i
+	 *            The first index.
+	 * @param j
+	 *            The second index.
+	 */
+	public void swap(int i, int j) {
+		GeneOperators.swapPositions(this.genes, this.positions, i, j);
+	}
+
+	/**
+	 * Copies the genes of {@code this} into {@code destination}, starting at
+	 * {@code offset}.
+	 *
+	 * @param destination
+	 *            The array receiving the genes.
+	 * @param offset
+	 *            The index of {@code destination} receiving the first gene.
+	 */
+	public void copyGenes(int[] destination, int offset) {
+		System.arraycopy(this.genes, 0, destination, offset, this.genes.length);
+	}
+
+	@Override
+	public long getGenomeHash() {
+		long hash = this.genes.length;
+		for (int gene : this.genes) {
+			hash = Hashing.mix(hash, gene);
+		}
+		return hash;
+	}
+
+	@Override
+	protected int countDifferences(PermutationGenome other) {
+		int distance = 0;
+		for (int i = 0; i < this.genes.length; i++) {
+			if (this.genes[i] != other.genes[i]) {
+				distance++;
+			}
+		}
+		return distance;
+	}
+
+	@Override
+	public void mutate(double mutationRate, Random rand) {
+		GeneOperators.swapMutate(this.genes, this.positions, mutationRate, rand);
+	}
+
+	@Override
+	public Evolvable exchangeGenes(Evolvable mate, Random rand) {
+		PermutationGenome sibling = (PermutationGenome) mateOf(mate).copy();
+		int length = this.genes.length;
+		if (length > 1) {
+			int from = rand.nextInt(length);
+			int to = from + 1 + rand.nextInt(length - from);
+			GeneOperators.partiallyMappedCrossover(this.genes, this.positions,
+					sibling.genes, sibling.positions, from, to);
+		}
+		return sibling;
+	}
+
+	@Override
+	public Evolvable copy() {
+		PermutationGenome copy = new PermutationGenome(this);
+		copy.setFitnessScore(this.fitnessScore);
+		return copy;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		return object instanceof PermutationGenome
+				&& Arrays.equals(this.genes, ((PermutationGenome) object).genes);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.genes);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(this.genes);
+	}
+}
@@ -0,0 +1,355 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import edu.ohio_state.cse.genequeens.GeneticAlgorithms.Slot;
+
+/**
+ * An asynchronous, steady-state genetic algorithm in which breeding and
+ * evaluation overlap. Breeder threads select parents from the population,
+ * breed offspring from copies of them, and put the offspring into a bounded
+ * queue; evaluator threads take offspring from the queue, score them, and
+ * merge each back into the population by replacing its least fit individual
+ * if the offspring is more fit.
+ * <p>
+ * There is no barrier between generations: a slow evaluation only holds up
+ * the thread performing it, so every core stays busy even when the cost of
+ * evaluating individuals varies widely. The bounded queue keeps breeders from
+ * running ahead of evaluators. Individuals of the population are never
+ * altered once they have been merged, so breeders only need to hold the
+ * population lock while choosing parents.
+ * </p>
+ * <p>
+ * Each breeder draws from its own {@link SeededRandom}, seeded from the
+ * random source of the configuration, though the interleaving of threads
+ * still makes runs unrepeatable. A failure on any thread ends the run and is
+ * rethrown to the caller.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class PipelinedEvolution {
+
+	/**
+	 * How long an idle thread waits on the queue before checking whether the
+	 * algorithm has finished.
+	 */
+	private static final long POLL_MILLISECONDS = 10;
+
+	private final EvolutionConfig config;
+
+	private final int breederCount;
+
+	private final int evaluatorCount;
+
+	private final int queueCapacity;
+
+	/*
+	 * State of a single run, guarded by lock.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+	private List<Evolvable> members;
+	private PriorityQueue<Slot> leastFitFirst;
+	private long evaluationCount;
+	private long generationEvaluations;
+	private final double[] rates = new double[2];
+
+	/**
+	 * Constructs a {@code PipelinedEvolution} with one breeder thread, one
+	 * evaluator thread per remaining available processor, and a queue of
+	 * offspring four times as deep as there are evaluators.
+	 *
+	 * @param config
+	 *            The selector, rates and fitness cache of the algorithm. Its
+	 *            replacement mode is ignored.
+	 */
+	public PipelinedEvolution(EvolutionConfig config) {
+		this(config, 1, Math.max(1, Runtime.getRuntime()
+				.availableProcessors() - 1), 4 * Math.max(1, Runtime
+				.getRuntime().availableProcessors() - 1));
+	}
+
+	/**
+	 * Constructs a {@code PipelinedEvolution} with the given numbers of
+	 * breeder and evaluator threads.
+	 *
+	 * @param config
+	 *            The selector, rates and fitness cache of the algorithm. Its
+	 *            replacement mode is ignored.
+	 * @param breederCount
+	 *            The number of threads breeding offspring.
+	 * @param evaluatorCount
+	 *            The number of threads evaluating offspring.
+	 * @param queueCapacity
+	 *            The number of bred offspring that may await evaluation.
+	 */
+	public PipelinedEvolution(EvolutionConfig config, int breederCount,
+			int evaluatorCount, int queueCapacity) {
+		assert breederCount > 0 && evaluatorCount > 0 : "thread counts must be positive";
+		assert queueCapacity > 0 : "queue capacity must be positive";
+
+		this.config = config;
+		this.breederCount = breederCount;
+		this.evaluatorCount = evaluatorCount;
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Applies the pipelined genetic algorithm to {@code population} until
+	 * {@code goal} is satisfied or {@code maxEvaluations} offspring have been
+	 * evaluated. {@code goal} is checked against every merged offspring, and
+	 * against the whole population once per population-size evaluations.
+	 * Only one run may be in progress on {@code this} at a time.
+	 *
+	 * @param population
+	 *            The population from which a solution is drawn by this method.
+	 * @param goal
+	 *            The problem-specific implementation of an
+	 *            {@code EvolutionaryGoal} which verifies whether the population
+	 *            satisfies some requirements to be considered a solution to a
+	 *            problem.
+	 * @param maxEvaluations
+	 *            The number of evaluations after which the algorithm "gives
+	 *            up", or zero for no maximum.
+	 * @return The final population of the genetic algorithm.
+	 * @throws InterruptedException
+	 *             If the calling thread is interrupted while waiting for the
+	 *             run to finish.
+	 * @throws RuntimeException
+	 *             The first exception thrown by a breeder or evaluator thread,
+	 *             which ends the run.
+	 */
+	public Collection<Evolvable> evolve(Collection<Evolvable> population,
+			final EvolutionaryGoal goal, final long maxEvaluations)
+			throws InterruptedException {
+		assert !population.isEmpty() : "population is empty";
+
+		this.members = new ArrayList<Evolvable>(population);
+		for (Evolvable member : this.members) {
+			evaluate(member);
+		}
+		if (goal.isSatisfied(this.members)) {
+			return this.members;
+		}
+		this.leastFitFirst = new PriorityQueue<Slot>(this.members.size());
+		for (int i = 0; i < this.members.size(); i++) {
+			this.leastFitFirst.offer(new Slot(i, this.members.get(i)));
+		}
+		this.evaluationCount = 0;
+		this.generationEvaluations = 0;
+		adaptRates();
+
+		final AtomicBoolean done = new AtomicBoolean(false);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final BlockingQueue<Evolvable> offspring = new ArrayBlockingQueue<Evolvable>(
+				this.queueCapacity);
+		ExecutorService executor = Executors
+				.newFixedThreadPool(this.breederCount + this.evaluatorCount);
+		try {
+			for (int i = 0; i < this.breederCount; i++) {
+				final SeededRandom rand = new SeededRandom(this.config
+						.getRandom().nextLong());
+				executor.execute(new Runnable() {
+					public void run() {
+						try {
+							breed(offspring, done, rand);
+						} catch (Throwable t) {
+							fail(failure, t, done);
+						}
+					}
+				});
+			}
+			for (int i = 0; i < this.evaluatorCount; i++) {
+				executor.execute(new Runnable() {
+					public void run() {
+						try {
+							evaluate(offspring, goal, maxEvaluations, done);
+						} catch (Throwable t) {
+							fail(failure, t, done);
+						}
+					}
+				});
+			}
+			executor.shutdown();
+			while (!executor.awaitTermination(POLL_MILLISECONDS,
+					TimeUnit.MILLISECONDS)) {
+				// Keep waiting for every thread to observe done
+			}
+		} finally {
+			done.set(true);
+			executor.shutdownNow();
+		}
+
+		Throwable cause = failure.get();
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		} else if (cause instanceof Error) {
+			throw (Error) cause;
+		} else if (cause != null) {
+			throw new IllegalStateException("pipelined evolution failed",
+					cause);
+		}
+
+		this.lock.lock();
+		try {
+			return new ArrayList<Evolvable>(this.members);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieves the number of offspring evaluated by the current or last run.
+	 *
+	 * @return The number of evaluations.
+	 */
+	public long getEvaluationCount() {
+		this.lock.lock();
+		try {
+			return this.evaluationCount;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Records the first failure of a thread and ends the run.
+	 */
+	private static void fail(AtomicReference<Throwable> failure,
+			Throwable cause, AtomicBoolean done) {
+		failure.compareAndSet(null, cause);
+		done.set(true);
+	}
+
+	/**
+	 * The body of a breeder thread, drawing every random choice from
+	 * {@code rand}.
+	 */
+	private void breed(BlockingQueue<Evolvable> offspring, AtomicBoolean done,
+			Random rand) {
+		MateSelector<Evolvable> mateSelector = this.config.getMateSelector();
+		Crossover crossover = this.config.getCrossover();
+		try {
+			while (!done.get()) {
+				Evolvable parent;
+				Evolvable mate;
+				double mutationRate;
+				double crossoverRate;
+				this.lock.lock();
+				try {
+					parent = this.members
+							.get(rand.nextInt(this.members.size()));
+					mate = mateSelector.selectMate(parent, this.members);
+					mutationRate = this.rates[0];
+					crossoverRate = this.rates[1];
+				} finally {
+					this.lock.unlock();
+				}
+
+				// Parents are never altered; their copies are bred instead
+				Evolvable child = parent.copy();
+				if (mate != parent && rand.nextDouble() < crossoverRate) {
+					Evolvable sibling = child.exchangeGenes(mate, crossover,
+							rand);
+					sibling.mutate(mutationRate, rand);
+					enqueue(offspring, sibling, done);
+				}
+				child.mutate(mutationRate, rand);
+				enqueue(offspring, child, done);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void enqueue(BlockingQueue<Evolvable> offspring,
+			Evolvable child, AtomicBoolean done) throws InterruptedException {
+		while (!done.get()
+				&& !offspring.offer(child, POLL_MILLISECONDS,
+						TimeUnit.MILLISECONDS)) {
+			// The queue is full; wait for the evaluators to catch up
+		}
+	}
+
+	/**
+	 * The body of an evaluator thread.
+	 */
+	private void evaluate(BlockingQueue<Evolvable> offspring,
+			EvolutionaryGoal goal, long maxEvaluations, AtomicBoolean done) {
+		try {
+			while (!done.get()) {
+				Evolvable child = offspring.poll(POLL_MILLISECONDS,
+						TimeUnit.MILLISECONDS);
+				if (child == null) {
+					continue;
+				}
+				evaluate(child);
+
+				this.lock.lock();
+				try {
+					if (done.get()) {
+						return;
+					}
+					this.evaluationCount++;
+					this.generationEvaluations++;
+					Slot leastFit = this.leastFitFirst.peek();
+					if (child.compareTo(leastFit.individual) > 0) {
+						this.leastFitFirst.poll();
+						this.members.set(leastFit.index, child);
+						leastFit.individual = child;
+						this.leastFitFirst.offer(leastFit);
+						if (goal.isSatisfied(Collections.singletonList(child))) {
+							done.set(true);
+						}
+					}
+					if (this.generationEvaluations >= this.members.size()) {
+						this.generationEvaluations = 0;
+						if (goal.isSatisfied(this.members)) {
+							done.set(true);
+						}
+						adaptRates();
+					}
+					if (maxEvaluations > 0
+							&& this.evaluationCount >= maxEvaluations) {
+						done.set(true);
+					}
+				} finally {
+					this.lock.unlock();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void evaluate(Evolvable individual) {
+		FitnessCache cache = this.config.getFitnessCache();
+		if (cache == null) {
+			individual.evaluateFitness();
+		} else {
+			individual.evaluateFitness(cache);
+		}
+	}
+
+	/**
+	 * Chooses the rates used by breeders until the next call. Must be called
+	 * while holding the lock, or before any thread is started.
+	 */
+	private void adaptRates() {
+		GeneticAlgorithms.adaptRates(this.members, this.config, this.rates);
+	}
+}
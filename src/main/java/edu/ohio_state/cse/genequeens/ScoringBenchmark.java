@@ -0,0 +1,151 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Random;
+
+/**
+ * A benchmark of the {@link ScoringKernel}s against
+ * {@link ChessBoard#evaluateFitness()}. For each board size, a pool of random
+ * boards is checked to be scored alike by every method, then scored
+ * repeatedly by each method in turn after a warm-up pass, and the mean time
+ * per board is printed along with the speedup over {@code evaluateFitness}.
+ * Kernels score the whole pool at once, as {@link BatchScorer} scores a tile.
+ * <p>
+ * Usage: {@code ScoringBenchmark [boardSize ...]}, defaulting to a range of
+ * sizes from 8 to 1024. Run with {@code --add-modules jdk.incubator.vector},
+ * on classes built with the {@code vector} profile, to include the vector
+ * kernel.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class ScoringBenchmark {
+
+	private static final int[] DEFAULT_BOARD_SIZES = { 8, 16, 32, 64, 128,
+			256, 1024 };
+
+	private static final int POOL_SIZE = 1024;
+
+	/**
+	 * The number of queens scored per measurement, so that every board size
+	 * is measured over a similar amount of work.
+	 */
+	private static final long QUEENS_PER_MEASUREMENT = 1L << 24;
+
+	public static void main(String[] args) {
+		int[] boardSizes = DEFAULT_BOARD_SIZES;
+		if (args.length > 0) {
+			boardSizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				boardSizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+		ScoringKernel vector = ScoringKernels.newVectorKernel();
+		if (vector == null) {
+			System.out.println("vector kernel unavailable; "
+					+ "build with -Pvector and run with the vector module");
+		}
+		System.out.println(String.format("%8s %14s %14s %14s %9s %9s", "n",
+				"evaluate ns", "histogram ns", "vector ns", "hist x",
+				"vector x"));
+
+		Random rand = new Random(1);
+		for (int boardSize : boardSizes) {
+			ChessBoard[] boards = new ChessBoard[POOL_SIZE];
+			int[] flat = new int[POOL_SIZE * boardSize];
+			for (int i = 0; i < POOL_SIZE; i++) {
+				boards[i] = new ChessBoard(boardSize, rand);
+				boards[i].copyGenes(flat, i * boardSize);
+			}
+			int rounds = (int) Math.max(1, QUEENS_PER_MEASUREMENT
+					/ ((long) POOL_SIZE * boardSize));
+			// The pairwise evaluation is quadratic, so it gets fewer rounds
+			int evaluateRounds = Math.max(1, rounds * 8 / boardSize);
+
+			HistogramScoringKernel histogram = new HistogramScoringKernel();
+			checkAgreement(boards, flat, boardSize, histogram);
+			if (vector != null) {
+				checkAgreement(boards, flat, boardSize, vector);
+			}
+			for (int warmUp = 0; warmUp < 3; warmUp++) {
+				timeEvaluate(boards, evaluateRounds);
+				timeKernel(histogram, flat, boardSize, rounds);
+				if (vector != null) {
+					timeKernel(vector, flat, boardSize, rounds);
+				}
+			}
+			double evaluateNanos = timeEvaluate(boards, evaluateRounds);
+			double histogramNanos = timeKernel(histogram, flat, boardSize,
+					rounds);
+			double vectorNanos = vector == null ? Double.NaN : timeKernel(
+					vector, flat, boardSize, rounds);
+			System.out.println(String.format(
+					"%8d %14.1f %14.1f %14.1f %9.1f %9.1f", boardSize,
+					evaluateNanos, histogramNanos, vectorNanos, evaluateNanos
+							/ histogramNanos, evaluateNanos / vectorNanos));
+		}
+	}
+
+	private static void checkAgreement(ChessBoard[] boards, int[] flat,
+			int boardSize, ScoringKernel kernel) {
+		// One board short of the pool, so that a partial block is scored too
+		int[] counts = new int[boards.length];
+		kernel.countAttackingPairs(flat, 0, boardSize, boards.length - 1,
+				counts);
+		counts[boards.length - 1] = kernel.countAttackingPairs(flat,
+				(boards.length - 1) * boardSize, boardSize);
+		for (int i = 0; i < boards.length; i++) {
+			double expected = ChessBoard.queenPairCount(boardSize)
+					- boards[i].evaluateFitness();
+			if (counts[i] != expected) {
+				throw new IllegalStateException(String.format(
+						"%s disagrees on board %d of size %d", kernel
+								.getClass().getSimpleName(), i, boardSize));
+			}
+		}
+	}
+
+	/**
+	 * Times {@code evaluateFitness}, returning the mean nanoseconds per board.
+	 */
+	private static double timeEvaluate(ChessBoard[] boards, int rounds) {
+		double sink = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			for (ChessBoard board : boards) {
+				sink += board.evaluateFitness();
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		consume(sink);
+		return (double) elapsed / ((long) rounds * boards.length);
+	}
+
+	/**
+	 * Times a kernel, returning the mean nanoseconds per board.
+	 */
+	private static double timeKernel(ScoringKernel kernel, int[] flat,
+			int boardSize, int rounds) {
+		int boardCount = flat.length / boardSize;
+		int[] counts = new int[boardCount];
+		long sink = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			kernel.countAttackingPairs(flat, 0, boardSize, boardCount, counts);
+			sink += counts[round % boardCount];
+		}
+		long elapsed = System.nanoTime() - start;
+		consume(sink);
+		return (double) elapsed / ((long) rounds * boardCount);
+	}
+
+	/**
+	 * Keeps a benchmark result alive, so that the work producing it is not
+	 * optimized away.
+	 */
+	private static void consume(double value) {
+		if (value == Double.MIN_VALUE) {
+			System.out.println(value);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package edu.ohio_state.cse.genequeens;
+
+/**
+ * A {@code ScoringKernel} counts the attacking queen pairs of n-queens boards
+ * stored in a flat array of rows, the inner loop of every search agent. The
+ * boards may be a single layout at offset zero, or the rows of many boards of
+ * one size laid end to end, as a population is scored by
+ * {@link BatchScorer}.
+ * <p>
+ * Kernels keep scratch space between calls so that scoring allocates
+ * nothing, and so are not safe for concurrent use: each thread should obtain
+ * its own from {@link ScoringKernels#newKernel()}.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public interface ScoringKernel {
+
+	/**
+	 * Counts the pairs of queens attacking one another on the board of
+	 * {@code boardSize} queens whose rows start at {@code offset} of
+	 * {@code boards}. The count equals that of
+	 * {@link ChessBoard#countAttackingPairs(int[])} on the same layout.
+	 *
+	 * @param boards
+	 *            The rows of one or more boards, one per column.
+	 * @param offset
+	 *            The index of the row of the first column of the board.
+	 * @param boardSize
+	 *            The number of queens on the board.
+	 * @return The number of attacking queen pairs.
+	 */
+	int countAttackingPairs(int[] boards, int offset, int boardSize);
+
+	/**
+	 * Counts the attacking queen pairs of each of {@code boardCount} boards of
+	 * {@code boardSize} queens laid end to end from {@code offset} of
+	 * {@code boards}, as {@link #countAttackingPairs(int[], int, int)} does
+	 * for each board in turn. Kernels may score several boards at once.
+	 *
+	 * @param boards
+	 *            The rows of the boards, one per column.
+	 * @param offset
+	 *            The index of the row of the first column of the first board.
+	 * @param boardSize
+	 *            The number of queens on each board.
+	 * @param boardCount
+	 *            The number of boards.
+	 * @param counts
+	 *            The array receiving the number of attacking queen pairs of
+	 *            board {@code i} at index {@code i}.
+	 */
+	void countAttackingPairs(int[] boards, int offset, int boardSize,
+			int boardCount, int[] counts);
+}
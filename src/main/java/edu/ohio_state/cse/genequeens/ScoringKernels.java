@@ -0,0 +1,81 @@
+package edu.ohio_state.cse.genequeens;
+
+/**
+ * Chooses the {@link ScoringKernel} with which boards are scored, by the
+ * system property {@code genequeens.kernel}. By default, or when the property
+ * is {@code scalar}, the {@link HistogramScoringKernel} is used. When it is
+ * {@code vector}, the {@link VectorScoringKernel} is used if it was compiled,
+ * by the {@code vector} build profile, and the JVM can load the incubating
+ * {@code jdk.incubator.vector} module; otherwise scoring falls back to the
+ * scalar kernel.
+ *
+ * @author Ethan Hill
+ *
+ */
+public final class ScoringKernels {
+
+	private static final String VECTOR_KERNEL_CLASS = "edu.ohio_state.cse.genequeens.VectorScoringKernel";
+
+	private static final Class<?> vectorKernelClass = loadVectorKernel();
+
+	private static final boolean vectorRequested = "vector"
+			.equalsIgnoreCase(System.getProperty("genequeens.kernel"));
+
+	private ScoringKernels() {
+	}
+
+	private static Class<?> loadVectorKernel() {
+		try {
+			Class<?> kernelClass = Class.forName(VECTOR_KERNEL_CLASS);
+			// Fails here if the vector module cannot be resolved
+			kernelClass.getConstructor().newInstance();
+			return kernelClass;
+		} catch (Exception e) {
+			return null;
+		} catch (LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Determines whether the vector kernel can be used in this JVM.
+	 *
+	 * @return {@code true} if {@link #newVectorKernel()} returns a kernel.
+	 */
+	public static boolean isVectorAvailable() {
+		return vectorKernelClass != null;
+	}
+
+	/**
+	 * Creates the kernel chosen by {@code genequeens.kernel} for the use of
+	 * one thread.
+	 *
+	 * @return A new {@code ScoringKernel}.
+	 */
+	public static ScoringKernel newKernel() {
+		if (vectorRequested && vectorKernelClass != null) {
+			return newVectorKernel();
+		}
+		return new HistogramScoringKernel();
+	}
+
+	/**
+	 * Creates a vector kernel for the use of one thread, whatever the value of
+	 * {@code genequeens.kernel}.
+	 *
+	 * @return A new {@code VectorScoringKernel}, or {@code null} if the vector
+	 *         kernel cannot be used in this JVM.
+	 */
+	public static ScoringKernel newVectorKernel() {
+		if (vectorKernelClass == null) {
+			return null;
+		}
+		try {
+			return (ScoringKernel) vectorKernelClass.getConstructor()
+					.newInstance();
+		} catch (Exception e) {
+			// Already instantiated once, so this cannot happen
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Random;
+
+/**
+ * A {@link java.util.Random Random} whose internal state can be read and
+ * restored, so that a long-running search can be checkpointed and resumed
+ * with the same sequence of random numbers. It uses the same linear
+ * congruential generator as {@code Random}, so a {@code SeededRandom}
+ * constructed with a given seed produces the same sequence as a
+ * {@code Random} constructed with it.
+ * <p>
+ * Unlike {@code Random}, instances are not safe for use by several threads at
+ * once. The cached value of {@link #nextGaussian()} is not part of the state.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class SeededRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+
+	private static final long ADDEND = 0xBL;
+
+	private static final long MASK = (1L << 48) - 1;
+
+	/*
+	 * Deliberately left without an initializer: Random's constructor sets it
+	 * through setSeed before this class's field initializers would run.
+	 */
+	private long state;
+
+	/**
+	 * Constructs a {@code SeededRandom} with a seed that is very likely to be
+	 * distinct from that of any other instance.
+	 */
+	public SeededRandom() {
+		this(new Random().nextLong());
+	}
+
+	/**
+	 * Constructs a {@code SeededRandom} with the given seed.
+	 *
+	 * @param seed
+	 *            The initial seed.
+	 */
+	public SeededRandom(long seed) {
+		super(seed);
+	}
+
+	@Override
+	public synchronized void setSeed(long seed) {
+		super.setSeed(seed);
+		this.state = (seed ^ MULTIPLIER) & MASK;
+	}
+
+	@Override
+	protected int next(int bits) {
+		this.state = (this.state * MULTIPLIER + ADDEND) & MASK;
+		return (int) (this.state >>> (48 - bits));
+	}
+
+	/**
+	 * Retrieves the internal state of {@code this}, from which the rest of its
+	 * sequence is determined.
+	 *
+	 * @return The 48-bit internal state.
+	 */
+	public long getState() {
+		return this.state;
+	}
+
+	/**
+	 * Restores an internal state previously retrieved by
+	 * {@link #getState()}, so that {@code this} continues the sequence from
+	 * where that state was taken.
+	 *
+	 * @param state
+	 *            The 48-bit internal state to restore.
+	 */
+	public void setState(long state) {
+		this.state = state & MASK;
+	}
+}
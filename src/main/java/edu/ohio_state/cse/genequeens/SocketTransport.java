@@ -0,0 +1,257 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A {@link MigrationTransport} between islands running in separate JVMs,
+ * over TCP. Each island listens on its own address and opens one connection
+ * to each island it sends to, on the first batch sent there. A connection
+ * starts with the magic number {@code "GQMT"} and the number of the sending
+ * island; each batch then travels as a four-byte length followed by its
+ * bytes.
+ * <p>
+ * Incoming batches are read by one daemon thread per connection into a
+ * bounded inbox; while the inbox is full, further batches are dropped, so a
+ * slow island is never flooded. A failed send closes its connection, which
+ * is reopened by the next send to that island.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class SocketTransport implements MigrationTransport {
+
+	/**
+	 * The first four bytes sent on every connection, "GQMT".
+	 */
+	private static final int MAGIC = 0x47514D54;
+
+	/**
+	 * The largest batch accepted, to guard against a stray connection.
+	 */
+	private static final int MAX_BATCH_BYTES = 64 << 20;
+
+	private static final int INBOX_CAPACITY = 1024;
+
+	private static final int CONNECT_TIMEOUT_MILLISECONDS = 2000;
+
+	private final int islandId;
+
+	private final List<InetSocketAddress> islands;
+
+	private final ServerSocket server;
+
+	private final BlockingQueue<byte[]> inbox = new ArrayBlockingQueue<byte[]>(
+			INBOX_CAPACITY);
+
+	private final Socket[] connections;
+
+	private final DataOutputStream[] outputs;
+
+	private final List<Socket> accepted = new ArrayList<Socket>();
+
+	private volatile boolean closed;
+
+	/**
+	 * Constructs the transport of island {@code islandId} and starts listening
+	 * on its address.
+	 *
+	 * @param islandId
+	 *            The number of the island using the transport.
+	 * @param islands
+	 *            The address of every island, indexed by island number.
+	 * @throws IOException
+	 *             If the island's address cannot be bound.
+	 */
+	public SocketTransport(int islandId, List<InetSocketAddress> islands)
+			throws IOException {
+		if (islandId < 0 || islandId >= islands.size()) {
+			throw new IllegalArgumentException(String.format(
+					"island %d is not one of %d islands", islandId,
+					islands.size()));
+		}
+		this.islandId = islandId;
+		this.islands = new ArrayList<InetSocketAddress>(islands);
+		this.connections = new Socket[islands.size()];
+		this.outputs = new DataOutputStream[islands.size()];
+		this.server = new ServerSocket();
+		this.server.setReuseAddress(true);
+		this.server.bind(islands.get(islandId));
+
+		Thread acceptor = new Thread(new Runnable() {
+			public void run() {
+				acceptConnections();
+			}
+		}, "migration-acceptor-" + islandId);
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * Lists the addresses of {@code islandCount} islands listening on
+	 * consecutive ports of the loopback interface.
+	 *
+	 * @param basePort
+	 *            The port of island zero.
+	 * @param islandCount
+	 *            The number of islands.
+	 * @return The address of every island, indexed by island number.
+	 */
+	public static List<InetSocketAddress> localIslands(int basePort,
+			int islandCount) {
+		List<InetSocketAddress> islands = new ArrayList<InetSocketAddress>(
+				islandCount);
+		for (int island = 0; island < islandCount; island++) {
+			islands.add(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+					basePort + island));
+		}
+		return islands;
+	}
+
+	public int getIslandId() {
+		return this.islandId;
+	}
+
+	public int getIslandCount() {
+		return this.islands.size();
+	}
+
+	public synchronized void send(int destination, byte[] batch)
+			throws IOException {
+		if (this.closed) {
+			throw new IOException("transport is closed");
+		}
+		try {
+			if (this.outputs[destination] == null) {
+				Socket socket = new Socket();
+				socket.setTcpNoDelay(true);
+				socket.connect(this.islands.get(destination),
+						CONNECT_TIMEOUT_MILLISECONDS);
+				this.connections[destination] = socket;
+				this.outputs[destination] = new DataOutputStream(
+						new BufferedOutputStream(socket.getOutputStream()));
+				this.outputs[destination].writeInt(MAGIC);
+				this.outputs[destination].writeInt(this.islandId);
+			}
+			DataOutputStream output = this.outputs[destination];
+			output.writeInt(batch.length);
+			output.write(batch);
+			output.flush();
+		} catch (IOException e) {
+			disconnect(destination);
+			throw e;
+		}
+	}
+
+	public byte[] poll() {
+		return this.inbox.poll();
+	}
+
+	public void close() throws IOException {
+		this.closed = true;
+		this.server.close();
+		synchronized (this) {
+			for (int island = 0; island < this.connections.length; island++) {
+				disconnect(island);
+			}
+		}
+		synchronized (this.accepted) {
+			for (Socket socket : this.accepted) {
+				closeQuietly(socket);
+			}
+		}
+	}
+
+	private void disconnect(int destination) {
+		closeQuietly(this.connections[destination]);
+		this.connections[destination] = null;
+		this.outputs[destination] = null;
+	}
+
+	private static void closeQuietly(Socket socket) {
+		if (socket == null) {
+			return;
+		}
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// Nothing more can be done with the connection
+		}
+	}
+
+	/**
+	 * Accepts connections from other islands until {@code this} is closed,
+	 * reading each on its own thread.
+	 */
+	private void acceptConnections() {
+		while (!this.closed) {
+			final Socket socket;
+			try {
+				socket = this.server.accept();
+			} catch (IOException e) {
+				// The server socket was closed
+				return;
+			}
+			synchronized (this.accepted) {
+				this.accepted.add(socket);
+			}
+			Thread reader = new Thread(new Runnable() {
+				public void run() {
+					readBatches(socket);
+				}
+			}, "migration-reader-" + this.islandId);
+			reader.setDaemon(true);
+			reader.start();
+		}
+	}
+
+	/**
+	 * Reads batches from one connection into the inbox until it is closed or
+	 * sends something other than batches.
+	 */
+	private void readBatches(Socket socket) {
+		try {
+			DataInputStream input = new DataInputStream(
+					new BufferedInputStream(socket.getInputStream()));
+			if (input.readInt() != MAGIC) {
+				return;
+			}
+			int source = input.readInt();
+			if (source < 0 || source >= this.islands.size()) {
+				return;
+			}
+			while (!this.closed) {
+				int length = input.readInt();
+				if (length < 0 || length > MAX_BATCH_BYTES) {
+					return;
+				}
+				byte[] batch = new byte[length];
+				input.readFully(batch);
+				// Dropped if the island is not keeping up
+				this.inbox.offer(batch);
+			}
+		} catch (EOFException e) {
+			// The sending island closed its connection
+		} catch (IOException e) {
+			// The connection failed; the sender reconnects on its next batch
+		} finally {
+			closeQuietly(socket);
+			synchronized (this.accepted) {
+				this.accepted.remove(socket);
+			}
+		}
+	}
+}
@@ -0,0 +1,383 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code SolutionStore} remembers n-queens solutions across runs, so that a
+ * board size that has been solved before is answered without searching. Each
+ * solution is keyed by its board size and, optionally, by the queens that
+ * were fixed in place before it was found: an array holding, for every
+ * column, the row of its fixed queen or {@code -1} if the column is free.
+ * <p>
+ * Solutions are appended to a memory-mapped file, and an index of the file
+ * is built when the store is opened. The most recently used solutions are
+ * also held decoded in an in-memory LRU map, so a repeated lookup touches
+ * neither the file nor the index. New solutions are checked and appended on a
+ * background thread, so {@link #offer(int[], int[]) offering} a solution never
+ * waits on the disk.
+ * </p>
+ * <p>
+ * The file starts with the magic number {@code "GQSS"}, a two-byte format
+ * version, two reserved bytes and the length in bytes of the valid records,
+ * followed by the records. A record holds the board size, a flag telling
+ * whether fixed queens follow, the fixed rows if so, and the solution. The
+ * length is only advanced after a record has been written in full, so a
+ * crash can never leave a partial record visible.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class SolutionStore implements Closeable {
+
+	/**
+	 * The first four bytes of every solution store file, "GQSS".
+	 */
+	private static final int MAGIC = 0x47515353;
+
+	/**
+	 * The version of the file format written by this class.
+	 */
+	private static final short VERSION = 1;
+
+	private static final int HEADER_BYTES = 4 + 2 + 2 + 8;
+
+	private static final int LENGTH_OFFSET = 8;
+
+	/**
+	 * The size of a new file's mapping. The mapping doubles whenever it fills.
+	 */
+	private static final int INITIAL_MAPPING_BYTES = 1 << 16;
+
+	private final FileChannel channel;
+
+	private MappedByteBuffer mapping;
+
+	/*
+	 * The state below is guarded by this.
+	 */
+	private long end;
+
+	private final Map<Key, Long> index = new HashMap<Key, Long>();
+
+	private final Map<Key, int[]> recent;
+
+	private final ExecutorService writer;
+
+	/**
+	 * Opens the solution store held in {@code path}, creating it if it does
+	 * not exist.
+	 *
+	 * @param path
+	 *            The file holding the store.
+	 * @param lruCapacity
+	 *            The number of solutions held decoded in memory.
+	 * @throws IOException
+	 *             If {@code path} cannot be opened or mapped, is not a solution
+	 *             store, or was written in an unsupported version of the
+	 *             format.
+	 */
+	public SolutionStore(Path path, final int lruCapacity) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long size = this.channel.size();
+			if (size == 0) {
+				this.mapping = this.channel.map(FileChannel.MapMode.READ_WRITE,
+						0, INITIAL_MAPPING_BYTES);
+				this.mapping.putInt(0, MAGIC);
+				this.mapping.putShort(4, VERSION);
+				this.mapping.putLong(LENGTH_OFFSET, 0L);
+				this.end = HEADER_BYTES;
+			} else {
+				if (size < HEADER_BYTES) {
+					throw new IOException("not a solution store: " + path);
+				}
+				this.mapping = this.channel.map(FileChannel.MapMode.READ_WRITE,
+						0, size);
+				if (this.mapping.getInt(0) != MAGIC) {
+					throw new IOException("not a solution store: " + path);
+				}
+				short version = this.mapping.getShort(4);
+				if (version != VERSION) {
+					throw new IOException(String.format(
+							"unsupported solution store version %d: %s",
+							version, path));
+				}
+				long length = this.mapping.getLong(LENGTH_OFFSET);
+				if (length < 0 || HEADER_BYTES + length > size) {
+					throw new IOException("solution store is corrupt: " + path);
+				}
+				this.end = HEADER_BYTES + length;
+				buildIndex(path);
+			}
+		} catch (IOException e) {
+			this.channel.close();
+			throw e;
+		}
+
+		this.recent = new LinkedHashMap<Key, int[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+				return size() > lruCapacity;
+			}
+		};
+		this.writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "solution-store-writer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Looks up a solution of a board of {@code boardSize} queens with no
+	 * queens fixed in place.
+	 *
+	 * @param boardSize
+	 *            The size of the n-queens board.
+	 * @return A copy of the stored solution, or {@code null} if none is
+	 *         stored.
+	 */
+	public int[] lookup(int boardSize) {
+		return lookup(boardSize, null);
+	}
+
+	/**
+	 * Looks up a solution of a board of {@code boardSize} queens completing
+	 * the given fixed queens.
+	 *
+	 * @param boardSize
+	 *            The size of the n-queens board.
+	 * @param fixedRows
+	 *            The row of the fixed queen of each column, or {@code -1} for
+	 *            a free column, or {@code null} if no queens are fixed.
+	 * @return A copy of the stored solution, or {@code null} if none is
+	 *         stored.
+	 */
+	public synchronized int[] lookup(int boardSize, int[] fixedRows) {
+		Key key = new Key(boardSize, fixedRows);
+		int[] solution = this.recent.get(key);
+		if (solution == null) {
+			Long position = this.index.get(key);
+			if (position == null) {
+				return null;
+			}
+			solution = new int[boardSize];
+			int offset = (int) (long) position;
+			for (int column = 0; column < boardSize; column++) {
+				solution[column] = this.mapping.getInt(offset + 4 * column);
+			}
+			this.recent.put(key, solution);
+		}
+		return solution.clone();
+	}
+
+	/**
+	 * Schedules {@code solution} to be checked and stored on the background
+	 * thread, and returns immediately. A solution that attacks itself,
+	 * disagrees with {@code fixedRows}, or whose key is already stored is
+	 * ignored.
+	 *
+	 * @param solution
+	 *            A solution of an n-queens board.
+	 * @param fixedRows
+	 *            The row of the fixed queen of each column, or {@code -1} for
+	 *            a free column, or {@code null} if no queens were fixed.
+	 */
+	public void offer(int[] solution, int[] fixedRows) {
+		final int[] rows = solution.clone();
+		final int[] fixed = fixedRows == null ? null : fixedRows.clone();
+		this.writer.execute(new Runnable() {
+			public void run() {
+				try {
+					store(rows, fixed);
+				} catch (IOException e) {
+					// A solution that cannot be stored is simply found again
+				}
+			}
+		});
+	}
+
+	/**
+	 * Retrieves the number of solutions stored.
+	 *
+	 * @return The number of distinct keys held by {@code this}.
+	 */
+	public synchronized int size() {
+		return this.index.size();
+	}
+
+	/**
+	 * Stores any solutions still pending, forces them to the disk, and closes
+	 * the file.
+	 *
+	 * @throws IOException
+	 *             If the file cannot be forced or closed, or the thread was
+	 *             interrupted while waiting for pending solutions.
+	 */
+	public void close() throws IOException {
+		this.writer.shutdown();
+		try {
+			this.writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while storing solutions", e);
+		}
+		synchronized (this) {
+			this.mapping.force();
+			this.channel.close();
+		}
+	}
+
+	private synchronized void store(int[] solution, int[] fixedRows)
+			throws IOException {
+		Key key = new Key(solution.length, fixedRows);
+		if (this.index.containsKey(key) || !isSolution(solution, fixedRows)) {
+			return;
+		}
+		fixedRows = key.fixedRows;
+		int recordBytes = recordBytes(solution.length, fixedRows != null);
+		if (this.end + recordBytes > this.mapping.capacity()) {
+			long capacity = this.mapping.capacity();
+			while (this.end + recordBytes > capacity) {
+				capacity *= 2;
+			}
+			if (capacity > Integer.MAX_VALUE) {
+				throw new IOException("solution store is full");
+			}
+			this.mapping.force();
+			this.mapping = this.channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					capacity);
+		}
+
+		int offset = (int) this.end;
+		this.mapping.putInt(offset, solution.length);
+		offset += 4;
+		this.mapping.put(offset, (byte) (fixedRows == null ? 0 : 1));
+		offset += 1;
+		if (fixedRows != null) {
+			for (int row : fixedRows) {
+				this.mapping.putInt(offset, row);
+				offset += 4;
+			}
+		}
+		int solutionOffset = offset;
+		for (int row : solution) {
+			this.mapping.putInt(offset, row);
+			offset += 4;
+		}
+		this.end = offset;
+		this.mapping.putLong(LENGTH_OFFSET, this.end - HEADER_BYTES);
+		this.index.put(key, Long.valueOf(solutionOffset));
+	}
+
+	/**
+	 * Scans the records of a freshly mapped file into the index.
+	 */
+	private void buildIndex(Path path) throws IOException {
+		int offset = HEADER_BYTES;
+		while (offset < this.end) {
+			if (offset + 5 > this.end) {
+				throw new IOException("solution store is corrupt: " + path);
+			}
+			int boardSize = this.mapping.getInt(offset);
+			boolean constrained = this.mapping.get(offset + 4) != 0;
+			if (boardSize <= 0
+					|| offset + (long) recordBytes(boardSize, constrained) > this.end) {
+				throw new IOException("solution store is corrupt: " + path);
+			}
+			offset += 5;
+			int[] fixedRows = null;
+			if (constrained) {
+				fixedRows = new int[boardSize];
+				for (int column = 0; column < boardSize; column++) {
+					fixedRows[column] = this.mapping.getInt(offset);
+					offset += 4;
+				}
+			}
+			this.index.put(new Key(boardSize, fixedRows),
+					Long.valueOf(offset));
+			offset += 4 * boardSize;
+		}
+	}
+
+	private static int recordBytes(int boardSize, boolean constrained) {
+		return 4 + 1 + (constrained ? 4 * boardSize : 0) + 4 * boardSize;
+	}
+
+	private static boolean isSolution(int[] solution, int[] fixedRows) {
+		if (fixedRows != null) {
+			if (fixedRows.length != solution.length) {
+				return false;
+			}
+			for (int column = 0; column < solution.length; column++) {
+				if (fixedRows[column] >= 0 && fixedRows[column] != solution[column]) {
+					return false;
+				}
+			}
+		}
+		for (int row : solution) {
+			if (row < 0 || row >= solution.length) {
+				return false;
+			}
+		}
+		return ChessBoard.countAttackingPairs(solution) == 0;
+	}
+
+	/**
+	 * The key of a stored solution. A constraint array fixing no queen is the
+	 * same key as no constraint array.
+	 */
+	private static final class Key {
+		private final int boardSize;
+		private final int[] fixedRows;
+
+		Key(int boardSize, int[] fixedRows) {
+			this.boardSize = boardSize;
+			this.fixedRows = fixesAny(fixedRows) ? fixedRows.clone() : null;
+		}
+
+		private static boolean fixesAny(int[] fixedRows) {
+			if (fixedRows != null) {
+				for (int row : fixedRows) {
+					if (row >= 0) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) object;
+			return this.boardSize == other.boardSize
+					&& Arrays.equals(this.fixedRows, other.fixedRows);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * this.boardSize + Arrays.hashCode(this.fixedRows);
+		}
+	}
+}
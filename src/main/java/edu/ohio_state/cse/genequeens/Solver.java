@@ -0,0 +1,237 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The search agents able to solve the n-queens problem, each behind a common,
+ * silent and reproducible interface so that many problems can be solved in
+ * one JVM, as {@link BatchSolver} does.
+ *
+ * @author Ethan Hill
+ *
+ */
+public enum Solver {
+
+	/**
+	 * The steepest-ascent hill climbing agent of {@link HillClimbUtils}, whose
+	 * budget is a number of iterations.
+	 */
+	HILL_CLIMBING("hill") {
+		@Override
+		public int[] solve(BoardConstraints constraints, Random rand,
+				long budget, FitnessCache cache) {
+			return HillClimbUtils.hillClimbingAgent(constraints, rand, budget);
+		}
+	},
+
+	/**
+	 * The hill climbing agent of {@link HillClimbUtils} taking the first
+	 * improving move of a random walk over the successors of each state, as
+	 * {@link HillClimbUtils.Strategy#RANDOM_FIRST_IMPROVEMENT} does, whose
+	 * budget is a number of iterations.
+	 */
+	RANDOM_FIRST_IMPROVEMENT("first") {
+		@Override
+		public int[] solve(BoardConstraints constraints, Random rand,
+				long budget, FitnessCache cache) {
+			return HillClimbUtils.hillClimbingAgent(constraints,
+					HillClimbUtils.Strategy.RANDOM_FIRST_IMPROVEMENT, rand,
+					budget);
+		}
+	},
+
+	/**
+	 * The simulated annealing agent of {@link AnnealingUtils}, starting at
+	 * {@link #ANNEALING_TEMPERATURE}, whose budget is a number of iterations.
+	 */
+	SIMULATED_ANNEALING("anneal") {
+		@Override
+		public int[] solve(BoardConstraints constraints, Random rand,
+				long budget, FitnessCache cache) {
+			return AnnealingUtils.simulatedAnnealingAgent(constraints,
+					ANNEALING_TEMPERATURE, rand, budget);
+		}
+	},
+
+	/**
+	 * An elitist genetic algorithm over a population of
+	 * {@link #POPULATION_SIZE} {@link ChessBoard}s, whose budget is a number
+	 * of generations.
+	 */
+	GENETIC("genetic") {
+		@Override
+		public int[] solve(BoardConstraints constraints, Random rand,
+				long budget, FitnessCache cache) {
+			return evolve(constraints, rand, budget, cache, POPULATION_SIZE,
+					1.0d / constraints.getBoardSize(), Crossover.SINGLE_POINT,
+					null, Initializer.RANDOM);
+		}
+	},
+
+	/**
+	 * The genetic algorithm of {@link #GENETIC}, made memetic by a
+	 * {@link MemeticRefinement} of its default settings, whose budget is a
+	 * number of generations.
+	 */
+	MEMETIC("memetic") {
+		@Override
+		public int[] solve(BoardConstraints constraints, Random rand,
+				long budget, FitnessCache cache) {
+			return evolve(constraints, rand, budget, cache, POPULATION_SIZE,
+					1.0d / constraints.getBoardSize(), Crossover.SINGLE_POINT,
+					new MemeticRefinement(), Initializer.RANDOM);
+		}
+	};
+
+	/**
+	 * The initial temperature of {@link #SIMULATED_ANNEALING}.
+	 */
+	public static final int ANNEALING_TEMPERATURE = 100;
+
+	/**
+	 * The population size of {@link #GENETIC}.
+	 */
+	public static final int POPULATION_SIZE = 100;
+
+	private static final int TOURNAMENT_SIZE = 3;
+
+	private final String shortName;
+
+	private Solver(String shortName) {
+		this.shortName = shortName;
+	}
+
+	/**
+	 * Searches for a solution to the n-queens problem without printing
+	 * anything. Two calls with equal arguments and equally seeded
+	 * {@code rand} return the same result.
+	 *
+	 * @param boardSize
+	 *            the size of the n-queens board
+	 * @param rand
+	 *            the source of randomness for the search
+	 * @param budget
+	 *            the amount of work after which the search gives up, in the
+	 *            units of the agent, or zero for no limit
+	 * @param cache
+	 *            the cache through which the genetic agents score boards, or
+	 *            {@code null} to score every board directly; the local search
+	 *            agents score moves incrementally and ignore it
+	 * @return a solution state representation of a board with n-queens, or
+	 *         {@code null} if none was found within {@code budget}
+	 */
+	public int[] solve(int boardSize, Random rand, long budget,
+			FitnessCache cache) {
+		return solve(new BoardConstraints(boardSize), rand, budget, cache);
+	}
+
+	/**
+	 * Searches for a solution completing a board on which some queens are
+	 * fixed in place, as {@link #solve(int, Random, long, FitnessCache)} does
+	 * for an empty board. Only free queens are ever moved, and only to rows
+	 * not attacked by a fixed queen.
+	 *
+	 * @param constraints
+	 *            the queens fixed in place on the board
+	 * @param rand
+	 *            the source of randomness for the search
+	 * @param budget
+	 *            the amount of work after which the search gives up, in the
+	 *            units of the agent, or zero for no limit
+	 * @param cache
+	 *            the cache through which the genetic agents score boards, or
+	 *            {@code null} to score every board directly; the local search
+	 *            agents score moves incrementally and ignore it
+	 * @return a solution completing the fixed queens, or {@code null} if none
+	 *         was found within {@code budget}
+	 */
+	public abstract int[] solve(BoardConstraints constraints, Random rand,
+			long budget, FitnessCache cache);
+
+	/**
+	 * Searches for a solution with the elitist genetic algorithm of
+	 * {@link #GENETIC}, over a population of {@code populationSize} boards
+	 * laid out by {@code initializer} and mutated at {@code mutationRate},
+	 * whose offspring are refined by {@code refinement}.
+	 *
+	 * @param constraints
+	 *            the queens fixed in place on the board
+	 * @param rand
+	 *            the source of randomness for the search
+	 * @param budget
+	 *            the number of generations after which the search gives up,
+	 *            or zero for no limit
+	 * @param cache
+	 *            the cache through which boards are scored, or {@code null} to
+	 *            score every board directly
+	 * @param populationSize
+	 *            the number of boards in the population
+	 * @param mutationRate
+	 *            the probability that each queen of a child is moved
+	 * @param crossover
+	 *            the operator with which mated boards exchange queens
+	 * @param refinement
+	 *            the local search refining offspring, or {@code null} for none
+	 * @param initializer
+	 *            the layout of the boards of the first generation
+	 * @return a solution completing the fixed queens, or {@code null} if none
+	 *         was found within {@code budget}
+	 */
+	static int[] evolve(BoardConstraints constraints, Random rand,
+			long budget, FitnessCache cache, int populationSize,
+			double mutationRate, Crossover crossover,
+			MemeticRefinement refinement, Initializer initializer) {
+		int boardSize = constraints.getBoardSize();
+		EvolutionConfig config = new EvolutionConfig();
+		config.setRandom(new SeededRandom(rand.nextLong()));
+		config.setMateSelector(new GeneticAlgorithms.TournamentSelector(
+				TOURNAMENT_SIZE, config.getRandom()));
+		config.setMutationRate(mutationRate);
+		config.setCrossover(crossover);
+		config.setRefinement(refinement);
+		config.setReplacement(EvolutionConfig.Replacement.ELITIST);
+		config.setMaxGenerations((int) Math.min(Integer.MAX_VALUE, budget));
+		config.setFitnessCache(cache);
+
+		List<Evolvable> population = initializer.populate(constraints,
+				populationSize, config.getRandom());
+		ChessBoard best = (ChessBoard) GeneticAlgorithms
+				.findMostFitIndividual(GeneticAlgorithms.evolve(population,
+						new ChessBoard.QueensGoal(), config));
+		if (best.getFitnessScore() != ChessBoard.queenPairCount(boardSize)) {
+			return null;
+		}
+		return best.getBoardLayout();
+	}
+
+	/**
+	 * Retrieves the short name by which {@code this} may be named in a job
+	 * file.
+	 *
+	 * @return the short name of {@code this}
+	 */
+	public String getShortName() {
+		return this.shortName;
+	}
+
+	/**
+	 * Finds the {@code Solver} with the given name or short name, ignoring
+	 * case.
+	 *
+	 * @param name
+	 *            the name of a solver, such as "HILL_CLIMBING" or "hill"
+	 * @return the named solver
+	 * @throws IllegalArgumentException
+	 *             if no solver has the given name
+	 */
+	public static Solver forName(String name) {
+		for (Solver solver : values()) {
+			if (solver.name().equalsIgnoreCase(name)
+					|| solver.shortName.equalsIgnoreCase(name)) {
+				return solver;
+			}
+		}
+		throw new IllegalArgumentException("unknown solver: " + name);
+	}
+}
@@ -0,0 +1,119 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A load-testing client for a {@link SolverServer}. Several threads send
+ * solve requests as fast as they are answered, and the throughput, the
+ * numbers of answered and rejected requests, and the latency percentiles are
+ * printed once every request has been sent.
+ * <p>
+ * Usage: {@code SolverLoadClient <url> <requests> <threads> [seeds]}, where
+ * {@code url} is a complete solve request such as
+ * {@code http://127.0.0.1:8080/solve?solver=hill&n=8&budget=10000}. If
+ * {@code seeds} is given, each request is sent with a seed drawn in turn from
+ * that many distinct seeds, so that repeated queries exercise the server's
+ * cache; otherwise no seed is sent and every request is solved afresh.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class SolverLoadClient {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 3 || args.length > 4) {
+			System.out
+					.println("Usage: SolverLoadClient <url> <requests> <threads> [seeds]");
+			return;
+		}
+		final String url = args[0];
+		final int requestCount = Integer.parseInt(args[1]);
+		int threadCount = Integer.parseInt(args[2]);
+		final int seedCount = args.length == 4 ? Integer.parseInt(args[3]) : 0;
+
+		final long[] latencies = new long[requestCount];
+		final AtomicInteger nextRequest = new AtomicInteger();
+		final AtomicInteger answered = new AtomicInteger();
+		final AtomicInteger rejected = new AtomicInteger();
+		final AtomicInteger failed = new AtomicInteger();
+		final CountDownLatch finished = new CountDownLatch(threadCount);
+
+		long start = System.nanoTime();
+		for (int t = 0; t < threadCount; t++) {
+			new Thread(new Runnable() {
+				public void run() {
+					try {
+						int request;
+						while ((request = nextRequest.getAndIncrement()) < requestCount) {
+							String target = seedCount > 0 ? url + "&seed="
+									+ (request % seedCount) : url;
+							long sent = System.nanoTime();
+							int status = send(target);
+							latencies[request] = System.nanoTime() - sent;
+							if (status == 200) {
+								answered.incrementAndGet();
+							} else if (status == 503) {
+								rejected.incrementAndGet();
+							} else {
+								failed.incrementAndGet();
+							}
+						}
+					} finally {
+						finished.countDown();
+					}
+				}
+			}, "load-client-" + t).start();
+		}
+		finished.await();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		Arrays.sort(latencies);
+		System.out.println(String.format(
+				"%d requests in %.2f s (%.1f/s): %d answered, %d rejected, %d failed",
+				requestCount, seconds, requestCount / seconds, answered.get(),
+				rejected.get(), failed.get()));
+		System.out.println(String.format(
+				"latency ms: p50 %.2f  p95 %.2f  p99 %.2f  max %.2f",
+				percentile(latencies, 0.50), percentile(latencies, 0.95),
+				percentile(latencies, 0.99), percentile(latencies, 1.0)));
+	}
+
+	/**
+	 * Sends one request and reads its whole answer, returning the status, or
+	 * -1 if the request could not be sent.
+	 */
+	private static int send(String target) {
+		try {
+			HttpURLConnection connection = (HttpURLConnection) new URL(target)
+					.openConnection();
+			int status = connection.getResponseCode();
+			InputStream body = status < 400 ? connection.getInputStream()
+					: connection.getErrorStream();
+			if (body != null) {
+				byte[] buffer = new byte[1024];
+				while (body.read(buffer) >= 0) {
+					// Drain the answer so the connection can be reused
+				}
+				body.close();
+			}
+			return status;
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	private static double percentile(long[] sortedNanos, double fraction) {
+		if (sortedNanos.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(fraction * sortedNanos.length) - 1;
+		return sortedNanos[Math.max(0, index)] / 1e6;
+	}
+}
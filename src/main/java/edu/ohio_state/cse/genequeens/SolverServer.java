@@ -0,0 +1,369 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A {@code SolverServer} answers n-queens solve requests from other processes
+ * on the same host over HTTP, using only the server built into the JDK. It
+ * listens on the loopback address only.
+ * <p>
+ * A request is a {@code GET} of
+ * </p>
+ *
+ * <pre>
+ * /solve?solver=&lt;solver&gt;&amp;n=&lt;boardSize&gt;[&amp;seed=&lt;seed&gt;][&amp;budget=&lt;budget&gt;][&amp;fixed=&lt;fixedRows&gt;]
+ * </pre>
+ * <p>
+ * with the fields of a {@link BatchSolver} job, and is answered with a
+ * {@code BatchSolver} result line as plain text. Every {@link Solver} has its
+ * own bounded pool of threads fed by its own bounded queue, so a flood of slow
+ * genetic searches cannot starve hill climbing requests. A request arriving
+ * when its solver's queue is full is rejected at once with status 503 rather
+ * than left to wait.
+ * </p>
+ * <p>
+ * Every search is bounded by the server's maximum budget: a request that
+ * omits its budget, or asks for no limit with a budget of zero, is run with
+ * the maximum budget, and a request asking for more is rejected with status
+ * 400. A client cannot tie up a solver thread indefinitely.
+ * </p>
+ * <p>
+ * A request naming a seed is deterministic, so its answer is kept in a small
+ * LRU cache and a repeated request is answered from the cache without
+ * queueing. A request without a seed is given a random one and is never
+ * cached. {@code GET /stats} reports the counts of answered, cached and
+ * rejected requests.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class SolverServer {
+
+	/**
+	 * The status sent when a solver's queue is full.
+	 */
+	private static final int STATUS_OVERLOADED = 503;
+
+	/**
+	 * The maximum budget of a server constructed without one, in the
+	 * iterations or generations of each solver.
+	 */
+	public static final long DEFAULT_MAX_BUDGET = 100000;
+
+	private final HttpServer server;
+
+	private final ExecutorService dispatcher;
+
+	private final Map<Solver, ThreadPoolExecutor> solverPools = new EnumMap<Solver, ThreadPoolExecutor>(
+			Solver.class);
+
+	private final ThreadLocal<BatchSolver.Worker> workers = new ThreadLocal<BatchSolver.Worker>() {
+		@Override
+		protected BatchSolver.Worker initialValue() {
+			return new BatchSolver.Worker();
+		}
+	};
+
+	private final Map<String, String> answers;
+
+	private final long maxBudget;
+
+	private final AtomicLong answeredCount = new AtomicLong();
+
+	private final AtomicLong cachedCount = new AtomicLong();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	/**
+	 * Constructs a {@code SolverServer} listening on {@code port} of the
+	 * loopback address, bounding every search by {@link #DEFAULT_MAX_BUDGET}.
+	 * The server does not accept requests until it is {@link #start()
+	 * started}.
+	 *
+	 * @param port
+	 *            The port to listen on, or zero for any free port.
+	 * @param concurrency
+	 *            The number of requests run at once by each solver.
+	 * @param queueCapacity
+	 *            The number of requests that may wait for each solver before
+	 *            further requests are rejected.
+	 * @param cacheCapacity
+	 *            The number of deterministic answers remembered.
+	 * @throws IOException
+	 *             If the server cannot listen on {@code port}.
+	 */
+	public SolverServer(int port, int concurrency, int queueCapacity,
+			int cacheCapacity) throws IOException {
+		this(port, concurrency, queueCapacity, cacheCapacity,
+				DEFAULT_MAX_BUDGET);
+	}
+
+	/**
+	 * Constructs a {@code SolverServer} listening on {@code port} of the
+	 * loopback address. The server does not accept requests until it is
+	 * {@link #start() started}.
+	 *
+	 * @param port
+	 *            The port to listen on, or zero for any free port.
+	 * @param concurrency
+	 *            The number of requests run at once by each solver.
+	 * @param queueCapacity
+	 *            The number of requests that may wait for each solver before
+	 *            further requests are rejected.
+	 * @param cacheCapacity
+	 *            The number of deterministic answers remembered.
+	 * @param maxBudget
+	 *            The largest budget with which a request is run, and the
+	 *            budget of a request that names none.
+	 * @throws IOException
+	 *             If the server cannot listen on {@code port}.
+	 */
+	public SolverServer(int port, int concurrency, int queueCapacity,
+			final int cacheCapacity, long maxBudget) throws IOException {
+		if (concurrency <= 0 || queueCapacity <= 0 || cacheCapacity < 0) {
+			throw new IllegalArgumentException(
+					"concurrency and queue capacity must be positive");
+		}
+		if (maxBudget <= 0) {
+			throw new IllegalArgumentException(
+					"maximum budget must be positive: " + maxBudget);
+		}
+		this.maxBudget = maxBudget;
+		/*
+		 * Answers are a single small write, which Nagle's algorithm would
+		 * otherwise hold back for the client's delayed acknowledgement. The
+		 * property is read when the first server is created.
+		 */
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+		this.server = HttpServer.create(new InetSocketAddress(
+				InetAddress.getLoopbackAddress(), port), 0);
+
+		for (Solver solver : Solver.values()) {
+			this.solverPools.put(solver, new ThreadPoolExecutor(concurrency,
+					concurrency, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<Runnable>(queueCapacity),
+					daemonThreads("solver-" + solver.getShortName()),
+					new ThreadPoolExecutor.AbortPolicy()));
+		}
+		this.dispatcher = Executors.newFixedThreadPool(Runtime.getRuntime()
+				.availableProcessors(), daemonThreads("solver-http"));
+
+		this.answers = new LinkedHashMap<String, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > cacheCapacity;
+			}
+		};
+
+		this.server.setExecutor(this.dispatcher);
+		this.server.createContext("/solve", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				handleSolve(exchange);
+			}
+		});
+		this.server.createContext("/stats", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				respond(exchange, 200, String.format(
+						"answered %d cached %d rejected %d",
+						SolverServer.this.answeredCount.get(),
+						SolverServer.this.cachedCount.get(),
+						SolverServer.this.rejectedCount.get()));
+			}
+		});
+	}
+
+	/**
+	 * Starts accepting requests on a background thread.
+	 */
+	public void start() {
+		this.server.start();
+	}
+
+	/**
+	 * Stops accepting requests, waiting up to {@code delaySeconds} for
+	 * exchanges in progress to finish, and stops every solver thread.
+	 *
+	 * @param delaySeconds
+	 *            The most time to wait for exchanges in progress.
+	 */
+	public void stop(int delaySeconds) {
+		this.server.stop(delaySeconds);
+		for (ThreadPoolExecutor pool : this.solverPools.values()) {
+			pool.shutdownNow();
+		}
+		this.dispatcher.shutdownNow();
+	}
+
+	/**
+	 * Retrieves the address on which {@code this} listens, from which the
+	 * port chosen for a port of zero can be read.
+	 *
+	 * @return The listening address.
+	 */
+	public InetSocketAddress getAddress() {
+		return this.server.getAddress();
+	}
+
+	private void handleSolve(final HttpExchange exchange) throws IOException {
+		final BatchSolver.Job job;
+		boolean deterministic;
+		try {
+			Map<String, String> query = parseQuery(exchange.getRequestURI()
+					.getRawQuery());
+			String solverName = query.get("solver");
+			String boardSize = query.get("n");
+			if (solverName == null || boardSize == null) {
+				throw new IOException("solver and n are required");
+			}
+			String seed = query.get("seed");
+			String budget = query.get("budget");
+			String fixed = query.get("fixed");
+			if (budget == null) {
+				budget = "0";
+			}
+			BatchSolver.Job parsed = BatchSolver.Job.parse(solverName + " "
+					+ boardSize + " "
+					+ (seed == null ? Long.toString(new Random().nextLong())
+							: seed) + " " + budget
+					+ (fixed == null ? "" : " " + fixed), 1);
+			if (parsed.budget > this.maxBudget) {
+				throw new IOException("budget exceeds the maximum of "
+						+ this.maxBudget + ": " + parsed.budget);
+			}
+			// No limit is the most the server allows
+			job = parsed.budget == 0 ? new BatchSolver.Job(parsed.solver,
+					parsed.seed, this.maxBudget, parsed.constraints) : parsed;
+			deterministic = seed != null;
+		} catch (IOException e) {
+			respond(exchange, 400, e.getMessage());
+			return;
+		}
+		final String key = deterministic ? job.solver.getShortName() + " "
+				+ job.seed + " " + job.budget + " "
+				+ Arrays.toString(job.constraints.getFixedRows()) : null;
+
+		if (key != null) {
+			String answer;
+			synchronized (this.answers) {
+				answer = this.answers.get(key);
+			}
+			if (answer != null) {
+				this.cachedCount.incrementAndGet();
+				this.answeredCount.incrementAndGet();
+				respond(exchange, 200, answer);
+				return;
+			}
+		}
+
+		try {
+			this.solverPools.get(job.solver).execute(new Runnable() {
+				public void run() {
+					String answer;
+					try {
+						answer = SolverServer.this.workers.get().solve(job);
+					} catch (RuntimeException e) {
+						respondQuietly(exchange, 500, e.toString());
+						return;
+					}
+					if (key != null) {
+						synchronized (SolverServer.this.answers) {
+							SolverServer.this.answers.put(key, answer);
+						}
+					}
+					SolverServer.this.answeredCount.incrementAndGet();
+					respondQuietly(exchange, 200, answer);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			this.rejectedCount.incrementAndGet();
+			exchange.getResponseHeaders().set("Retry-After", "1");
+			respond(exchange, STATUS_OVERLOADED, job.solver.getShortName()
+					+ " queue is full");
+		}
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery)
+			throws IOException {
+		Map<String, String> query = new HashMap<String, String>();
+		if (rawQuery == null) {
+			return query;
+		}
+		for (String pair : rawQuery.split("&")) {
+			int split = pair.indexOf('=');
+			if (split <= 0) {
+				throw new IOException("malformed query: " + pair);
+			}
+			query.put(URLDecoder.decode(pair.substring(0, split), "UTF-8"),
+					URLDecoder.decode(pair.substring(split + 1), "UTF-8"));
+		}
+		return query;
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body)
+			throws IOException {
+		byte[] bytes = (body + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type",
+				"text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Responds from a solver thread, where a client that has gone away
+	 * leaves nothing to be done.
+	 */
+	private static void respondQuietly(HttpExchange exchange, int status,
+			String body) {
+		try {
+			respond(exchange, status, body);
+		} catch (IOException e) {
+			exchange.close();
+		}
+	}
+
+	private static ThreadFactory daemonThreads(final String name) {
+		final AtomicInteger threadCount = new AtomicInteger();
+		return new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, name + "-"
+						+ threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+}
@@ -0,0 +1,453 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Walks the successors of an n-queens board lazily, one move of one queen
+ * within its column at a time, as {@link HillClimbUtils#successors(int[])}
+ * lists them all at once. Nothing is built or scored until a successor is
+ * reached, so a search that takes the first acceptable successor does work in
+ * proportion to the successors it looks at rather than to all of them.
+ * <p>
+ * The number of attacking queen pairs of every row, diagonal and
+ * anti-diagonal of the board is kept up to date, so the score of a successor
+ * is found in constant time from the score of the board, and a move is
+ * applied in constant time with {@link #apply()}. The Zobrist hash of the
+ * board is kept up to date too, so that a search can recognise states it has
+ * visited. Successors are walked column by column, either in order, or, given
+ * a source of randomness, with the columns in random order and the rows of
+ * each column from a random starting row; a random walk is drawn lazily, in
+ * constant time per column.
+ * </p>
+ * <p>
+ * Besides {@link Iterator}, which yields every successor as a scored
+ * {@link ChessBoard}, {@link #advance()} steps to the next successor without
+ * building anything, for searches that only need its score, and
+ * {@link #advanceRandomly(Random)} steps to a successor drawn at random, for
+ * searches such as simulated annealing that look at one successor per move.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public final class SuccessorIterator implements Iterator<ChessBoard> {
+
+	private final int[] state;
+
+	private final BoardConstraints constraints;
+
+	private final Random rand;
+
+	private final int[] rowCounts;
+
+	private final int[] diagonalCounts;
+
+	private final int[] antiDiagonalCounts;
+
+	/**
+	 * The free columns, the first {@link #columnsStarted} of which have been
+	 * walked in the current walk.
+	 */
+	private final int[] columns;
+
+	/**
+	 * The number of successors moving the queens of the free columns before
+	 * each, in the order of the constraints, then the number of successors in
+	 * all; built by the first {@link #advanceRandomly(Random)}.
+	 */
+	private int[] successorOffsets;
+
+	/**
+	 * The evaluation count of the thread that constructed {@code this}.
+	 */
+	private final long[] evaluations = EvaluationCounter.cell();
+
+	private int score;
+
+	private long hash;
+
+	private int columnsStarted;
+
+	private int column = -1;
+
+	private int rowCount;
+
+	private int rowStart;
+
+	private int rowsVisited;
+
+	private int moveColumn = -1;
+
+	private int moveRow;
+
+	private int moveScore;
+
+	/**
+	 * Whether {@link #hasNext()} has stepped to a successor not yet returned
+	 * by {@link #next()}.
+	 */
+	private boolean lookedAhead;
+
+	/**
+	 * Whether the current walk skips the columns whose queen is not attacked.
+	 */
+	private boolean conflictedOnly;
+
+	/**
+	 * Constructs an iterator over the successors of {@code state}, walked in
+	 * order.
+	 *
+	 * @param state
+	 *            The board whose successors are walked, which is copied.
+	 */
+	public SuccessorIterator(int[] state) {
+		this(state, null, null);
+	}
+
+	/**
+	 * Constructs an iterator over the successors of {@code state} that move
+	 * only the free queens of {@code constraints}, and only to rows not
+	 * attacked by a fixed queen.
+	 *
+	 * @param state
+	 *            The board whose successors are walked, which is copied.
+	 * @param constraints
+	 *            The queens fixed in place, or {@code null} if every queen is
+	 *            free.
+	 * @param rand
+	 *            The source of randomness for the order of the walk, or
+	 *            {@code null} to walk columns and rows in increasing order.
+	 */
+	public SuccessorIterator(int[] state, BoardConstraints constraints,
+			Random rand) {
+		int boardSize = state.length;
+		if (constraints == null) {
+			constraints = new BoardConstraints(boardSize);
+		} else if (constraints.getBoardSize() != boardSize) {
+			throw new IllegalArgumentException(String.format(
+					"board of %d queens does not have %d", boardSize,
+					constraints.getBoardSize()));
+		}
+		this.state = state.clone();
+		this.constraints = constraints;
+		this.rand = rand;
+		this.rowCounts = new int[boardSize];
+		this.diagonalCounts = new int[2 * boardSize - 1];
+		this.antiDiagonalCounts = new int[2 * boardSize - 1];
+		this.columns = new int[constraints.getFreeColumnCount()];
+		for (int index = 0; index < this.columns.length; index++) {
+			this.columns[index] = constraints.getFreeColumn(index);
+		}
+		for (int column = 0; column < boardSize; column++) {
+			this.score += place(column, this.state[column], 1);
+		}
+		this.hash = ChessBoard.hashOf(this.state);
+	}
+
+	/**
+	 * Adds {@code count} queens to the lines through a square.
+	 *
+	 * @return The number of queens already attacking the square, before an
+	 *         addition, or remaining after a removal.
+	 */
+	private int place(int column, int row, int count) {
+		int diagonal = column - row + this.state.length - 1;
+		int antiDiagonal = column + row;
+		int attackers = this.rowCounts[row] + this.diagonalCounts[diagonal]
+				+ this.antiDiagonalCounts[antiDiagonal];
+		this.rowCounts[row] += count;
+		this.diagonalCounts[diagonal] += count;
+		this.antiDiagonalCounts[antiDiagonal] += count;
+		return count > 0 ? attackers : attackers - 3;
+	}
+
+	/**
+	 * Finds the change in score of moving the queen of {@code column} to
+	 * {@code row}, a different row. No line through the new square passes
+	 * through the old one, so the queens attacking each are counted apart.
+	 */
+	private int delta(int column, int row) {
+		int oldRow = this.state[column];
+		int boardSize = this.state.length;
+		return this.rowCounts[row]
+				+ this.diagonalCounts[column - row + boardSize - 1]
+				+ this.antiDiagonalCounts[column + row]
+				- (this.rowCounts[oldRow]
+						+ this.diagonalCounts[column - oldRow + boardSize - 1]
+						+ this.antiDiagonalCounts[column + oldRow] - 3);
+	}
+
+	/**
+	 * Steps to the next successor of the board without building it.
+	 *
+	 * @return {@code true} if there was another successor, whose move and
+	 *         score are then given by {@link #getMoveColumn()},
+	 *         {@link #getMoveRow()} and {@link #getMoveScore()}.
+	 */
+	public boolean advance() {
+		if (this.lookedAhead) {
+			this.lookedAhead = false;
+			return true;
+		}
+		while (true) {
+			if (this.rowsVisited < this.rowCount) {
+				int index = this.rowStart + this.rowsVisited++;
+				int row = this.constraints.getOpenRow(this.column,
+						index < this.rowCount ? index : index - this.rowCount);
+				if (row == this.state[this.column]) {
+					continue;
+				}
+				this.moveColumn = this.column;
+				this.moveRow = row;
+				this.moveScore = this.score + delta(this.column, row);
+				this.evaluations[0]++;
+				return true;
+			}
+			if (this.columnsStarted == this.columns.length) {
+				this.moveColumn = -1;
+				return false;
+			}
+			if (this.rand != null) {
+				// One step of a Fisher-Yates shuffle of the columns
+				int swap = this.columnsStarted
+						+ this.rand.nextInt(this.columns.length
+								- this.columnsStarted);
+				int temp = this.columns[swap];
+				this.columns[swap] = this.columns[this.columnsStarted];
+				this.columns[this.columnsStarted] = temp;
+			}
+			this.column = this.columns[this.columnsStarted++];
+			if (this.conflictedOnly && getConflicts(this.column) == 0) {
+				this.rowCount = 0;
+				this.rowsVisited = 0;
+				continue;
+			}
+			this.rowCount = this.constraints.getOpenRowCount(this.column);
+			this.rowStart = this.rand == null ? 0 : this.rand
+					.nextInt(this.rowCount);
+			this.rowsVisited = 0;
+		}
+	}
+
+	/**
+	 * Steps to a successor of the board drawn uniformly at random, without
+	 * building it, in constant time but for a binary search over the free
+	 * columns.
+	 *
+	 * @param rand
+	 *            The source of randomness for the successor.
+	 * @return {@code true} if the board has a successor, whose move and score
+	 *         are then given by {@link #getMoveColumn()},
+	 *         {@link #getMoveRow()} and {@link #getMoveScore()}, or
+	 *         {@code false} if every free queen is pinned to its only open row.
+	 */
+	public boolean advanceRandomly(Random rand) {
+		int freeColumnCount = this.constraints.getFreeColumnCount();
+		if (this.successorOffsets == null) {
+			this.successorOffsets = new int[freeColumnCount + 1];
+			for (int index = 0; index < freeColumnCount; index++) {
+				this.successorOffsets[index + 1] = this.successorOffsets[index]
+						+ this.constraints.getOpenRowCount(this.constraints
+								.getFreeColumn(index)) - 1;
+			}
+		}
+		int successor = this.successorOffsets[freeColumnCount];
+		if (successor == 0) {
+			return false;
+		}
+		successor = rand.nextInt(successor);
+		this.lookedAhead = false;
+
+		// The last free column whose successors start at or before the draw
+		int low = 0;
+		int high = freeColumnCount - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (this.successorOffsets[middle] <= successor) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		int column = this.constraints.getFreeColumn(low);
+		int row = this.constraints.getOpenRow(column, successor
+				- this.successorOffsets[low]);
+		if (row == this.state[column]) {
+			// The last open row stands in for the row the queen occupies
+			row = this.constraints.getOpenRow(column,
+					this.constraints.getOpenRowCount(column) - 1);
+		}
+		this.moveColumn = column;
+		this.moveRow = row;
+		this.moveScore = this.score + delta(column, row);
+		this.evaluations[0]++;
+		return true;
+	}
+
+	public boolean hasNext() {
+		if (!this.lookedAhead) {
+			this.lookedAhead = advance();
+		}
+		return this.lookedAhead;
+	}
+
+	/**
+	 * Builds the next successor of the board, with its fitness score set to
+	 * its number of attacking queen pairs.
+	 *
+	 * @return The next successor.
+	 */
+	public ChessBoard next() {
+		if (!advance()) {
+			throw new NoSuchElementException();
+		}
+		int[] successor = this.state.clone();
+		successor[this.moveColumn] = this.moveRow;
+		ChessBoard child = new ChessBoard(successor);
+		child.setFitnessScore(this.moveScore);
+		return child;
+	}
+
+	/**
+	 * Retrieves the column of the queen moved by the current successor.
+	 *
+	 * @return The column of the current move.
+	 */
+	public int getMoveColumn() {
+		assert this.moveColumn >= 0 : "no current successor";
+		return this.moveColumn;
+	}
+
+	/**
+	 * Retrieves the row the queen is moved to by the current successor.
+	 *
+	 * @return The row of the current move.
+	 */
+	public int getMoveRow() {
+		assert this.moveColumn >= 0 : "no current successor";
+		return this.moveRow;
+	}
+
+	/**
+	 * Retrieves the number of attacking queen pairs of the current successor.
+	 *
+	 * @return The score of the current successor.
+	 */
+	public int getMoveScore() {
+		assert this.moveColumn >= 0 : "no current successor";
+		return this.moveScore;
+	}
+
+	/**
+	 * Retrieves the Zobrist hash of the current successor, found in constant
+	 * time from the hash of the board.
+	 *
+	 * @return The hash of the current successor.
+	 * @see ChessBoard#hashOf(int[])
+	 */
+	public long getMoveHash() {
+		assert this.moveColumn >= 0 : "no current successor";
+		return this.hash
+				^ ChessBoard.zobristKey(this.moveColumn,
+						this.state[this.moveColumn])
+				^ ChessBoard.zobristKey(this.moveColumn, this.moveRow);
+	}
+
+	/**
+	 * Retrieves the number of attacking queen pairs of the board.
+	 *
+	 * @return The score of the board.
+	 */
+	public int getScore() {
+		return this.score;
+	}
+
+	/**
+	 * Retrieves the Zobrist hash of the board.
+	 *
+	 * @return The hash of the board.
+	 * @see ChessBoard#hashOf(int[])
+	 */
+	public long getHash() {
+		return this.hash;
+	}
+
+	/**
+	 * Counts the queens attacking the queen of {@code column}, in constant
+	 * time.
+	 *
+	 * @param column
+	 *            A column of the board.
+	 * @return The number of attacking queen pairs the queen of
+	 *         {@code column} belongs to.
+	 */
+	public int getConflicts(int column) {
+		int row = this.state[column];
+		return this.rowCounts[row]
+				+ this.diagonalCounts[column - row + this.state.length - 1]
+				+ this.antiDiagonalCounts[column + row] - 3;
+	}
+
+	/**
+	 * Retrieves the board whose successors are walked.
+	 *
+	 * @return A copy of the board.
+	 */
+	public int[] getState() {
+		return this.state.clone();
+	}
+
+	/**
+	 * Moves the queen of {@code column} of the board to {@code row}, and
+	 * starts a new walk over the successors of the resulting board.
+	 *
+	 * @param column
+	 *            A free column of the board.
+	 * @param row
+	 *            An open row of {@code column}.
+	 */
+	public void move(int column, int row) {
+		if (row != this.state[column]) {
+			this.score -= place(column, this.state[column], -1);
+			this.hash ^= ChessBoard.zobristKey(column, this.state[column])
+					^ ChessBoard.zobristKey(column, row);
+			this.state[column] = row;
+			this.score += place(column, row, 1);
+		}
+		restart();
+	}
+
+	/**
+	 * Makes the current successor the board, and starts a new walk over its
+	 * successors.
+	 */
+	public void apply() {
+		move(getMoveColumn(), this.moveRow);
+	}
+
+	/**
+	 * Starts a new walk over the successors of the board, in a new random
+	 * order if the walk is random.
+	 */
+	public void restart() {
+		this.conflictedOnly = false;
+		this.columnsStarted = 0;
+		this.column = -1;
+		this.rowCount = 0;
+		this.rowsVisited = 0;
+		this.moveColumn = -1;
+		this.lookedAhead = false;
+	}
+
+	/**
+	 * Starts a new walk as {@link #restart()} does, over only the successors
+	 * that move a queen attacked by another. No other move can lower the
+	 * score of the board.
+	 */
+	public void restartConflicted() {
+		restart();
+		this.conflictedOnly = true;
+	}
+}
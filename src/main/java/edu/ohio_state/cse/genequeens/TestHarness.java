@@ -1,9 +1,9 @@
 package edu.ohio_state.cse.genequeens;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.Random;
 
 /**
  * The Main driver class for the Hill Climbing and Genetic search agents,
@@ -14,9 +14,79 @@ import java.util.List;
  */
 public class TestHarness {
 
+	private static final int SERVER_QUEUE_CAPACITY = 64;
+
+	private static final int SERVER_CACHE_CAPACITY = 4096;
+
+	private static final String SOLUTION_STORE_PROPERTY = "genequeens.store";
+
+	private static final String DEFAULT_SOLUTION_STORE = "genequeens.solutions";
+
+	private static final int SOLUTION_STORE_LRU_CAPACITY = 64;
+
 	public static void main(String[] args) {
 
-		if (args.length == 1) {
+		if (args.length >= 3 && args.length <= 4 && args[0].equals("--batch")) {
+			int workerCount = Runtime.getRuntime().availableProcessors();
+			if (args.length == 4) {
+				workerCount = Integer.parseInt(args[3]);
+			}
+
+			// Check if input is valid
+			if (workerCount > 0) {
+				try {
+					int jobCount = new BatchSolver(workerCount).run(
+							Paths.get(args[1]), Paths.get(args[2]));
+					System.out.println(jobCount + " jobs solved into "
+							+ args[2]);
+				} catch (IOException e) {
+					System.out.println("Batch failed: " + e.getMessage());
+					System.exit(1);
+				}
+			} else {
+				System.out
+						.println("Please restart the program and enter a jobFile, resultFile,"
+								+ "\nand optionally a workerCount (greater than 0)");
+				System.out
+						.println("--------------------------------------------------------------------------------");
+				System.exit(0);
+			}
+		}
+
+		else if (args.length >= 2 && args.length <= 3
+				&& args[0].equals("--serve")) {
+			int port = Integer.parseInt(args[1]);
+			int concurrency = Runtime.getRuntime().availableProcessors();
+			if (args.length == 3) {
+				concurrency = Integer.parseInt(args[2]);
+			}
+
+			// Check if input is valid
+			if (port >= 0 && concurrency > 0) {
+				try {
+					SolverServer server = new SolverServer(port, concurrency,
+							SERVER_QUEUE_CAPACITY, SERVER_CACHE_CAPACITY);
+					server.start();
+					System.out.println("Serving solve requests on "
+							+ server.getAddress());
+					Thread.currentThread().join();
+				} catch (IOException e) {
+					System.out.println("Server failed: " + e.getMessage());
+					System.exit(1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			} else {
+				System.out
+						.println("Please restart the program and enter a port (0 or greater),"
+								+ "\nand optionally a concurrency (greater than 0)");
+				System.out
+						.println("--------------------------------------------------------------------------------");
+				System.exit(0);
+			}
+		}
+
+		else if (args.length == 1) {
 
 			int commandBoardSize = Integer.parseInt(args[0]);
 
@@ -28,13 +98,18 @@ public class TestHarness {
 				System.out.println("\t\tHILL CLIMBING SEARCH");
 				System.out
 						.println("--------------------------------------------------------------------------------");
-				int[] solution = HillClimbUtils
-						.hillClimbingAgent(commandBoardSize);
+				SolutionStore store = openSolutionStore();
+				int[] solution = lookupSolution(store, commandBoardSize);
+				if (solution == null) {
+					solution = HillClimbUtils.hillClimbingAgent(commandBoardSize);
+					offerSolution(store, solution);
+				}
 
 				for (int columnIndex = 0; columnIndex < solution.length; columnIndex++) {
 					System.out.println("Queen" + (columnIndex + 1) + ": Row "
 							+ solution[columnIndex] + " Column " + columnIndex);
 				}
+				closeSolutionStore(store);
 				System.out
 						.println("--------------------------------------------------------------------------------");
 			} else {
@@ -61,18 +136,24 @@ public class TestHarness {
 				System.out.println("\t\tGENETIC SEARCH");
 				System.out
 						.println("--------------------------------------------------------------------------------");
-				// Create a population of boards
-				Collection<Evolvable> population = new ArrayList<Evolvable>();
-				for (int i = 0; i < commandPopulationSize; i++) {
-					Evolvable individual = new ChessBoard(commandBoardSize);
-					population.add(individual);
+				SolutionStore store = openSolutionStore();
+				int[] storedSolution = lookupSolution(store, commandBoardSize);
+				if (storedSolution != null) {
+					System.out.println(new ChessBoard(storedSolution).toString());
+				} else {
+					// Create a population of greedily laid out boards
+					Collection<Evolvable> population = Initializer.GREEDY
+							.populate(new BoardConstraints(commandBoardSize),
+									commandPopulationSize, new Random());
+					EvolutionaryGoal nQueensGoal = new ChessBoard.QueensGoal();
+					population = GeneticAlgorithms.evolve(population,
+							commandMutationRate, nQueensGoal);
+					ChessBoard solution = (ChessBoard) GeneticAlgorithms
+							.findMostFitIndividual(population);
+					System.out.println(solution.toString());
+					offerSolution(store, solution.getBoardLayout());
 				}
-				EvolutionaryGoal nQueensGoal = new ChessBoard.QueensGoal();
-				population = GeneticAlgorithms.evolve(population, nQueensGoal);
-				List<Evolvable> list = new ArrayList<Evolvable>(population);
-				Collections.sort(list);
-				Evolvable solution = list.get(0);
-				System.out.println(solution.toString());
+				closeSolutionStore(store);
 				System.out
 						.println("--------------------------------------------------------------------------------");
 			} else {
@@ -97,13 +178,19 @@ public class TestHarness {
 				System.out.println("\t\tSIMULATED ANNEALING SEARCH");
 				System.out
 						.println("--------------------------------------------------------------------------------");
-				int[] solution = AnnealingUtils.simulatedAnnealingAgent(
-						commandBoardSize, commandTemperature);
+				SolutionStore store = openSolutionStore();
+				int[] solution = lookupSolution(store, commandBoardSize);
+				if (solution == null) {
+					solution = AnnealingUtils.simulatedAnnealingAgent(
+							commandBoardSize, commandTemperature);
+					offerSolution(store, solution);
+				}
 
 				for (int columnIndex = 0; columnIndex < solution.length; columnIndex++) {
 					System.out.println("Queen" + (columnIndex + 1) + ": Row "
 							+ solution[columnIndex] + " Column " + columnIndex);
 				}
+				closeSolutionStore(store);
 				System.out
 						.println("--------------------------------------------------------------------------------");
 			} else {
@@ -122,4 +209,47 @@ public class TestHarness {
 			System.exit(0);
 		}
 	}
+
+	/**
+	 * Opens the store of previously found solutions, held in the file named
+	 * by the {@value #SOLUTION_STORE_PROPERTY} system property or, by default,
+	 * {@value #DEFAULT_SOLUTION_STORE} in the working directory.
+	 * 
+	 * @return The solution store, or {@code null} if it cannot be opened, in
+	 *         which case every search starts from scratch.
+	 */
+	private static SolutionStore openSolutionStore() {
+		String path = System.getProperty(SOLUTION_STORE_PROPERTY,
+				DEFAULT_SOLUTION_STORE);
+		try {
+			return new SolutionStore(Paths.get(path), SOLUTION_STORE_LRU_CAPACITY);
+		} catch (IOException e) {
+			System.out.println("Solution store unavailable: " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static int[] lookupSolution(SolutionStore store, int boardSize) {
+		int[] solution = store == null ? null : store.lookup(boardSize);
+		if (solution != null) {
+			System.out.println("SOLUTION FOUND IN STORE");
+		}
+		return solution;
+	}
+
+	private static void offerSolution(SolutionStore store, int[] solution) {
+		if (store != null && solution != null) {
+			store.offer(solution, null);
+		}
+	}
+
+	private static void closeSolutionStore(SolutionStore store) {
+		if (store != null) {
+			try {
+				store.close();
+			} catch (IOException e) {
+				System.out.println("Solution store not saved: " + e.getMessage());
+			}
+		}
+	}
 }
@@ -0,0 +1,104 @@
+package edu.ohio_state.cse.genequeens;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@link ScoringKernel} scoring one board per lane of a vector, through the
+ * incubating {@code jdk.incubator.vector} API. A block of as many boards as a
+ * vector has lanes is first transposed, so that the rows of one column of
+ * every board of the block lie side by side; every pair of columns is then
+ * compared on all of the boards at once. Queens {@code a} and {@code b}
+ * attack one another when the difference of their rows is zero or equal in
+ * magnitude to {@code b - a}, and each lane counts the attacking pairs of its
+ * own board, so no lanes are wasted on ragged tails and no counts are summed
+ * across lanes.
+ * <p>
+ * The comparisons take time O(n<sup>2</sup>/L) per board for vectors of L
+ * lanes, which beats the O(n) histograms of {@link HistogramScoringKernel} on
+ * the small boards on which genetic algorithms spend most of their time, but
+ * not on large ones. Boards larger than {@link #MAX_VECTOR_BOARD_SIZE}, the
+ * boards left over after the last whole block, and boards scored one at a
+ * time are therefore scored by a histogram kernel. This class is compiled
+ * only by the {@code vector} build profile and is loaded only through
+ * {@link ScoringKernels}, when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public class VectorScoringKernel implements ScoringKernel {
+
+	/**
+	 * The largest board scored one board per lane, about where the
+	 * histograms become faster as measured by {@link ScoringBenchmark}.
+	 */
+	public static final int MAX_VECTOR_BOARD_SIZE = 20;
+
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	private final HistogramScoringKernel histogram = new HistogramScoringKernel();
+
+	/**
+	 * The transposed rows of a block of boards, those of column {@code c}
+	 * starting at index {@code c * SPECIES.length()}.
+	 */
+	private int[] columns = new int[0];
+
+	public int countAttackingPairs(int[] boards, int offset, int boardSize) {
+		return this.histogram.countAttackingPairs(boards, offset, boardSize);
+	}
+
+	public void countAttackingPairs(int[] boards, int offset, int boardSize,
+			int boardCount, int[] counts) {
+		int lanes = SPECIES.length();
+		int board = 0;
+		if (boardSize <= MAX_VECTOR_BOARD_SIZE) {
+			if (this.columns.length < boardSize * lanes) {
+				this.columns = new int[boardSize * lanes];
+			}
+			for (; board + lanes <= boardCount; board += lanes) {
+				countBlock(boards, offset + board * boardSize, boardSize,
+						counts, board);
+			}
+		}
+		// The boards left over are scored one at a time
+		for (; board < boardCount; board++) {
+			counts[board] = this.histogram.countAttackingPairs(boards, offset
+					+ board * boardSize, boardSize);
+		}
+	}
+
+	/**
+	 * Scores the block of one board per lane whose first board starts at
+	 * {@code offset}, writing the counts from {@code counts[first]}.
+	 */
+	private void countBlock(int[] boards, int offset, int boardSize,
+			int[] counts, int first) {
+		int lanes = SPECIES.length();
+		int[] columns = this.columns;
+		for (int lane = 0; lane < lanes; lane++) {
+			int from = offset + lane * boardSize;
+			for (int column = 0; column < boardSize; column++) {
+				columns[column * lanes + lane] = boards[from + column];
+			}
+		}
+
+		IntVector attacks = IntVector.zero(SPECIES);
+		IntVector ones = IntVector.broadcast(SPECIES, 1);
+		for (int columnA = 0; columnA < boardSize - 1; columnA++) {
+			IntVector rowsA = IntVector.fromArray(SPECIES, columns, columnA
+					* lanes);
+			for (int columnB = columnA + 1; columnB < boardSize; columnB++) {
+				IntVector rise = IntVector
+						.fromArray(SPECIES, columns, columnB * lanes)
+						.sub(rowsA).lanewise(VectorOperators.ABS);
+				attacks = attacks.add(ones,
+						rise.eq(0).or(rise.eq(columnB - columnA)));
+			}
+		}
+		attacks.intoArray(counts, first);
+	}
+}
@@ -0,0 +1,124 @@
+package edu.ohio_state.cse.genequeens;
+
+/**
+ * A bounded set of the most recently visited states of a local search, each
+ * identified by a 64-bit hash (for a
+ * {@link edu.ohio_state.cse.genequeens.ChessBoard ChessBoard}, its Zobrist
+ * hash). A search that moves sideways across a plateau can tell, in constant
+ * time, whether a move would return it to a state it has just left, and so
+ * whether it is exploring the plateau or cycling on it.
+ * <p>
+ * Hashes are kept in a ring of insertion order, indexed by a
+ * {@link HashIndex}, as {@link FitnessCache} keeps its entries, so neither
+ * lookups nor insertions allocate. When the set is full the oldest hash is forgotten.
+ * </p>
+ *
+ * @author Ethan Hill
+ *
+ */
+public final class VisitedStates {
+
+	private final int capacity;
+
+	/**
+	 * The hashes in the set, the oldest at {@link #oldest}, in a ring.
+	 */
+	private final long[] hashes;
+
+	private int oldest = 0;
+
+	private int size = 0;
+
+	/*
+	 * Index from a hash to its place in the ring.
+	 */
+	private final HashIndex index;
+
+	/**
+	 * Constructs an empty {@code VisitedStates} remembering up to
+	 * {@code capacity} states.
+	 *
+	 * @param capacity
+	 *            The greatest number of states remembered; must be positive.
+	 */
+	public VisitedStates(int capacity) {
+		if (capacity <= 0 || capacity > 1 << 28) {
+			throw new IllegalArgumentException("capacity must be in [1, 2^28]: "
+					+ capacity);
+		}
+		this.capacity = capacity;
+		this.hashes = new long[capacity];
+		this.index = new HashIndex(this.hashes);
+	}
+
+	/**
+	 * Retrieves the greatest number of states remembered by {@code this}.
+	 *
+	 * @return The capacity of {@code this}.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Retrieves the number of states remembered by {@code this}.
+	 *
+	 * @return The size of {@code this}.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Determines whether a state is remembered by {@code this}.
+	 *
+	 * @param hash
+	 *            The hash of the state.
+	 * @return {@code true} if the state is among the recently visited.
+	 */
+	public boolean contains(long hash) {
+		return this.index.find(hash) != HashIndex.NIL;
+	}
+
+	/**
+	 * Records a visit to a state, forgetting the oldest state if
+	 * {@code this} is full.
+	 *
+	 * @param hash
+	 *            The hash of the state.
+	 * @return {@code true} if the state was not already remembered.
+	 */
+	public boolean add(long hash) {
+		if (this.index.find(hash) != HashIndex.NIL) {
+			return false;
+		}
+		if (this.size == this.capacity) {
+			this.index.remove(this.hashes[this.oldest]);
+			this.oldest = next(this.oldest);
+			this.size--;
+		}
+		int place = this.oldest + this.size;
+		if (place >= this.capacity) {
+			place -= this.capacity;
+		}
+		this.hashes[place] = hash;
+		this.index.insert(place);
+		this.size++;
+		return true;
+	}
+
+	/**
+	 * Forgets every state, in time proportional to the number remembered.
+	 */
+	public void clear() {
+		for (int place = this.oldest, i = 0; i < this.size; place = next(place), i++) {
+			this.index.remove(this.hashes[place]);
+		}
+		this.oldest = 0;
+		this.size = 0;
+	}
+
+	private int next(int place) {
+		return place + 1 == this.capacity ? 0 : place + 1;
+	}
+}
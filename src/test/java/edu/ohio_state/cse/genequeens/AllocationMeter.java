@@ -0,0 +1,83 @@
+package edu.ohio_state.cse.genequeens;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes allocated on the heap by a task run on the calling
+ * thread, through the HotSpot extension of {@link ThreadMXBean}.
+ *
+ * @author Ethan Hill
+ *
+ */
+final class AllocationMeter {
+
+	private static final com.sun.management.ThreadMXBean THREADS;
+
+	static {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		com.sun.management.ThreadMXBean hotspot = null;
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			hotspot = (com.sun.management.ThreadMXBean) threads;
+			if (!hotspot.isThreadAllocatedMemorySupported()) {
+				hotspot = null;
+			} else if (!hotspot.isThreadAllocatedMemoryEnabled()) {
+				hotspot.setThreadAllocatedMemoryEnabled(true);
+			}
+		}
+		THREADS = hotspot;
+	}
+
+	/**
+	 * The bytes allocated by measuring an empty task, subtracted from every
+	 * measurement.
+	 */
+	private static final long OVERHEAD = overhead();
+
+	private AllocationMeter() {
+	}
+
+	/**
+	 * Determines whether the JVM can measure allocations per thread.
+	 *
+	 * @return {@code true} if {@link #measure(Runnable)} is meaningful.
+	 */
+	static boolean isSupported() {
+		return THREADS != null;
+	}
+
+	/**
+	 * Runs {@code task} on the calling thread and measures what it allocates.
+	 *
+	 * @param task
+	 *            The task to measure.
+	 * @return The number of bytes allocated by {@code task}.
+	 */
+	static long measure(Runnable task) {
+		long before = allocatedBytes();
+		task.run();
+		long after = allocatedBytes();
+		return Math.max(0, after - before - OVERHEAD);
+	}
+
+	private static long allocatedBytes() {
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static long overhead() {
+		if (THREADS == null) {
+			return 0;
+		}
+		Runnable empty = new Runnable() {
+			public void run() {
+			}
+		};
+		long least = Long.MAX_VALUE;
+		for (int i = 0; i < 16; i++) {
+			long before = allocatedBytes();
+			empty.run();
+			least = Math.min(least, allocatedBytes() - before);
+		}
+		return least;
+	}
+}
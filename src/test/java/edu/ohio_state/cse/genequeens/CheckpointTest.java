@@ -0,0 +1,136 @@
+package edu.ohio_state.cse.genequeens;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that a {@link Checkpoint} written to a file reads back as the
+ * population and settings it was taken from.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class CheckpointTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static EvolutionConfig config(long seed) {
+		EvolutionConfig config = new EvolutionConfig();
+		config.setRandom(new SeededRandom(seed));
+		config.setMutationRate(0.03d);
+		config.setCrossoverRate(0.6d);
+		config.setCrossover(Crossover.UNIFORM);
+		config.setReplacement(EvolutionConfig.Replacement.STEADY_STATE);
+		config.setEliteCount(3);
+		config.setSteadyStateReplacements(7);
+		config.setMaxGenerations(500);
+		return config;
+	}
+
+	private List<Evolvable> roundTrip(List<Evolvable> population,
+			EvolutionConfig config) throws IOException {
+		Path path = this.folder.getRoot().toPath().resolve("run.checkpoint");
+		Checkpoint.capture(population, 42, config).write(path);
+		Checkpoint checkpoint = Checkpoint.read(path);
+		assertEquals(42, checkpoint.getGeneration());
+		assertEquals(population.size(), checkpoint.getPopulationSize());
+
+		List<Evolvable> restored = checkpoint.toPopulation();
+		assertEquals(population.size(), restored.size());
+		for (int i = 0; i < population.size(); i++) {
+			ChessBoard expected = (ChessBoard) population.get(i);
+			ChessBoard actual = (ChessBoard) restored.get(i);
+			assertArrayEquals(expected.getBoardLayout(),
+					actual.getBoardLayout());
+			assertEquals(expected.getFitnessScore(), actual.getFitnessScore(),
+					0.0d);
+			assertEquals(expected.getGenomeHash(), actual.getGenomeHash());
+		}
+
+		EvolutionConfig resumed = new EvolutionConfig();
+		checkpoint.restore(resumed);
+		assertEquals(config.getMutationRate(), resumed.getMutationRate(), 0.0d);
+		assertEquals(config.getCrossoverRate(), resumed.getCrossoverRate(),
+				0.0d);
+		assertSame(config.getCrossover(), resumed.getCrossover());
+		assertSame(config.getReplacement(), resumed.getReplacement());
+		assertEquals(config.getEliteCount(), resumed.getEliteCount());
+		assertEquals(config.getSteadyStateReplacements(),
+				resumed.getSteadyStateReplacements());
+		assertEquals(config.getMaxGenerations(), resumed.getMaxGenerations());
+		FitnessSharing sharing = config.getFitnessSharing();
+		if (sharing == null) {
+			assertNull(resumed.getFitnessSharing());
+		} else {
+			FitnessSharing restoredSharing = resumed.getFitnessSharing();
+			assertNotNull(restoredSharing);
+			assertSame(sharing.getSampling(), restoredSharing.getSampling());
+			assertEquals(sharing.getRadius(), restoredSharing.getRadius(), 0.0d);
+			assertEquals(sharing.getAlpha(), restoredSharing.getAlpha(), 0.0d);
+			assertEquals(sharing.getSamples(), restoredSharing.getSamples());
+		}
+		MemeticRefinement refinement = config.getRefinement();
+		if (refinement == null) {
+			assertNull(resumed.getRefinement());
+		} else {
+			MemeticRefinement restoredRefinement = resumed.getRefinement();
+			assertNotNull(restoredRefinement);
+			assertSame(refinement.getStrategy(),
+					restoredRefinement.getStrategy());
+			assertEquals(refinement.getMaxMoves(),
+					restoredRefinement.getMaxMoves());
+			assertEquals(refinement.getRefinementRate(),
+					restoredRefinement.getRefinementRate(), 0.0d);
+		}
+		assertEquals(config.getRandom().nextLong(), resumed.getRandom()
+				.nextLong());
+		return restored;
+	}
+
+	@Test
+	public void unconstrainedPopulationRoundTrips() throws IOException {
+		EvolutionConfig config = config(5);
+		config.setFitnessSharing(new FitnessSharing(
+				FitnessSharing.NeighbourSampling.LOCALITY_SENSITIVE_HASHING,
+				0.3d, 2.0d, 6));
+		List<Evolvable> population = new ArrayList<Evolvable>();
+		for (int i = 0; i < 30; i++) {
+			population.add(new ChessBoard(20, config.getRandom()));
+		}
+		GeneticAlgorithms.evaluatePopulation(population);
+		for (Evolvable individual : roundTrip(population, config)) {
+			assertNull(((ChessBoard) individual).getConstraints());
+		}
+	}
+
+	@Test
+	public void fixedQueensRoundTrip() throws IOException {
+		EvolutionConfig config = config(6);
+		config.setRefinement(new MemeticRefinement(
+				HillClimbUtils.Strategy.RANDOM_FIRST_IMPROVEMENT, 6, 0.4d));
+		BoardConstraints constraints = BoardConstraints
+				.parse("-,3,-,-,-,-,0,-,-,-");
+		List<Evolvable> population = new ArrayList<Evolvable>();
+		for (int i = 0; i < 30; i++) {
+			population.add(new ChessBoard(constraints, config.getRandom()));
+		}
+		GeneticAlgorithms.evaluatePopulation(population);
+		for (Evolvable individual : roundTrip(population, config)) {
+			assertArrayEquals(constraints.getFixedRows(),
+					((ChessBoard) individual).getConstraints().getFixedRows());
+		}
+	}
+}
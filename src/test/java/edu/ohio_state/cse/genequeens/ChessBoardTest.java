@@ -0,0 +1,107 @@
+package edu.ohio_state.cse.genequeens;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the genetic operators of {@link ChessBoard} only rearrange
+ * genes, and keep the incrementally updated genome hash in step with the
+ * layout.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class ChessBoardTest {
+
+	private static final int BOARD_SIZE = 24;
+
+	private static final int TRIALS = 200;
+
+	/**
+	 * Asserts that the children hold, at every position, the two genes the
+	 * parents held there, in either order.
+	 */
+	private static void assertGenesPreserved(String operator, int[] parentA,
+			int[] parentB, int[] childA, int[] childB) {
+		for (int i = 0; i < parentA.length; i++) {
+			boolean kept = childA[i] == parentA[i] && childB[i] == parentB[i];
+			boolean swapped = childA[i] == parentB[i]
+					&& childB[i] == parentA[i];
+			assertTrue(operator + " lost the genes at position " + i, kept
+					|| swapped);
+		}
+	}
+
+	@Test
+	public void crossoverPreservesGenesAtEveryPosition() {
+		Random rand = new Random(1);
+		for (Crossover crossover : Crossover.values()) {
+			for (int trial = 0; trial < TRIALS; trial++) {
+				int[] parentA = HillClimbUtils.randomBoard(BOARD_SIZE, rand);
+				int[] parentB = HillClimbUtils.randomBoard(BOARD_SIZE, rand);
+				int[] childA = parentA.clone();
+				int[] childB = parentB.clone();
+				crossover.cross(childA, childB, rand);
+				assertGenesPreserved(crossover.name(), parentA, parentB,
+						childA, childB);
+			}
+		}
+	}
+
+	@Test
+	public void exchangeGenesPreservesGenesAtEveryPosition() {
+		Random rand = new Random(2);
+		for (Crossover crossover : Crossover.values()) {
+			for (int trial = 0; trial < TRIALS; trial++) {
+				ChessBoard child = new ChessBoard(BOARD_SIZE, rand);
+				ChessBoard mate = new ChessBoard(BOARD_SIZE, rand);
+				int[] parentA = child.getBoardLayout();
+				int[] parentB = mate.getBoardLayout();
+				ChessBoard sibling = (ChessBoard) child.exchangeGenes(mate,
+						crossover, rand);
+				assertGenesPreserved(crossover.name(), parentA, parentB,
+						child.getBoardLayout(), sibling.getBoardLayout());
+				assertArrayEquals("the mate was altered", parentB,
+						mate.getBoardLayout());
+			}
+		}
+	}
+
+	@Test
+	public void queenPairCountHoldsForLargeBoards() {
+		assertEquals(28L, ChessBoard.queenPairCount(8));
+		assertEquals(1249975000L, ChessBoard.queenPairCount(50000));
+		assertEquals(4999950000L, ChessBoard.queenPairCount(100000));
+	}
+
+	@Test
+	public void incrementalHashMatchesFreshHash() {
+		Random rand = new Random(3);
+		BoardConstraints constraints = BoardConstraints
+				.parse("-,-,5,-,-,-,-,-,-,0,-,-,-,-,-,-,-,-,-,-,-,-,-,-");
+		for (BoardConstraints shared : new BoardConstraints[] {
+				new BoardConstraints(BOARD_SIZE), constraints }) {
+			for (Crossover crossover : Crossover.values()) {
+				ChessBoard child = new ChessBoard(shared, rand);
+				for (int trial = 0; trial < TRIALS; trial++) {
+					ChessBoard mate = new ChessBoard(shared, rand);
+					ChessBoard sibling = (ChessBoard) child.exchangeGenes(
+							mate, crossover, rand);
+					assertEquals(ChessBoard.hashOf(child.getBoardLayout()),
+							child.getGenomeHash());
+					assertEquals(ChessBoard.hashOf(sibling.getBoardLayout()),
+							sibling.getGenomeHash());
+
+					child.mutate(0.2d, rand);
+					assertEquals(ChessBoard.hashOf(child.getBoardLayout()),
+							child.getGenomeHash());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package edu.ohio_state.cse.genequeens;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Checks the behaviour of the breeding and replacement steps shared by the
+ * genetic algorithms.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class GeneticAlgorithmsTest {
+
+	private static List<Evolvable> boards(int count, int boardSize, Random rand) {
+		BoardConstraints constraints = new BoardConstraints(boardSize);
+		List<Evolvable> population = new ArrayList<Evolvable>(count);
+		for (int i = 0; i < count; i++) {
+			population.add(new ChessBoard(constraints, rand));
+		}
+		GeneticAlgorithms.evaluatePopulation(population);
+		return population;
+	}
+
+	@Test
+	public void breedingYieldsDistinctOffspring() {
+		for (double crossoverRate : new double[] { 0.0d, 0.5d, 1.0d }) {
+			SeededRandom rand = new SeededRandom(1);
+			List<Evolvable> population = boards(100, 16, rand);
+			List<Evolvable> offspring = GeneticAlgorithms.breed(population,
+					new GeneticAlgorithms.TournamentSelector(3, rand), 0.1d,
+					crossoverRate, Crossover.SINGLE_POINT, population.size(),
+					rand);
+
+			Set<Evolvable> distinct = Collections
+					.newSetFromMap(new IdentityHashMap<Evolvable, Boolean>());
+			distinct.addAll(offspring);
+			assertEquals("crossover rate " + crossoverRate, offspring.size(),
+					distinct.size());
+		}
+	}
+
+	@Test
+	public void elitesKeepTheirGenesAndScores() {
+		EvolutionConfig config = new EvolutionConfig();
+		config.setRandom(new SeededRandom(1));
+		config.setReplacement(EvolutionConfig.Replacement.ELITIST);
+		config.setEliteCount(5);
+		config.setMaxGenerations(10);
+		List<Evolvable> population = boards(50, 16, config.getRandom());
+		for (Evolvable individual : GeneticAlgorithms.evolve(population,
+				new ChessBoard.QueensGoal(), config)) {
+			ChessBoard board = (ChessBoard) individual;
+			assertEquals(board.copy().evaluateFitness(),
+					board.getFitnessScore(), 0.0d);
+		}
+	}
+
+	@Test
+	public void adaptiveRunsAreReproducible() {
+		long[] hashes = new long[2];
+		for (int run = 0; run < hashes.length; run++) {
+			EvolutionConfig config = new EvolutionConfig();
+			config.setRandom(new SeededRandom(7));
+			config.setMateSelector(new GeneticAlgorithms.TournamentSelector(3,
+					config.getRandom()));
+			config.setReplacement(EvolutionConfig.Replacement.ELITIST);
+			config.setMaxGenerations(20);
+			config.setOperatorController(new AdaptiveOperatorController(
+					AdaptiveOperatorController.DiversityMeasure.SAMPLED_HAMMING,
+					0.01d, 0.2d, 0.5d, 1.0d, 0.5d));
+			List<Evolvable> population = boards(40, 16, config.getRandom());
+			for (Evolvable individual : GeneticAlgorithms.evolve(population,
+					new ChessBoard.QueensGoal(), config)) {
+				hashes[run] = hashes[run] * 31
+						+ ((ChessBoard) individual).getGenomeHash();
+			}
+		}
+		assertEquals(hashes[0], hashes[1]);
+	}
+
+	@Test
+	public void adaptationSkipsUnmeasurablePopulations() {
+		EvolutionConfig config = new EvolutionConfig();
+		config.setMutationRate(0.05d);
+		config.setCrossoverRate(0.75d);
+		config.setOperatorController(new AdaptiveOperatorController());
+		List<Evolvable> population = new ArrayList<Evolvable>();
+		for (int i = 0; i < 10; i++) {
+			population.add(new IntGenome(new int[] { 1, 2, 3 }, 4,
+					new FitnessFunction<IntGenome>() {
+						public double evaluate(IntGenome genome) {
+							return 0.0d;
+						}
+					}));
+		}
+		double[] rates = new double[2];
+		GeneticAlgorithms.adaptRates(population, config, rates);
+		assertEquals(0.05d, rates[0], 0.0d);
+		assertEquals(0.75d, rates[1], 0.0d);
+		assertTrue(Double.isNaN(config.getOperatorController().getDiversity()));
+	}
+
+	@Test
+	public void sharingMeasuresGenomeDistances() {
+		List<Evolvable> population = new ArrayList<Evolvable>();
+		for (int i = 0; i < 10; i++) {
+			IntGenome genome = new IntGenome(new int[] { 1, 2, 3 }, 4,
+					new FitnessFunction<IntGenome>() {
+						public double evaluate(IntGenome genome) {
+							return 10.0d;
+						}
+					});
+			genome.evaluateFitness();
+			population.add(genome);
+		}
+		assertEquals(0, GeneticAlgorithms.distance(population.get(0),
+				population.get(1)));
+
+		// Every clone lies in the niche of all ten
+		new FitnessSharing().share(population, new Random(1));
+		for (Evolvable individual : population) {
+			assertEquals(1.0d, individual.getFitnessScore(), 1e-9d);
+		}
+		try {
+			new FitnessSharing(
+					FitnessSharing.NeighbourSampling.LOCALITY_SENSITIVE_HASHING,
+					0.25d, 4).share(population, new Random(1));
+			fail("genomes were shared by hashing board columns");
+		} catch (IllegalArgumentException e) {
+			// Only ChessBoards can be hashed
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void pipelinedRunsRethrowWorkerFailures()
+			throws InterruptedException {
+		final AtomicInteger evaluations = new AtomicInteger();
+		List<Evolvable> population = new ArrayList<Evolvable>();
+		for (int i = 0; i < 10; i++) {
+			population.add(new IntGenome(new int[] { i % 4, 1, 2 }, 4,
+					new FitnessFunction<IntGenome>() {
+						public double evaluate(IntGenome genome) {
+							if (evaluations.incrementAndGet() > 20) {
+								throw new IllegalStateException("scoring failed");
+							}
+							return 0.0d;
+						}
+					}));
+		}
+		EvolutionConfig config = new EvolutionConfig();
+		config.setRandom(new SeededRandom(1));
+		try {
+			new PipelinedEvolution(config, 1, 2, 4).evolve(population,
+					new EvolutionaryGoal() {
+						public boolean isSatisfied(
+								Collection<Evolvable> population) {
+							return false;
+						}
+					}, 0);
+			fail("the failure of an evaluator was swallowed");
+		} catch (IllegalStateException e) {
+			assertEquals("scoring failed", e.getMessage());
+		}
+	}
+}
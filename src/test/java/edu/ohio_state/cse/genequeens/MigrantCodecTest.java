@@ -0,0 +1,97 @@
+package edu.ohio_state.cse.genequeens;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that batches of migrants encoded by {@link MigrantCodec} decode to
+ * the boards they were encoded from, that forged batches are rejected, and
+ * that populations built from free constraints migrate between islands.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class MigrantCodecTest {
+
+	private static List<ChessBoard> migrants(int count, int boardSize,
+			Random rand) {
+		List<ChessBoard> migrants = new ArrayList<ChessBoard>(count);
+		for (int i = 0; i < count; i++) {
+			migrants.add(new ChessBoard(boardSize, rand));
+		}
+		return migrants;
+	}
+
+	@Test
+	public void batchesRoundTripAtEveryGeneWidth() throws IOException {
+		Random rand = new Random(1);
+		// One, two and four bytes per row
+		for (int boardSize : new int[] { 8, 256, 257, 65536, 65537 }) {
+			int count = boardSize > 1000 ? 2 : 20;
+			List<ChessBoard> sent = migrants(count, boardSize, rand);
+			byte[] batch = MigrantCodec.encode(3, sent);
+			assertEquals(3, MigrantCodec.sourceOf(batch));
+
+			List<ChessBoard> received = MigrantCodec.decode(batch);
+			assertEquals(sent.size(), received.size());
+			for (int i = 0; i < sent.size(); i++) {
+				assertArrayEquals("board size " + boardSize, sent.get(i)
+						.getBoardLayout(), received.get(i).getBoardLayout());
+			}
+		}
+	}
+
+	@Test
+	public void emptyBatchesRoundTrip() throws IOException {
+		byte[] batch = MigrantCodec.encode(0, new ArrayList<ChessBoard>());
+		assertEquals(0, MigrantCodec.decode(batch).size());
+	}
+
+	@Test
+	public void populatedIslandsExchangeMigrants() {
+		LoopbackTransport[] transports = LoopbackTransport.connect(2);
+		EvolutionaryGoal never = new EvolutionaryGoal() {
+			public boolean isSatisfied(Collection<Evolvable> population) {
+				return false;
+			}
+		};
+		IslandEvolution[] islands = new IslandEvolution[2];
+		for (int i = 0; i < islands.length; i++) {
+			EvolutionConfig config = new EvolutionConfig();
+			config.setRandom(new SeededRandom(i));
+			islands[i] = new IslandEvolution(transports[i], config, 2, 4);
+			List<Evolvable> population = Initializer.GREEDY.populate(
+					new BoardConstraints(16), 20, new Random(i));
+			// The second island breeds with the migrants of the first
+			islands[i].evolve(population, never, 3);
+		}
+		assertTrue(islands[0].getMigrantsSent() > 0);
+		assertTrue(islands[1].getMigrantsReceived() > 0);
+		assertEquals(0, islands[0].getBatchesLost());
+		assertEquals(0, islands[1].getBatchesLost());
+	}
+
+	@Test
+	public void forgedCountsAreRejected() {
+		byte[] batch = MigrantCodec.encode(0, migrants(4, 8, new Random(2)));
+		// The number of migrants follows the magic, version and source
+		ByteBuffer.wrap(batch).putInt(10, Integer.MAX_VALUE / 8);
+		try {
+			MigrantCodec.decode(batch);
+			fail("a batch claiming more genes than it holds was decoded");
+		} catch (IOException e) {
+			// Rejected before any space was allocated for the genes
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package edu.ohio_state.cse.genequeens;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the non-dominated sort of {@link MultiObjectiveEvolution}.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class MultiObjectiveEvolutionTest {
+
+	/**
+	 * Sorts {@code objectives} by Deb's sort, which is used for vectors of
+	 * more than two objectives. A constant third objective changes no
+	 * dominance relation between the vectors.
+	 */
+	private static int[] debSort(double[][] objectives) {
+		double[][] padded = new double[objectives.length][];
+		for (int i = 0; i < objectives.length; i++) {
+			padded[i] = new double[] { objectives[i][0], objectives[i][1], 0.0d };
+		}
+		return MultiObjectiveEvolution.nonDominatedSort(padded);
+	}
+
+	@Test
+	public void twoObjectiveSortAgreesWithDebSort() {
+		Random rand = new Random(1);
+		for (int trial = 0; trial < 200; trial++) {
+			int n = 1 + rand.nextInt(60);
+			// Few distinct values, so that ties on either objective are common
+			int values = 1 + rand.nextInt(8);
+			double[][] objectives = new double[n][2];
+			for (int i = 0; i < n; i++) {
+				objectives[i][0] = rand.nextInt(values);
+				objectives[i][1] = rand.nextInt(values);
+			}
+			assertArrayEquals(debSort(objectives),
+					MultiObjectiveEvolution.nonDominatedSort(objectives));
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package edu.ohio_state.cse.genequeens;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Guards the genetic operators and scoring paths run once per individual per
+ * generation against allocation regressions. Operators that work in place
+ * must allocate nothing however often they run; those that create a child
+ * must allocate no more than the child.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class OperatorPerformanceTest {
+
+	private static final int BOARD_SIZE = 64;
+
+	private static final int REPETITIONS = 1000;
+
+	/**
+	 * What a task run {@link #REPETITIONS} times may allocate in all when it
+	 * allocates nothing per run: a little for the measurement itself.
+	 */
+	private static final long NOTHING = 1024;
+
+	private Random rand;
+
+	@Before
+	public void setUp() {
+		assumeTrue(AllocationMeter.isSupported());
+		this.rand = new Random(1);
+	}
+
+	/**
+	 * Measures {@code task} after running it once, so that one-time set-up
+	 * such as class loading is not counted.
+	 */
+	private static long allocationOf(Runnable task) {
+		task.run();
+		return AllocationMeter.measure(task);
+	}
+
+	private static void assertWithin(String what, long actual, long budget) {
+		assertTrue(String.format("%s: %d bytes exceeds budget of %d", what,
+				actual, budget), actual <= budget);
+	}
+
+	@Test
+	public void inPlaceOperatorsAllocateNothing() {
+		final ChessBoard board = new ChessBoard(BOARD_SIZE, this.rand);
+		final int[] a = HillClimbUtils.randomBoard(BOARD_SIZE, this.rand);
+		final int[] b = HillClimbUtils.randomBoard(BOARD_SIZE, this.rand);
+		final Random rand = this.rand;
+
+		assertWithin("ChessBoard.mutate", allocationOf(new Runnable() {
+			public void run() {
+				for (int i = 0; i < REPETITIONS; i++) {
+					board.mutate(1.0d / BOARD_SIZE, rand);
+				}
+			}
+		}), NOTHING);
+		assertWithin("GeneOperators.swapTails", allocationOf(new Runnable() {
+			public void run() {
+				for (int i = 0; i < REPETITIONS; i++) {
+					GeneOperators.swapTails(a, b,
+							GeneOperators.crossoverPoint(BOARD_SIZE, rand));
+				}
+			}
+		}), NOTHING);
+		assertWithin("GeneOperators.mutateUniform", allocationOf(new Runnable() {
+			public void run() {
+				for (int i = 0; i < REPETITIONS; i++) {
+					GeneOperators.mutateUniform(a, BOARD_SIZE,
+							1.0d / BOARD_SIZE, rand);
+				}
+			}
+		}), NOTHING);
+		for (final Crossover crossover : Crossover.values()) {
+			assertWithin("Crossover." + crossover, allocationOf(new Runnable() {
+				public void run() {
+					for (int i = 0; i < REPETITIONS; i++) {
+						crossover.cross(a, b, rand);
+					}
+				}
+			}), NOTHING);
+		}
+	}
+
+	@Test
+	public void crossoverAllocatesOnlyTheChild() {
+		final ChessBoard a = new ChessBoard(BOARD_SIZE, this.rand);
+		final ChessBoard b = new ChessBoard(BOARD_SIZE, this.rand);
+		final Random rand = this.rand;
+		// The board, its genes, and slack for object headers and alignment
+		final long child = 4 * BOARD_SIZE + 128;
+		for (final Crossover crossover : Crossover.values()) {
+			assertWithin("ChessBoard.exchangeGenes, " + crossover,
+					allocationOf(new Runnable() {
+						public void run() {
+							for (int i = 0; i < REPETITIONS; i++) {
+								a.exchangeGenes(b, crossover, rand);
+							}
+						}
+					}), REPETITIONS * child);
+		}
+	}
+
+	@Test
+	public void scoringAllocatesNothingPerBoard() {
+		final HistogramScoringKernel kernel = new HistogramScoringKernel();
+		final int[] genomes = new int[BOARD_SIZE * REPETITIONS];
+		for (int i = 0; i < genomes.length; i++) {
+			genomes[i] = this.rand.nextInt(BOARD_SIZE);
+		}
+		assertWithin("HistogramScoringKernel", allocationOf(new Runnable() {
+			public void run() {
+				for (int i = 0; i < REPETITIONS; i++) {
+					kernel.countAttackingPairs(genomes, i * BOARD_SIZE,
+							BOARD_SIZE);
+				}
+			}
+		}), NOTHING);
+
+		final SuccessorIterator successors = new SuccessorIterator(
+				HillClimbUtils.randomBoard(BOARD_SIZE, this.rand), null,
+				this.rand);
+		assertWithin("SuccessorIterator.advance", allocationOf(new Runnable() {
+			public void run() {
+				successors.restart();
+				while (successors.advance()) {
+					// Score every successor
+				}
+			}
+		}), NOTHING);
+
+		final OffHeapGenomeStore store = new OffHeapGenomeStore(REPETITIONS,
+				BOARD_SIZE);
+		final int[] scratch = new int[BOARD_SIZE];
+		final Random rand = this.rand;
+		try {
+			assertWithin("OffHeapGenomeStore", allocationOf(new Runnable() {
+				public void run() {
+					for (int i = 0; i < REPETITIONS; i++) {
+						store.randomize(i, rand);
+						store.mutate(i, 1.0d / BOARD_SIZE, rand);
+						store.score(i, kernel, scratch);
+					}
+				}
+			}), NOTHING);
+		} finally {
+			store.close();
+		}
+	}
+
+	@Test
+	public void batchScoringAllocatesOnlyTheScores() {
+		final List<ChessBoard> boards = new ArrayList<ChessBoard>(REPETITIONS);
+		for (int i = 0; i < REPETITIONS; i++) {
+			boards.add(new ChessBoard(BOARD_SIZE, this.rand));
+		}
+		final BatchScorer scorer = new BatchScorer(1);
+		try {
+			final double[] total = new double[1];
+			// The genome matrix is reused; the scores are returned in a new array
+			assertWithin("BatchScorer.scoreBoards", allocationOf(new Runnable() {
+				public void run() {
+					total[0] = scorer.scoreBoards(boards, null);
+				}
+			}), 8 * REPETITIONS + NOTHING);
+
+			double expected = 0.0d;
+			for (ChessBoard board : boards) {
+				expected += board.copy().evaluateFitness();
+			}
+			assertEquals(expected, total[0], 0.0d);
+		} finally {
+			scorer.shutdown();
+		}
+	}
+}
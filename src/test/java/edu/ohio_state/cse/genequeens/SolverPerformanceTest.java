@@ -0,0 +1,295 @@
+package edu.ohio_state.cse.genequeens;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Guards the search agents against algorithmic regressions. For fixed seeds,
+ * the number of candidate solutions each agent scores, as counted by
+ * {@link EvaluationCounter}, must be reproducible and within a budget, and
+ * the bytes it allocates must be within a budget. Budgets are a few times the
+ * measured cost, so they fail on a change of complexity, such as building
+ * every successor of a state to take one, rather than on noise.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class SolverPerformanceTest {
+
+	private static final int SEEDS = 10;
+
+	/**
+	 * Solves a board of {@code boardSize} queens for each of the first
+	 * {@link #SEEDS} seeds, failing if any goes unsolved.
+	 */
+	private static Runnable solveAll(final Solver solver, final int boardSize,
+			final long budget) {
+		return new Runnable() {
+			public void run() {
+				for (int seed = 0; seed < SEEDS; seed++) {
+					assertNotNull(solver + " failed on seed " + seed,
+							solver.solve(boardSize, new Random(seed), budget,
+									null));
+				}
+			}
+		};
+	}
+
+	private static Runnable climbAll(HillClimbUtils.Strategy strategy,
+			int boardSize) {
+		return climbAll(strategy, Initializer.RANDOM, boardSize);
+	}
+
+	private static Runnable climbAll(final HillClimbUtils.Strategy strategy,
+			final Initializer initializer, final int boardSize) {
+		return new Runnable() {
+			public void run() {
+				for (int seed = 0; seed < SEEDS; seed++) {
+					assertNotNull(strategy + " failed on seed " + seed,
+							HillClimbUtils.hillClimbingAgent(
+									new BoardConstraints(boardSize), strategy,
+									initializer, new Random(seed), 0,
+									HillClimbUtils.DEFAULT_SIDEWAYS_MOVES));
+				}
+			}
+		};
+	}
+
+	private static long countEvaluations(Runnable task) {
+		long before = EvaluationCounter.get();
+		task.run();
+		return EvaluationCounter.get() - before;
+	}
+
+	/**
+	 * Runs {@code task} twice, checking that it scores the same number of
+	 * candidates each time.
+	 */
+	private static long reproducibleEvaluations(Runnable task) {
+		long first = countEvaluations(task);
+		assertEquals("evaluation count is not reproducible", first,
+				countEvaluations(task));
+		return first;
+	}
+
+	private static void assertWithin(String what, long actual, long budget) {
+		assertTrue(String.format("%s: %d exceeds budget of %d", what, actual,
+				budget), actual <= budget);
+	}
+
+	@Test
+	public void everySolverIsReproducible() {
+		for (Solver solver : Solver.values()) {
+			long budget = solver == Solver.GENETIC || solver == Solver.MEMETIC ? 1000
+					: 0;
+			assertTrue(reproducibleEvaluations(solveAll(solver, 8, budget)) > 0);
+		}
+	}
+
+	@Test
+	public void steepestAscentScoresEverySuccessorOnce() {
+		int boardSize = 32;
+		SuccessorIterator successors = new SuccessorIterator(
+				HillClimbUtils.randomBoard(boardSize, new Random(1)));
+		long before = EvaluationCounter.get();
+		while (successors.advance()) {
+			// Walk the whole neighbourhood
+		}
+		assertEquals(boardSize * (boardSize - 1), EvaluationCounter.get()
+				- before);
+	}
+
+	@Test
+	public void hillClimbingStaysWithinBudgets() {
+		assertWithin("steepest ascent, 16 queens",
+				reproducibleEvaluations(climbAll(
+						HillClimbUtils.Strategy.STEEPEST_ASCENT, 16)), 200000);
+		assertWithin("first improvement, 16 queens",
+				reproducibleEvaluations(climbAll(
+						HillClimbUtils.Strategy.FIRST_IMPROVEMENT, 16)), 150000);
+		assertWithin("random first improvement, 16 queens",
+				reproducibleEvaluations(climbAll(
+						HillClimbUtils.Strategy.RANDOM_FIRST_IMPROVEMENT, 16)),
+				100000);
+		assertWithin("random first improvement, 64 queens",
+				reproducibleEvaluations(climbAll(
+						HillClimbUtils.Strategy.RANDOM_FIRST_IMPROVEMENT, 64)),
+				2000000);
+	}
+
+	@Test
+	public void firstImprovementScoresFewerSuccessors() {
+		long steepest = countEvaluations(climbAll(
+				HillClimbUtils.Strategy.STEEPEST_ASCENT, 32));
+		long first = countEvaluations(climbAll(
+				HillClimbUtils.Strategy.RANDOM_FIRST_IMPROVEMENT, 32));
+		assertTrue(String.format("%d evaluations against %d", first, steepest),
+				first < steepest);
+	}
+
+	@Test
+	public void greedyInitializationShortensTheSearch() {
+		long random = reproducibleEvaluations(climbAll(
+				HillClimbUtils.Strategy.MIN_CONFLICTS, Initializer.RANDOM, 256));
+		long greedy = reproducibleEvaluations(climbAll(
+				HillClimbUtils.Strategy.MIN_CONFLICTS, Initializer.GREEDY, 256));
+		assertTrue(String.format("%d evaluations against %d", greedy, random),
+				greedy < random / 2);
+	}
+
+	@Test
+	public void populationsAreLaidOutReproducibly() {
+		// Large enough to be laid out on several threads
+		BoardConstraints constraints = new BoardConstraints(256);
+		for (Initializer initializer : Initializer.values()) {
+			List<Evolvable> first = initializer.populate(constraints, 1000,
+					new Random(1));
+			List<Evolvable> second = initializer.populate(constraints, 1000,
+					new Random(1));
+			assertEquals(1000, first.size());
+			for (int i = 0; i < first.size(); i++) {
+				assertEquals(initializer + " board " + i,
+						((ChessBoard) first.get(i)).getGenomeHash(),
+						((ChessBoard) second.get(i)).getGenomeHash());
+			}
+		}
+	}
+
+	@Test
+	public void hillClimbingAllocatesNothingPerMove() {
+		assumeTrue(AllocationMeter.isSupported());
+		for (HillClimbUtils.Strategy strategy : HillClimbUtils.Strategy
+				.values()) {
+			Runnable climbs = climbAll(strategy, 64);
+			climbs.run();
+			// A few kilobytes of set-up per climb, whatever its length
+			assertWithin(strategy + " bytes allocated, 64 queens",
+					AllocationMeter.measure(climbs), SEEDS * 16 * 1024);
+		}
+	}
+
+	@Test
+	public void simulatedAnnealingStaysWithinBudgets() {
+		final int boardSize = 8;
+		final long iterations = 200;
+		long evaluations = reproducibleEvaluations(new Runnable() {
+			public void run() {
+				for (int seed = 0; seed < SEEDS; seed++) {
+					AnnealingUtils.simulatedAnnealingAgent(
+							new BoardConstraints(boardSize),
+							Solver.ANNEALING_TEMPERATURE, new Random(seed),
+							iterations);
+				}
+			}
+		});
+		// One random successor, scored from the current board, per iteration
+		assertWithin("annealing evaluations", evaluations, SEEDS * iterations);
+
+		assumeTrue(AllocationMeter.isSupported());
+		Runnable solves = solveAll(Solver.SIMULATED_ANNEALING, boardSize, 0);
+		solves.run();
+		long solveEvaluations = countEvaluations(solves);
+		// Successors are scored without being built
+		assertWithin("annealing bytes per evaluation",
+				AllocationMeter.measure(solves) / solveEvaluations, 16);
+	}
+
+	@Test
+	public void geneticAlgorithmScoresOnlyOffspring() {
+		final int generations = 50;
+		long evaluations = countEvaluations(new Runnable() {
+			public void run() {
+				// No board of 64 queens is solved this soon
+				assertEquals(null, Solver.GENETIC.solve(64, new Random(1),
+						generations, null));
+			}
+		});
+		// Elites keep their scores from one generation to the next
+		int offspring = Solver.POPULATION_SIZE
+				- new EvolutionConfig().getEliteCount();
+		assertEquals(Solver.POPULATION_SIZE + generations * offspring,
+				evaluations);
+	}
+
+	@Test
+	public void nichingScoresEachIndividualOncePerGeneration() {
+		final int generations = 20;
+		for (int mode = 0; mode < 3; mode++) {
+			EvolutionConfig config = new EvolutionConfig();
+			config.setRandom(new SeededRandom(1));
+			config.setMaxGenerations(generations);
+			if (mode == 0) {
+				config.setReplacement(EvolutionConfig.Replacement.DETERMINISTIC_CROWDING);
+			} else {
+				config.setFitnessSharing(new FitnessSharing(
+						FitnessSharing.NeighbourSampling.values()[mode - 1],
+						0.25d, 8));
+			}
+			List<Evolvable> population = new ArrayList<Evolvable>();
+			BoardConstraints constraints = new BoardConstraints(64);
+			for (int i = 0; i < Solver.POPULATION_SIZE; i++) {
+				population.add(new ChessBoard(constraints, config.getRandom()));
+			}
+			long before = EvaluationCounter.get();
+			GeneticAlgorithms.evolve(population, new ChessBoard.QueensGoal(),
+					config);
+			// Every individual is scored once per generation, and no more
+			assertEquals(Solver.POPULATION_SIZE * (1 + generations),
+					EvaluationCounter.get() - before);
+		}
+	}
+
+	@Test
+	public void geneticAlgorithmStaysWithinBudgets() {
+		Runnable solves = solveAll(Solver.GENETIC, 8, 1000);
+		assertWithin("genetic evaluations", reproducibleEvaluations(solves),
+				400000);
+
+		assumeTrue(AllocationMeter.isSupported());
+		long evaluations = countEvaluations(solves);
+		assertWithin("genetic bytes per evaluation",
+				AllocationMeter.measure(solves) / evaluations, 256);
+	}
+
+	@Test
+	public void memeticRefinementStaysWithinBudgets() {
+		// Refined offspring solve boards the plain algorithm does not in time
+		assertWithin("memetic evaluations, 16 queens",
+				reproducibleEvaluations(solveAll(Solver.MEMETIC, 16, 500)),
+				1500000);
+
+		int[] board = HillClimbUtils.randomBoard(64, new Random(1));
+		BoardConstraints constraints = new BoardConstraints(64);
+		int before = ChessBoard.countAttackingPairs(board);
+		long evaluations = EvaluationCounter.get();
+		int after = HillClimbUtils.refine(board, constraints,
+				HillClimbUtils.Strategy.MIN_CONFLICTS, 8, new Random(1));
+		// Refinement only improves, and costs no more than its moves
+		assertEquals(ChessBoard.countAttackingPairs(board), after);
+		assertTrue(after < before);
+		assertWithin("min-conflicts refinement evaluations",
+				EvaluationCounter.get() - evaluations, 8 * 64 * 63);
+	}
+
+	@Test
+	public void populationScoringCountsEveryIndividual() {
+		Random rand = new Random(1);
+		for (int size : new int[] { 8, 256 }) {
+			List<Evolvable> population = new ArrayList<Evolvable>(size);
+			for (int i = 0; i < size; i++) {
+				population.add(new ChessBoard(32, rand));
+			}
+			long before = EvaluationCounter.get();
+			GeneticAlgorithms.evaluatePopulation(population);
+			assertEquals(size, EvaluationCounter.get() - before);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package edu.ohio_state.cse.genequeens;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Checks that every {@link Solver} completes a board with fixed queens
+ * without moving any of them, and that the moves the local searches draw are
+ * successors of the board.
+ *
+ * @author Ethan Hill
+ *
+ */
+public class SolverTest {
+
+	private static final int SEEDS = 5;
+
+	@Test
+	public void constrainedSolversKeepFixedQueens() {
+		BoardConstraints constraints = BoardConstraints
+				.parse("-,-,4,-,-,-,-,1,-,-,-,-");
+		for (Solver solver : Solver.values()) {
+			int solved = 0;
+			for (int seed = 0; seed < SEEDS; seed++) {
+				int[] solution = solver.solve(constraints, new Random(seed),
+						2000, null);
+				// A search may give up within its budget
+				if (solution == null) {
+					continue;
+				}
+				solved++;
+				assertTrue(solver + " moved a fixed queen on seed " + seed,
+						constraints.isRespectedBy(solution));
+				assertEquals(solver + " left attacking queens on seed " + seed,
+						0, ChessBoard.countAttackingPairs(solution));
+			}
+			assertTrue(solver + " solved no seed", solved > 0);
+		}
+	}
+
+	@Test
+	public void randomSuccessorsCoverTheWalkedOnes() {
+		BoardConstraints constraints = BoardConstraints
+				.parse("-,-,4,-,-,-,-,1,-,-,-,-");
+		Random rand = new Random(3);
+		int[] board = constraints.randomBoard(rand);
+		SuccessorIterator successors = new SuccessorIterator(board,
+				constraints, null);
+		Set<Integer> walked = new HashSet<Integer>();
+		while (successors.advance()) {
+			walked.add(successors.getMoveColumn() * board.length
+					+ successors.getMoveRow());
+		}
+
+		Set<Integer> drawn = new HashSet<Integer>();
+		for (int draw = 0; draw < 20 * walked.size(); draw++) {
+			assertTrue(successors.advanceRandomly(rand));
+			int column = successors.getMoveColumn();
+			int row = successors.getMoveRow();
+			assertTrue("drew a move that is not a successor",
+					walked.contains(column * board.length + row));
+			drawn.add(column * board.length + row);
+			int[] moved = board.clone();
+			moved[column] = row;
+			assertEquals(ChessBoard.countAttackingPairs(moved),
+					successors.getMoveScore());
+		}
+		assertEquals(walked, drawn);
+	}
+
+	@Test
+	public void unboundedSidewaysMovesAreAccepted() {
+		BoardConstraints constraints = new BoardConstraints(8);
+		int[] solution = HillClimbUtils.hillClimbingAgent(constraints,
+				HillClimbUtils.Strategy.STEEPEST_ASCENT, Initializer.RANDOM,
+				new Random(1), 10000, Integer.MAX_VALUE);
+		assertEquals(0, ChessBoard.countAttackingPairs(solution));
+	}
+}